@@ -5,6 +5,7 @@ import server.command.commands.ExitCommand;
 
 import java.io.*;
 import java.net.Socket;
+import java.nio.charset.StandardCharsets;
 import java.util.Scanner;
 
 /**
@@ -35,8 +36,8 @@ public class Client {
     public Client(String serverHost, int serverPort) {
         try {
             socket = new Socket(serverHost, serverPort); // Conexión al servidor
-            inputReader = new BufferedReader(new InputStreamReader(socket.getInputStream())); // Lee mensajes del servidor
-            outputWriter = new PrintWriter(socket.getOutputStream(), true); // Envía comandos al servidor
+            inputReader = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8)); // Lee mensajes del servidor
+            outputWriter = new PrintWriter(new OutputStreamWriter(socket.getOutputStream(), StandardCharsets.UTF_8), true); // Envía comandos al servidor
         } catch (IOException e) {
             System.out.println(RED + "\n❌ Error al conectar con el servidor." + RESET);
         }
@@ -4,8 +4,6 @@ import common.model.Proverb;
 import server.service.ServiceRegister;
 import server.service.services.ProverbManager;
 
-import java.util.Random;
-
 /**
  * Representa una partida del juego de la ruleta.
  * <p>
@@ -23,7 +21,6 @@ public abstract class HangedGame implements Game {
      * @param serviceRegister Registro de servicios del servidor, usado para obtener un refrán.
      */
     protected HangedGame(ServiceRegister serviceRegister) {
-        ProverbManager proverbManager = serviceRegister.getService(ProverbManager.class);
-        this.proverb = proverbManager.createProverb(new Random().nextInt(proverbManager.getProverbs().size()));
+        this.proverb = serviceRegister.getService(ProverbManager.class).createRandomProverb();
     }
 }
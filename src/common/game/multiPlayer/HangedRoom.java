@@ -1,9 +1,13 @@
 package common.game.multiPlayer;
 
+import server.message.EncodedMessage;
+import server.message.MessageTemplate;
+import server.message.Messages;
 import server.thread.ClientHandler;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.locks.ReentrantLock;
 import java.util.logging.Level;
 
 /**
@@ -12,6 +16,16 @@ import java.util.logging.Level;
  * Una sala tiene un límite de 3 jugadores. Cuando la sala está llena, se inicia automáticamente
  * una partida multijugador.
  * </p>
+ * <p>
+ * El acceso concurrente se protege con un {@link ReentrantLock} en lugar de monitores
+ * {@code synchronized}, de modo que los hilos virtuales que se bloquean escribiendo a un
+ * jugador mientras tienen la sala tomada no fijan su hilo portador.
+ * </p>
+ * <p>
+ * Difundir un mensaje solo lo encola en la salida de cada jugador, por lo que un jugador que
+ * no lee su conexión no retrasa al resto. Lo que se descarta o se desconecta por esa causa
+ * queda registrado en las {@link RoomMetrics} de la sala.
+ * </p>
  */
 public class HangedRoom {
     private static final int MAX_USERS = 3; // Número máximo de jugadores en la sala.
@@ -19,6 +33,9 @@ public class HangedRoom {
     private final List<ClientHandler> players; // Lista de jugadores en la sala.
     private MultiplayerHangedGame gameSession; // Sesión de juego en curso dentro de la sala.
     private boolean gameStarted = false; // Indica si el juego ha comenzado en esta sala.
+    private boolean closed = false; // Indica si la sala ya ha sido eliminada del gestor de salas.
+    private final ReentrantLock lock = new ReentrantLock(); // Cerrojo que protege el estado de la sala.
+    private final RoomMetrics metrics = new RoomMetrics(); // Métricas de envío a los jugadores de la sala.
 
     /**
      * Crea una nueva sala con un nombre y un jugador propietario.
@@ -39,24 +56,35 @@ public class HangedRoom {
      *
      * @param player Jugador a agregar.
      */
-    public synchronized void addPlayer(ClientHandler player) {
-        // Si la sala ya está llena, se notifica al jugador.
-        if (players.size() >= MAX_USERS) {
-            player.getOutput().println("La sala está llena.");
-            return;
-        }
+    public void addPlayer(ClientHandler player) {
+        lock.lock();
+        try {
+            // Si la sala ya ha sido eliminada, no se admiten nuevos jugadores.
+            if (closed) {
+                player.sendMessageBoth(Level.WARNING, Messages.ROOM_NOT_FOUND);
+                return;
+            }
 
-        // Notifica a los demás jugadores que un nuevo jugador ha entrado.
-        player.sendMessageBoth(Level.INFO, player.getFormatedUser() + " ha entrado a la sala " + this.getRoomName());
-        players.add(player); // Se agrega el jugador a la lista de jugadores.
-        player.setCurrentRoom(this); // Se asigna la sala al nuevo jugador.
+            // Si la sala ya está llena, se notifica al jugador.
+            if (players.size() >= MAX_USERS) {
+                player.getOutput().println(Messages.ROOM_FULL);
+                return;
+            }
+
+            // Notifica a los demás jugadores que un nuevo jugador ha entrado.
+            player.sendMessageBoth(Level.INFO, player.getFormatedUser() + " ha entrado a la sala " + this.getRoomName());
+            players.add(player); // Se agrega el jugador a la lista de jugadores.
+            player.setCurrentRoom(this); // Se asigna la sala al nuevo jugador.
 
-        // Se notifica a todos los jugadores sobre la llegada del nuevo jugador.
-        broadcast("Jugador " + player.getCurrentUser().getUsername() + " se ha unido.");
+            // Se notifica a todos los jugadores sobre la llegada del nuevo jugador.
+            broadcast(Messages.ROOM_PLAYER_JOINED, player.getCurrentUser().getUsername());
 
-        // Si se alcanza el número máximo de jugadores, comienza la partida.
-        if (players.size() == MAX_USERS) {
-            startGame();
+            // Si se alcanza el número máximo de jugadores, comienza la partida.
+            if (players.size() == MAX_USERS) {
+                startGame();
+            }
+        } finally {
+            lock.unlock();
         }
     }
 
@@ -65,13 +93,13 @@ public class HangedRoom {
      */
     private void startGame() {
         gameStarted = true; // Se marca la partida como iniciada.
-        gameSession = new MultiplayerHangedGame(players, players.get(0).getServiceRegister());
+        gameSession = new MultiplayerHangedGame(players, players.get(0).getServiceRegister(), metrics);
         // Se crea una nueva sesión de juego con los jugadores y el servicio de registro.
-        broadcast("La partida ha comenzado.");
+        broadcast(Messages.ROOM_GAME_STARTED);
         try {
             gameSession.startGame(); // Se inicia el juego.
         } catch (Exception e) {
-            broadcast("Error al iniciar la partida en la sala " + roomName); // En caso de error, se notifica.
+            broadcast(Messages.ROOM_START_ERROR, roomName); // En caso de error, se notifica.
         }
     }
 
@@ -81,9 +109,14 @@ public class HangedRoom {
      * @param consonant Consonante adivinada.
      * @param player    Jugador que realiza la suposición.
      */
-    public synchronized void playerGuessConsonant(char consonant, ClientHandler player) {
-        if (gameSession != null) {
-            gameSession.guessConsonant(consonant, player); // Se pasa la suposición al juego.
+    public void playerGuessConsonant(char consonant, ClientHandler player) {
+        lock.lock();
+        try {
+            if (gameSession != null) {
+                gameSession.guessConsonant(consonant, player); // Se pasa la suposición al juego.
+            }
+        } finally {
+            lock.unlock();
         }
     }
 
@@ -93,9 +126,14 @@ public class HangedRoom {
      * @param vowel  Vocal adivinada.
      * @param player Jugador que realiza la suposición.
      */
-    public synchronized void playerGuessVowel(char vowel, ClientHandler player) {
-        if (gameSession != null) {
-            gameSession.guessVowel(vowel, player); // Se pasa la suposición al juego.
+    public void playerGuessVowel(char vowel, ClientHandler player) {
+        lock.lock();
+        try {
+            if (gameSession != null) {
+                gameSession.guessVowel(vowel, player); // Se pasa la suposición al juego.
+            }
+        } finally {
+            lock.unlock();
         }
     }
 
@@ -105,9 +143,14 @@ public class HangedRoom {
      * @param proverb Refrán propuesto como solución.
      * @param player  Jugador que intenta resolver el refrán.
      */
-    public synchronized void playerResolve(String proverb, ClientHandler player) {
-        if (gameSession != null) {
-            gameSession.resolveProverb(proverb, player); // Se pasa la resolución del refrán al juego.
+    public void playerResolve(String proverb, ClientHandler player) {
+        lock.lock();
+        try {
+            if (gameSession != null) {
+                gameSession.resolveProverb(proverb, player); // Se pasa la resolución del refrán al juego.
+            }
+        } finally {
+            lock.unlock();
         }
     }
 
@@ -117,34 +160,96 @@ public class HangedRoom {
      * @param player   Jugador que se retira de la sala.
      * @param gameOver Indica si el juego ha finalizado.
      */
-    public synchronized void removePlayer(ClientHandler player, boolean gameOver) {
-        players.remove(player); // Se elimina al jugador de la lista.
-        broadcast("Jugador " + player.getCurrentUser().getUsername() + " ha abandonado la partida.");
+    public void removePlayer(ClientHandler player, boolean gameOver) {
+        lock.lock();
+        try {
+            players.remove(player); // Se elimina al jugador de la lista.
+            broadcast(Messages.ROOM_PLAYER_LEFT, player.getCurrentUser().getUsername());
 
-        player.setCurrentRoom(null); // Se desasocia la sala del jugador.
+            player.setCurrentRoom(null); // Se desasocia la sala del jugador.
 
-        // Si el juego no ha terminado, se maneja la desconexión.
-        if (!gameOver) {
-            if (gameSession != null) {
-                gameSession.handlePlayerDisconnect(player); // Se maneja la desconexión del jugador en la partida.
-            }
+            // Si el juego no ha terminado, se maneja la desconexión.
+            if (!gameOver) {
+                if (gameSession != null) {
+                    gameSession.handlePlayerDisconnect(player); // Se maneja la desconexión del jugador en la partida.
+                }
 
-            // Si no quedan jugadores, se marca la sala como vacía.
-            if (players.isEmpty()) {
-                gameStarted = false;
+                // Si no quedan jugadores, se marca la sala como vacía.
+                if (players.isEmpty()) {
+                    gameStarted = false;
+                }
             }
+        } finally {
+            lock.unlock();
         }
     }
 
     /**
-     * Envía un mensaje a todos los jugadores de la sala.
+     * Envía un mensaje del catálogo a todos los jugadores de la sala.
      *
      * @param message Mensaje a enviar.
      */
-    public synchronized void broadcast(String message) {
-        // Se envía el mensaje a todos los jugadores de la sala.
-        for (ClientHandler player : players) {
-            player.getOutput().println(message);
+    public void broadcast(EncodedMessage message) {
+        lock.lock();
+        try {
+            // Se envía el mensaje a todos los jugadores de la sala.
+            metrics.recordBroadcast();
+            for (ClientHandler player : players) {
+                player.getOutput().println(message);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Envía un mensaje compuesto a partir de una plantilla a todos los jugadores de la sala.
+     *
+     * @param template Plantilla del mensaje.
+     * @param args     Argumentos de la plantilla.
+     */
+    public void broadcast(MessageTemplate template, Object... args) {
+        lock.lock();
+        try {
+            metrics.recordBroadcast();
+            for (ClientHandler player : players) {
+                player.getOutput().println(template, args);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Marca la sala como eliminada si no quedan jugadores en ella.
+     * <p>
+     * Se comprueba y se marca bajo el cerrojo de la sala para que ningún jugador pueda
+     * unirse entre la comprobación y la eliminación de la sala en el gestor.
+     * </p>
+     *
+     * @return {@code true} si la sala estaba vacía y ha quedado cerrada.
+     */
+    public boolean closeIfEmpty() {
+        lock.lock();
+        try {
+            if (players.isEmpty()) {
+                closed = true;
+            }
+            return closed;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Marca la sala como eliminada, impidiendo que nuevos jugadores se unan a ella.
+     */
+    public void close() {
+        lock.lock();
+        try {
+            closed = true;
+        } finally {
+            lock.unlock();
         }
     }
 
@@ -157,6 +262,15 @@ public class HangedRoom {
         return "Players: (" + players.size() + "/" + MAX_USERS + ")";
     }
 
+    /**
+     * Devuelve el número de jugadores en la sala.
+     *
+     * @return Número de jugadores actuales.
+     */
+    public int getPlayerCount() {
+        return players.size();
+    }
+
     /**
      * Verifica si la sala está vacía.
      *
@@ -175,6 +289,10 @@ public class HangedRoom {
         return roomName;
     }
 
+    public RoomMetrics getMetrics() {
+        return metrics;
+    }
+
     /**
      * Verifica si el juego ha comenzado en la sala.
      *
@@ -2,14 +2,21 @@ package common.game.multiPlayer;
 
 import common.game.HangedGame;
 import common.game.score.ScoreManager;
+import common.logger.CustomLogger;
 import common.model.User;
+import server.message.EncodedMessage;
+import server.message.MessageTemplate;
+import server.message.Messages;
+import server.protocol.GameEvents;
 import server.service.services.RoomManager;
 import server.thread.ClientHandler;
 import server.service.ServiceRegister;
 import server.service.services.UserManager;
 
+import java.util.ArrayList;
 import java.util.List;
 import java.util.logging.Level;
+import java.util.logging.Logger;
 
 /**
  * Representa una partida de ahorcado en la modalidad multijugador.
@@ -24,30 +31,35 @@ import java.util.logging.Level;
 
 // TODO refactorizar esta abominación
 public class MultiplayerHangedGame extends HangedGame {
-    private final List<ClientHandler> players; // Lista de jugadores en la partida.
+    private static final Logger logger = CustomLogger.getLogger(MultiplayerHangedGame.class.getName());
+    private final List<ClientHandler> players; // Jugadores en la partida, en orden de turno.
     private final RoomManager roomManager; // Gestor de salas.
-    private final ScoreManager[] scoreManagers; // Gestores de puntuación para cada jugador.
+    private final List<ScoreManager> scoreManagers; // Gestores de puntuación, en el mismo orden que los jugadores.
+    private final RoomMetrics metrics; // Métricas de envío de la sala.
     private int currentTurnIndex = 0; // Índice del jugador cuyo turno es el actual.
 
     /**
      * Crea una nueva instancia de la partida multijugador.
      *
-     * @param players         Lista de jugadores en la partida.
+     * @param players         Lista de jugadores en la partida. Se copia: la partida lleva su propio
+     *                        orden de turno aunque la sala modifique su lista.
      * @param serviceRegister Registro de servicios para acceder a otras funcionalidades.
+     * @param metrics         Métricas de envío de la sala.
      */
-    public MultiplayerHangedGame(List<ClientHandler> players, ServiceRegister serviceRegister) {
+    public MultiplayerHangedGame(List<ClientHandler> players, ServiceRegister serviceRegister, RoomMetrics metrics) {
         super(serviceRegister);
 
-        this.players = players;
+        this.players = new ArrayList<>(players);
+        this.metrics = metrics;
         this.roomManager = serviceRegister.getService(RoomManager.class);
-        this.scoreManagers = new ScoreManager[players.size()];
+        this.scoreManagers = new ArrayList<>(players.size());
 
         UserManager userManager = serviceRegister.getService(UserManager.class);
 
         // Se inicializa el gestor de puntuaciones para cada jugador.
-        for (int i = 0; i < players.size(); i++) {
-            User user = players.get(i).getCurrentUser();
-            this.scoreManagers[i] = new ScoreManager(userManager, user, players.get(i).getOutput());
+        for (ClientHandler player : this.players) {
+            User user = player.getCurrentUser();
+            this.scoreManagers.add(new ScoreManager(userManager, user, player.getOutput()));
         }
     }
 
@@ -56,8 +68,8 @@ public class MultiplayerHangedGame extends HangedGame {
      */
     @Override
     public void startGame() {
-        broadcast("Iniciando una nueva partida...");
-        broadcast("Frase oculta: " + proverb); // Se muestra la frase oculta al inicio.
+        broadcast(Messages.GAME_STARTING);
+        broadcastProverb("Frase oculta: "); // Se muestra la frase oculta al inicio.
         announceTurn(); // Anuncia el turno del primer jugador.
     }
 
@@ -74,25 +86,22 @@ public class MultiplayerHangedGame extends HangedGame {
 
         // Verifica si es el turno del jugador
         if (!player.equals(currentPlayer)) {
-            player.getOutput().println("No es tu turno");
+            player.getOutput().println(Messages.NOT_YOUR_TURN);
             return;
         }
 
-        ScoreManager currentScore = scoreManagers[currentTurnIndex];
+        ScoreManager currentScore = scoreManagers.get(currentTurnIndex);
 
         // Procesa la adivinanza de la consonante
         currentScore.incrementTries();
         boolean correct = proverb.guessConsonant(consonant);
 
-        if (correct) {
-            broadcast("¡" + currentPlayer.getCurrentUser().getUsername() + " ha acertado la consonante '" + consonant + "'!");
-        } else {
-            broadcast(currentPlayer.getCurrentUser().getUsername() + " ha fallado con la '" + consonant + "'.");
-        }
+        String username = currentPlayer.getCurrentUser().getUsername();
+        broadcastGuess(username, consonant, correct, correct ? Messages.CONSONANT_HIT : Messages.LETTER_MISS);
 
         nextTurn(); // Cambia al siguiente turno.
 
-        broadcast("Frase actual: " + proverb); // Muestra la frase actual.
+        broadcastProverb("Frase actual: "); // Muestra la frase actual.
         checkGameOver(); // Verifica si el juego ha terminado.
     }
 
@@ -109,25 +118,22 @@ public class MultiplayerHangedGame extends HangedGame {
 
         // Verifica si es el turno del jugador
         if (!player.equals(currentPlayer)) {
-            player.getOutput().println("No es tu turno");
+            player.getOutput().println(Messages.NOT_YOUR_TURN);
             return;
         }
 
-        ScoreManager currentScore = scoreManagers[currentTurnIndex];
+        ScoreManager currentScore = scoreManagers.get(currentTurnIndex);
 
         // Procesa la adivinanza de la vocal
         currentScore.incrementTries();
         boolean correct = proverb.guessVowel(vowel);
 
-        if (correct) {
-            broadcast("¡" + currentPlayer.getCurrentUser().getUsername() + " ha acertado la vocal '" + vowel + "'!");
-        } else {
-            broadcast(currentPlayer.getCurrentUser().getUsername() + " ha fallado con la '" + vowel + "'.");
-        }
+        String username = currentPlayer.getCurrentUser().getUsername();
+        broadcastGuess(username, vowel, correct, correct ? Messages.VOWEL_HIT : Messages.LETTER_MISS);
 
         nextTurn(); // Cambia al siguiente turno.
 
-        broadcast("Frase actual: " + proverb); // Muestra la frase actual.
+        broadcastProverb("Frase actual: "); // Muestra la frase actual.
         checkGameOver(); // Verifica si el juego ha terminado.
     }
 
@@ -144,20 +150,20 @@ public class MultiplayerHangedGame extends HangedGame {
 
         // Verifica si es el turno del jugador
         if (!player.equals(currentPlayer)) {
-            player.getOutput().println("No es tu turno");
+            player.getOutput().println(Messages.NOT_YOUR_TURN);
             return;
         }
 
-        ScoreManager currentScore = scoreManagers[currentTurnIndex];
+        ScoreManager currentScore = scoreManagers.get(currentTurnIndex);
 
         // Intenta resolver el proverbio
         if (proverb.resolveProverb(phrase)) {
-            broadcast("¡" + currentPlayer.getCurrentUser().getUsername() + " ha resuelto la frase correctamente! Frase: " + this.proverb.getText());
+            broadcast(Messages.PLAYER_SOLVED, currentPlayer.getCurrentUser().getUsername(), this.proverb.getText());
             currentScore.addScore(); // Se añade puntuación si se resuelve correctamente.
             endGame(); // Finaliza el juego si se resuelve el proverbio.
         } else {
-            broadcast(currentPlayer.getCurrentUser().getUsername() + " ha fallado al intentar resolver la frase.");
-            broadcast("Lo siento, pero esa no es la frase correcta.");
+            broadcast(Messages.PLAYER_FAILED_SOLVE, currentPlayer.getCurrentUser().getUsername());
+            broadcast(Messages.WRONG_SOLUTION);
             nextTurn(); // Cambia al siguiente turno si la respuesta es incorrecta.
         }
     }
@@ -170,22 +176,16 @@ public class MultiplayerHangedGame extends HangedGame {
         announceTurn(); // Anuncia el turno del siguiente jugador.
     }
 
-    /**
-     * Obtiene al jugador cuyo turno es el actual.
-     *
-     * @return Jugador cuyo turno es el actual.
-     */
-    private ClientHandler isTurn() {
-        return players.get(currentTurnIndex);
-    }
-
     /**
      * Anuncia el turno del jugador actual.
      */
     private void announceTurn() {
         ClientHandler currentPlayer = players.get(currentTurnIndex);
-        broadcast("Turno de " + currentPlayer.getCurrentUser().getUsername() + ".");
-        currentPlayer.sendMessageBoth(Level.INFO, "Es tu turno.");
+        String username = currentPlayer.getCurrentUser().getUsername();
+        for (ClientHandler player : players) {
+            GameEvents.turn(player.getOutput(), username, player.equals(currentPlayer));
+        }
+        logger.log(Level.INFO, "Turno de {0}.", username);
     }
 
     /**
@@ -193,7 +193,7 @@ public class MultiplayerHangedGame extends HangedGame {
      */
     private void checkGameOver() {
         if (proverb.isRevealed()) {
-            broadcast("¡La frase ha sido completada! Frase: " + proverb.getText());
+            broadcast(Messages.PROVERB_COMPLETED, proverb.getText());
             endGame(); // Termina el juego si la frase ha sido completada.
         }
     }
@@ -203,20 +203,20 @@ public class MultiplayerHangedGame extends HangedGame {
      */
     private void endGame() {
         gameOver = true;
-        broadcast("La partida ha terminado.");
+        broadcast(Messages.GAME_OVER);
 
         // Determina el ganador
         ClientHandler winner = players.get(currentTurnIndex);
-        ScoreManager winnerScore = scoreManagers[currentTurnIndex];
+        ScoreManager winnerScore = scoreManagers.get(currentTurnIndex);
 
         winnerScore.printFinalScore(true); // Muestra la puntuación final del ganador.
 
-        broadcast("El ganador ha sido: " + winner.getCurrentUser().getUsername());
+        broadcast(Messages.WINNER, winner.getCurrentUser().getUsername());
 
         // Muestra la puntuación final de los demás jugadores.
         for (int i = 0; i < players.size(); i++) {
             if (i != currentTurnIndex) {
-                scoreManagers[i].printFinalScore(false);
+                scoreManagers.get(i).printFinalScore(false);
             }
         }
 
@@ -227,36 +227,88 @@ public class MultiplayerHangedGame extends HangedGame {
     }
 
     /**
-     * Envía un mensaje a todos los jugadores en la partida.
+     * Envía un mensaje del catálogo a todos los jugadores en la partida.
      *
      * @param message Mensaje a enviar.
      */
-    private void broadcast(String message) {
+    private void broadcast(EncodedMessage message) {
+        metrics.recordBroadcast();
         for (ClientHandler player : players) {
             player.getOutput().println(message);
         }
     }
 
+    /**
+     * Envía un mensaje compuesto a partir de una plantilla a todos los jugadores en la partida.
+     *
+     * @param template Plantilla del mensaje.
+     * @param args     Argumentos de la plantilla.
+     */
+    private void broadcast(MessageTemplate template, Object... args) {
+        metrics.recordBroadcast();
+        for (ClientHandler player : players) {
+            player.getOutput().println(template, args);
+        }
+    }
+
+    /**
+     * Envía a todos los jugadores el estado actual del refrán.
+     *
+     * @param label Texto que precede al refrán en el protocolo de texto.
+     */
+    private void broadcastProverb(String label) {
+        metrics.recordBroadcast();
+        for (ClientHandler player : players) {
+            GameEvents.proverb(player.getOutput(), label, proverb);
+        }
+    }
+
+    /**
+     * Envía a todos los jugadores el resultado de una suposición.
+     *
+     * @param username Jugador que ha realizado la suposición.
+     * @param letter   Letra propuesta.
+     * @param correct  Indica si la letra está en el refrán.
+     * @param template Plantilla del mensaje que se envía en el protocolo de texto, con el
+     *                 jugador y la letra como argumentos.
+     */
+    private void broadcastGuess(String username, char letter, boolean correct, MessageTemplate template) {
+        metrics.recordBroadcast();
+        for (ClientHandler player : players) {
+            GameEvents.guess(player.getOutput(), username, letter, correct, template);
+        }
+    }
+
     /**
      * Maneja la desconexión de un jugador durante la partida.
      *
      * @param player Jugador que se ha desconectado.
      */
     public void handlePlayerDisconnect(ClientHandler player) {
-        players.remove(player);
+        int seat = players.indexOf(player);
+        if (seat < 0) {
+            return; // Ya no estaba en la partida
+        }
+        players.remove(seat);
+        scoreManagers.remove(seat);
 
         // Si quedan menos de 2 jugadores, finaliza la partida.
         if (players.size() < 2) {
-            broadcast("No hay suficientes jugadores para continuar. La partida termina.");
-            roomManager.leaveRoom(players.get(0), true);
+            broadcast(Messages.NOT_ENOUGH_PLAYERS);
             gameOver = true;
+            if (!players.isEmpty()) {
+                roomManager.leaveRoom(players.get(0), true);
+            }
+            return;
         }
 
-        // Si el jugador desconectado es el que tiene el turno, pasa al siguiente.
-        if (isTurn().equals(player)) {
-            nextTurn();
-        } else {
-            announceTurn();
+        // Los asientos posteriores retroceden uno: el turno sigue con el mismo jugador, o pasa
+        // al siguiente si el que se ha ido era el que tenía el turno.
+        if (seat < currentTurnIndex) {
+            currentTurnIndex--;
+        } else if (currentTurnIndex >= players.size()) {
+            currentTurnIndex = 0;
         }
+        announceTurn();
     }
 }
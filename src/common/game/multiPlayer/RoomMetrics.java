@@ -0,0 +1,77 @@
+package common.game.multiPlayer;
+
+import server.buffer.OutboundQueue;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Métricas de envío de mensajes de una sala.
+ * <p>
+ * Cuentan los mensajes difundidos a los jugadores y cómo se ha tratado a los jugadores lentos:
+ * mensajes descartados o condensados al superar su cola de salida el límite, desconexiones y
+ * el máximo de bytes pendientes observado en esos casos.
+ * </p>
+ *
+ * @see HangedRoom
+ * @see OutboundQueue
+ */
+public class RoomMetrics {
+    private final LongAdder broadcasts = new LongAdder(); // Mensajes difundidos a todos los jugadores.
+    private final LongAdder droppedMessages = new LongAdder(); // Mensajes nuevos descartados.
+    private final LongAdder coalescedMessages = new LongAdder(); // Veces que se descartaron mensajes antiguos.
+    private final LongAdder slowConsumerDisconnects = new LongAdder(); // Jugadores desconectados por lentos.
+    private final AtomicLong peakQueuedBytes = new AtomicLong(); // Máximo de bytes pendientes de un jugador.
+
+    /**
+     * Registra un mensaje difundido a todos los jugadores.
+     */
+    public void recordBroadcast() {
+        broadcasts.increment();
+    }
+
+    /**
+     * Registra lo ocurrido al encolar un mensaje a un jugador lento.
+     *
+     * @param result      Resultado de encolar el mensaje.
+     * @param queuedBytes Bytes pendientes en la cola del jugador.
+     */
+    public void recordOverflow(OutboundQueue.Result result, long queuedBytes) {
+        switch (result) {
+            case DROPPED -> droppedMessages.increment();
+            case COALESCED -> coalescedMessages.increment();
+            case OVERFLOW -> slowConsumerDisconnects.increment();
+            default -> {
+                return;
+            }
+        }
+        peakQueuedBytes.accumulateAndGet(queuedBytes, Math::max);
+    }
+
+    public long getBroadcasts() {
+        return broadcasts.sum();
+    }
+
+    public long getDroppedMessages() {
+        return droppedMessages.sum();
+    }
+
+    public long getCoalescedMessages() {
+        return coalescedMessages.sum();
+    }
+
+    public long getSlowConsumerDisconnects() {
+        return slowConsumerDisconnects.sum();
+    }
+
+    public long getPeakQueuedBytes() {
+        return peakQueuedBytes.get();
+    }
+
+    @Override
+    public String toString() {
+        return "difusiones=" + getBroadcasts() + ", descartados=" + getDroppedMessages()
+                + ", condensados=" + getCoalescedMessages() + ", desconexiones=" + getSlowConsumerDisconnects()
+                + ", pico=" + getPeakQueuedBytes() + " B";
+    }
+}
@@ -1,9 +1,11 @@
 package common.game.score;
 
 import common.model.User;
+import server.message.Messages;
+import server.protocol.GameEvents;
 import server.service.services.UserManager;
+import server.thread.BatchedPrintWriter;
 
-import java.io.PrintWriter;
 
 /**
  * Gestiona el sistema de puntuación de un usuario durante una partida.
@@ -15,7 +17,7 @@ import java.io.PrintWriter;
 public class ScoreManager {
     private final UserManager userManager; // Administrador de usuarios para actualizar estadísticas.
     private final User currentUser; // Usuario actual cuyo puntaje se está gestionando.
-    private final PrintWriter output; // Salida de texto donde se imprimen los mensajes de puntuación.
+    private final BatchedPrintWriter output; // Salida de texto donde se imprimen los mensajes de puntuación.
     private int tries; // Contador de intentos realizados en la partida actual.
 
     /**
@@ -25,7 +27,7 @@ public class ScoreManager {
      * @param currentUser  Usuario actual que juega la partida.
      * @param output       Salida de texto donde se imprimen los mensajes.
      */
-    public ScoreManager(UserManager userManager, User currentUser, PrintWriter output) {
+    public ScoreManager(UserManager userManager, User currentUser, BatchedPrintWriter output) {
         this.userManager = userManager;
         this.currentUser = currentUser;
         this.output = output;
@@ -40,11 +42,12 @@ public class ScoreManager {
     }
 
     /**
-     * Calcula y agrega la puntuación al usuario en función de los intentos realizados.
+     * Calcula y agrega la puntuación al usuario en función de los intentos realizados y la
+     * anota en el sistema.
      */
     public void addScore() {
         Score score = Score.fromTries(tries);
-        currentUser.addScore(score.getScoreAmount());
+        userManager.addScore(currentUser, score.getScoreAmount());
     }
 
     /**
@@ -71,15 +74,12 @@ public class ScoreManager {
     public void printFinalScore(boolean hasWin) {
         if (hasWin) {
             Score score = Score.fromTries(tries);
-            output.println("Has logrado un puntaje de: " + score.getScoreAmount());
-            output.println("Puntuación final: " + currentUser.getScore());
+            GameEvents.score(output, score.getScoreAmount(), currentUser.getScore());
 
-            currentUser.win(1);
+            userManager.recordWin(currentUser);
         } else {
-            output.println("Respuesta incorrecta. Fin del juego.");
-            currentUser.defeat(1);
+            output.println(Messages.WRONG_ANSWER_GAME_OVER);
+            userManager.recordDefeat(currentUser);
         }
-
-        userManager.updateStatisticsUser(currentUser);
     }
 }
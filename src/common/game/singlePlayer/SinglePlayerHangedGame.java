@@ -3,10 +3,12 @@ package common.game.singlePlayer;
 import common.game.HangedGame;
 import common.game.score.ScoreManager;
 import common.model.User;
+import server.message.Messages;
 import server.service.ServiceRegister;
+import server.protocol.GameEvents;
 import server.service.services.UserManager;
+import server.thread.BatchedPrintWriter;
 
-import java.io.PrintWriter;
 
 /**
  * Representa una partida de ahorcado en la modalidad de un solo jugador.
@@ -17,7 +19,8 @@ import java.io.PrintWriter;
  */
 public class SinglePlayerHangedGame extends HangedGame {
     private final ScoreManager scoreManager; // Gestión de la puntuación durante la partida.
-    private final PrintWriter output; // Canal de salida para mostrar mensajes al jugador.
+    private final BatchedPrintWriter output; // Canal de salida para mostrar mensajes al jugador.
+    private final User user; // Usuario que juega la partida.
 
     /**
      * Crea una nueva instancia del juego de ahorcado para un solo jugador.
@@ -26,10 +29,11 @@ public class SinglePlayerHangedGame extends HangedGame {
      * @param user           Usuario que juega la partida.
      * @param serviceRegister Registro de servicios para acceder a otras funcionalidades.
      */
-    public SinglePlayerHangedGame(PrintWriter output, User user, ServiceRegister serviceRegister) {
+    public SinglePlayerHangedGame(BatchedPrintWriter output, User user, ServiceRegister serviceRegister) {
         super(serviceRegister); // Llama al constructor de la clase base.
 
         this.output = output;
+        this.user = user;
         UserManager userManager = serviceRegister.getService(UserManager.class);
         this.scoreManager = new ScoreManager(userManager, user, output); // Se inicializa el gestor de puntuaciones.
     }
@@ -39,8 +43,8 @@ public class SinglePlayerHangedGame extends HangedGame {
      */
     @Override
     public void startGame() {
-        output.println("Iniciando una nueva partida...");
-        output.println("Frase oculta: " + proverb); // Muestra la frase oculta (proverbio).
+        output.println(Messages.GAME_STARTING);
+        GameEvents.proverb(output, "Frase oculta: ", proverb); // Muestra la frase oculta (proverbio).
         scoreManager.resetTries(); // Resetea el contador de intentos.
     }
 
@@ -55,13 +59,10 @@ public class SinglePlayerHangedGame extends HangedGame {
         scoreManager.incrementTries(); // Incrementa el número de intentos.
         boolean correct = proverb.guessConsonant(consonant); // Se verifica si la consonante es correcta.
 
-        if (correct) {
-            output.println("¡Correcto!"); // Mensaje si la consonante es correcta.
-        } else {
-            output.println("Incorrecto."); // Mensaje si la consonante es incorrecta.
-        }
+        // Mensaje según si la consonante es correcta o incorrecta.
+        GameEvents.guess(output, user.getUsername(), consonant, correct, correct ? Messages.CORRECT : Messages.INCORRECT);
 
-        output.println("Frase actual: " + proverb); // Muestra la frase actual con los avances.
+        GameEvents.proverb(output, "Frase actual: ", proverb); // Muestra la frase actual con los avances.
     }
 
     /**
@@ -75,13 +76,10 @@ public class SinglePlayerHangedGame extends HangedGame {
         scoreManager.incrementTries(); // Incrementa el número de intentos.
         boolean correct = proverb.guessVowel(vowel); // Se verifica si la vocal es correcta.
 
-        if (correct) {
-            output.println("¡Correcto!"); // Mensaje si la vocal es correcta.
-        } else {
-            output.println("Incorrecto."); // Mensaje si la vocal es incorrecta.
-        }
+        // Mensaje según si la vocal es correcta o incorrecta.
+        GameEvents.guess(output, user.getUsername(), vowel, correct, correct ? Messages.CORRECT : Messages.INCORRECT);
 
-        output.println("Frase actual: " + proverb); // Muestra la frase actual con los avances.
+        GameEvents.proverb(output, "Frase actual: ", proverb); // Muestra la frase actual con los avances.
     }
 
     /**
@@ -91,15 +89,15 @@ public class SinglePlayerHangedGame extends HangedGame {
      */
     public void resolveProverb(String phrase) {
         if (proverb.resolveProverb(phrase)) {
-            output.println("¡Felicidades! Has resuelto el proverbio.");
+            output.println(Messages.SOLVED);
             scoreManager.addScore(); // Si resuelve correctamente, se añade la puntuación.
             scoreManager.printFinalScore(true); // Se imprime la puntuación final.
         } else {
-            output.println("Lo siento, pero esa no es la frase correcta.");
+            output.println(Messages.WRONG_SOLUTION);
             scoreManager.printFinalScore(false); // Si no resuelve correctamente, se muestra el mensaje de error y la puntuación.
         }
         gameOver = true; // Marca el juego como terminado.
-        output.println("La partida ha terminado.");
+        output.println(Messages.GAME_OVER);
     }
 
     /**
@@ -94,12 +94,78 @@ public class Proverb {
 
     /**
      * Intenta resolver el refrán completo.
+     * <p>
+     * No distingue mayúsculas y trata cada secuencia de espacios en blanco (espacios,
+     * tabuladores...) como un único espacio, sin contar los del principio ni los del final. La
+     * comparación se hace carácter a carácter, sin crear cadenas intermedias.
+     * </p>
      *
      * @param guess Refrán ingresado por el jugador.
      * @return {@code true} si el refrán es correcto, {@code false} en caso contrario.
      */
     public boolean resolveProverb(String guess) {
-        return text.equalsIgnoreCase(guess);
+        int i = skipWhitespace(text, 0);
+        int j = skipWhitespace(guess, 0);
+        while (i < text.length() && j < guess.length()) {
+            char expected = text.charAt(i);
+            char actual = guess.charAt(j);
+            if (isWhitespace(expected) || isWhitespace(actual)) {
+                // Una secuencia de espacios solo coincide con otra secuencia de espacios
+                if (!isWhitespace(expected) || !isWhitespace(actual)) {
+                    return false;
+                }
+                i = skipWhitespace(text, i);
+                j = skipWhitespace(guess, j);
+                continue;
+            }
+            if (!equalsIgnoreCase(expected, actual)) {
+                return false;
+            }
+            i++;
+            j++;
+        }
+        return skipWhitespace(text, i) == text.length() && skipWhitespace(guess, j) == guess.length();
+    }
+
+    /**
+     * Avanza hasta el primer carácter que no es un espacio en blanco.
+     *
+     * @param value Cadena.
+     * @param from  Posición inicial.
+     * @return Posición del primer carácter que no es un espacio en blanco, o la longitud de la cadena.
+     */
+    private static int skipWhitespace(String value, int from) {
+        while (from < value.length() && isWhitespace(value.charAt(from))) {
+            from++;
+        }
+        return from;
+    }
+
+    /**
+     * Indica si un carácter es un espacio en blanco, con los mismos caracteres que la expresión
+     * {@code \s}.
+     *
+     * @param c Carácter.
+     * @return {@code true} si es un espacio en blanco.
+     */
+    private static boolean isWhitespace(char c) {
+        return c == ' ' || c == '\t' || c == '\n' || c == '\u000B' || c == '\f' || c == '\r';
+    }
+
+    /**
+     * Compara dos caracteres sin distinguir mayúsculas, igual que {@link String#equalsIgnoreCase(String)}.
+     *
+     * @param a Primer carácter.
+     * @param b Segundo carácter.
+     * @return {@code true} si son iguales sin distinguir mayúsculas.
+     */
+    private static boolean equalsIgnoreCase(char a, char b) {
+        if (a == b) {
+            return true;
+        }
+        char upperA = Character.toUpperCase(a);
+        char upperB = Character.toUpperCase(b);
+        return upperA == upperB || Character.toLowerCase(upperA) == Character.toLowerCase(upperB);
     }
 
     /**
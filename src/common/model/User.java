@@ -5,6 +5,10 @@ package common.model;
  * <p>
  * Almacena la información del usuario, su puntuación y su historial de partidas ganadas y perdidas.
  * </p>
+ * <p>
+ * Todas las sesiones de un usuario comparten su instancia, por lo que las estadísticas se leen y
+ * modifican bajo el monitor del propio usuario.
+ * </p>
  */
 public class User {
     private final String username; // Nombre de usuario.
@@ -38,7 +42,7 @@ public class User {
     }
 
     /** @return Puntuación del usuario. */
-    public int getScore() {
+    public synchronized int getScore() {
         return score;
     }
 
@@ -47,17 +51,17 @@ public class User {
      *
      * @param points Puntos a agregar.
      */
-    public void addScore(int points) {
+    public synchronized void addScore(int points) {
         this.score += points;
     }
 
     /** @return Número de partidas ganadas. */
-    public int getWins() {
+    public synchronized int getWins() {
         return wins;
     }
 
     /** @return Número de partidas perdidas. */
-    public int getDefeats() {
+    public synchronized int getDefeats() {
         return defeats;
     }
 
@@ -66,7 +70,7 @@ public class User {
      *
      * @param wins Número de victorias a agregar.
      */
-    public void win(int wins) {
+    public synchronized void win(int wins) {
         this.wins += wins;
     }
 
@@ -75,7 +79,7 @@ public class User {
      *
      * @param defeats Número de derrotas a agregar.
      */
-    public void defeat(int defeats) {
+    public synchronized void defeat(int defeats) {
         this.defeats += defeats;
     }
 }
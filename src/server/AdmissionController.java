@@ -0,0 +1,256 @@
+package server;
+
+import common.logger.CustomLogger;
+import server.thread.HashedWheelTimer;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Control de admisión de conexiones del servidor.
+ * <p>
+ * Cada sesión activa ocupa un permiso. Cuando no quedan permisos, las conexiones nuevas
+ * esperan en una cola acotada y se admiten en cuanto otra sesión libera el suyo; si la
+ * cola también está llena, la conexión se rechaza de inmediato. El controlador no bloquea
+ * nunca el hilo aceptador y lleva la cuenta de conexiones aceptadas, encoladas y rechazadas.
+ * </p>
+ * <p>
+ * Una conexión no espera en la cola más que el plazo configurado: al agotarse se saca de la
+ * cola y se entrega a la acción de expiración, que la rechaza. Las conexiones que se han cerrado
+ * mientras esperaban se descartan al llegarles el turno, sin ocupar un permiso.
+ * </p>
+ *
+ * @param <T> Tipo de conexión admitida (socket o canal).
+ */
+public class AdmissionController<T> {
+    private static final Logger logger = CustomLogger.getLogger(AdmissionController.class.getName());
+
+    /**
+     * Resultado de solicitar la admisión de una conexión.
+     */
+    public enum Admission {
+        ACCEPTED, // La conexión ha obtenido un permiso y se ha despachado.
+        QUEUED, // La conexión espera en la cola a que se libere un permiso.
+        REJECTED // No hay permisos ni hueco en la cola: se debe rechazar la conexión.
+    }
+
+    private final int maxSessions; // Número máximo de sesiones simultáneas.
+    private final int retryAfterSeconds; // Segundos sugeridos al cliente rechazado antes de reintentar.
+    private final Semaphore permits; // Un permiso por sesión activa.
+    private final BlockingQueue<Waiting<T>> pending; // Conexiones aceptadas a la espera de un permiso.
+    private final Consumer<T> dispatcher; // Acción que inicia la sesión de una conexión admitida.
+    private final Consumer<T> expirer; // Acción que rechaza una conexión que ha agotado su espera.
+    private final Predicate<T> closed; // Indica si una conexión en espera ya está cerrada.
+    private final long queueTimeoutMillis; // Espera máxima en la cola, o 0 si no hay límite.
+    private final HashedWheelTimer queueTimer; // Plazos de espera en la cola, o null si no hay límite.
+    private final LongAdder accepted = new LongAdder(); // Conexiones admitidas.
+    private final LongAdder queued = new LongAdder(); // Conexiones que han pasado por la cola.
+    private final LongAdder rejected = new LongAdder(); // Conexiones rechazadas.
+    private final LongAdder expired = new LongAdder(); // Conexiones que salieron de la cola sin ser admitidas.
+
+    /**
+     * Crea un controlador de admisión.
+     *
+     * @param maxSessions         Número máximo de sesiones simultáneas.
+     * @param queueCapacity       Conexiones que pueden esperar un permiso.
+     * @param retryAfterSeconds   Segundos sugeridos a los clientes rechazados.
+     * @param queueTimeoutSeconds Segundos que una conexión puede esperar en la cola; 0 para no limitarlo.
+     * @param dispatcher          Acción que inicia la sesión de una conexión admitida.
+     * @param expirer             Acción que rechaza una conexión que ha agotado su espera.
+     * @param closed              Indica si una conexión en espera ya está cerrada.
+     */
+    public AdmissionController(int maxSessions, int queueCapacity, int retryAfterSeconds, int queueTimeoutSeconds,
+                               Consumer<T> dispatcher, Consumer<T> expirer, Predicate<T> closed) {
+        this.maxSessions = maxSessions;
+        this.retryAfterSeconds = retryAfterSeconds;
+        this.permits = new Semaphore(maxSessions);
+        this.pending = new ArrayBlockingQueue<>(Math.max(1, queueCapacity));
+        this.dispatcher = dispatcher;
+        this.expirer = expirer;
+        this.closed = closed;
+        this.queueTimeoutMillis = TimeUnit.SECONDS.toMillis(Math.max(0, queueTimeoutSeconds));
+        this.queueTimer = queueTimeoutMillis > 0
+                ? new HashedWheelTimer("hanged-admission-timer", 100, TimeUnit.MILLISECONDS, 64)
+                : null;
+    }
+
+    /**
+     * Solicita la admisión de una conexión recién aceptada.
+     *
+     * @param connection Conexión aceptada.
+     * @return Resultado de la admisión. Si es {@link Admission#REJECTED}, el llamante debe
+     *         enviar {@link #getRejectionMessage()} y cerrar la conexión.
+     */
+    public Admission admit(T connection) {
+        if (permits.tryAcquire()) {
+            dispatch(connection);
+            return Admission.ACCEPTED;
+        }
+
+        Waiting<T> waiting = new Waiting<>(connection);
+        if (!pending.offer(waiting)) {
+            rejected.increment();
+            logger.log(Level.WARNING, "Máximo de conexiones alcanzado: {0}. Conexión rechazada ({1} rechazadas en total).",
+                    new Object[]{maxSessions, rejected.sum()});
+            return Admission.REJECTED;
+        }
+
+        queued.increment();
+        logger.log(Level.INFO, "Máximo de conexiones alcanzado: {0}. Conexión en cola de espera ({1} pendientes).",
+                new Object[]{maxSessions, pending.size()});
+        if (queueTimer != null) {
+            waiting.timeout = queueTimer.newTimeout(() -> expire(waiting), queueTimeoutMillis, TimeUnit.MILLISECONDS);
+        }
+
+        // Un permiso puede haberse liberado entre el intento de adquisición y el encolado.
+        drainPending();
+        return Admission.QUEUED;
+    }
+
+    /**
+     * Libera el permiso de una sesión terminada y admite la siguiente conexión en espera.
+     */
+    public void release() {
+        permits.release();
+        drainPending();
+    }
+
+    /**
+     * Admite conexiones de la cola mientras queden permisos disponibles.
+     */
+    private void drainPending() {
+        while (!pending.isEmpty() && permits.tryAcquire()) {
+            T next = pollOpen();
+            if (next == null) {
+                permits.release();
+                return;
+            }
+            dispatch(next);
+        }
+    }
+
+    /**
+     * Saca de la cola la primera conexión que sigue abierta, descartando las cerradas.
+     *
+     * @return Conexión abierta, o {@code null} si la cola se ha quedado vacía.
+     */
+    private T pollOpen() {
+        Waiting<T> waiting;
+        while ((waiting = pending.poll()) != null) {
+            if (waiting.timeout != null) {
+                waiting.timeout.cancel();
+            }
+            if (!closed.test(waiting.connection)) {
+                return waiting.connection;
+            }
+            expired.increment();
+            logger.log(Level.FINE, "Conexión cerrada mientras esperaba en la cola de admisión");
+        }
+        return null;
+    }
+
+    /**
+     * Saca de la cola una conexión que ha agotado su espera y la rechaza. Si ya se ha admitido,
+     * no hace nada.
+     *
+     * @param waiting Conexión en espera.
+     */
+    private void expire(Waiting<T> waiting) {
+        if (!pending.remove(waiting)) {
+            return;
+        }
+        expired.increment();
+        logger.log(Level.WARNING, "Conexión rechazada tras esperar {0} ms en la cola de admisión", queueTimeoutMillis);
+        try {
+            expirer.accept(waiting.connection);
+        } catch (RuntimeException e) {
+            logger.log(Level.WARNING, "Error al rechazar la conexión en espera: {0}", e.getMessage());
+        }
+    }
+
+    /**
+     * Inicia la sesión de una conexión que ya dispone de permiso.
+     *
+     * @param connection Conexión admitida.
+     */
+    private void dispatch(T connection) {
+        accepted.increment();
+        try {
+            dispatcher.accept(connection);
+        } catch (RuntimeException e) {
+            logger.log(Level.SEVERE, "Error al iniciar la sesión admitida: {0}", e.getMessage());
+            release();
+        }
+    }
+
+    /**
+     * Obtiene el mensaje que se envía a los clientes rechazados.
+     *
+     * @return Línea de rechazo con el tiempo sugerido de reintento.
+     */
+    public String getRejectionMessage() {
+        return "Servidor lleno, reintenta en " + retryAfterSeconds + " s.";
+    }
+
+    /**
+     * Obtiene el mensaje que se envía a los clientes que se conectan mientras el servidor
+     * todavía está iniciando sus servicios.
+     *
+     * @return Línea de aviso con el tiempo sugerido de reintento.
+     */
+    public String getWarmingUpMessage() {
+        return "Servidor iniciándose, reintenta en " + retryAfterSeconds + " s.";
+    }
+
+    /** @return Número de conexiones admitidas desde el arranque. */
+    public long getAcceptedCount() {
+        return accepted.sum();
+    }
+
+    /** @return Número de conexiones que han esperado en la cola desde el arranque. */
+    public long getQueuedCount() {
+        return queued.sum();
+    }
+
+    /** @return Número de conexiones rechazadas desde el arranque. */
+    public long getRejectedCount() {
+        return rejected.sum();
+    }
+
+    /** @return Número de conexiones que han salido de la cola sin ser admitidas, por agotar su espera o cerrarse. */
+    public long getExpiredCount() {
+        return expired.sum();
+    }
+
+    /** @return Número de sesiones activas en este momento. */
+    public int getActiveSessions() {
+        return maxSessions - permits.availablePermits();
+    }
+
+    /** @return Número de conexiones en la cola de espera en este momento. */
+    public int getPendingCount() {
+        return pending.size();
+    }
+
+    /**
+     * Conexión en la cola de espera, con su plazo. Se compara por identidad para poder sacarla
+     * de la cola al vencer el plazo.
+     *
+     * @param <T> Tipo de conexión.
+     */
+    private static final class Waiting<T> {
+        private final T connection; // Conexión en espera.
+        private volatile HashedWheelTimer.Timeout timeout; // Plazo de espera, o null si no hay límite.
+
+        Waiting(T connection) {
+            this.connection = connection;
+        }
+    }
+}
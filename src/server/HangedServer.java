@@ -1,11 +1,14 @@
 package server;
 
 import common.logger.CustomLogger;
+import server.metrics.MetricsExporter;
 import server.service.ServiceRegister;
 import server.thread.ClientHandler;
+import server.thread.VirtualThreads;
 
 import java.io.*;
 import java.net.*;
+import java.nio.charset.StandardCharsets;
 import java.util.concurrent.*;
 import java.util.logging.Level;
 import java.util.logging.Logger;
@@ -20,6 +23,7 @@ import java.util.logging.Logger;
  * @see Server
  * @see ClientHandler
  * @see ServiceRegister
+ * @see AdmissionController
  */
 public class HangedServer implements Server {
     private static final Logger logger = CustomLogger.getLogger(HangedServer.class.getName());
@@ -27,6 +31,10 @@ public class HangedServer implements Server {
     private final int maxUsers; // Número máximo de usuarios simultáneos permitidos.
     private final ExecutorService threadPool; // Pool de hilos que gestiona múltiples clientes simultáneamente.
     private final ServiceRegister serviceRegister; // Registro de servicios disponibles para los clientes.
+    private final AdmissionController<Socket> admissionController; // Control de admisión de las conexiones.
+    private final MetricsExporter metricsExporter; // Punto de acceso HTTP con las métricas del servidor.
+    private final boolean earlyListen; // Escuchar antes de que terminen de iniciarse los servicios.
+    private volatile boolean startFailed; // Indica que los servicios no se han podido iniciar.
 
     /**
      * Crea un nuevo servidor en el puerto especificado con una cantidad máxima de usuarios
@@ -36,42 +44,200 @@ public class HangedServer implements Server {
      * @param maxUsers Número máximo de clientes permitidos simultáneamente.
      */
     public HangedServer(int port, int maxUsers) {
-        this.port = port;
-        this.maxUsers = maxUsers;
-        this.serviceRegister = new ServiceRegister();
-
         // Se crea un pool de hilos con un número fijo de conexiones simultáneas.
-        threadPool = Executors.newFixedThreadPool(maxUsers);
+        this(configFor(port, maxUsers), Executors.newFixedThreadPool(maxUsers));
+    }
+
+    /**
+     * Crea un nuevo servidor a partir de una configuración de arranque.
+     * <p>
+     * En modo {@link ServerMode#VIRTUAL} cada {@link ClientHandler} se ejecuta en su propio
+     * hilo virtual, sin dimensionar un pool a mano, y se admiten hasta
+     * {@link ServerConfig#getVirtualMaxUsers()} sesiones simultáneas. Si la JVM no soporta hilos
+     * virtuales se mantiene el pool fijo de hilos de plataforma y el límite de {@code maxUsers}.
+     * </p>
+     *
+     * @param config Configuración del servidor.
+     */
+    public HangedServer(ServerConfig config) {
+        this(config, createThreadPool(config));
+    }
+
+    /**
+     * Crea un nuevo servidor con el ejecutor de clientes indicado.
+     *
+     * @param config     Configuración del servidor.
+     * @param threadPool Ejecutor en el que se atiende a cada cliente.
+     */
+    private HangedServer(ServerConfig config, ExecutorService threadPool) {
+        this.port = config.getPort();
+        this.maxUsers = config.getMode() == ServerMode.VIRTUAL ? config.getVirtualMaxUsers() : config.getMaxUsers();
+        this.serviceRegister = new ServiceRegister(config);
+        this.threadPool = threadPool;
+        this.admissionController = new AdmissionController<>(maxUsers, config.getPendingQueue(),
+                config.getRetryAfterSeconds(), config.getQueueTimeoutSeconds(), this::startSession,
+                this::rejectQueued,
+                socket -> socket.isClosed() || socket.isInputShutdown());
+        this.metricsExporter = new MetricsExporter(serviceRegister, admissionController);
+        this.earlyListen = config.isEarlyListen();
+    }
+
+    /**
+     * Crea una configuración con el puerto y el máximo de usuarios indicados.
+     *
+     * @param port     Puerto en el que el servidor escuchará.
+     * @param maxUsers Número máximo de clientes permitidos simultáneamente.
+     * @return Configuración con el resto de valores por defecto.
+     */
+    private static ServerConfig configFor(int port, int maxUsers) {
+        ServerConfig config = new ServerConfig();
+        config.setPort(port);
+        config.setMaxUsers(maxUsers);
+        return config;
+    }
+
+    /**
+     * Crea el ejecutor de clientes correspondiente al modo configurado.
+     *
+     * @param config Configuración del servidor.
+     * @return Ejecutor de hilos virtuales o pool fijo de hilos de plataforma.
+     */
+    private static ExecutorService createThreadPool(ServerConfig config) {
+        if (config.getMode() == ServerMode.VIRTUAL) {
+            ExecutorService virtualThreads = VirtualThreads.newExecutor();
+            if (virtualThreads != null) {
+                logger.log(Level.CONFIG, "Atendiendo a cada cliente en un hilo virtual");
+                return virtualThreads;
+            }
+            logger.log(Level.WARNING, "Se utilizará un pool fijo de {0} hilos de plataforma", config.getMaxUsers());
+            config.setMode(ServerMode.THREADS); // Sin hilos virtuales se admiten las sesiones del pool
+        }
+        return Executors.newFixedThreadPool(config.getMaxUsers());
     }
 
     /**
      * Inicia el servidor, permitiendo la conexión de múltiples clientes.
      * <p>
-     * El servidor acepta conexiones hasta el máximo permitido y crea un hilo
-     * para cada cliente usando {@link ClientHandler}.
+     * Cada conexión aceptada pasa por el {@link AdmissionController}: si hay una sesión libre
+     * se crea un hilo para el cliente usando {@link ClientHandler}, si no espera en la cola
+     * de admisión y, si esta también está llena, se rechaza de inmediato.
+     * </p>
+     * <p>
+     * Normalmente el puerto se abre cuando todos los servicios están listos. Con
+     * {@code earlyListen} se abre en el acto y, mientras los servicios se inician, cada conexión
+     * recibe un aviso de que el servidor está arrancando y se cierra. Si entonces algún servicio
+     * no se puede iniciar, se cierra el puerto y el servidor se detiene.
      * </p>
      */
     @Override
     public void start() {
+        if (!earlyListen) {
+            try {
+                serviceRegister.awaitReady();
+            } catch (IllegalStateException e) {
+                logger.log(Level.SEVERE, "Error al iniciar el servidor: {0}", e.getMessage());
+                return;
+            }
+        }
+
+        // Al terminar el proceso se guardan los cambios pendientes de los servicios.
+        Runtime.getRuntime().addShutdownHook(new Thread(serviceRegister::shutdown, "hanged-shutdown"));
+        metricsExporter.start();
         try (ServerSocket serverSocket = new ServerSocket(port)) {
             logger.log(Level.INFO, "Servidor escuchando en el puerto: " + port);
+            serviceRegister.onStartFailure(error -> closeListener(serverSocket));
 
             while (true) {
-                // Controla que no se exceda el número máximo de usuarios activos.
-                if (Thread.activeCount() > maxUsers) {
-                    logger.log(Level.WARNING, "Máximo de conexiones alcanzado: {0}. Esperando para aceptar nuevas conexiones.", maxUsers);
-                    continue; // Realiza una nueva iteración para evitar la nueva instanciación de un hilo.
-                }
-
                 // Espera y acepta una nueva conexión de cliente.
                 Socket clientSocket = serverSocket.accept();
                 logger.log(Level.INFO, "Nueva conexión aceptada desde: {0}", clientSocket.getInetAddress());
 
-                // Crea y asigna un nuevo manejador de clientes en un hilo separado.
-                threadPool.submit(new ClientHandler(clientSocket, serviceRegister));
+                // Mientras se inician los servicios no se atiende a nadie.
+                if (!serviceRegister.isReady()) {
+                    reject(clientSocket, admissionController.getWarmingUpMessage());
+                    continue;
+                }
+
+                // Controla que no se exceda el número máximo de usuarios activos.
+                if (admissionController.admit(clientSocket) == AdmissionController.Admission.REJECTED) {
+                    reject(clientSocket, admissionController.getRejectionMessage());
+                }
             }
         } catch (IOException e) {
-            logger.log(Level.SEVERE, "Error al iniciar el servidor: {0}", e.getMessage());
+            if (!startFailed) {
+                logger.log(Level.SEVERE, "Error al iniciar el servidor: {0}", e.getMessage());
+            }
+        } finally {
+            metricsExporter.stop();
+            serviceRegister.shutdown();
+        }
+    }
+
+    /**
+     * Cierra el socket de escucha porque los servicios no se han podido iniciar, lo que
+     * detiene el bucle de aceptación.
+     *
+     * @param serverSocket Socket de escucha.
+     */
+    private void closeListener(ServerSocket serverSocket) {
+        logger.log(Level.SEVERE, "Deteniendo el servidor: no se pudieron iniciar los servicios");
+        startFailed = true;
+        try {
+            serverSocket.close();
+        } catch (IOException e) {
+            logger.log(Level.WARNING, "Error al cerrar el puerto: {0}", e.getMessage());
         }
     }
+
+    /**
+     * Crea y asigna un nuevo manejador de clientes en un hilo separado. Al terminar la
+     * sesión se libera su permiso de admisión.
+     *
+     * @param clientSocket Socket del cliente admitido.
+     */
+    private void startSession(Socket clientSocket) {
+        ClientHandler clientHandler = new ClientHandler(clientSocket, serviceRegister);
+        threadPool.submit(() -> {
+            try {
+                clientHandler.run();
+            } finally {
+                admissionController.release();
+            }
+        });
+    }
+
+    /**
+     * Informa al cliente de que no puede ser atendido y cierra la conexión.
+     *
+     * @param clientSocket Socket del cliente rechazado.
+     * @param message      Motivo del rechazo.
+     */
+    private void reject(Socket clientSocket, String message) {
+        try (clientSocket) {
+            OutputStream output = clientSocket.getOutputStream();
+            output.write((message + System.lineSeparator()).getBytes(StandardCharsets.UTF_8));
+            output.flush();
+        } catch (IOException e) {
+            logger.log(Level.WARNING, "Error al rechazar la conexión de {0}: {1}",
+                    new Object[]{clientSocket.getInetAddress(), e.getMessage()});
+        }
+    }
+
+    /**
+     * Rechaza una conexión que ha agotado su espera en la cola de admisión.
+     *
+     * @param clientSocket Socket del cliente en espera.
+     */
+    private void rejectQueued(Socket clientSocket) {
+        reject(clientSocket, admissionController.getRejectionMessage());
+    }
+
+    /**
+     * Obtiene el controlador de admisión del servidor, con sus contadores de conexiones.
+     *
+     * @return Controlador de admisión.
+     */
+    public AdmissionController<Socket> getAdmissionController() {
+        return admissionController;
+    }
 }
@@ -0,0 +1,376 @@
+package server;
+
+import server.buffer.OverflowPolicy;
+import server.store.UserStoreType;
+
+import java.util.Arrays;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Configuración de arranque del servidor.
+ * <p>
+ * Agrupa los parámetros que antes se pasaban sueltos al constructor del servidor. Los valores
+ * por defecto reproducen el comportamiento original (puerto 2050 y 50 usuarios) y pueden
+ * sobrescribirse mediante propiedades del sistema con el prefijo {@code hanged.}.
+ * </p>
+ *
+ * @see HangedServer
+ * @see server.nio.NioHangedServer
+ */
+public class ServerConfig {
+    private static final String PROPERTY_PREFIX = "hanged."; // Prefijo de las propiedades del sistema.
+
+    private int port = 2050; // Puerto en el que el servidor escuchará conexiones entrantes.
+    private int maxUsers = 50; // Número máximo de usuarios simultáneos permitidos.
+    private int virtualMaxUsers = 10_000; // Número máximo de usuarios simultáneos con hilos virtuales.
+    private ServerMode mode = ServerMode.THREADS; // Modo de atención de las conexiones.
+    private int ioThreads = Runtime.getRuntime().availableProcessors(); // Bucles de eventos en modo NIO.
+    private boolean reusePort = true; // Cada bucle NIO escucha en su propio socket con SO_REUSEPORT.
+    private int pendingQueue = 16; // Conexiones que pueden esperar a que se libere una sesión.
+    private int queueTimeoutSeconds = 30; // Espera máxima en la cola de admisión (0 sin límite).
+    private int retryAfterSeconds = 5; // Segundos sugeridos a los clientes rechazados.
+    private int idleTimeoutSeconds = 300; // Inactividad máxima de una conexión (0 sin límite).
+    private int gameTimeoutSeconds = 120; // Inactividad máxima de un jugador en partida (0 sin límite).
+    private int outboundHighWater = 64 * 1024; // Bytes pendientes de envío a partir de los que un cliente es lento.
+    private int writeTimeoutSeconds = 10; // Espera máxima de un envío bloqueado a un cliente (0 sin límite).
+    private OverflowPolicy slowConsumerPolicy = OverflowPolicy.DISCONNECT; // Política ante un cliente lento.
+    private int commandThreads = Runtime.getRuntime().availableProcessors(); // Hilos de los comandos asíncronos.
+    private Set<String> admins = Set.of(); // Usuarios con acceso a los comandos de administración.
+    private int metricsPort = 0; // Puerto HTTP de las métricas (0 para no exponerlas).
+    private String metricsHost = "127.0.0.1"; // Dirección en la que escucha el puerto de métricas.
+    private Long seed = null; // Semilla con la que se eligen los refranes (null para una aleatoria).
+    private String journalPath = ""; // Archivo del diario de tráfico (vacío para no registrarlo).
+    private boolean earlyListen = false; // Escuchar antes de que terminen de iniciarse los servicios.
+    private int flushIntervalMillis = 1000; // Milisegundos entre escrituras de los cambios de usuarios.
+    private int flushBatchSize = 100; // Cambios de usuarios a partir de los que se escriben sin esperar.
+    private int compactAfter = 10_000; // Cambios en el registro de usuarios a partir de los que se compacta.
+    private boolean fsync = true; // Llevar al disco cada lote de cambios de usuarios.
+    private UserStoreType userStore = UserStoreType.LOG; // Forma de guardar las cuentas de los usuarios.
+    private int userCacheSize = 10_000; // Usuarios en memoria con el almacén en caché.
+    private String dataDir = ""; // Directorio de los archivos de usuarios (vacío para el directorio de trabajo).
+
+    /**
+     * Crea una configuración a partir de las propiedades del sistema.
+     * <p>
+     * Propiedades reconocidas: {@code hanged.port}, {@code hanged.maxUsers}, {@code hanged.virtualMaxUsers},
+     * {@code hanged.mode} ({@code threads}, {@code virtual} o {@code nio}), {@code hanged.ioThreads},
+     * {@code hanged.reusePort},
+     * {@code hanged.pendingQueue}, {@code hanged.queueTimeout}, {@code hanged.retryAfter}, {@code hanged.idleTimeout},
+     * {@code hanged.gameTimeout}, {@code hanged.outboundHighWater}, {@code hanged.writeTimeout},
+     * {@code hanged.slowConsumerPolicy} ({@code drop}, {@code coalesce} o {@code disconnect}),
+     * {@code hanged.commandThreads}, {@code hanged.admins} (nombres de usuario separados por comas),
+     * {@code hanged.metricsPort}, {@code hanged.metricsHost}, {@code hanged.seed}, {@code hanged.journal},
+     * {@code hanged.earlyListen}, {@code hanged.flushInterval} (milisegundos),
+     * {@code hanged.flushBatch}, {@code hanged.compactAfter}, {@code hanged.fsync} y
+     * {@code hanged.userStore} ({@code log}, {@code mapped} o {@code cached}), {@code hanged.userCache}
+     * y {@code hanged.dataDir}.
+     * </p>
+     *
+     * @return Configuración con los valores indicados o los valores por defecto.
+     */
+    public static ServerConfig fromSystemProperties() {
+        ServerConfig config = new ServerConfig();
+        config.setPort(intProperty("port", config.getPort()));
+        config.setMaxUsers(intProperty("maxUsers", config.getMaxUsers()));
+        config.setVirtualMaxUsers(intProperty("virtualMaxUsers", config.getVirtualMaxUsers()));
+        config.setMode(ServerMode.fromName(stringProperty("mode", config.getMode().name())));
+        config.setIoThreads(intProperty("ioThreads", config.getIoThreads()));
+        config.setReusePort(booleanProperty("reusePort", config.isReusePort()));
+        config.setPendingQueue(intProperty("pendingQueue", config.getPendingQueue()));
+        config.setQueueTimeoutSeconds(intProperty("queueTimeout", config.getQueueTimeoutSeconds()));
+        config.setRetryAfterSeconds(intProperty("retryAfter", config.getRetryAfterSeconds()));
+        config.setIdleTimeoutSeconds(intProperty("idleTimeout", config.getIdleTimeoutSeconds()));
+        config.setGameTimeoutSeconds(intProperty("gameTimeout", config.getGameTimeoutSeconds()));
+        config.setOutboundHighWater(intProperty("outboundHighWater", config.getOutboundHighWater()));
+        config.setWriteTimeoutSeconds(intProperty("writeTimeout", config.getWriteTimeoutSeconds()));
+        config.setSlowConsumerPolicy(OverflowPolicy.fromName(
+                stringProperty("slowConsumerPolicy", config.getSlowConsumerPolicy().name())));
+        config.setCommandThreads(intProperty("commandThreads", config.getCommandThreads()));
+        config.setAdmins(listProperty("admins"));
+        config.setMetricsPort(intProperty("metricsPort", config.getMetricsPort()));
+        config.setMetricsHost(stringProperty("metricsHost", config.getMetricsHost()).trim());
+        String seed = stringProperty("seed", "").trim();
+        config.setSeed(seed.isEmpty() ? null : Long.parseLong(seed));
+        config.setJournalPath(stringProperty("journal", config.getJournalPath()).trim());
+        config.setEarlyListen(booleanProperty("earlyListen", config.isEarlyListen()));
+        config.setFlushIntervalMillis(intProperty("flushInterval", config.getFlushIntervalMillis()));
+        config.setFlushBatchSize(intProperty("flushBatch", config.getFlushBatchSize()));
+        config.setCompactAfter(intProperty("compactAfter", config.getCompactAfter()));
+        config.setFsync(booleanProperty("fsync", config.isFsync()));
+        config.setUserStore(UserStoreType.fromName(stringProperty("userStore", config.getUserStore().name())));
+        config.setUserCacheSize(intProperty("userCache", config.getUserCacheSize()));
+        config.setDataDir(stringProperty("dataDir", config.getDataDir()).trim());
+        return config;
+    }
+
+    /**
+     * Lee una propiedad del sistema de texto.
+     *
+     * @param name         Nombre de la propiedad sin prefijo.
+     * @param defaultValue Valor si la propiedad no está definida.
+     * @return Valor de la propiedad.
+     */
+    private static String stringProperty(String name, String defaultValue) {
+        return System.getProperty(PROPERTY_PREFIX + name, defaultValue);
+    }
+
+    /**
+     * Lee una propiedad del sistema numérica.
+     *
+     * @param name         Nombre de la propiedad sin prefijo.
+     * @param defaultValue Valor si la propiedad no está definida.
+     * @return Valor de la propiedad.
+     */
+    private static int intProperty(String name, int defaultValue) {
+        return Integer.parseInt(stringProperty(name, String.valueOf(defaultValue)).trim());
+    }
+
+    /**
+     * Lee una propiedad del sistema con una lista de valores separados por comas.
+     *
+     * @param name Nombre de la propiedad sin prefijo.
+     * @return Valores no vacíos de la propiedad, o un conjunto vacío si no está definida.
+     */
+    private static Set<String> listProperty(String name) {
+        return Arrays.stream(stringProperty(name, "").split(","))
+                .map(String::trim)
+                .filter(value -> !value.isEmpty())
+                .collect(Collectors.toUnmodifiableSet());
+    }
+
+    /**
+     * Lee una propiedad del sistema booleana.
+     *
+     * @param name         Nombre de la propiedad sin prefijo.
+     * @param defaultValue Valor si la propiedad no está definida.
+     * @return Valor de la propiedad.
+     */
+    private static boolean booleanProperty(String name, boolean defaultValue) {
+        return Boolean.parseBoolean(stringProperty(name, String.valueOf(defaultValue)).trim());
+    }
+
+    public int getPort() {
+        return port;
+    }
+
+    public void setPort(int port) {
+        this.port = port;
+    }
+
+    public int getMaxUsers() {
+        return maxUsers;
+    }
+
+    public void setMaxUsers(int maxUsers) {
+        this.maxUsers = maxUsers;
+    }
+
+    public int getVirtualMaxUsers() {
+        return virtualMaxUsers;
+    }
+
+    public void setVirtualMaxUsers(int virtualMaxUsers) {
+        this.virtualMaxUsers = virtualMaxUsers;
+    }
+
+    public ServerMode getMode() {
+        return mode;
+    }
+
+    public void setMode(ServerMode mode) {
+        this.mode = mode;
+    }
+
+    public int getIoThreads() {
+        return ioThreads;
+    }
+
+    public void setIoThreads(int ioThreads) {
+        this.ioThreads = Math.max(1, ioThreads);
+    }
+
+    public boolean isReusePort() {
+        return reusePort;
+    }
+
+    public void setReusePort(boolean reusePort) {
+        this.reusePort = reusePort;
+    }
+
+    public int getPendingQueue() {
+        return pendingQueue;
+    }
+
+    public void setPendingQueue(int pendingQueue) {
+        this.pendingQueue = Math.max(1, pendingQueue);
+    }
+
+    public int getQueueTimeoutSeconds() {
+        return queueTimeoutSeconds;
+    }
+
+    public void setQueueTimeoutSeconds(int queueTimeoutSeconds) {
+        this.queueTimeoutSeconds = Math.max(0, queueTimeoutSeconds);
+    }
+
+    public int getRetryAfterSeconds() {
+        return retryAfterSeconds;
+    }
+
+    public void setRetryAfterSeconds(int retryAfterSeconds) {
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+
+    public int getIdleTimeoutSeconds() {
+        return idleTimeoutSeconds;
+    }
+
+    public void setIdleTimeoutSeconds(int idleTimeoutSeconds) {
+        this.idleTimeoutSeconds = Math.max(0, idleTimeoutSeconds);
+    }
+
+    public int getGameTimeoutSeconds() {
+        return gameTimeoutSeconds;
+    }
+
+    public void setGameTimeoutSeconds(int gameTimeoutSeconds) {
+        this.gameTimeoutSeconds = Math.max(0, gameTimeoutSeconds);
+    }
+
+    public int getOutboundHighWater() {
+        return outboundHighWater;
+    }
+
+    public void setOutboundHighWater(int outboundHighWater) {
+        this.outboundHighWater = Math.max(1, outboundHighWater);
+    }
+
+    public int getWriteTimeoutSeconds() {
+        return writeTimeoutSeconds;
+    }
+
+    public void setWriteTimeoutSeconds(int writeTimeoutSeconds) {
+        this.writeTimeoutSeconds = Math.max(0, writeTimeoutSeconds);
+    }
+
+    public OverflowPolicy getSlowConsumerPolicy() {
+        return slowConsumerPolicy;
+    }
+
+    public void setSlowConsumerPolicy(OverflowPolicy slowConsumerPolicy) {
+        this.slowConsumerPolicy = slowConsumerPolicy;
+    }
+
+    public int getCommandThreads() {
+        return commandThreads;
+    }
+
+    public void setCommandThreads(int commandThreads) {
+        this.commandThreads = Math.max(1, commandThreads);
+    }
+
+    public Set<String> getAdmins() {
+        return admins;
+    }
+
+    public void setAdmins(Set<String> admins) {
+        this.admins = Set.copyOf(admins);
+    }
+
+    public int getMetricsPort() {
+        return metricsPort;
+    }
+
+    public void setMetricsPort(int metricsPort) {
+        this.metricsPort = Math.max(0, metricsPort);
+    }
+
+    public String getMetricsHost() {
+        return metricsHost;
+    }
+
+    public void setMetricsHost(String metricsHost) {
+        this.metricsHost = metricsHost;
+    }
+
+    public Long getSeed() {
+        return seed;
+    }
+
+    public void setSeed(Long seed) {
+        this.seed = seed;
+    }
+
+    public String getJournalPath() {
+        return journalPath;
+    }
+
+    public void setJournalPath(String journalPath) {
+        this.journalPath = journalPath == null ? "" : journalPath;
+    }
+
+    public boolean isEarlyListen() {
+        return earlyListen;
+    }
+
+    public void setEarlyListen(boolean earlyListen) {
+        this.earlyListen = earlyListen;
+    }
+
+    public int getFlushIntervalMillis() {
+        return flushIntervalMillis;
+    }
+
+    public void setFlushIntervalMillis(int flushIntervalMillis) {
+        this.flushIntervalMillis = Math.max(1, flushIntervalMillis);
+    }
+
+    public int getFlushBatchSize() {
+        return flushBatchSize;
+    }
+
+    public void setFlushBatchSize(int flushBatchSize) {
+        this.flushBatchSize = Math.max(1, flushBatchSize);
+    }
+
+    public int getCompactAfter() {
+        return compactAfter;
+    }
+
+    public void setCompactAfter(int compactAfter) {
+        this.compactAfter = Math.max(1, compactAfter);
+    }
+
+    public boolean isFsync() {
+        return fsync;
+    }
+
+    public void setFsync(boolean fsync) {
+        this.fsync = fsync;
+    }
+
+    public UserStoreType getUserStore() {
+        return userStore;
+    }
+
+    public void setUserStore(UserStoreType userStore) {
+        this.userStore = userStore;
+    }
+
+    public int getUserCacheSize() {
+        return userCacheSize;
+    }
+
+    public void setUserCacheSize(int userCacheSize) {
+        this.userCacheSize = Math.max(1, userCacheSize);
+    }
+
+    public String getDataDir() {
+        return dataDir;
+    }
+
+    public void setDataDir(String dataDir) {
+        this.dataDir = dataDir == null ? "" : dataDir;
+    }
+}
@@ -0,0 +1,28 @@
+package server;
+
+/**
+ * Modos de funcionamiento disponibles para el servidor del juego.
+ * <p>
+ * Cada modo determina cómo se atienden las conexiones de los clientes, aunque todos
+ * comparten el mismo {@link server.service.ServiceRegister} y procesan los comandos a
+ * través del mismo {@link server.service.services.CommandProcessor}.
+ * </p>
+ *
+ * @see ServerConfig
+ */
+public enum ServerMode {
+    THREADS, // Un hilo bloqueante del pool por cada cliente conectado.
+    VIRTUAL, // Un hilo virtual bloqueante por cada cliente conectado (Java 21 o superior).
+    NIO; // Bucles de eventos con canales no bloqueantes compartidos entre muchos clientes.
+
+    /**
+     * Obtiene el modo a partir de su nombre, sin distinguir mayúsculas.
+     *
+     * @param name Nombre del modo.
+     * @return Modo correspondiente.
+     * @throws IllegalArgumentException Si el nombre no corresponde a ningún modo.
+     */
+    public static ServerMode fromName(String name) {
+        return ServerMode.valueOf(name.trim().toUpperCase());
+    }
+}
@@ -0,0 +1,211 @@
+package server.buffer;
+
+import common.logger.CustomLogger;
+
+import java.lang.ref.Cleaner;
+import java.nio.ByteBuffer;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Reserva de buffers reutilizables organizada por clases de tamaño.
+ * <p>
+ * Las conexiones no mantienen buffers propios durante toda la sesión: piden uno con
+ * {@link #acquire(int)} solo mientras tienen bytes que procesar y lo devuelven con
+ * {@link PooledBuffer#release()} en cuanto terminan. Así, una conexión inactiva no retiene
+ * memoria de entrada ni de salida, y los buffers se reutilizan entre conexiones.
+ * </p>
+ * <p>
+ * Cada petición se sirve con la menor clase de tamaño que la satisface; las peticiones
+ * mayores que la clase más grande reciben un buffer exacto que no vuelve a la reserva. Cada
+ * clase retiene como máximo {@link #MAX_RETAINED_BYTES} bytes libres.
+ * </p>
+ * <p>
+ * Detección de fugas: si un {@link PooledBuffer} deja de ser alcanzable sin haberse devuelto,
+ * el recolector de basura lo notifica, se registra un aviso y se incrementa
+ * {@link #getLeakCount()}. El buffer perdido simplemente no vuelve a la reserva.
+ * </p>
+ *
+ * @see PooledBuffer
+ */
+public final class BufferPool {
+    private static final Logger logger = CustomLogger.getLogger(BufferPool.class.getName());
+    private static final int[] SIZE_CLASSES = {256, 1024, 4 * 1024, 16 * 1024, 64 * 1024}; // Capacidades disponibles.
+    private static final int MAX_RETAINED_BYTES = 4 * 1024 * 1024; // Bytes libres que retiene cada clase.
+    private static final Cleaner LEAK_DETECTOR = Cleaner.create(); // Avisa de los buffers no devueltos.
+
+    private static final BufferPool HEAP = new BufferPool("heap", false); // Reserva de buffers en el montículo.
+    private static final BufferPool DIRECT = new BufferPool("direct", true); // Reserva de buffers directos.
+
+    private final String name; // Nombre de la reserva, para los registros.
+    private final boolean direct; // Indica si los buffers son directos.
+    private final SizeClass[] sizeClasses; // Buffers libres de cada clase de tamaño.
+    private final LongAdder allocated = new LongAdder(); // Buffers creados.
+    private final LongAdder reused = new LongAdder(); // Peticiones servidas con un buffer reutilizado.
+    private final LongAdder leaks = new LongAdder(); // Buffers que se perdieron sin devolverse.
+    private final AtomicInteger inUse = new AtomicInteger(); // Buffers prestados en este momento.
+
+    /**
+     * Crea una reserva vacía.
+     *
+     * @param name   Nombre de la reserva.
+     * @param direct {@code true} para buffers directos, {@code false} para buffers del montículo.
+     */
+    private BufferPool(String name, boolean direct) {
+        this.name = name;
+        this.direct = direct;
+        this.sizeClasses = new SizeClass[SIZE_CLASSES.length];
+        for (int i = 0; i < SIZE_CLASSES.length; i++) {
+            sizeClasses[i] = new SizeClass(SIZE_CLASSES[i]);
+        }
+    }
+
+    /**
+     * Obtiene la reserva de buffers del montículo, cuyo contenido es accesible como array.
+     *
+     * @return Reserva de buffers del montículo.
+     */
+    public static BufferPool heap() {
+        return HEAP;
+    }
+
+    /**
+     * Obtiene la reserva de buffers directos, adecuados para escribir en canales.
+     *
+     * @return Reserva de buffers directos.
+     */
+    public static BufferPool direct() {
+        return DIRECT;
+    }
+
+    /**
+     * Presta un buffer vacío con al menos la capacidad indicada.
+     *
+     * @param minCapacity Capacidad mínima necesaria.
+     * @return Buffer prestado, que debe devolverse con {@link PooledBuffer#release()}.
+     */
+    public PooledBuffer acquire(int minCapacity) {
+        SizeClass sizeClass = sizeClassFor(minCapacity);
+        ByteBuffer buffer = null;
+        if (sizeClass != null) {
+            buffer = sizeClass.free.poll();
+            if (buffer != null) {
+                sizeClass.freeCount.decrementAndGet();
+                reused.increment();
+            }
+        }
+        if (buffer == null) {
+            int capacity = sizeClass != null ? sizeClass.capacity : minCapacity;
+            buffer = direct ? ByteBuffer.allocateDirect(capacity) : ByteBuffer.allocate(capacity);
+            allocated.increment();
+        }
+
+        inUse.incrementAndGet();
+        return new PooledBuffer(this, buffer);
+    }
+
+    /**
+     * Recibe un buffer devuelto y lo guarda para reutilizarlo si su clase admite más.
+     *
+     * @param buffer Buffer devuelto.
+     */
+    void recycle(ByteBuffer buffer) {
+        inUse.decrementAndGet();
+
+        SizeClass sizeClass = sizeClassFor(buffer.capacity());
+        if (sizeClass == null || sizeClass.capacity != buffer.capacity()) {
+            return;
+        }
+        if (sizeClass.freeCount.incrementAndGet() > sizeClass.maxFree) {
+            sizeClass.freeCount.decrementAndGet();
+            return;
+        }
+        buffer.clear();
+        sizeClass.free.offer(buffer);
+    }
+
+    /**
+     * Registra un buffer para avisar si se pierde sin devolverse.
+     *
+     * @param pooled   Buffer prestado.
+     * @param released Estado de devolución compartido con el buffer prestado.
+     * @return Registro que se limpia al devolver el buffer.
+     */
+    Cleaner.Cleanable track(PooledBuffer pooled, AtomicInteger released) {
+        int capacity = pooled.capacity();
+        return LEAK_DETECTOR.register(pooled, () -> {
+            if (released.get() == 0) {
+                inUse.decrementAndGet();
+                leaks.increment();
+                logger.log(Level.WARNING, "Fuga de buffer en la reserva " + name + ": " + capacity + " bytes no devueltos");
+            }
+        });
+    }
+
+    /**
+     * Busca la menor clase de tamaño con la capacidad indicada.
+     *
+     * @param capacity Capacidad necesaria.
+     * @return Clase de tamaño, o {@code null} si ninguna es suficiente.
+     */
+    private SizeClass sizeClassFor(int capacity) {
+        for (SizeClass sizeClass : sizeClasses) {
+            if (capacity <= sizeClass.capacity) {
+                return sizeClass;
+            }
+        }
+        return null;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public long getAllocatedCount() {
+        return allocated.sum();
+    }
+
+    public long getReusedCount() {
+        return reused.sum();
+    }
+
+    public long getLeakCount() {
+        return leaks.sum();
+    }
+
+    public int getInUseCount() {
+        return inUse.get();
+    }
+
+    /**
+     * Obtiene el número de buffers libres retenidos en la reserva.
+     *
+     * @return Buffers libres de todas las clases de tamaño.
+     */
+    public int getFreeCount() {
+        int free = 0;
+        for (SizeClass sizeClass : sizeClasses) {
+            free += sizeClass.freeCount.get();
+        }
+        return free;
+    }
+
+    /**
+     * Buffers libres de una misma capacidad.
+     */
+    private static final class SizeClass {
+        private final int capacity; // Capacidad de los buffers de la clase.
+        private final int maxFree; // Máximo de buffers libres retenidos.
+        private final Queue<ByteBuffer> free = new ConcurrentLinkedQueue<>(); // Buffers libres.
+        private final AtomicInteger freeCount = new AtomicInteger(); // Tamaño aproximado de la cola de libres.
+
+        private SizeClass(int capacity) {
+            this.capacity = capacity;
+            this.maxFree = Math.max(16, MAX_RETAINED_BYTES / capacity);
+        }
+    }
+}
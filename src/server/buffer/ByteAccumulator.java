@@ -0,0 +1,130 @@
+package server.buffer;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Acumulador de bytes recibidos que todavía no forman un mensaje completo.
+ * <p>
+ * Usa un buffer del montículo prestado por {@link BufferPool#heap()} solo mientras hay bytes
+ * pendientes: en cuanto se consumen todos, el buffer vuelve a la reserva. Si un mensaje no
+ * cabe, se cambia por uno de la siguiente clase de tamaño.
+ * </p>
+ *
+ * @see server.thread.LineDecoder
+ * @see server.protocol.FrameDecoder
+ */
+public final class ByteAccumulator {
+    private static final int INITIAL_CAPACITY = 256; // Capacidad mínima del buffer prestado.
+
+    private PooledBuffer pooled; // Buffer prestado, o null si no hay bytes pendientes.
+    private byte[] bytes; // Contenido del buffer prestado.
+    private int start; // Posición del primer byte pendiente.
+    private int end; // Posición siguiente al último byte pendiente.
+
+    /**
+     * Añade los bytes disponibles en el buffer indicado.
+     *
+     * @param source Buffer en modo lectura con los bytes recibidos.
+     */
+    public void append(ByteBuffer source) {
+        int length = source.remaining();
+        if (length == 0) {
+            return;
+        }
+        ensureCapacity(length);
+        source.get(bytes, end, length);
+        end += length;
+    }
+
+    /**
+     * Añade los bytes indicados.
+     *
+     * @param source Array con los bytes recibidos.
+     * @param offset Posición del primer byte.
+     * @param length Número de bytes.
+     */
+    public void append(byte[] source, int offset, int length) {
+        if (length == 0) {
+            return;
+        }
+        ensureCapacity(length);
+        System.arraycopy(source, offset, bytes, end, length);
+        end += length;
+    }
+
+    /**
+     * Descarta los primeros bytes pendientes. Si no queda ninguno, devuelve el buffer.
+     *
+     * @param count Número de bytes consumidos.
+     */
+    public void consume(int count) {
+        start += count;
+        if (start >= end) {
+            release();
+        }
+    }
+
+    /**
+     * Descarta los bytes pendientes y devuelve el buffer a la reserva.
+     */
+    public void release() {
+        if (pooled != null) {
+            pooled.release();
+            pooled = null;
+            bytes = null;
+        }
+        start = end = 0;
+    }
+
+    /**
+     * Obtiene el array con los bytes pendientes, entre {@link #start()} y {@link #end()}.
+     *
+     * @return Array del buffer prestado, o {@code null} si no hay bytes pendientes.
+     */
+    public byte[] array() {
+        return bytes;
+    }
+
+    public int start() {
+        return start;
+    }
+
+    public int end() {
+        return end;
+    }
+
+    public int size() {
+        return end - start;
+    }
+
+    /**
+     * Garantiza espacio para añadir los bytes indicados, compactando o cambiando de buffer.
+     *
+     * @param additional Bytes que se van a añadir.
+     */
+    private void ensureCapacity(int additional) {
+        if (pooled == null) {
+            pooled = BufferPool.heap().acquire(Math.max(INITIAL_CAPACITY, additional));
+            bytes = pooled.buffer().array();
+            start = end = 0;
+            return;
+        }
+        if (end + additional <= bytes.length) {
+            return;
+        }
+
+        int pending = end - start;
+        if (pending + additional <= bytes.length) {
+            System.arraycopy(bytes, start, bytes, 0, pending);
+        } else {
+            PooledBuffer grown = BufferPool.heap().acquire(Math.max(bytes.length * 2, pending + additional));
+            byte[] grownBytes = grown.buffer().array();
+            System.arraycopy(bytes, start, grownBytes, 0, pending);
+            pooled.release();
+            pooled = grown;
+            bytes = grownBytes;
+        }
+        start = 0;
+        end = pending;
+    }
+}
@@ -0,0 +1,273 @@
+package server.buffer;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * Cola de salida acotada de una conexión.
+ * <p>
+ * Quien escribe nunca espera a la red: añade los buffers de un mensaje con
+ * {@link #append(PooledBuffer)} y lo confirma con {@link #commit()}, y un único escritor
+ * asíncrono los va enviando con {@link #beginWrite()} y {@link #endWrite(boolean)}. Los
+ * mensajes se tratan siempre completos, de modo que nunca se envía uno a medias (lo que
+ * rompería, por ejemplo, el protocolo binario).
+ * </p>
+ * <p>
+ * Si al confirmar un mensaje los bytes pendientes superan la marca de nivel alto, se aplica
+ * la {@link OverflowPolicy} configurada. Un mensaje que llega con la cola vacía se acepta
+ * siempre, aunque por sí solo supere la marca.
+ * </p>
+ *
+ * @see OverflowPolicy
+ * @see PooledOutputStream
+ */
+public final class OutboundQueue {
+
+    /**
+     * Resultado de confirmar un mensaje.
+     */
+    public enum Result {
+        QUEUED, // El mensaje se ha encolado.
+        COALESCED, // El mensaje se ha encolado tras descartar mensajes pendientes más antiguos.
+        DROPPED, // El mensaje se ha descartado.
+        OVERFLOW, // El mensaje se ha descartado y el cliente debe desconectarse.
+        CLOSED // La cola ya estaba cerrada.
+    }
+
+    private final int highWaterMark; // Bytes pendientes a partir de los que se aplica la política.
+    private final OverflowPolicy policy; // Política ante un cliente lento.
+    private final ArrayDeque<Message> messages = new ArrayDeque<>(); // Mensajes confirmados pendientes de envío.
+    private Message open; // Mensaje que se está componiendo, aún sin confirmar.
+    private long queuedBytes; // Bytes confirmados pendientes de envío.
+    private long peakQueuedBytes; // Máximo de bytes pendientes alcanzado.
+    private long droppedMessages; // Mensajes descartados por la política.
+    private boolean headStarted; // Indica si ya se ha empezado a enviar el primer mensaje.
+    private boolean writing; // Indica si el escritor está usando un buffer de la cola.
+    private boolean closed; // Indica si la cola se ha cerrado.
+
+    /**
+     * Crea una cola con la marca de nivel alto y la política indicadas.
+     *
+     * @param highWaterMark Bytes pendientes a partir de los que se aplica la política.
+     * @param policy        Política ante un cliente lento.
+     */
+    public OutboundQueue(int highWaterMark, OverflowPolicy policy) {
+        this.highWaterMark = highWaterMark;
+        this.policy = policy;
+    }
+
+    /**
+     * Añade un buffer al mensaje en composición. La cola pasa a ser su propietaria.
+     *
+     * @param chunk Buffer en modo lectura.
+     */
+    public synchronized void append(PooledBuffer chunk) {
+        if (closed) {
+            chunk.release();
+            return;
+        }
+        if (open == null) {
+            open = new Message();
+        }
+        open.add(chunk);
+    }
+
+    /**
+     * Confirma el mensaje en composición y aplica la política si la cola supera su límite.
+     *
+     * @return Resultado de la confirmación.
+     */
+    public synchronized Result commit() {
+        Message message = open;
+        open = null;
+        if (closed) {
+            return Result.CLOSED;
+        }
+        if (message == null) {
+            return Result.QUEUED;
+        }
+
+        Result result = Result.QUEUED;
+        if (!messages.isEmpty() && queuedBytes + message.bytes > highWaterMark) {
+            switch (policy) {
+                case DROP -> {
+                    message.release();
+                    droppedMessages++;
+                    return Result.DROPPED;
+                }
+                case DISCONNECT -> {
+                    message.release();
+                    droppedMessages++;
+                    return Result.OVERFLOW;
+                }
+                case COALESCE -> {
+                    discardPendingMessages();
+                    result = Result.COALESCED;
+                }
+            }
+        }
+
+        messages.add(message);
+        queuedBytes += message.bytes;
+        peakQueuedBytes = Math.max(peakQueuedBytes, queuedBytes);
+        return result;
+    }
+
+    /**
+     * Descarta los mensajes confirmados que todavía no se han empezado a enviar.
+     */
+    private void discardPendingMessages() {
+        Iterator<Message> iterator = messages.iterator();
+        if (headStarted && iterator.hasNext()) {
+            iterator.next(); // El mensaje en curso se termina de enviar.
+        }
+        while (iterator.hasNext()) {
+            Message discarded = iterator.next();
+            iterator.remove();
+            discarded.release();
+            queuedBytes -= discarded.bytes;
+            droppedMessages++;
+        }
+    }
+
+    /**
+     * Obtiene el siguiente buffer que debe enviarse. El escritor debe llamar después a
+     * {@link #endWrite(boolean)}.
+     *
+     * @return Buffer en modo lectura, o {@code null} si no hay nada pendiente.
+     */
+    public synchronized ByteBuffer beginWrite() {
+        Message head = messages.peek();
+        if (closed || head == null) {
+            return null;
+        }
+        headStarted = true;
+        writing = true;
+        return head.current().buffer();
+    }
+
+    /**
+     * Indica el resultado de enviar el buffer obtenido con {@link #beginWrite()}.
+     *
+     * @param complete {@code true} si se ha enviado entero; {@code false} si queda una parte
+     *                 pendiente (o la escritura ha fallado).
+     */
+    public synchronized void endWrite(boolean complete) {
+        writing = false;
+        Message head = messages.peek();
+        if (head == null) {
+            return;
+        }
+        if (closed) {
+            messages.poll();
+            head.release();
+            return;
+        }
+        if (!complete) {
+            return;
+        }
+
+        queuedBytes -= head.releaseCurrent();
+        if (head.isDone()) {
+            messages.poll();
+            headStarted = false;
+        }
+    }
+
+    /**
+     * Cierra la cola y devuelve a la reserva todos sus buffers, salvo el que el escritor esté
+     * enviando en ese momento, que se devuelve en su {@link #endWrite(boolean)}.
+     */
+    public synchronized void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        if (open != null) {
+            open.release();
+            open = null;
+        }
+
+        Message inFlight = writing ? messages.poll() : null;
+        Message message;
+        while ((message = messages.poll()) != null) {
+            message.release();
+        }
+        if (inFlight != null) {
+            messages.add(inFlight);
+        }
+        queuedBytes = 0;
+    }
+
+    public synchronized boolean isEmpty() {
+        return messages.isEmpty();
+    }
+
+    public synchronized boolean isClosed() {
+        return closed;
+    }
+
+    public synchronized long getQueuedBytes() {
+        return queuedBytes;
+    }
+
+    public synchronized long getPeakQueuedBytes() {
+        return peakQueuedBytes;
+    }
+
+    public synchronized long getDroppedMessages() {
+        return droppedMessages;
+    }
+
+    public int getHighWaterMark() {
+        return highWaterMark;
+    }
+
+    public OverflowPolicy getPolicy() {
+        return policy;
+    }
+
+    /**
+     * Mensaje formado por uno o varios buffers consecutivos.
+     */
+    private static final class Message {
+        private final List<PooledBuffer> chunks = new ArrayList<>(1); // Buffers del mensaje.
+        private int index; // Buffer que se está enviando.
+        private long bytes; // Bytes del mensaje pendientes de envío.
+
+        private void add(PooledBuffer chunk) {
+            chunks.add(chunk);
+            bytes += chunk.buffer().remaining();
+        }
+
+        private PooledBuffer current() {
+            return chunks.get(index);
+        }
+
+        /**
+         * Devuelve el buffer actual, ya enviado, y pasa al siguiente.
+         *
+         * @return Bytes que ocupaba el buffer devuelto.
+         */
+        private long releaseCurrent() {
+            PooledBuffer chunk = chunks.get(index++);
+            long size = chunk.buffer().limit();
+            bytes -= size;
+            chunk.release();
+            return size;
+        }
+
+        private boolean isDone() {
+            return index == chunks.size();
+        }
+
+        private void release() {
+            while (index < chunks.size()) {
+                chunks.get(index++).release();
+            }
+        }
+    }
+}
@@ -0,0 +1,34 @@
+package server.buffer;
+
+/**
+ * Política que se aplica cuando la cola de salida de una conexión supera su límite.
+ * <p>
+ * Un cliente lento (por ejemplo, con la ventana TCP detenida) no bloquea a quien le escribe:
+ * sus mensajes se acumulan en su {@link OutboundQueue} y, al superar el límite, se aplica
+ * esta política.
+ * </p>
+ * <p>
+ * Los mensajes de la partida no se pueden reconstruir (turnos, puntuaciones, ganador), así que
+ * descartarlos deja al jugador sin poder seguirla: por eso la política por defecto es
+ * desconectarlo. {@link #DROP} y {@link #COALESCE} solo convienen a clientes que se limitan a
+ * observar.
+ * </p>
+ *
+ * @see OutboundQueue
+ */
+public enum OverflowPolicy {
+    DROP, // Se descarta el mensaje nuevo.
+    COALESCE, // Se descartan todos los mensajes pendientes sin enviar y se encola solo el nuevo.
+    DISCONNECT; // Se desconecta al cliente.
+
+    /**
+     * Obtiene la política a partir de su nombre, sin distinguir mayúsculas.
+     *
+     * @param name Nombre de la política.
+     * @return Política correspondiente.
+     * @throws IllegalArgumentException Si el nombre no corresponde a ninguna política.
+     */
+    public static OverflowPolicy fromName(String name) {
+        return OverflowPolicy.valueOf(name.trim().toUpperCase());
+    }
+}
@@ -0,0 +1,62 @@
+package server.buffer;
+
+import java.lang.ref.Cleaner;
+import java.nio.ByteBuffer;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Buffer prestado por una {@link BufferPool}.
+ * <p>
+ * Quien lo recibe es su único propietario hasta que lo devuelve con {@link #release()}, una
+ * sola vez. Después de devolverlo no debe seguir usándose, ya que otra conexión puede haberlo
+ * recibido.
+ * </p>
+ */
+public final class PooledBuffer {
+    private final BufferPool pool; // Reserva a la que pertenece el buffer.
+    private final ByteBuffer buffer; // Buffer prestado.
+    private final AtomicInteger released = new AtomicInteger(); // 1 cuando el buffer ya se ha devuelto.
+    private final Cleaner.Cleanable leakTracker; // Registro para detectar si se pierde sin devolverse.
+
+    /**
+     * Crea el préstamo de un buffer.
+     *
+     * @param pool   Reserva a la que pertenece el buffer.
+     * @param buffer Buffer prestado.
+     */
+    PooledBuffer(BufferPool pool, ByteBuffer buffer) {
+        this.pool = pool;
+        this.buffer = buffer;
+        this.leakTracker = pool.track(this, released);
+    }
+
+    /**
+     * Obtiene el buffer prestado.
+     *
+     * @return Buffer prestado.
+     * @throws IllegalStateException Si el buffer ya se ha devuelto.
+     */
+    public ByteBuffer buffer() {
+        if (released.get() != 0) {
+            throw new IllegalStateException("El buffer ya se ha devuelto a la reserva " + pool.getName());
+        }
+        return buffer;
+    }
+
+    public int capacity() {
+        return buffer.capacity();
+    }
+
+    /**
+     * Devuelve el buffer a su reserva.
+     *
+     * @throws IllegalStateException Si el buffer ya se había devuelto.
+     */
+    public void release() {
+        if (!released.compareAndSet(0, 1)) {
+            throw new IllegalStateException("El buffer ya se ha devuelto a la reserva " + pool.getName());
+        }
+        leakTracker.clean();
+        pool.recycle(buffer);
+    }
+}
@@ -0,0 +1,170 @@
+package server.buffer;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+
+/**
+ * Flujo de salida que acumula los bytes escritos en buffers prestados por una
+ * {@link BufferPool}.
+ * <p>
+ * El flujo no retiene ningún buffer mientras no se escribe en él: pide uno con la primera
+ * escritura de un mensaje y, al llenarse o al vaciar el flujo con {@link #flush()}, lo entrega
+ * a la subclase mediante {@link #emit(PooledBuffer)}, que pasa a ser su propietaria y debe
+ * devolverlo cuando haya enviado su contenido.
+ * </p>
+ * <p>
+ * Las escrituras y los vaciados están sincronizados, por lo que varios hilos pueden escribir
+ * en la misma conexión.
+ * </p>
+ */
+public abstract class PooledOutputStream extends OutputStream {
+    private final BufferPool pool; // Reserva de la que se piden los buffers.
+    private final int chunkSize; // Capacidad de cada buffer pedido.
+    private PooledBuffer current; // Buffer que se está llenando, o null si no hay bytes pendientes.
+
+    /**
+     * Crea un flujo que pide a la reserva indicada buffers del tamaño indicado.
+     *
+     * @param pool      Reserva de buffers.
+     * @param chunkSize Capacidad de cada buffer.
+     */
+    protected PooledOutputStream(BufferPool pool, int chunkSize) {
+        this.pool = pool;
+        this.chunkSize = chunkSize;
+    }
+
+    /**
+     * Crea un flujo que acumula los mensajes en buffers del montículo y los escribe en el flujo
+     * indicado al vaciarse, por ejemplo el de un socket bloqueante.
+     *
+     * @param target    Flujo destino.
+     * @param chunkSize Capacidad de cada buffer.
+     * @return Flujo con buffers prestados.
+     */
+    public static PooledOutputStream forStream(OutputStream target, int chunkSize) {
+        return new PooledOutputStream(BufferPool.heap(), chunkSize) {
+            @Override
+            protected void emit(PooledBuffer filled) throws IOException {
+                try {
+                    ByteBuffer bytes = filled.buffer();
+                    target.write(bytes.array(), bytes.arrayOffset() + bytes.position(), bytes.remaining());
+                } finally {
+                    filled.release();
+                }
+            }
+
+            @Override
+            protected void flushEmitted() throws IOException {
+                target.flush();
+            }
+
+            @Override
+            protected void closeTarget() throws IOException {
+                target.close();
+            }
+        };
+    }
+
+    @Override
+    public synchronized void write(int b) throws IOException {
+        writableBuffer().put((byte) b);
+    }
+
+    @Override
+    public synchronized void write(byte[] bytes, int offset, int length) throws IOException {
+        while (length > 0) {
+            ByteBuffer buffer = writableBuffer();
+            int count = Math.min(length, buffer.remaining());
+            buffer.put(bytes, offset, count);
+            offset += count;
+            length -= count;
+        }
+    }
+
+    @Override
+    public synchronized void flush() throws IOException {
+        emitCurrent();
+        flushEmitted();
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        try {
+            flush();
+        } finally {
+            closeTarget();
+        }
+    }
+
+    /**
+     * Devuelve a la reserva los bytes escritos que todavía no se han entregado. Se usa al
+     * cerrarse la conexión, cuando ya no se van a enviar.
+     */
+    public synchronized void discard() {
+        if (current != null) {
+            current.release();
+            current = null;
+        }
+    }
+
+    /**
+     * Obtiene un buffer con espacio libre, entregando el actual si ya está lleno.
+     *
+     * @return Buffer en el que escribir.
+     * @throws IOException Si falla la entrega del buffer lleno.
+     */
+    private ByteBuffer writableBuffer() throws IOException {
+        if (current != null && !current.buffer().hasRemaining()) {
+            emitCurrent();
+        }
+        if (current == null) {
+            current = pool.acquire(chunkSize);
+        }
+        return current.buffer();
+    }
+
+    /**
+     * Entrega el buffer actual a la subclase, o lo devuelve si está vacío.
+     *
+     * @throws IOException Si falla la entrega.
+     */
+    private void emitCurrent() throws IOException {
+        PooledBuffer filled = current;
+        if (filled == null) {
+            return;
+        }
+        current = null;
+
+        if (filled.buffer().position() == 0) {
+            filled.release();
+            return;
+        }
+        filled.buffer().flip();
+        emit(filled);
+    }
+
+    /**
+     * Recibe un buffer con bytes listos para enviar, en modo lectura. La subclase pasa a ser su
+     * propietaria y debe devolverlo con {@link PooledBuffer#release()} tras enviarlo.
+     *
+     * @param filled Buffer con los bytes a enviar.
+     * @throws IOException Si no se pueden enviar los bytes.
+     */
+    protected abstract void emit(PooledBuffer filled) throws IOException;
+
+    /**
+     * Solicita que se envíe todo lo entregado hasta ahora.
+     *
+     * @throws IOException Si no se puede vaciar el destino.
+     */
+    protected abstract void flushEmitted() throws IOException;
+
+    /**
+     * Cierra el destino de los bytes. Por defecto no hace nada.
+     *
+     * @throws IOException Si no se puede cerrar el destino.
+     */
+    protected void closeTarget() throws IOException {
+    }
+}
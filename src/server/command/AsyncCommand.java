@@ -0,0 +1,88 @@
+package server.command;
+
+import server.message.Messages;
+import server.thread.ClientHandler;
+
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.Executor;
+
+/**
+ * Comando cuyo trabajo lento (por ejemplo, escribir en disco) se ejecuta fuera del hilo que
+ * atiende la conexión.
+ * <p>
+ * La ejecución tiene dos fases. {@link #executeAsync} se llama en el hilo de la conexión:
+ * valida los argumentos, puede responder directamente y lanza el trabajo lento en el ejecutor
+ * recibido. Cuando ese trabajo termina, {@link #complete} se llama de nuevo en el contexto de la
+ * conexión, con el identificador de petición y el lote de salida restablecidos, para escribir la
+ * respuesta. Si el trabajo falla, en su lugar se llama a {@link #fail}, para que el cliente
+ * reciba siempre una respuesta.
+ * </p>
+ * <p>
+ * Mientras el comando está pendiente, la conexión sigue leyendo y acumulando lo que recibe, pero
+ * no ejecuta el siguiente comando hasta que este termina: el orden de las respuestas de cada
+ * cliente se mantiene.
+ * </p>
+ *
+ * @param <T> Resultado del trabajo lento.
+ * @see server.service.services.CommandProcessor
+ */
+public interface AsyncCommand<T> extends Command {
+    /**
+     * Inicia el comando con los argumentos proporcionados.
+     * <p>
+     * Los argumentos deben copiarse antes de devolver el control, ya que la línea de la que
+     * proceden se reutiliza para el siguiente comando.
+     * </p>
+     *
+     * @param args          Argumentos del comando.
+     * @param clientHandler Cliente que ejecuta el comando.
+     * @param executor      Ejecutor en el que lanzar el trabajo lento.
+     * @return Etapa que se completa con el resultado del trabajo, o {@code null} si el comando ya
+     *         ha respondido sin necesidad de él (por ejemplo, por una sintaxis incorrecta).
+     */
+    CompletionStage<T> executeAsync(String[] args, ClientHandler clientHandler, Executor executor);
+
+    /**
+     * Escribe la respuesta al cliente una vez terminado el trabajo lento. Se ejecuta en el
+     * contexto de la conexión, nunca en el hilo del ejecutor.
+     *
+     * @param result        Resultado del trabajo.
+     * @param clientHandler Cliente que ejecuta el comando.
+     */
+    void complete(T result, ClientHandler clientHandler);
+
+    /**
+     * Informa al cliente de que el trabajo lento ha fallado. Se ejecuta en el contexto de la
+     * conexión, igual que {@link #complete}. Por defecto responde con un error genérico.
+     *
+     * @param error         Error del trabajo.
+     * @param clientHandler Cliente que ejecuta el comando.
+     */
+    default void fail(Throwable error, ClientHandler clientHandler) {
+        clientHandler.getOutput().println(Messages.COMMAND_FAILED);
+    }
+
+    /**
+     * Ejecuta el comando de forma síncrona, esperando al trabajo lento en el hilo actual.
+     *
+     * @param args          Argumentos del comando.
+     * @param clientHandler Cliente que ejecuta el comando.
+     */
+    @Override
+    default void execute(String[] args, ClientHandler clientHandler) {
+        CompletionStage<T> pending = executeAsync(args, clientHandler, Runnable::run);
+        if (pending == null) {
+            return;
+        }
+
+        T result;
+        try {
+            result = pending.toCompletableFuture().join();
+        } catch (CompletionException e) {
+            fail(e.getCause(), clientHandler);
+            return;
+        }
+        complete(result, clientHandler);
+    }
+}
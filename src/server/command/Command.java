@@ -27,4 +27,20 @@ public interface Command {
      *                      respuestas o notificaciones).
      */
     void execute(String[] args, ClientHandler clientHandler);
+
+    /**
+     * Ejecuta el comando a partir de la línea ya analizada.
+     * <p>
+     * Por defecto copia los argumentos en un array y llama a
+     * {@link #execute(String[], ClientHandler)}. Los comandos más frecuentes lo sobrescriben
+     * para leer los argumentos directamente de la línea, sin crear ningún objeto.
+     * </p>
+     *
+     * @param commandLine   Línea del comando analizada. Solo es válida durante la ejecución,
+     *                      ya que la conexión la reutiliza para la siguiente línea.
+     * @param clientHandler Cliente que ejecuta el comando.
+     */
+    default void execute(CommandLine commandLine, ClientHandler clientHandler) {
+        execute(commandLine.toArguments(), clientHandler);
+    }
 }
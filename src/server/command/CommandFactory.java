@@ -2,27 +2,37 @@ package server.command;
 
 import server.command.commands.*;
 import common.logger.CustomLogger;
+import server.metrics.CommandMetrics;
 
-import java.util.HashMap;
-import java.util.Map;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
 /**
  * Fábrica de comandos que gestiona la creación y registro de comandos en el servidor.
  * <p>
- * Proporciona un sistema para registrar y recuperar comandos basados en su nombre.
- * Cada comando registrado puede ser instanciado y ejecutado en el servidor según se
- * requiera. Los comandos suelen estar asociados a diferentes acciones que los clientes
- * pueden ejecutar durante la partida.
+ * Proporciona un sistema para registrar y recuperar comandos basados en su nombre. Los
+ * comandos no guardan estado, por lo que cada uno se crea una única vez al registrarlo y la
+ * misma instancia atiende todas las líneas de todos los clientes. Los nombres se buscan en una
+ * {@link CommandTable} sin distinguir mayúsculas, sin reflexión ni reservas de memoria por
+ * cada comando recibido.
+ * </p>
+ * <p>
+ * Cada comando registrado tiene sus {@link CommandMetrics}, en las que el procesador de
+ * comandos anota la latencia y los errores de cada ejecución.
  * </p>
  */
 public class CommandFactory {
     private static final Logger logger = CustomLogger.getLogger(CommandFactory.class.getName());
     private static final String COMMAND_SYMBOL = "/"; // Símbolo que indica el inicio de un comando.
 
-    // Mapa de comandos registrados, donde la clave es el nombre del comando y el valor es su clase.
-    private final Map<String, Class<? extends Command>> commands;
+    // Tabla de comandos registrados, donde la clave es el nombre del comando y el valor es su instancia.
+    private final CommandTable commands = new CommandTable();
+    private final ConcurrentMap<Command, CommandMetrics> metrics = new ConcurrentHashMap<>(); // Métricas de cada comando registrado.
 
     /**
      * Constructor que inicializa la fábrica y registra los comandos disponibles.
@@ -33,20 +43,19 @@ public class CommandFactory {
      * </p>
      */
     public CommandFactory() {
-        commands = new HashMap<>();
-
         // Registro de todos los comandos que utiliza el servidor
-        registerCommand(HelpCommand.getCommandName(), HelpCommand.class);
-        registerCommand(LoginCommand.getCommandName(), LoginCommand.class);
-        registerCommand(RegisterCommand.getCommnadName(), RegisterCommand.class);
-        registerCommand(UserCommand.getCommandName(), UserCommand.class);
-        registerCommand(SinglePlayerCommand.getCommandName(), SinglePlayerCommand.class);
-        registerCommand(MultiplayerCommand.getCommandName(), MultiplayerCommand.class);
-        registerCommand(ConsonantCommand.getCommandName(), ConsonantCommand.class);
-        registerCommand(VowelCommand.getCommandName(), VowelCommand.class);
-        registerCommand(SolveCommand.getCommandName(), SolveCommand.class);
-        registerCommand(RoomsCommand.getCommandName(), RoomsCommand.class);
-        registerCommand(ExitCommand.getCommandName(), ExitCommand.class);
+        registerCommand(HelpCommand.getCommandName(), new HelpCommand());
+        registerCommand(LoginCommand.getCommandName(), new LoginCommand());
+        registerCommand(RegisterCommand.getCommnadName(), new RegisterCommand());
+        registerCommand(UserCommand.getCommandName(), new UserCommand());
+        registerCommand(SinglePlayerCommand.getCommandName(), new SinglePlayerCommand());
+        registerCommand(MultiplayerCommand.getCommandName(), new MultiplayerCommand());
+        registerCommand(ConsonantCommand.getCommandName(), new ConsonantCommand());
+        registerCommand(VowelCommand.getCommandName(), new VowelCommand());
+        registerCommand(SolveCommand.getCommandName(), new SolveCommand());
+        registerCommand(RoomsCommand.getCommandName(), new RoomsCommand());
+        registerCommand(ExitCommand.getCommandName(), new ExitCommand());
+        registerCommand(StatsCommand.getCommandName(), new StatsCommand());
     }
 
     /**
@@ -54,57 +63,108 @@ public class CommandFactory {
      * <p>
      * Este método permite añadir nuevos comandos al sistema. Cada comando está asociado
      * con un nombre que se utilizará para identificarlo, y una clase que implementa
-     * la lógica de ejecución del comando.
+     * la lógica de ejecución del comando. La clase se instancia una única vez, en este
+     * momento, por lo que debe tener un constructor público sin parámetros y no guardar
+     * estado entre ejecuciones.
      * </p>
      *
      * @param commandName  Nombre del comando.
      * @param commandClass Clase que implementa el comando.
+     * @throws IllegalArgumentException Si no se puede instanciar la clase.
      */
     public void registerCommand(String commandName, Class<? extends Command> commandClass) {
-        commands.put(commandName, commandClass);
+        try {
+            registerCommand(commandName, commandClass.getConstructor().newInstance());
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalArgumentException("No se puede instanciar el comando " + commandName, e);
+        }
     }
 
     /**
-     * Obtiene la clase de un comando registrado.
-     * <p>
-     * Este método permite obtener la clase que corresponde a un comando previamente
-     * registrado, lo que facilita la ejecución del mismo.
-     * </p>
+     * Registra una instancia de comando en la fábrica. Se comparte entre todos los clientes,
+     * por lo que no debe guardar estado entre ejecuciones.
+     *
+     * @param commandName Nombre del comando, sin distinguir mayúsculas.
+     * @param command     Instancia del comando.
+     */
+    public void registerCommand(String commandName, Command command) {
+        Command previous = getCommand(commandName);
+        if (previous != null) {
+            metrics.remove(previous);
+        }
+        metrics.put(command, new CommandMetrics(commandName));
+        commands.put(commandName, command);
+    }
+
+    /**
+     * Obtiene un comando registrado a partir de su nombre, sin prefijo.
      *
      * @param command Nombre del comando.
-     * @return Clase del comando si está registrado, {@code null} si no existe.
+     * @return Comando si está registrado, {@code null} si no existe.
      */
-    public Class<? extends Command> getCommand(String command) {
-        return commands.get(command);
+    public Command getCommand(String command) {
+        return commands.get(command, 0, command.length());
     }
 
     /**
-     * Crea una instancia de un comando a partir de su nombre.
-     * <p>
-     * Este método utiliza la reflexión para crear una nueva instancia del comando
-     * correspondiente al nombre proporcionado. Si el comando no está registrado o
-     * hay un error, se devuelve {@code null}.
-     * </p>
+     * Busca un comando a partir de su nombre con prefijo, tal como lo escribe el cliente.
      *
-     * @param commandName Nombre del comando a crear.
-     * @return Instancia del comando si se encuentra registrado, {@code null} si no existe.
-     * @throws Exception Si hay un error al instanciar el comando.
+     * @param commandName Nombre del comando con su prefijo.
+     * @return Comando si se encuentra registrado, {@code null} si no existe.
      */
-    public Command createCommand(String commandName) throws Exception {
+    public Command findCommand(String commandName) {
+        Command command = null;
         if (commandName.startsWith(COMMAND_SYMBOL)) {
-            commandName = commandName.substring(1); // Eliminar el prefijo del comando
-        } else {
+            command = commands.get(commandName, COMMAND_SYMBOL.length(), commandName.length());
+        }
+
+        if (command == null) {
             logger.log(Level.WARNING, "Comando no reconocido: {0}", commandName);
-            return null;
+        }
+        return command;
+    }
+
+    /**
+     * Busca el comando cuyo nombre encabeza una línea ya analizada, sin crear ningún objeto.
+     *
+     * @param commandLine Línea analizada, no vacía.
+     * @return Comando si se encuentra registrado, {@code null} si no existe.
+     */
+    public Command findCommand(CommandLine commandLine) {
+        String line = commandLine.getLine();
+        int start = commandLine.getNameStart();
+        int end = commandLine.getNameEnd();
+
+        Command command = null;
+        if (line.startsWith(COMMAND_SYMBOL, start)) {
+            command = commands.get(line, start + COMMAND_SYMBOL.length(), end);
         }
 
-        Class<? extends Command> commandClass = commands.get(commandName);
-        if (commandClass != null) {
-            return commandClass.getConstructor().newInstance();
+        if (command == null) {
+            logger.log(Level.WARNING, "Comando no reconocido: {0}", commandLine.getName());
         }
+        return command;
+    }
 
-        logger.log(Level.WARNING, "Comando no reconocido: {0}", commandName);
-        return null;
+    /**
+     * Obtiene las métricas de un comando registrado.
+     *
+     * @param command Instancia del comando.
+     * @return Métricas del comando, o {@code null} si no está registrado.
+     */
+    public CommandMetrics getMetrics(Command command) {
+        return metrics.get(command);
+    }
+
+    /**
+     * Obtiene las métricas de todos los comandos registrados, ordenadas por nombre.
+     *
+     * @return Métricas de cada comando.
+     */
+    public List<CommandMetrics> getAllMetrics() {
+        List<CommandMetrics> all = new ArrayList<>(metrics.values());
+        all.sort(Comparator.comparing(CommandMetrics::getName));
+        return all;
     }
 
     /**
@@ -0,0 +1,220 @@
+package server.command;
+
+import java.util.Arrays;
+
+/**
+ * Analizador reutilizable de líneas de comando.
+ * <p>
+ * Separa una línea en el nombre del comando y sus argumentos sin crear ningún objeto: solo
+ * guarda la posición de cada palabra dentro de la línea original. Los comandos pueden leer
+ * los caracteres de un argumento directamente o, si necesitan el texto, obtenerlo con
+ * {@link #getArgument(int)} o {@link #getRest()}. Cada conexión tiene su propia instancia, que
+ * se reutiliza para todas sus líneas.
+ * </p>
+ * <p>
+ * Las palabras se separan por los mismos caracteres que la expresión {@code \s}: espacio,
+ * tabulador, saltos de línea, tabulador vertical y salto de página.
+ * </p>
+ *
+ * @see Command#execute(CommandLine, server.thread.ClientHandler)
+ */
+public final class CommandLine {
+    private static final int INITIAL_WORDS = 8; // Palabras que caben sin ampliar los arrays.
+
+    private String line; // Línea analizada.
+    private int[] starts = new int[INITIAL_WORDS]; // Posición inicial de cada palabra.
+    private int[] ends = new int[INITIAL_WORDS]; // Posición final (excluida) de cada palabra.
+    private int words; // Número de palabras, incluido el nombre del comando.
+
+    /**
+     * Analiza una línea completa.
+     *
+     * @param line Línea recibida.
+     * @return Este mismo analizador.
+     */
+    public CommandLine parse(String line) {
+        return parse(line, 0);
+    }
+
+    /**
+     * Analiza una línea a partir de la posición indicada, por ejemplo tras el identificador de
+     * petición.
+     *
+     * @param line Línea recibida.
+     * @param from Posición en la que empieza el comando.
+     * @return Este mismo analizador.
+     */
+    public CommandLine parse(String line, int from) {
+        this.line = line;
+        this.words = 0;
+
+        int length = line.length();
+        int position = from;
+        while (true) {
+            while (position < length && isSeparator(line.charAt(position))) {
+                position++;
+            }
+            if (position == length) {
+                return this;
+            }
+
+            int start = position;
+            while (position < length && !isSeparator(line.charAt(position))) {
+                position++;
+            }
+            addWord(start, position);
+        }
+    }
+
+    /**
+     * Olvida la última línea analizada.
+     */
+    public void clear() {
+        line = null;
+        words = 0;
+    }
+
+    /**
+     * Indica si la línea no contiene ninguna palabra.
+     *
+     * @return {@code true} si la línea está vacía o solo tiene separadores.
+     */
+    public boolean isEmpty() {
+        return words == 0;
+    }
+
+    public String getLine() {
+        return line;
+    }
+
+    public int getNameStart() {
+        return starts[0];
+    }
+
+    public int getNameEnd() {
+        return ends[0];
+    }
+
+    /**
+     * Obtiene el nombre del comando, con su prefijo. Crea una cadena nueva.
+     *
+     * @return Nombre del comando.
+     */
+    public String getName() {
+        return line.substring(starts[0], ends[0]);
+    }
+
+    /**
+     * Obtiene el número de argumentos, sin contar el nombre del comando.
+     *
+     * @return Número de argumentos.
+     */
+    public int getArgumentCount() {
+        return Math.max(0, words - 1);
+    }
+
+    public int getArgumentStart(int index) {
+        return starts[checkArgument(index)];
+    }
+
+    public int getArgumentEnd(int index) {
+        return ends[checkArgument(index)];
+    }
+
+    public int getArgumentLength(int index) {
+        int word = checkArgument(index);
+        return ends[word] - starts[word];
+    }
+
+    /**
+     * Obtiene un carácter de un argumento sin crear ninguna cadena.
+     *
+     * @param index    Posición del argumento.
+     * @param position Posición del carácter dentro del argumento.
+     * @return Carácter indicado.
+     */
+    public char argumentCharAt(int index, int position) {
+        int word = checkArgument(index);
+        if (position < 0 || position >= ends[word] - starts[word]) {
+            throw new IndexOutOfBoundsException("Posición " + position + " fuera del argumento " + index);
+        }
+        return line.charAt(starts[word] + position);
+    }
+
+    /**
+     * Obtiene el texto de un argumento. Crea una cadena nueva.
+     *
+     * @param index Posición del argumento.
+     * @return Texto del argumento.
+     */
+    public String getArgument(int index) {
+        int word = checkArgument(index);
+        return line.substring(starts[word], ends[word]);
+    }
+
+    /**
+     * Obtiene el resto de la línea tras el nombre del comando, tal como lo escribió el
+     * cliente: desde el primer argumento hasta el último, con los separadores intermedios
+     * originales.
+     *
+     * @return Resto de la línea, o una cadena vacía si no hay argumentos.
+     */
+    public String getRest() {
+        if (words < 2) {
+            return "";
+        }
+        return line.substring(starts[1], ends[words - 1]);
+    }
+
+    /**
+     * Copia los argumentos en un array, para los comandos que los reciben como cadenas.
+     *
+     * @return Argumentos del comando.
+     */
+    public String[] toArguments() {
+        String[] arguments = new String[getArgumentCount()];
+        for (int i = 0; i < arguments.length; i++) {
+            arguments[i] = line.substring(starts[i + 1], ends[i + 1]);
+        }
+        return arguments;
+    }
+
+    /**
+     * Comprueba que el argumento existe y obtiene su posición entre las palabras.
+     *
+     * @param index Posición del argumento.
+     * @return Posición de la palabra.
+     */
+    private int checkArgument(int index) {
+        if (index < 0 || index >= words - 1) {
+            throw new IndexOutOfBoundsException("Argumento " + index + " inexistente; hay " + getArgumentCount());
+        }
+        return index + 1;
+    }
+
+    /**
+     * Añade una palabra, ampliando los arrays si es necesario.
+     *
+     * @param start Posición inicial.
+     * @param end   Posición final (excluida).
+     */
+    private void addWord(int start, int end) {
+        if (words == starts.length) {
+            starts = Arrays.copyOf(starts, words * 2);
+            ends = Arrays.copyOf(ends, words * 2);
+        }
+        starts[words] = start;
+        ends[words] = end;
+        words++;
+    }
+
+    /**
+     * Indica si un carácter separa palabras, con el mismo criterio que {@code \s}.
+     *
+     * @param c Carácter.
+     * @return {@code true} si es un separador.
+     */
+    private static boolean isSeparator(char c) {
+        return c == ' ' || c == '\t' || c == '\n' || c == '\u000B' || c == '\f' || c == '\r';
+    }
+}
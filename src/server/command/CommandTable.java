@@ -0,0 +1,147 @@
+package server.command;
+
+/**
+ * Tabla de búsqueda de comandos por nombre, sin distinguir mayúsculas.
+ * <p>
+ * Es una tabla hash de direccionamiento abierto con sondeo lineal cuyas claves se guardan ya
+ * en minúsculas. Buscar un comando no crea ningún objeto: el código hash y la comparación se
+ * calculan directamente sobre el fragmento de la línea recibida, convirtiendo cada carácter a
+ * minúscula sobre la marcha.
+ * </p>
+ * <p>
+ * Registrar un comando reconstruye la tabla y la publica de forma atómica, de modo que las
+ * búsquedas, muy frecuentes, no necesitan sincronización y los registros, que ocurren casi
+ * siempre al arrancar, pueden hacerse desde cualquier hilo.
+ * </p>
+ *
+ * @see CommandFactory
+ */
+final class CommandTable {
+    private static final int MIN_CAPACITY = 32; // Capacidad mínima de la tabla.
+
+    private volatile Slots slots = new Slots(MIN_CAPACITY); // Tabla publicada.
+
+    /**
+     * Registra un comando, sustituyendo al que tuviera el mismo nombre.
+     *
+     * @param name    Nombre del comando, sin prefijo.
+     * @param command Instancia del comando.
+     */
+    synchronized void put(String name, Command command) {
+        String key = toLowerCase(name, 0, name.length());
+        Slots current = slots;
+
+        int capacity = current.names.length;
+        while ((current.size + 1) * 2 > capacity) {
+            capacity <<= 1; // Se mantiene la ocupación por debajo de la mitad.
+        }
+        Slots next = new Slots(capacity);
+        for (int i = 0; i < current.names.length; i++) {
+            if (current.names[i] != null && !current.names[i].equals(key)) {
+                next.insert(current.names[i], current.commands[i]);
+            }
+        }
+        next.insert(key, command);
+        slots = next;
+    }
+
+    /**
+     * Busca el comando cuyo nombre ocupa el fragmento indicado.
+     *
+     * @param text  Texto que contiene el nombre.
+     * @param start Posición inicial del nombre.
+     * @param end   Posición final (excluida) del nombre.
+     * @return Comando registrado con ese nombre, o {@code null} si no existe.
+     */
+    Command get(CharSequence text, int start, int end) {
+        Slots table = slots;
+        int mask = table.names.length - 1;
+        for (int i = hash(text, start, end) & mask; ; i = (i + 1) & mask) {
+            String name = table.names[i];
+            if (name == null) {
+                return null;
+            }
+            if (matches(name, text, start, end)) {
+                return table.commands[i];
+            }
+        }
+    }
+
+    /**
+     * Calcula el código hash de un nombre sin distinguir mayúsculas.
+     *
+     * @param text  Texto que contiene el nombre.
+     * @param start Posición inicial del nombre.
+     * @param end   Posición final (excluida) del nombre.
+     * @return Código hash, ya dispersado.
+     */
+    private static int hash(CharSequence text, int start, int end) {
+        int h = 0;
+        for (int i = start; i < end; i++) {
+            h = 31 * h + Character.toLowerCase(text.charAt(i));
+        }
+        return h ^ (h >>> 16);
+    }
+
+    /**
+     * Compara una clave de la tabla con un fragmento de texto sin distinguir mayúsculas.
+     *
+     * @param name  Clave de la tabla, en minúsculas.
+     * @param text  Texto que contiene el nombre buscado.
+     * @param start Posición inicial del nombre.
+     * @param end   Posición final (excluida) del nombre.
+     * @return {@code true} si coinciden.
+     */
+    private static boolean matches(String name, CharSequence text, int start, int end) {
+        if (name.length() != end - start) {
+            return false;
+        }
+        for (int i = 0; i < name.length(); i++) {
+            if (name.charAt(i) != Character.toLowerCase(text.charAt(start + i))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Convierte a minúsculas un fragmento con la misma regla que usan las búsquedas.
+     *
+     * @param text  Texto que contiene el fragmento.
+     * @param start Posición inicial del fragmento.
+     * @param end   Posición final (excluida) del fragmento.
+     * @return Fragmento en minúsculas.
+     */
+    private static String toLowerCase(CharSequence text, int start, int end) {
+        char[] chars = new char[end - start];
+        for (int i = start; i < end; i++) {
+            chars[i - start] = Character.toLowerCase(text.charAt(i));
+        }
+        return new String(chars);
+    }
+
+    /**
+     * Contenido inmutable de la tabla una vez publicado.
+     */
+    private static final class Slots {
+        private final String[] names; // Nombres en minúsculas, o null en las posiciones libres.
+        private final Command[] commands; // Comando de cada nombre.
+        private int size; // Número de comandos registrados.
+
+        private Slots(int capacity) {
+            this.names = new String[capacity];
+            this.commands = new Command[capacity];
+        }
+
+        private void insert(String name, Command command) {
+            int mask = names.length - 1;
+            int i = hash(name, 0, name.length()) & mask;
+            while (names[i] != null) {
+                i = (i + 1) & mask;
+            }
+            names[i] = name;
+            commands[i] = command;
+            size++;
+        }
+    }
+}
@@ -2,6 +2,9 @@ package server.command.commands;
 
 import server.command.Command;
 import server.command.CommandFactory;
+import server.command.CommandLine;
+import server.message.EncodedMessage;
+import server.message.Messages;
 import common.logger.CustomLogger;
 import server.service.services.CommandProcessor;
 import server.thread.ClientHandler;
@@ -23,6 +26,7 @@ import java.util.logging.Logger;
 public class ConsonantCommand implements Command {
     private static final Logger logger = CustomLogger.getLogger(ConsonantCommand.class.getName());
     private static final String COMMAND_NAME = "consonant"; // Nombre del comando.
+    private static final EncodedMessage USAGE = Messages.usage(COMMAND_NAME + " <consonante>"); // Mensaje de ayuda del comando.
     private static final int parametersAmount = 1; // Cantidad exacta de parámetros esperados (una consonante)
 
     /**
@@ -35,22 +39,46 @@ public class ConsonantCommand implements Command {
     public void execute(String[] args, ClientHandler clientHandler) {
         // Validar la cantidad de argumentos
         if (args.length != parametersAmount) {
-            clientHandler.getOutput().println("Ayuda: " + CommandFactory.getCommandSymbol() +
-                    COMMAND_NAME + " <consonante>");
+            clientHandler.getOutput().println(USAGE);
             return;
         }
 
+        // Obtener la consonante introducida por el usuario
+        guess(args[0].charAt(0), clientHandler);
+    }
+
+    /**
+     * Ejecuta el comando leyendo la letra directamente de la línea analizada, sin crear
+     * ningún objeto.
+     *
+     * @param commandLine   Línea del comando analizada.
+     * @param clientHandler Cliente que ejecuta el comando.
+     */
+    @Override
+    public void execute(CommandLine commandLine, ClientHandler clientHandler) {
+        if (commandLine.getArgumentCount() != parametersAmount) {
+            clientHandler.getOutput().println(USAGE);
+            return;
+        }
+
+        guess(commandLine.argumentCharAt(0, 0), clientHandler);
+    }
+
+    /**
+     * Procesa la consonante propuesta por el jugador en su partida activa.
+     *
+     * @param consonant     Consonante propuesta.
+     * @param clientHandler Cliente que ejecuta el comando.
+     */
+    private void guess(char consonant, ClientHandler clientHandler) {
         logger.log(Level.INFO, "Ejecutando comando " + CommandFactory.getCommandSymbol() + "{0} por " + clientHandler.getSocketAddress(), COMMAND_NAME);
 
         // Verificar si el jugador tiene una partida activa
         if (!clientHandler.hasActiveSingleGame() && !clientHandler.hasActiveMultiplayerGame()) {
-            clientHandler.getOutput().println("No tienes una partida activa.");
+            clientHandler.getOutput().println(Messages.NO_ACTIVE_GAME);
             return;
         }
 
-        // Obtener la consonante introducida por el usuario
-        char consonant = args[0].charAt(0);
-
         // Si el jugador está en una partida individual, se procesa la consonante
         if (clientHandler.hasActiveSingleGame() && !clientHandler.hasActiveMultiplayerGame()) {
             clientHandler.getGameSession().guessConsonant(consonant);
@@ -2,6 +2,8 @@ package server.command.commands;
 
 import server.command.Command;
 import server.command.CommandFactory;
+import server.message.EncodedMessage;
+import server.message.Messages;
 import common.logger.CustomLogger;
 import server.thread.ClientHandler;
 import server.service.services.*;
@@ -23,6 +25,7 @@ import java.util.logging.Logger;
 public class ExitCommand implements Command {
     private static final Logger logger = CustomLogger.getLogger(ExitCommand.class.getName());
     private static final String COMMAND_NAME = "exit"; // Nombre del comando.
+    private static final EncodedMessage USAGE = Messages.usage(COMMAND_NAME); // Mensaje de ayuda del comando.
     private static final int parametersAmount = 0;  // Cantidad de parámetros esperados para este comando.
 
     /**
@@ -39,8 +42,7 @@ public class ExitCommand implements Command {
     @Override
     public void execute(String[] args, ClientHandler clientHandler) {
         if (args.length != parametersAmount) {
-            clientHandler.getOutput().println("Ayuda: " + CommandFactory.getCommandSymbol() +
-                    COMMAND_NAME);
+            clientHandler.getOutput().println(USAGE);
             return;
         }
 
@@ -2,6 +2,7 @@ package server.command.commands;
 
 import server.command.Command;
 import server.command.CommandFactory;
+import server.message.EncodedMessage;
 import common.logger.CustomLogger;
 import server.service.services.CommandProcessor;
 import server.thread.ClientHandler;
@@ -19,6 +20,9 @@ public class HelpCommand implements Command {
     private static final String COMMAND_NAME = "help"; // Nombre del comando.
     private static final int parametersAmount = 0; // Cantidad esperada de parámetros.
 
+    private static final EncodedMessage USAGE = EncodedMessage.of("Uso: " + CommandFactory.getCommandSymbol() + COMMAND_NAME); // Mensaje de uso del comando.
+    private static final EncodedMessage[] HELP_TABLE = buildHelpTable(); // Tabla de ayuda, codificada una sola vez.
+
     /**
      * Ejecuta el comando "help", mostrando una lista de comandos disponibles.
      *
@@ -28,27 +32,41 @@ public class HelpCommand implements Command {
     @Override
     public void execute(String[] args, ClientHandler clientHandler) {
         if (args.length != parametersAmount) {
-            clientHandler.getOutput().println("Uso: " + CommandFactory.getCommandSymbol() + COMMAND_NAME);
+            clientHandler.getOutput().println(USAGE);
             return;
         }
 
+        for (EncodedMessage line : HELP_TABLE) {
+            clientHandler.getOutput().println(line);
+        }
+    }
+
+    /**
+     * Construye la tabla de ayuda con la lista de comandos disponibles y su descripción.
+     *
+     * @return Líneas de la tabla ya codificadas.
+     */
+    private static EncodedMessage[] buildHelpTable() {
         String separator = "============================================================================================================";
-        clientHandler.getOutput().println(separator);
-        clientHandler.getOutput().println("                                           LISTA DE COMANDOS");
-        clientHandler.getOutput().println(separator);
+        return new EncodedMessage[]{
+                EncodedMessage.of(separator),
+                EncodedMessage.of("                                           LISTA DE COMANDOS"),
+                EncodedMessage.of(separator),
 
-        // Lista de comandos disponibles con su descripción
-        clientHandler.getOutput().println(formatCommand("register <nombre> <constraseña>", "Permite a un cliente registrarse en el servidor."));
-        clientHandler.getOutput().println(formatCommand("login <nombre> <contraseña>", "Permite iniciar sesión con un usuario anteriormente registrado."));
-        clientHandler.getOutput().println(formatCommand("user", "Muestra la información del usuario actual."));
-        clientHandler.getOutput().println(formatCommand("rooms", "Lista las salas activas en el servidor."));
-        clientHandler.getOutput().println(formatCommand("singleplayer", "Inicia una partida en solitario."));
-        clientHandler.getOutput().println(formatCommand("multiplayer <create|join|leave> [nombreSala]", "Gestiona partidas multijugador."));
-        clientHandler.getOutput().println(formatCommand("consonant <letra>", "Adivina una consonante en la partida actual."));
-        clientHandler.getOutput().println(formatCommand("vowel <letra>", "Compra y adivina una vocal en la partida actual."));
-        clientHandler.getOutput().println(formatCommand("solve <proverbio...>", "Intenta resolver el refrán en la partida actual."));
+                // Lista de comandos disponibles con su descripción
+                formatCommand("register <nombre> <constraseña>", "Permite a un cliente registrarse en el servidor."),
+                formatCommand("login <nombre> <contraseña>", "Permite iniciar sesión con un usuario anteriormente registrado."),
+                formatCommand("user", "Muestra la información del usuario actual."),
+                formatCommand("rooms", "Lista las salas activas en el servidor."),
+                formatCommand("singleplayer", "Inicia una partida en solitario."),
+                formatCommand("multiplayer <create|join|leave> [nombreSala]", "Gestiona partidas multijugador."),
+                formatCommand("consonant <letra>", "Adivina una consonante en la partida actual."),
+                formatCommand("vowel <letra>", "Compra y adivina una vocal en la partida actual."),
+                formatCommand("solve <proverbio...>", "Intenta resolver el refrán en la partida actual."),
+                formatCommand("stats", "Muestra la latencia de cada comando (solo administradores)."),
 
-        clientHandler.getOutput().println(separator);
+                EncodedMessage.of(separator)
+        };
     }
 
     /**
@@ -56,10 +74,10 @@ public class HelpCommand implements Command {
      *
      * @param command     Sintaxis del comando.
      * @param description Descripción breve del comando.
-     * @return Cadena formateada con el comando y su descripción.
+     * @return Línea codificada con el comando y su descripción.
      */
-    private String formatCommand(String command, String description) {
-        return String.format("%-50s %s", CommandFactory.getCommandSymbol() + command, description);
+    private static EncodedMessage formatCommand(String command, String description) {
+        return EncodedMessage.of(String.format("%-50s %s", CommandFactory.getCommandSymbol() + command, description));
     }
 
     /**
@@ -2,6 +2,8 @@ package server.command.commands;
 
 import server.command.Command;
 import server.command.CommandFactory;
+import server.message.EncodedMessage;
+import server.message.Messages;
 import common.logger.CustomLogger;
 import common.model.User;
 import server.service.services.CommandProcessor;
@@ -25,6 +27,7 @@ import java.util.logging.Logger;
 public class LoginCommand implements Command {
     private static final Logger logger = CustomLogger.getLogger(LoginCommand.class.getName());
     private static final String COMMAND_NAME = "login"; // Nombre del comando.
+    private static final EncodedMessage USAGE = Messages.usage(COMMAND_NAME + " <nombre> <contraseña>"); // Mensaje de ayuda del comando.
     private static final int parametersAmount = 2;  // Cantidad de parámetros esperados para este comando (nombre de usuario y contraseña)
 
     /**
@@ -42,8 +45,7 @@ public class LoginCommand implements Command {
     public void execute(String[] args, ClientHandler clientHandler) {
         // Verificar que la cantidad de parámetros sea la esperada (2)
         if (args.length != parametersAmount) {
-            clientHandler.getOutput().println("Ayuda: " + CommandFactory.getCommandSymbol() +
-                    COMMAND_NAME + " <nombre> <contraseña>");
+            clientHandler.getOutput().println(USAGE);
             return;
         }
 
@@ -54,7 +56,7 @@ public class LoginCommand implements Command {
         String password = args[1];
 
         // Obtener el gestor de usuarios del servicio registrado
-        UserManager manager = clientHandler.getServiceRegister().getService(UserManager.class);
+        UserManager manager = clientHandler.getUserManager();
 
         // Intentar autenticar al usuario
         User user = manager.authenticate(username, password);
@@ -62,11 +64,11 @@ public class LoginCommand implements Command {
         // Si la autenticación es exitosa
         if (user != null) {
             clientHandler.setCurrentUser(user);
-            clientHandler.getOutput().println("Sesión iniciada con exito!");
+            clientHandler.getOutput().println(Messages.LOGIN_SUCCESS);
             logger.log(Level.INFO, clientHandler.getFormatedUser() + ": sesión iniciada con exito!");
         } else {
             // Si el usuario no se encuentra
-            clientHandler.getOutput().println("El usuario introducido no existe!");
+            clientHandler.getOutput().println(Messages.USER_NOT_FOUND);
             logger.log(Level.INFO, clientHandler.getFormatedUser() + ": El usuario introducido no existe!");
         }
     }
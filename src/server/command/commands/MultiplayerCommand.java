@@ -3,6 +3,8 @@ package server.command.commands;
 import common.logger.CustomLogger;
 import server.command.Command;
 import server.command.CommandFactory;
+import server.message.EncodedMessage;
+import server.message.Messages;
 import server.service.services.CommandProcessor;
 import server.service.services.RoomManager;
 import server.thread.ClientHandler;
@@ -23,6 +25,7 @@ import java.util.logging.Logger;
 public class MultiplayerCommand implements Command {
     private static final Logger logger = CustomLogger.getLogger(MultiplayerCommand.class.getName());
     private static final String COMMAND_NAME = "multiplayer"; // Nombre del comando.
+    private static final EncodedMessage USAGE = Messages.usage(COMMAND_NAME + " <create|join|leave> [nombreSala]"); // Mensaje de ayuda del comando.
     private static final int parametersAmount = 2; // Cantidad esperada de parámetros en el comando (mínimo 2 para "create" y "join")
 
     /**
@@ -38,27 +41,26 @@ public class MultiplayerCommand implements Command {
                 (args.length != parametersAmount - 1 && args[0].equals("leave")) ||
                 (args.length != parametersAmount && !args[0].equals("leave"))) {
 
-            clientHandler.getOutput().println("Ayuda: " + CommandFactory.getCommandSymbol() +
-                    COMMAND_NAME + " <create|join|leave> [nombreSala]");
+            clientHandler.getOutput().println(USAGE);
             return;
         }
 
         // Verificar si el usuario ha iniciado sesión
         if (clientHandler.getCurrentUser() == null) {
-            clientHandler.getOutput().println("Debes iniciar sesión antes de jugar.");
+            clientHandler.getOutput().println(Messages.LOGIN_REQUIRED_TO_PLAY);
             return;
         }
 
         // Verificar si el usuario ya está en una partida individual
         if (clientHandler.hasActiveSingleGame()) {
-            clientHandler.getOutput().println("Ya estás en una partida individual.");
+            clientHandler.getOutput().println(Messages.ALREADY_IN_SINGLE_GAME);
             return;
         }
 
         logger.log(Level.INFO, "Ejecutando comando " + CommandFactory.getCommandSymbol() + "{0} por " + clientHandler.getSocketAddress(), COMMAND_NAME);
 
         // Obtener el servicio de gestión de salas
-        RoomManager roomManager = clientHandler.getServiceRegister().getService(RoomManager.class);
+        RoomManager roomManager = clientHandler.getRoomManager();
         String action = args[0];
 
         // Ejecutar la acción correspondiente según el primer argumento
@@ -66,8 +68,7 @@ public class MultiplayerCommand implements Command {
             case "create" -> roomManager.createRoom(args[1], clientHandler);
             case "join" -> roomManager.joinRoom(args[1], clientHandler);
             case "leave" -> roomManager.leaveRoom(clientHandler, false);
-            default -> clientHandler.getOutput().println("Ayuda: " + CommandFactory.getCommandSymbol() +
-                    COMMAND_NAME + " <create|join|leave> [nombreSala]");
+            default -> clientHandler.getOutput().println(USAGE);
         }
     }
 
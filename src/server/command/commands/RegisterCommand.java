@@ -1,13 +1,17 @@
 package server.command.commands;
 
+import server.command.AsyncCommand;
 import server.command.Command;
 import server.command.CommandFactory;
+import server.message.EncodedMessage;
+import server.message.Messages;
 import common.logger.CustomLogger;
-import common.model.User;
 import server.service.services.CommandProcessor;
 import server.service.services.UserManager;
 import server.thread.ClientHandler;
 
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.Executor;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
@@ -18,35 +22,43 @@ import java.util.logging.Logger;
  * y una contraseña. Si el nombre de usuario ya existe, se le informa al cliente; si el registro
  * es exitoso, se le notifica al cliente.
  * </p>
+ * <p>
+ * Es un comando asíncrono: el cliente no recibe la respuesta hasta que su alta está en el
+ * disco, confirmada junto con los demás cambios de usuarios del mismo lote, y mientras tanto
+ * ningún hilo queda bloqueado esperándola.
+ * </p>
  *
+ * @see AsyncCommand
  * @see Command
  * @see CommandFactory
  * @see CommandProcessor
  */
-public class RegisterCommand implements Command {
+public class RegisterCommand implements AsyncCommand<Boolean> {
     private static final Logger logger = CustomLogger.getLogger(RegisterCommand.class.getName());
     private static final String COMMAND_NAME = "register"; // Nombre del comando.
+    private static final EncodedMessage USAGE = Messages.usage(COMMAND_NAME + " <nombre> <contraseña>"); // Mensaje de ayuda del comando.
     private static final int parametersAmount = 2;  // Cantidad de parámetros esperados para este comando (nombre de usuario y contraseña)
 
     /**
-     * Ejecuta el comando de registro de usuario.
+     * Inicia el comando de registro de usuario.
      * <p>
-     * Este método verifica que el cliente haya proporcionado los parámetros correctos. Si el cliente
-     * proporciona el nombre de usuario y la contraseña, se intenta registrar al usuario. Si el registro
-     * es exitoso, se notifica al cliente.
+     * Este método verifica que el cliente haya proporcionado los parámetros correctos. Si el usuario
+     * ya existe se le informa directamente; si no, se registra y se espera a que el alta esté en el
+     * disco. La respuesta se retoma en el ejecutor recibido, no en el hilo que escribe los cambios.
      * </p>
      *
      * @param args          Argumentos proporcionados por el cliente para el comando.
      * @param clientHandler El cliente que ejecuta el comando.
+     * @param executor      Ejecutor en el que se retoma el comando tras confirmar el alta.
+     * @return Etapa que indica si el usuario se ha registrado, o {@code null} si ya se ha respondido.
      */
     @Override
-    public void execute(String[] args, ClientHandler clientHandler) {
+    public CompletionStage<Boolean> executeAsync(String[] args, ClientHandler clientHandler, Executor executor) {
         // Verificar que la cantidad de parámetros sea la esperada (2)
         if (args.length != parametersAmount) {
             logger.log(Level.INFO, "Sintaxis incorrecta de /{0} command", COMMAND_NAME);
-            clientHandler.getOutput().println("Ayuda: " + CommandFactory.getCommandSymbol() +
-                    COMMAND_NAME + " <nombre> <contraseña>");
-            return;
+            clientHandler.getOutput().println(USAGE);
+            return null;
         }
 
         logger.log(Level.INFO, "Ejecutando comando " + CommandFactory.getCommandSymbol() + "{0} por " + clientHandler.getSocketAddress(), COMMAND_NAME);
@@ -56,22 +68,55 @@ public class RegisterCommand implements Command {
         String password = args[1];
 
         // Obtener el gestor de usuarios del servicio registrado
-        UserManager manager = clientHandler.getServiceRegister().getService(UserManager.class);
+        UserManager manager = clientHandler.getUserManager();
+
+        // Comprobar que el almacén de usuarios puede guardar las credenciales
+        if (!manager.acceptsCredentials(username, password)) {
+            clientHandler.getOutput().println(Messages.CREDENTIALS_TOO_LONG);
+            return null;
+        }
 
         // Intentar autenticar al usuario
-        User user = manager.authenticate(username, password);
+        if (manager.authenticate(username, password) != null) {
+            complete(false, clientHandler);
+            return null;
+        }
 
-        // Si el usuario no existe, intentar registrarlo
-        if (user == null && manager.registerUser(args[0], args[1])) {
-            clientHandler.getOutput().println("Ususario registrado con exito!");
+        // Si el usuario no existe, registrarlo y responder cuando el alta esté en el disco
+        return manager.registerUserDurably(username, password).thenApplyAsync(registered -> registered, executor);
+    }
+
+    /**
+     * Informa al cliente del resultado del registro.
+     *
+     * @param registered    Indica si el usuario se ha registrado.
+     * @param clientHandler El cliente que ejecuta el comando.
+     */
+    @Override
+    public void complete(Boolean registered, ClientHandler clientHandler) {
+        if (registered) {
+            clientHandler.getOutput().println(Messages.REGISTER_SUCCESS);
             logger.log(Level.INFO, clientHandler.getFormatedUser() + ": ususario registrado con exito!");
         } else {
             // Si el usuario ya existe
-            clientHandler.getOutput().println("El usuario introducido ya existe!");
+            clientHandler.getOutput().println(Messages.USER_EXISTS);
             logger.log(Level.INFO, clientHandler.getFormatedUser() + ": el usuario introducido ya existe!");
         }
     }
 
+    /**
+     * Informa al cliente de que su alta no se ha podido guardar. El alta ya se ha deshecho, así
+     * que puede volver a intentarlo.
+     *
+     * @param error         Error al guardar el alta.
+     * @param clientHandler El cliente que ejecuta el comando.
+     */
+    @Override
+    public void fail(Throwable error, ClientHandler clientHandler) {
+        clientHandler.getOutput().println(Messages.REGISTER_FAILED);
+        logger.log(Level.WARNING, clientHandler.getFormatedUser() + ": no se ha podido guardar el usuario: " + error.getMessage());
+    }
+
     /**
      * Obtiene el nombre del comando.
      * <p>
@@ -3,6 +3,8 @@ package server.command.commands;
 import common.logger.CustomLogger;
 import server.command.Command;
 import server.command.CommandFactory;
+import server.message.EncodedMessage;
+import server.message.Messages;
 import server.service.services.CommandProcessor;
 import server.service.services.RoomManager;
 import server.thread.ClientHandler;
@@ -23,6 +25,7 @@ import java.util.logging.Logger;
 public class RoomsCommand implements Command {
     private static final Logger logger = CustomLogger.getLogger(RoomsCommand.class.getName());
     private static final String COMMAND_NAME = "rooms"; // Nombre del comando "rooms"
+    private static final EncodedMessage USAGE = Messages.usage(COMMAND_NAME); // Mensaje de ayuda del comando.
     private static final int parametersAmount = 0; // Cantidad de parámetros esperados para este comando.
 
     /**
@@ -35,8 +38,7 @@ public class RoomsCommand implements Command {
     public void execute(String[] args, ClientHandler clientHandler) {
         // Verificar que la cantidad de parámetros sea la esperada (0)
         if (args.length != parametersAmount) {
-            clientHandler.getOutput().println("Ayuda: " + CommandFactory.getCommandSymbol() +
-                    COMMAND_NAME);
+            clientHandler.getOutput().println(USAGE);
             return;
         }
 
@@ -44,12 +46,12 @@ public class RoomsCommand implements Command {
 
         // Verificar si el usuario ha iniciado sesión antes de ejecutar el comando
         if (clientHandler.getCurrentUser() == null) {
-            clientHandler.getOutput().println("Inicia sesión antes para utilizar esta función!");
+            clientHandler.getOutput().println(Messages.LOGIN_REQUIRED);
             return;
         }
 
         // Obtener el servicio RoomManager para listar las salas activas
-        RoomManager roomManager = clientHandler.getServiceRegister().getService(RoomManager.class);
+        RoomManager roomManager = clientHandler.getRoomManager();
         roomManager.printAllActiveRooms(clientHandler);
     }
 
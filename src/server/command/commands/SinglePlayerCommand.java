@@ -2,6 +2,8 @@ package server.command.commands;
 
 import server.command.Command;
 import server.command.CommandFactory;
+import server.message.EncodedMessage;
+import server.message.Messages;
 import common.logger.CustomLogger;
 import server.service.services.CommandProcessor;
 import server.thread.ClientHandler;
@@ -22,6 +24,7 @@ import java.util.logging.Logger;
 public class SinglePlayerCommand implements Command {
     private static final Logger logger = CustomLogger.getLogger(SinglePlayerCommand.class.getName());
     private static final String COMMAND_NAME = "singleplayer"; // Nombre del comando.
+    private static final EncodedMessage USAGE = Messages.usage(COMMAND_NAME); // Mensaje de ayuda del comando.
     private static final int parametersAmount = 0; // Cantidad de parámetros esperados para este comando.
 
     /**
@@ -34,8 +37,7 @@ public class SinglePlayerCommand implements Command {
     public void execute(String[] args, ClientHandler clientHandler) {
         // Verificar que la cantidad de parámetros sea la esperada (0)
         if (args.length != parametersAmount) {
-            clientHandler.getOutput().println("Ayuda: " + CommandFactory.getCommandSymbol() +
-                    COMMAND_NAME);
+            clientHandler.getOutput().println(USAGE);
             return;
         }
 
@@ -43,13 +45,13 @@ public class SinglePlayerCommand implements Command {
 
         // Verificar si el usuario ha iniciado sesión antes de ejecutar el comando
         if (clientHandler.getCurrentUser() == null) {
-            clientHandler.getOutput().println("Debes iniciar sesión antes de jugar.");
+            clientHandler.getOutput().println(Messages.LOGIN_REQUIRED_TO_PLAY);
             return;
         }
 
         // Verificar si el usuario tiene una partida multijugador activa
         if (clientHandler.hasActiveMultiplayerGame()) {
-            clientHandler.getOutput().println("Sal de la sala para jugar una partida individual.");
+            clientHandler.getOutput().println(Messages.LEAVE_ROOM_FIRST);
             return;
         }
 
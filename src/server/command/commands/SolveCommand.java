@@ -2,6 +2,9 @@ package server.command.commands;
 
 import server.command.Command;
 import server.command.CommandFactory;
+import server.command.CommandLine;
+import server.message.EncodedMessage;
+import server.message.Messages;
 import common.logger.CustomLogger;
 import server.service.services.CommandProcessor;
 import server.thread.ClientHandler;
@@ -23,6 +26,7 @@ import java.util.logging.Logger;
 public class SolveCommand implements Command {
     private static final Logger logger = CustomLogger.getLogger(SolveCommand.class.getName());
     private static final String COMMAND_NAME = "solve"; // Nombre del comando.
+    private static final EncodedMessage USAGE = Messages.usage(COMMAND_NAME + " <proverbio...>"); // Mensaje de ayuda del comando.
     private static final int parametersMinimum = 1; // Cantidad mínima de parámetros esperados.
 
     /**
@@ -35,22 +39,46 @@ public class SolveCommand implements Command {
     public void execute(String[] args, ClientHandler clientHandler) {
         // Validar que se introduzca al menos una palabra
         if (args.length < parametersMinimum) {
-            clientHandler.getOutput().println("Ayuda: " + CommandFactory.getCommandSymbol() +
-                    COMMAND_NAME + " <proverbio...>");
+            clientHandler.getOutput().println(USAGE);
             return;
         }
 
+        // Obtener el refrán introducido por el usuario
+        resolve(String.join(" ", args), clientHandler);
+    }
+
+    /**
+     * Ejecuta el comando tomando el refrán del resto de la línea analizada, tal como lo
+     * escribió el cliente, sin separar ni volver a unir sus palabras.
+     *
+     * @param commandLine   Línea del comando analizada.
+     * @param clientHandler Cliente que ejecuta el comando.
+     */
+    @Override
+    public void execute(CommandLine commandLine, ClientHandler clientHandler) {
+        if (commandLine.getArgumentCount() < parametersMinimum) {
+            clientHandler.getOutput().println(USAGE);
+            return;
+        }
+
+        resolve(commandLine.getRest(), clientHandler);
+    }
+
+    /**
+     * Procesa el intento de resolver el refrán en la partida activa del jugador.
+     *
+     * @param proverb       Refrán propuesto.
+     * @param clientHandler Cliente que ejecuta el comando.
+     */
+    private void resolve(String proverb, ClientHandler clientHandler) {
         logger.log(Level.INFO, "Ejecutando comando " + CommandFactory.getCommandSymbol() + "{0} por " + clientHandler.getSocketAddress(), COMMAND_NAME);
 
         // Verificar si el jugador tiene una partida activa
         if (!clientHandler.hasActiveSingleGame() && !clientHandler.hasActiveMultiplayerGame()) {
-            clientHandler.getOutput().println("No tienes una partida activa.");
+            clientHandler.getOutput().println(Messages.NO_ACTIVE_GAME);
             return;
         }
 
-        // Obtener el refrán introducido por el usuario
-        String proverb = String.join(" ", args);
-
         // Si el jugador está en una partida individual, se procesa el intento de resolución
         if (clientHandler.hasActiveSingleGame() && !clientHandler.hasActiveMultiplayerGame()) {
             clientHandler.getGameSession().resolveProverb(proverb);
@@ -0,0 +1,111 @@
+package server.command.commands;
+
+import server.command.Command;
+import server.command.CommandFactory;
+import server.message.EncodedMessage;
+import server.message.Messages;
+import common.logger.CustomLogger;
+import server.metrics.CommandMetrics;
+import server.metrics.LatencyHistogram;
+import server.service.services.CommandProcessor;
+import server.thread.BatchedPrintWriter;
+import server.thread.ClientHandler;
+
+import java.util.Locale;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Comando de administración que muestra las métricas de ejecución de cada comando.
+ * <p>
+ * Para cada comando registrado muestra el número de ejecuciones, los errores, el ritmo medio
+ * de peticiones por segundo y los percentiles 50, 99 y 99,9 de su latencia en milisegundos.
+ * Solo pueden usarlo los usuarios configurados como administradores.
+ * </p>
+ *
+ * @see Command
+ * @see CommandFactory
+ * @see CommandProcessor
+ * @see CommandMetrics
+ */
+public class StatsCommand implements Command {
+    private static final Logger logger = CustomLogger.getLogger(StatsCommand.class.getName());
+    private static final String COMMAND_NAME = "stats"; // Nombre del comando.
+    private static final EncodedMessage USAGE = Messages.usage(COMMAND_NAME); // Mensaje de ayuda del comando.
+    private static final int parametersAmount = 0; // Cantidad de parámetros esperados para este comando.
+    private static final String ROW_FORMAT = "%-14s %10s %8s %10s %10s %10s %10s"; // Formato de cada fila de la tabla.
+    private static final EncodedMessage HEADER = EncodedMessage.of(String.format(ROW_FORMAT,
+            "Comando", "Peticiones", "Errores", "Pet./s", "p50 (ms)", "p99 (ms)", "p999 (ms)")); // Cabecera de la tabla.
+
+    /**
+     * Ejecuta el comando para mostrar las métricas de los comandos.
+     *
+     * @param args          Argumentos proporcionados por el cliente (no se esperan argumentos).
+     * @param clientHandler Cliente que ejecuta el comando.
+     */
+    @Override
+    public void execute(String[] args, ClientHandler clientHandler) {
+        // Verificar que la cantidad de parámetros sea la esperada (0)
+        if (args.length != parametersAmount) {
+            clientHandler.getOutput().println(USAGE);
+            return;
+        }
+
+        // Verificar que el usuario haya iniciado sesión y sea administrador
+        if (clientHandler.getCurrentUser() == null) {
+            clientHandler.getOutput().println(Messages.LOGIN_REQUIRED);
+            return;
+        }
+        if (!clientHandler.isAdmin()) {
+            logger.log(Level.WARNING, "Acceso denegado a " + CommandFactory.getCommandSymbol() + "{0} para " + clientHandler.getFormatedUser(), COMMAND_NAME);
+            clientHandler.getOutput().println(Messages.ADMIN_REQUIRED);
+            return;
+        }
+
+        logger.log(Level.INFO, "Ejecutando comando " + CommandFactory.getCommandSymbol() + "{0} por " + clientHandler.getSocketAddress(), COMMAND_NAME);
+
+        CommandProcessor commandProcessor = clientHandler.getCommandProcessor();
+        BatchedPrintWriter output = clientHandler.getOutput();
+        output.println(HEADER);
+        for (CommandMetrics metrics : commandProcessor.getCommandMetrics()) {
+            output.println(formatRow(metrics));
+        }
+    }
+
+    /**
+     * Formatea las métricas de un comando como una fila de la tabla.
+     *
+     * @param metrics Métricas del comando.
+     * @return Fila de la tabla.
+     */
+    private static String formatRow(CommandMetrics metrics) {
+        LatencyHistogram latency = metrics.getLatency();
+        return String.format(Locale.ROOT, ROW_FORMAT,
+                CommandFactory.getCommandSymbol() + metrics.getName(),
+                metrics.getCount(),
+                metrics.getErrors(),
+                String.format(Locale.ROOT, "%.2f", metrics.getThroughput()),
+                formatMillis(latency.getValueAtPercentile(50)),
+                formatMillis(latency.getValueAtPercentile(99)),
+                formatMillis(latency.getValueAtPercentile(99.9)));
+    }
+
+    /**
+     * Formatea una latencia en milisegundos con tres decimales.
+     *
+     * @param nanos Latencia en nanosegundos.
+     * @return Latencia formateada.
+     */
+    private static String formatMillis(long nanos) {
+        return String.format(Locale.ROOT, "%.3f", LatencyHistogram.toMillis(nanos));
+    }
+
+    /**
+     * Obtiene el nombre del comando.
+     *
+     * @return Nombre del comando "stats".
+     */
+    public static String getCommandName() {
+        return COMMAND_NAME;
+    }
+}
@@ -2,12 +2,14 @@ package server.command.commands;
 
 import server.command.Command;
 import server.command.CommandFactory;
+import server.message.EncodedMessage;
+import server.message.Messages;
 import common.logger.CustomLogger;
 import common.model.User;
 import server.service.services.CommandProcessor;
 import server.thread.ClientHandler;
+import server.thread.BatchedPrintWriter;
 
-import java.io.PrintWriter;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
@@ -25,6 +27,7 @@ import java.util.logging.Logger;
 public class UserCommand implements Command {
     private static final Logger logger = CustomLogger.getLogger(UserCommand.class.getName());
     private static final String COMMAND_NAME = "user"; // Nombre del comando.
+    private static final EncodedMessage USAGE = Messages.usage(COMMAND_NAME); // Mensaje de ayuda del comando.
     private static final int parametersAmount = 0; // Cantidad de parámetros esperados para este comando.
 
     /**
@@ -37,8 +40,7 @@ public class UserCommand implements Command {
     public void execute(String[] args, ClientHandler clientHandler) {
         // Verificar que la cantidad de parámetros sea la esperada (0)
         if (args.length != parametersAmount) {
-            clientHandler.getOutput().println("Ayuda: " + CommandFactory.getCommandSymbol() +
-                    COMMAND_NAME);
+            clientHandler.getOutput().println(USAGE);
             return;
         }
 
@@ -47,18 +49,26 @@ public class UserCommand implements Command {
 
         // Verificar si el usuario ha iniciado sesión
         if (currentUser == null) {
-            clientHandler.getOutput().println("Inicia sesión antes para utilizar esta función!");
+            clientHandler.getOutput().println(Messages.LOGIN_REQUIRED);
             return;
         }
 
         logger.log(Level.INFO, "Ejecutando comando " + CommandFactory.getCommandSymbol() + "{0} por " + clientHandler.getSocketAddress(), COMMAND_NAME);
 
         // Obtener el flujo de salida del cliente y enviar la información del usuario
-        PrintWriter output = clientHandler.getOutput();
-        output.println("Usuario: " + currentUser.getUsername());
-        output.println("Puntuación: " + currentUser.getScore());
-        output.println("Victorias: " + currentUser.getWins());
-        output.println("Derrotas: " + currentUser.getDefeats());
+        BatchedPrintWriter output = clientHandler.getOutput();
+        output.println(Messages.USER_NAME, currentUser.getUsername());
+        int score;
+        int wins;
+        int defeats;
+        synchronized (currentUser) { // Estadísticas coherentes aunque otra sesión las esté cambiando
+            score = currentUser.getScore();
+            wins = currentUser.getWins();
+            defeats = currentUser.getDefeats();
+        }
+        output.println(Messages.USER_SCORE, score);
+        output.println(Messages.USER_WINS, wins);
+        output.println(Messages.USER_DEFEATS, defeats);
     }
 
     /**
@@ -0,0 +1,309 @@
+package server.journal;
+
+import common.logger.CustomLogger;
+import server.command.CommandFactory;
+import server.command.commands.LoginCommand;
+import server.command.commands.RegisterCommand;
+import server.service.Service;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Diario de tráfico: registro binario, de solo añadido, de todas las líneas de comando que
+ * recibe el servidor y de los cierres de conexión.
+ * <p>
+ * Registrar una entrada solo la deposita en una cola acotada; un hilo propio la codifica y la
+ * escribe en disco, y vacía el archivo cuando la cola queda vacía. Si la cola se llena, las
+ * entradas se descartan y se contabilizan en {@link #getDroppedCount()} en lugar de frenar a
+ * los clientes.
+ * </p>
+ * <p>
+ * Formato: una cabecera con {@link #MAGIC}, {@link #VERSION}, la semilla de los refranes y el
+ * instante de inicio en milisegundos, seguida de entradas con su tipo (un byte), el
+ * identificador de conexión y los nanosegundos transcurridos desde la entrada anterior, ambos
+ * como enteros de longitud variable, y, en los comandos, la longitud y los bytes UTF-8 de la
+ * línea. Los tiempos son monótonos: nunca retroceden aunque las entradas de distintas
+ * conexiones lleguen desordenadas a la cola.
+ * </p>
+ * <p>
+ * Las contraseñas de {@code /login} y {@code /register} nunca llegan al archivo: se sustituyen
+ * por {@link #REDACTED_PASSWORD}. Como la sustitución es la misma en ambos comandos, un diario
+ * reproducido contra un almacén de usuarios vacío sigue pudiendo registrar e identificar a
+ * sus usuarios.
+ * </p>
+ *
+ * @see JournalReader
+ * @see JournalRecord
+ */
+public class CommandJournal implements Service {
+    private static final Logger logger = CustomLogger.getLogger(CommandJournal.class.getName());
+    static final int MAGIC = 0x484A4E4C; // "HJNL": identifica los archivos de diario.
+    static final int VERSION = 1; // Versión del formato.
+    private static final int QUEUE_CAPACITY = 64 * 1024; // Entradas pendientes de escribir como máximo.
+    private static final int CLOSE_TIMEOUT_SECONDS = 5; // Espera máxima para entregar la marca de fin al cerrar.
+    static final String REDACTED_PASSWORD = "***"; // Texto que sustituye a las contraseñas.
+    private static final Entry STOP = new Entry(null, 0, 0, null); // Marca de fin para el hilo escritor.
+
+    private final BlockingQueue<Entry> queue; // Entradas pendientes de escribir, o null si está desactivado.
+    private final DataOutputStream output; // Archivo del diario.
+    private final long startNanos = System.nanoTime(); // Instante de inicio del diario.
+    private final LongAdder dropped = new LongAdder(); // Entradas descartadas por cola llena.
+    private Thread writer; // Hilo que escribe las entradas.
+    private long lastNanos; // Tiempo de la última entrada escrita, solo accedido por el hilo escritor.
+
+    /**
+     * Crea un diario desactivado, que no registra nada.
+     */
+    private CommandJournal() {
+        this.queue = null;
+        this.output = null;
+    }
+
+    /**
+     * Crea un diario que escribe en el archivo indicado, sustituyendo su contenido.
+     *
+     * @param path Ruta del archivo.
+     * @param seed Semilla con la que se eligen los refranes.
+     * @throws IOException Si no se puede crear el archivo.
+     */
+    private CommandJournal(String path, long seed) throws IOException {
+        this.queue = new ArrayBlockingQueue<>(QUEUE_CAPACITY);
+        this.output = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(path), 64 * 1024));
+        output.writeInt(MAGIC);
+        output.writeByte(VERSION);
+        output.writeLong(seed);
+        output.writeLong(System.currentTimeMillis());
+        output.flush();
+
+        writer = new Thread(this::writeEntries, "hanged-journal");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    /**
+     * Abre el diario configurado. Si no hay ruta, o no se puede crear el archivo, se devuelve
+     * un diario desactivado.
+     *
+     * @param path Ruta del archivo, o {@code null} o vacía para no registrar nada.
+     * @param seed Semilla con la que se eligen los refranes, que se guarda en la cabecera.
+     * @return Diario de tráfico.
+     */
+    public static CommandJournal open(String path, long seed) {
+        if (path == null || path.isBlank()) {
+            return new CommandJournal();
+        }
+        try {
+            CommandJournal journal = new CommandJournal(path, seed);
+            logger.log(Level.CONFIG, "Registrando el tráfico en {0} con semilla {1}", new Object[]{path, String.valueOf(seed)});
+            return journal;
+        } catch (IOException e) {
+            logger.log(Level.SEVERE, "No se puede crear el diario de tráfico {0}: {1}", new Object[]{path, e.getMessage()});
+            return new CommandJournal();
+        }
+    }
+
+    /**
+     * Indica si el diario registra el tráfico.
+     *
+     * @return {@code true} si está activado.
+     */
+    public boolean isEnabled() {
+        return queue != null;
+    }
+
+    /**
+     * Registra una línea de comando recibida.
+     *
+     * @param connectionId Identificador de la conexión.
+     * @param line         Línea recibida, tal como llegó.
+     */
+    public void recordCommand(long connectionId, String line) {
+        if (queue != null) {
+            enqueue(new Entry(JournalRecord.Type.COMMAND, connectionId, System.nanoTime(), line));
+        }
+    }
+
+    /**
+     * Registra el cierre de una conexión.
+     *
+     * @param connectionId Identificador de la conexión.
+     */
+    public void recordClose(long connectionId) {
+        if (queue != null) {
+            enqueue(new Entry(JournalRecord.Type.CLOSE, connectionId, System.nanoTime(), null));
+        }
+    }
+
+    /**
+     * Obtiene el número de entradas descartadas porque la cola estaba llena.
+     *
+     * @return Entradas descartadas.
+     */
+    public long getDroppedCount() {
+        return dropped.sum();
+    }
+
+    /**
+     * Escribe las entradas pendientes y cierra el archivo.
+     * <p>
+     * Si el hilo escritor ha terminado por un error de escritura, nadie vacía la cola: en ese
+     * caso, o si la marca de fin no cabe en el plazo de cierre, se deja de esperar y se
+     * descartan las entradas pendientes, para no bloquear la parada del servidor.
+     * </p>
+     */
+    public void close() {
+        if (writer == null) {
+            return;
+        }
+        try {
+            if (writer.isAlive() && queue.offer(STOP, CLOSE_TIMEOUT_SECONDS, TimeUnit.SECONDS)) {
+                writer.join(TimeUnit.SECONDS.toMillis(CLOSE_TIMEOUT_SECONDS));
+            } else {
+                logger.log(Level.WARNING, "Diario de tráfico cerrado sin escribir {0} entradas pendientes", queue.size());
+                queue.clear();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        writer = null;
+    }
+
+    /**
+     * Deposita una entrada en la cola, o la descarta si está llena.
+     *
+     * @param entry Entrada.
+     */
+    private void enqueue(Entry entry) {
+        if (!queue.offer(entry)) {
+            dropped.increment();
+        }
+    }
+
+    /**
+     * Bucle del hilo escritor: escribe las entradas según llegan y vacía el archivo cada vez
+     * que la cola se queda vacía.
+     */
+    private void writeEntries() {
+        try (output) {
+            while (true) {
+                Entry entry = queue.take();
+                do {
+                    if (entry == STOP) {
+                        output.flush();
+                        return;
+                    }
+                    write(entry);
+                } while ((entry = queue.poll()) != null);
+                output.flush();
+            }
+        } catch (IOException e) {
+            logger.log(Level.SEVERE, "Error al escribir el diario de tráfico: {0}", e.getMessage());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Codifica y escribe una entrada.
+     *
+     * @param entry Entrada.
+     * @throws IOException Si falla la escritura.
+     */
+    private void write(Entry entry) throws IOException {
+        long nanos = Math.max(lastNanos, entry.nanos() - startNanos);
+        output.writeByte(entry.type().getCode());
+        writeVarLong(entry.connectionId());
+        writeVarLong(nanos - lastNanos);
+        lastNanos = nanos;
+        if (entry.line() != null) {
+            byte[] bytes = redact(entry.line()).getBytes(StandardCharsets.UTF_8);
+            writeVarLong(bytes.length);
+            output.write(bytes);
+        }
+    }
+
+    /**
+     * Sustituye la contraseña de una línea de {@code /login} o {@code /register}, con o sin
+     * identificador de petición, por {@link #REDACTED_PASSWORD}. El resto de líneas no cambian.
+     *
+     * @param line Línea recibida.
+     * @return Línea sin contraseña.
+     */
+    static String redact(String line) {
+        int start = skipWhitespace(line, 0);
+        if (start < line.length() && line.charAt(start) == '#') {
+            start = skipWhitespace(line, skipWord(line, start)); // Identificador de petición
+        }
+        int nameEnd = skipWord(line, start);
+        if (!isCommand(line, start, nameEnd, LoginCommand.getCommandName())
+                && !isCommand(line, start, nameEnd, RegisterCommand.getCommnadName())) {
+            return line;
+        }
+
+        int usernameEnd = skipWord(line, skipWhitespace(line, nameEnd));
+        if (skipWhitespace(line, usernameEnd) == line.length()) {
+            return line; // Sin contraseña
+        }
+        return line.substring(0, usernameEnd) + " " + REDACTED_PASSWORD;
+    }
+
+    /**
+     * Indica si una palabra de la línea es el nombre de un comando con su prefijo.
+     *
+     * @param line Línea.
+     * @param from Inicio de la palabra.
+     * @param to   Fin (excluido) de la palabra.
+     * @param name Nombre del comando sin prefijo.
+     * @return {@code true} si la palabra es el comando.
+     */
+    private static boolean isCommand(String line, int from, int to, String name) {
+        String symbol = CommandFactory.getCommandSymbol();
+        return to - from == symbol.length() + name.length()
+                && line.startsWith(symbol, from)
+                && line.regionMatches(true, from + symbol.length(), name, 0, name.length());
+    }
+
+    private static int skipWhitespace(String line, int from) {
+        while (from < line.length() && Character.isWhitespace(line.charAt(from))) {
+            from++;
+        }
+        return from;
+    }
+
+    private static int skipWord(String line, int from) {
+        while (from < line.length() && !Character.isWhitespace(line.charAt(from))) {
+            from++;
+        }
+        return from;
+    }
+
+    /**
+     * Escribe un entero no negativo en 7 bits por byte; el bit alto indica que sigue otro byte.
+     *
+     * @param value Valor no negativo.
+     * @throws IOException Si falla la escritura.
+     */
+    private void writeVarLong(long value) throws IOException {
+        while ((value & ~0x7FL) != 0) {
+            output.writeByte((int) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        output.writeByte((int) value);
+    }
+
+    /**
+     * Entrada pendiente de escribir, con su instante absoluto según {@link System#nanoTime()}.
+     */
+    private record Entry(JournalRecord.Type type, long connectionId, long nanos, String line) {
+    }
+}
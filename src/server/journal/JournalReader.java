@@ -0,0 +1,106 @@
+package server.journal;
+
+import java.io.BufferedInputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Lector secuencial de un diario de tráfico escrito por {@link CommandJournal}.
+ *
+ * @see JournalRecord
+ */
+public class JournalReader implements Closeable {
+    private final DataInputStream input; // Archivo del diario.
+    private final long seed; // Semilla de los refranes guardada en la cabecera.
+    private final long startMillis; // Instante de inicio del diario.
+    private long nanos; // Tiempo acumulado de la última entrada leída.
+
+    /**
+     * Abre un diario y lee su cabecera.
+     *
+     * @param path Ruta del archivo.
+     * @throws IOException Si no se puede leer o no es un diario válido.
+     */
+    public JournalReader(String path) throws IOException {
+        this.input = new DataInputStream(new BufferedInputStream(new FileInputStream(path), 64 * 1024));
+        try {
+            if (input.readInt() != CommandJournal.MAGIC) {
+                throw new IOException("El archivo no es un diario de tráfico: " + path);
+            }
+            int version = input.readUnsignedByte();
+            if (version != CommandJournal.VERSION) {
+                throw new IOException("Versión de diario no soportada: " + version);
+            }
+            this.seed = input.readLong();
+            this.startMillis = input.readLong();
+        } catch (IOException e) {
+            input.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Lee la siguiente entrada.
+     *
+     * @return Entrada leída, o {@code null} al llegar al final del diario.
+     * @throws IOException Si el diario está dañado o no se puede leer.
+     */
+    public JournalRecord next() throws IOException {
+        int code = input.read();
+        if (code < 0) {
+            return null;
+        }
+
+        try {
+            JournalRecord.Type type = JournalRecord.Type.fromCode(code);
+            long connectionId = readVarLong();
+            nanos += readVarLong();
+            String line = null;
+            if (type == JournalRecord.Type.COMMAND) {
+                byte[] bytes = new byte[(int) readVarLong()];
+                input.readFully(bytes);
+                line = new String(bytes, StandardCharsets.UTF_8);
+            }
+            return new JournalRecord(type, connectionId, nanos, line);
+        } catch (EOFException e) {
+            return null; // La última entrada quedó a medias, por ejemplo al detener el servidor.
+        } catch (IllegalArgumentException e) {
+            throw new IOException(e.getMessage(), e);
+        }
+    }
+
+    public long getSeed() {
+        return seed;
+    }
+
+    public long getStartMillis() {
+        return startMillis;
+    }
+
+    @Override
+    public void close() throws IOException {
+        input.close();
+    }
+
+    /**
+     * Lee un entero escrito en 7 bits por byte.
+     *
+     * @return Valor leído.
+     * @throws IOException Si el valor está incompleto o es demasiado largo.
+     */
+    private long readVarLong() throws IOException {
+        long value = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            int b = input.readUnsignedByte();
+            value |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new IOException("Entero de longitud variable demasiado largo");
+    }
+}
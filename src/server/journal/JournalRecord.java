@@ -0,0 +1,47 @@
+package server.journal;
+
+/**
+ * Entrada del diario de tráfico.
+ *
+ * @param type         Tipo de entrada.
+ * @param connectionId Identificador de la conexión.
+ * @param nanos        Nanosegundos desde el inicio del diario; nunca decrece entre entradas.
+ * @param line         Línea de comando recibida, o {@code null} si la entrada es un cierre.
+ * @see CommandJournal
+ * @see JournalReader
+ */
+public record JournalRecord(Type type, long connectionId, long nanos, String line) {
+    /**
+     * Tipos de entrada del diario.
+     */
+    public enum Type {
+        COMMAND(1), // Línea de comando recibida por una conexión.
+        CLOSE(2); // Cierre de una conexión.
+
+        private final int code; // Código con el que se escribe en el diario.
+
+        Type(int code) {
+            this.code = code;
+        }
+
+        public int getCode() {
+            return code;
+        }
+
+        /**
+         * Obtiene el tipo correspondiente a un código del diario.
+         *
+         * @param code Código leído.
+         * @return Tipo de entrada.
+         * @throws IllegalArgumentException Si el código no corresponde a ningún tipo.
+         */
+        public static Type fromCode(int code) {
+            for (Type type : values()) {
+                if (type.code == code) {
+                    return type;
+                }
+            }
+            throw new IllegalArgumentException("Tipo de entrada de diario desconocido: " + code);
+        }
+    }
+}
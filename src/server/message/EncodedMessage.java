@@ -0,0 +1,71 @@
+package server.message;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Mensaje constante de respuesta, codificado en UTF-8 una única vez.
+ * <p>
+ * Los escritores de salida envían sus bytes directamente, sin volver a codificar el texto en
+ * cada envío. Se obtienen del catálogo {@link Messages} o se crean una sola vez como
+ * constantes con {@link #of(String)}.
+ * </p>
+ *
+ * @see Messages
+ * @see server.thread.BatchedPrintWriter#println(EncodedMessage)
+ */
+public final class EncodedMessage {
+    private final String text; // Texto del mensaje, sin salto de línea.
+    private final byte[] line; // Texto y salto de línea codificados en UTF-8.
+    private final int textLength; // Bytes que ocupa el texto sin el salto de línea.
+
+    /**
+     * Codifica un mensaje.
+     *
+     * @param text Texto del mensaje, sin salto de línea.
+     */
+    private EncodedMessage(String text) {
+        this.text = text;
+        this.line = (text + System.lineSeparator()).getBytes(StandardCharsets.UTF_8);
+        this.textLength = text.getBytes(StandardCharsets.UTF_8).length;
+    }
+
+    /**
+     * Crea un mensaje codificado. Debe llamarse una sola vez por mensaje, al inicializar las
+     * constantes, y no en cada envío.
+     *
+     * @param text Texto del mensaje, sin salto de línea.
+     * @return Mensaje codificado.
+     */
+    public static EncodedMessage of(String text) {
+        return new EncodedMessage(text);
+    }
+
+    public String getText() {
+        return text;
+    }
+
+    /**
+     * Obtiene el texto y el salto de línea codificados en UTF-8. El array es compartido y no
+     * debe modificarse.
+     *
+     * @return Bytes de la línea completa.
+     */
+    public byte[] getLine() {
+        return line;
+    }
+
+    /**
+     * Obtiene el número de bytes del texto, sin el salto de línea, al principio de
+     * {@link #getLine()}.
+     *
+     * @return Bytes del texto.
+     */
+    public int getTextLength() {
+        return textLength;
+    }
+
+    @Override
+    public String toString() {
+        return text;
+    }
+}
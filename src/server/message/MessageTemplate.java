@@ -0,0 +1,117 @@
+package server.message;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Plantilla de una línea de respuesta con partes variables, por ejemplo
+ * {@code "Turno de {0}."}.
+ * <p>
+ * El texto fijo se codifica en UTF-8 al crear la plantilla, de modo que al enviarla solo se
+ * codifican los argumentos. Los marcadores siguen la sintaxis de
+ * {@link java.text.MessageFormat} ({@code {0}}, {@code {1}}...), sin formatos adicionales.
+ * </p>
+ *
+ * @see Messages
+ * @see server.thread.BatchedPrintWriter#println(MessageTemplate, Object...)
+ */
+public final class MessageTemplate {
+    private final String pattern; // Texto original de la plantilla.
+    private final byte[][] segments; // Texto fijo codificado; el último incluye el salto de línea.
+    private final int[] arguments; // Argumento que sigue a cada segmento, salvo al último.
+
+    /**
+     * Crea una plantilla a partir de su texto.
+     *
+     * @param pattern Texto con marcadores {@code {n}}, sin salto de línea.
+     */
+    private MessageTemplate(String pattern) {
+        this.pattern = pattern;
+
+        List<String> texts = new ArrayList<>();
+        List<Integer> indexes = new ArrayList<>();
+        int start = 0;
+        int open;
+        while ((open = pattern.indexOf('{', start)) >= 0) {
+            int close = pattern.indexOf('}', open);
+            if (close < 0) {
+                throw new IllegalArgumentException("Marcador sin cerrar en la plantilla: " + pattern);
+            }
+            texts.add(pattern.substring(start, open));
+            indexes.add(Integer.parseInt(pattern.substring(open + 1, close).trim()));
+            start = close + 1;
+        }
+        texts.add(pattern.substring(start) + System.lineSeparator());
+
+        this.segments = new byte[texts.size()][];
+        for (int i = 0; i < segments.length; i++) {
+            segments[i] = texts.get(i).getBytes(StandardCharsets.UTF_8);
+        }
+        this.arguments = indexes.stream().mapToInt(Integer::intValue).toArray();
+    }
+
+    /**
+     * Crea una plantilla. Debe llamarse una sola vez por plantilla, al inicializar las
+     * constantes.
+     *
+     * @param pattern Texto con marcadores {@code {n}}, sin salto de línea.
+     * @return Plantilla codificada.
+     * @throws IllegalArgumentException Si algún marcador está mal formado.
+     */
+    public static MessageTemplate of(String pattern) {
+        return new MessageTemplate(pattern);
+    }
+
+    /**
+     * Obtiene el número de marcadores de la plantilla.
+     *
+     * @return Número de marcadores.
+     */
+    public int getArgumentCount() {
+        return arguments.length;
+    }
+
+    /**
+     * Obtiene el texto fijo codificado que precede al marcador indicado. El segmento que sigue
+     * al último marcador termina con el salto de línea. El array es compartido y no debe
+     * modificarse.
+     *
+     * @param index Posición del segmento, de 0 a {@link #getArgumentCount()}.
+     * @return Bytes del segmento.
+     */
+    public byte[] getSegment(int index) {
+        return segments[index];
+    }
+
+    /**
+     * Obtiene el índice del argumento que sigue al segmento indicado.
+     *
+     * @param index Posición del marcador, de 0 a {@link #getArgumentCount()} - 1.
+     * @return Índice del argumento.
+     */
+    public int getArgumentIndex(int index) {
+        return arguments[index];
+    }
+
+    /**
+     * Compone el texto de la línea, sin salto de línea, para los escritores que no pueden
+     * enviar los bytes ya codificados.
+     *
+     * @param args Argumentos de la plantilla.
+     * @return Texto compuesto.
+     */
+    public String format(Object... args) {
+        StringBuilder text = new StringBuilder(pattern.length() + 16);
+        for (int i = 0; i < arguments.length; i++) {
+            text.append(new String(segments[i], StandardCharsets.UTF_8)).append(args[arguments[i]]);
+        }
+        String last = new String(segments[arguments.length], StandardCharsets.UTF_8);
+        return text.append(last, 0, last.length() - System.lineSeparator().length()).toString();
+    }
+
+    @Override
+    public String toString() {
+        return pattern;
+    }
+}
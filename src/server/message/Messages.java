@@ -0,0 +1,88 @@
+package server.message;
+
+import server.command.CommandFactory;
+
+/**
+ * Catálogo de los mensajes de respuesta constantes del servidor.
+ * <p>
+ * Cada mensaje se codifica en UTF-8 al cargar la clase, durante el arranque del servidor, y
+ * los comandos y las partidas escriben directamente esos bytes. Los mensajes con partes
+ * variables se definen como {@link MessageTemplate}, cuyo texto fijo también está codificado.
+ * </p>
+ *
+ * @see EncodedMessage
+ * @see MessageTemplate
+ */
+public final class Messages {
+    // Comandos.
+    public static final EncodedMessage UNKNOWN_COMMAND = EncodedMessage.of("Comando no reconocido.");
+    public static final EncodedMessage COMMAND_FAILED = EncodedMessage.of("No se ha podido completar el comando. Inténtalo de nuevo.");
+    public static final EncodedMessage LOGIN_REQUIRED = EncodedMessage.of("Inicia sesión antes para utilizar esta función!");
+    public static final EncodedMessage LOGIN_REQUIRED_TO_PLAY = EncodedMessage.of("Debes iniciar sesión antes de jugar.");
+    public static final EncodedMessage LOGIN_SUCCESS = EncodedMessage.of("Sesión iniciada con exito!");
+    public static final EncodedMessage USER_NOT_FOUND = EncodedMessage.of("El usuario introducido no existe!");
+    public static final EncodedMessage REGISTER_SUCCESS = EncodedMessage.of("Ususario registrado con exito!");
+    public static final EncodedMessage USER_EXISTS = EncodedMessage.of("El usuario introducido ya existe!");
+    public static final EncodedMessage REGISTER_FAILED = EncodedMessage.of("No se ha podido guardar el usuario. Inténtalo de nuevo.");
+    public static final EncodedMessage CREDENTIALS_TOO_LONG = EncodedMessage.of("El nombre de usuario o la contraseña son demasiado largos.");
+    public static final EncodedMessage NO_ACTIVE_GAME = EncodedMessage.of("No tienes una partida activa.");
+    public static final EncodedMessage ALREADY_IN_SINGLE_GAME = EncodedMessage.of("Ya estás en una partida individual.");
+    public static final EncodedMessage ADMIN_REQUIRED = EncodedMessage.of("Este comando solo está disponible para administradores.");
+    public static final EncodedMessage LEAVE_ROOM_FIRST = EncodedMessage.of("Sal de la sala para jugar una partida individual.");
+    public static final MessageTemplate USER_NAME = MessageTemplate.of("Usuario: {0}");
+    public static final MessageTemplate USER_SCORE = MessageTemplate.of("Puntuación: {0}");
+    public static final MessageTemplate USER_WINS = MessageTemplate.of("Victorias: {0}");
+    public static final MessageTemplate USER_DEFEATS = MessageTemplate.of("Derrotas: {0}");
+
+    // Salas.
+    public static final EncodedMessage NO_ROOMS = EncodedMessage.of("No hay salas activas.");
+    public static final EncodedMessage ACTIVE_ROOMS = EncodedMessage.of("Salas Activas:");
+    public static final EncodedMessage ROOM_EXISTS = EncodedMessage.of("La sala ya existe.");
+    public static final EncodedMessage ROOM_NOT_FOUND = EncodedMessage.of("La sala no existe.");
+    public static final EncodedMessage ROOM_FULL = EncodedMessage.of("La sala está llena.");
+    public static final EncodedMessage ROOM_GAME_STARTED = EncodedMessage.of("La partida ha comenzado.");
+    public static final MessageTemplate ROOM_PLAYER_JOINED = MessageTemplate.of("Jugador {0} se ha unido.");
+    public static final MessageTemplate ROOM_PLAYER_LEFT = MessageTemplate.of("Jugador {0} ha abandonado la partida.");
+    public static final MessageTemplate ROOM_START_ERROR = MessageTemplate.of("Error al iniciar la partida en la sala {0}");
+    public static final MessageTemplate ROOM_ENTRY = MessageTemplate.of("Nombre: {0}, Jugadores: {1}");
+    public static final MessageTemplate ROOM_LEFT = MessageTemplate.of("Has abandonado la sala {0}");
+
+    // Partidas.
+    public static final EncodedMessage GAME_STARTING = EncodedMessage.of("Iniciando una nueva partida...");
+    public static final EncodedMessage GAME_OVER = EncodedMessage.of("La partida ha terminado.");
+    public static final EncodedMessage CORRECT = EncodedMessage.of("¡Correcto!");
+    public static final EncodedMessage INCORRECT = EncodedMessage.of("Incorrecto.");
+    public static final EncodedMessage NOT_YOUR_TURN = EncodedMessage.of("No es tu turno");
+    public static final EncodedMessage YOUR_TURN = EncodedMessage.of("Es tu turno.");
+    public static final EncodedMessage SOLVED = EncodedMessage.of("¡Felicidades! Has resuelto el proverbio.");
+    public static final EncodedMessage WRONG_SOLUTION = EncodedMessage.of("Lo siento, pero esa no es la frase correcta.");
+    public static final EncodedMessage WRONG_ANSWER_GAME_OVER = EncodedMessage.of("Respuesta incorrecta. Fin del juego.");
+    public static final EncodedMessage NOT_ENOUGH_PLAYERS = EncodedMessage.of("No hay suficientes jugadores para continuar. La partida termina.");
+    public static final MessageTemplate CONSONANT_HIT = MessageTemplate.of("¡{0} ha acertado la consonante '{1}'!");
+    public static final MessageTemplate VOWEL_HIT = MessageTemplate.of("¡{0} ha acertado la vocal '{1}'!");
+    public static final MessageTemplate LETTER_MISS = MessageTemplate.of("{0} ha fallado con la '{1}'.");
+    public static final MessageTemplate PLAYER_SOLVED = MessageTemplate.of("¡{0} ha resuelto la frase correctamente! Frase: {1}");
+    public static final MessageTemplate PLAYER_FAILED_SOLVE = MessageTemplate.of("{0} ha fallado al intentar resolver la frase.");
+    public static final MessageTemplate PROVERB_COMPLETED = MessageTemplate.of("¡La frase ha sido completada! Frase: {0}");
+    public static final MessageTemplate WINNER = MessageTemplate.of("El ganador ha sido: {0}");
+    public static final MessageTemplate TURN_OF = MessageTemplate.of("Turno de {0}.");
+    public static final MessageTemplate SCORE_GAINED = MessageTemplate.of("Has logrado un puntaje de: {0}");
+    public static final MessageTemplate FINAL_SCORE = MessageTemplate.of("Puntuación final: {0}");
+
+    // Conexión.
+    public static final EncodedMessage IDLE_DISCONNECT = EncodedMessage.of("Desconectado por inactividad.");
+
+    private Messages() {
+    }
+
+    /**
+     * Crea el mensaje de ayuda de un comando con la sintaxis indicada. Cada comando lo crea una
+     * sola vez, como constante.
+     *
+     * @param syntax Nombre del comando seguido de sus parámetros.
+     * @return Mensaje de ayuda codificado.
+     */
+    public static EncodedMessage usage(String syntax) {
+        return EncodedMessage.of("Ayuda: " + CommandFactory.getCommandSymbol() + syntax);
+    }
+}
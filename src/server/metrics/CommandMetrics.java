@@ -0,0 +1,69 @@
+package server.metrics;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Métricas de ejecución de un comando: latencia de cada ejecución, errores y ritmo de
+ * peticiones desde que se registró el comando.
+ * <p>
+ * La latencia de un comando asíncrono incluye la espera a su trabajo lento, hasta que se
+ * escribe la respuesta.
+ * </p>
+ *
+ * @see LatencyHistogram
+ */
+public class CommandMetrics {
+    private final String name; // Nombre del comando.
+    private final LatencyHistogram latency = new LatencyHistogram(); // Latencias de las ejecuciones.
+    private final LongAdder errors = new LongAdder(); // Ejecuciones terminadas con un error.
+    private final long startNanos = System.nanoTime(); // Instante en el que se empezó a medir.
+
+    /**
+     * Crea las métricas de un comando.
+     *
+     * @param name Nombre del comando.
+     */
+    public CommandMetrics(String name) {
+        this.name = name;
+    }
+
+    /**
+     * Registra una ejecución del comando.
+     *
+     * @param startNanos Instante en el que empezó, según {@link System#nanoTime()}.
+     * @param failed     Indica si terminó con un error.
+     */
+    public void record(long startNanos, boolean failed) {
+        latency.record(System.nanoTime() - startNanos);
+        if (failed) {
+            errors.increment();
+        }
+    }
+
+    /**
+     * Obtiene el ritmo medio de ejecuciones desde que se empezó a medir.
+     *
+     * @return Ejecuciones por segundo.
+     */
+    public double getThroughput() {
+        double seconds = (System.nanoTime() - startNanos) / (double) TimeUnit.SECONDS.toNanos(1);
+        return seconds <= 0 ? 0 : latency.getCount() / seconds;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public LatencyHistogram getLatency() {
+        return latency;
+    }
+
+    public long getCount() {
+        return latency.getCount();
+    }
+
+    public long getErrors() {
+        return errors.sum();
+    }
+}
@@ -0,0 +1,154 @@
+package server.metrics;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compone el formato de texto de exposición de métricas de Prometheus (versión 0.0.4).
+ * <p>
+ * Cada familia de métricas se declara una vez con {@link #family} y a continuación se escriben
+ * sus muestras. Los tiempos se exponen en segundos, como recomienda el formato.
+ * </p>
+ *
+ * @see MetricsExporter
+ */
+class ExpositionWriter {
+    private static final double[] QUANTILES = {0.5, 0.99, 0.999}; // Cuantiles de los resúmenes de latencia.
+
+    private final StringBuilder text = new StringBuilder(4 * 1024); // Texto compuesto.
+
+    /**
+     * Declara una familia de métricas con su tipo y su descripción.
+     *
+     * @param name Nombre de la familia.
+     * @param type Tipo: {@code counter}, {@code gauge} o {@code summary}.
+     * @param help Descripción de la métrica.
+     * @return Este mismo escritor.
+     */
+    ExpositionWriter family(String name, String type, String help) {
+        text.append("# HELP ").append(name).append(' ').append(help).append('\n');
+        text.append("# TYPE ").append(name).append(' ').append(type).append('\n');
+        return this;
+    }
+
+    /**
+     * Escribe una muestra sin etiquetas.
+     *
+     * @param name  Nombre de la muestra.
+     * @param value Valor.
+     * @return Este mismo escritor.
+     */
+    ExpositionWriter sample(String name, double value) {
+        return sample(name, null, null, value);
+    }
+
+    /**
+     * Escribe una muestra con una etiqueta.
+     *
+     * @param name       Nombre de la muestra.
+     * @param labelName  Nombre de la etiqueta, o {@code null} si no tiene.
+     * @param labelValue Valor de la etiqueta.
+     * @param value      Valor.
+     * @return Este mismo escritor.
+     */
+    ExpositionWriter sample(String name, String labelName, String labelValue, double value) {
+        text.append(name);
+        if (labelName != null) {
+            text.append('{');
+            appendLabel(labelName, labelValue);
+            text.append('}');
+        }
+        text.append(' ');
+        appendValue(value);
+        text.append('\n');
+        return this;
+    }
+
+    /**
+     * Escribe las muestras de un resumen de latencias: sus cuantiles, la suma y el recuento.
+     *
+     * @param name       Nombre de la familia, ya declarada como {@code summary}.
+     * @param labelName  Nombre de la etiqueta, o {@code null} si no tiene.
+     * @param labelValue Valor de la etiqueta.
+     * @param latency    Histograma de latencias en nanosegundos.
+     * @return Este mismo escritor.
+     */
+    ExpositionWriter summary(String name, String labelName, String labelValue, LatencyHistogram latency) {
+        return summary(name, labelName, labelValue, latency, TimeUnit.SECONDS.toNanos(1));
+    }
+
+    /**
+     * Escribe las muestras de un resumen de valores que no son duraciones, como tamaños de lote,
+     * tal como se registraron en el histograma.
+     *
+     * @param name   Nombre de la familia, ya declarada como {@code summary}.
+     * @param values Histograma de valores.
+     * @return Este mismo escritor.
+     */
+    ExpositionWriter countSummary(String name, LatencyHistogram values) {
+        return summary(name, null, null, values, 1);
+    }
+
+    /**
+     * Escribe las muestras de un resumen: sus cuantiles, la suma y el recuento.
+     *
+     * @param name       Nombre de la familia, ya declarada como {@code summary}.
+     * @param labelName  Nombre de la etiqueta, o {@code null} si no tiene.
+     * @param labelValue Valor de la etiqueta.
+     * @param values     Histograma de valores.
+     * @param unit       Valor registrado que corresponde a una unidad de la métrica.
+     * @return Este mismo escritor.
+     */
+    private ExpositionWriter summary(String name, String labelName, String labelValue, LatencyHistogram values, long unit) {
+        for (double quantile : QUANTILES) {
+            text.append(name).append('{');
+            if (labelName != null) {
+                appendLabel(labelName, labelValue);
+                text.append(',');
+            }
+            appendLabel("quantile", String.valueOf(quantile));
+            text.append("} ");
+            appendValue(values.getValueAtPercentile(quantile * 100) / (double) unit);
+            text.append('\n');
+        }
+        sample(name + "_sum", labelName, labelValue, values.getSum() / (double) unit);
+        return sample(name + "_count", labelName, labelValue, values.getCount());
+    }
+
+    /**
+     * Añade una etiqueta, escapando su valor.
+     *
+     * @param name  Nombre de la etiqueta.
+     * @param value Valor de la etiqueta.
+     */
+    private void appendLabel(String name, String value) {
+        text.append(name).append("=\"");
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '\\' -> text.append("\\\\");
+                case '"' -> text.append("\\\"");
+                case '\n' -> text.append("\\n");
+                default -> text.append(c);
+            }
+        }
+        text.append('"');
+    }
+
+    /**
+     * Añade un valor numérico; los enteros se escriben sin decimales.
+     *
+     * @param value Valor.
+     */
+    private void appendValue(double value) {
+        if (value == Math.rint(value) && Math.abs(value) < 1e15) {
+            text.append((long) value);
+        } else {
+            text.append(value);
+        }
+    }
+
+    @Override
+    public String toString() {
+        return text.toString();
+    }
+}
@@ -0,0 +1,142 @@
+package server.metrics;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Histograma logarítmico-lineal de latencias, en nanosegundos.
+ * <p>
+ * Cada potencia de dos se divide en {@link #SUB_BUCKETS} intervalos iguales, de modo que el
+ * error relativo de cualquier percentil está acotado (menos del 3,2 %) sea cual sea la
+ * magnitud de la latencia, con un número fijo de contadores. Registrar una medida solo calcula
+ * el índice de su intervalo con operaciones de bits e incrementa un contador atómico: no hay
+ * bloqueos, por lo que pueden registrar a la vez todos los hilos de conexión.
+ * </p>
+ * <p>
+ * Las lecturas recorren los contadores sin detener a quien registra; un percentil calculado
+ * mientras llegan medidas puede no incluir las más recientes.
+ * </p>
+ */
+public class LatencyHistogram {
+    private static final int SUB_BUCKET_BITS = 5; // Bits de resolución dentro de cada potencia de dos.
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS; // Intervalos por potencia de dos.
+    private static final int MAX_EXPONENT = 36; // Mayor potencia de dos registrable (unos 68 segundos).
+    private static final long MAX_VALUE = (1L << MAX_EXPONENT) - 1; // Las medidas mayores se acumulan en el último intervalo.
+
+    private final AtomicLongArray counts =
+            new AtomicLongArray((MAX_EXPONENT - SUB_BUCKET_BITS + 1) * SUB_BUCKETS); // Medidas de cada intervalo.
+    private final LongAdder totalCount = new LongAdder(); // Número de medidas registradas.
+    private final LongAdder totalNanos = new LongAdder(); // Suma de todas las medidas.
+
+    /**
+     * Registra una latencia.
+     *
+     * @param nanos Latencia en nanosegundos.
+     */
+    public void record(long nanos) {
+        long value = Math.min(Math.max(nanos, 0), MAX_VALUE);
+        counts.incrementAndGet(indexOf(value));
+        totalCount.increment();
+        totalNanos.add(value);
+    }
+
+    /**
+     * Obtiene el número de medidas registradas.
+     *
+     * @return Número de medidas.
+     */
+    public long getCount() {
+        return totalCount.sum();
+    }
+
+    /**
+     * Obtiene la suma de todas las medidas registradas.
+     *
+     * @return Suma en nanosegundos.
+     */
+    public long getSum() {
+        return totalNanos.sum();
+    }
+
+    /**
+     * Obtiene la latencia media.
+     *
+     * @return Latencia media en nanosegundos, o {@code 0} si no hay medidas.
+     */
+    public long getMean() {
+        long count = getCount();
+        return count == 0 ? 0 : totalNanos.sum() / count;
+    }
+
+    /**
+     * Obtiene la latencia por debajo de la cual queda el porcentaje indicado de las medidas.
+     * Se devuelve el mayor valor del intervalo en el que cae el percentil, de modo que nunca se
+     * subestima.
+     *
+     * @param percentile Percentil, entre 0 y 100.
+     * @return Latencia en nanosegundos, o {@code 0} si no hay medidas.
+     */
+    public long getValueAtPercentile(double percentile) {
+        long[] snapshot = new long[counts.length()];
+        long total = 0;
+        for (int i = 0; i < snapshot.length; i++) {
+            snapshot[i] = counts.get(i);
+            total += snapshot[i];
+        }
+        if (total == 0) {
+            return 0;
+        }
+
+        long target = Math.max(1, (long) Math.ceil(Math.min(percentile, 100.0) / 100.0 * total));
+        long accumulated = 0;
+        for (int i = 0; i < snapshot.length; i++) {
+            accumulated += snapshot[i];
+            if (accumulated >= target) {
+                return highestValueAt(i);
+            }
+        }
+        return highestValueAt(snapshot.length - 1);
+    }
+
+    /**
+     * Calcula el intervalo al que pertenece una medida.
+     *
+     * @param value Medida, entre 0 y {@link #MAX_VALUE}.
+     * @return Índice del intervalo.
+     */
+    private static int indexOf(long value) {
+        if (value < SUB_BUCKETS) {
+            return (int) value; // Por debajo de la primera potencia, cada valor tiene su intervalo.
+        }
+        int exponent = 63 - Long.numberOfLeadingZeros(value);
+        int shift = exponent - SUB_BUCKET_BITS;
+        int group = shift + 1;
+        return group * SUB_BUCKETS + (int) (value >>> shift) - SUB_BUCKETS;
+    }
+
+    /**
+     * Calcula el mayor valor que pertenece a un intervalo.
+     *
+     * @param index Índice del intervalo.
+     * @return Mayor valor del intervalo.
+     */
+    private static long highestValueAt(int index) {
+        int group = index / SUB_BUCKETS;
+        int subBucket = index % SUB_BUCKETS;
+        if (group == 0) {
+            return subBucket;
+        }
+        return ((long) (SUB_BUCKETS + subBucket + 1) << (group - 1)) - 1;
+    }
+
+    /**
+     * Convierte nanosegundos en milisegundos con decimales, para mostrarlos.
+     *
+     * @param nanos Duración en nanosegundos.
+     * @return Duración en milisegundos.
+     */
+    public static double toMillis(long nanos) {
+        return nanos / (double) TimeUnit.MILLISECONDS.toNanos(1);
+    }
+}
@@ -0,0 +1,326 @@
+package server.metrics;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import common.game.multiPlayer.HangedRoom;
+import common.game.multiPlayer.RoomMetrics;
+import common.logger.CustomLogger;
+import server.AdmissionController;
+import server.buffer.BufferPool;
+import server.service.ServiceRegister;
+import server.service.services.CommandProcessor;
+import server.service.services.ConnectionReaper;
+import server.service.services.RoomManager;
+import server.service.services.UserManager;
+import server.store.CachedUserStore;
+import server.thread.ClientHandler;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryUsage;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Punto de acceso HTTP, en un puerto distinto al del juego, con las métricas internas del
+ * servidor en el formato de texto de Prometheus.
+ * <p>
+ * Expone las conexiones y el control de admisión, las salas activas y sus envíos, las partidas
+ * individuales en curso, las ejecuciones, errores y latencias de cada comando, la duración de
+ * las escrituras del archivo de usuarios, las reservas de buffers y el montículo, los hilos y
+ * las recolecciones de basura de la JVM. Los contadores son acumulados desde el arranque: el
+ * ritmo de peticiones por comando se obtiene con {@code rate(hanged_commands_total[1m])}.
+ * </p>
+ * <p>
+ * Se sirve en {@code GET /metrics} desde un único hilo propio, por lo que una consulta nunca
+ * ocupa un hilo de los clientes. Si el puerto configurado es {@code 0}, no se inicia. Por
+ * defecto solo escucha en la interfaz local, ya que las métricas no requieren autenticación.
+ * </p>
+ *
+ * @see ExpositionWriter
+ * @see server.ServerConfig#getMetricsPort()
+ */
+public class MetricsExporter {
+    private static final Logger logger = CustomLogger.getLogger(MetricsExporter.class.getName());
+    private static final String PATH = "/metrics"; // Ruta en la que se sirven las métricas.
+    private static final String CONTENT_TYPE = "text/plain; version=0.0.4; charset=utf-8"; // Tipo del formato de texto.
+
+    private final ServiceRegister serviceRegister; // Registro de servicios del servidor.
+    private final AdmissionController<?> admissionController; // Control de admisión del servidor.
+    private HttpServer httpServer; // Servidor HTTP, o null si no se ha iniciado.
+    private ExecutorService executor; // Hilo que atiende las consultas.
+
+    /**
+     * Crea el punto de acceso sobre los servicios y el control de admisión de un servidor.
+     *
+     * @param serviceRegister     Registro de servicios del servidor.
+     * @param admissionController Control de admisión del servidor.
+     */
+    public MetricsExporter(ServiceRegister serviceRegister, AdmissionController<?> admissionController) {
+        this.serviceRegister = serviceRegister;
+        this.admissionController = admissionController;
+    }
+
+    /**
+     * Empieza a escuchar en el puerto de métricas configurado, si lo hay. Un error al abrir el
+     * puerto se registra pero no impide que el servidor del juego arranque.
+     */
+    public void start() {
+        int port = serviceRegister.getConfig().getMetricsPort();
+        if (port <= 0) {
+            return;
+        }
+        String host = serviceRegister.getConfig().getMetricsHost();
+
+        try {
+            httpServer = HttpServer.create(new InetSocketAddress(host, port), 0);
+        } catch (IOException e) {
+            logger.log(Level.SEVERE, "Error al abrir el puerto de métricas {0}: {1}", new Object[]{port, e.getMessage()});
+            return;
+        }
+        executor = Executors.newSingleThreadExecutor(task -> {
+            Thread thread = new Thread(task, "hanged-metrics");
+            thread.setDaemon(true);
+            return thread;
+        });
+        httpServer.setExecutor(executor);
+        httpServer.createContext(PATH, this::handle);
+        httpServer.start();
+        logger.log(Level.INFO, "Métricas disponibles en http://" + host + ":" + port + PATH);
+    }
+
+    /**
+     * Deja de atender consultas.
+     */
+    public void stop() {
+        if (httpServer != null) {
+            httpServer.stop(0);
+            executor.shutdown();
+            httpServer = null;
+        }
+    }
+
+    /**
+     * Atiende una consulta HTTP.
+     *
+     * @param exchange Consulta y respuesta.
+     * @throws IOException Si falla el envío de la respuesta.
+     */
+    private void handle(HttpExchange exchange) throws IOException {
+        try (exchange) {
+            String method = exchange.getRequestMethod();
+            if (!method.equals("GET") && !method.equals("HEAD")) {
+                exchange.getResponseHeaders().set("Allow", "GET, HEAD");
+                exchange.sendResponseHeaders(405, -1);
+                return;
+            }
+
+            byte[] body = scrape().getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().set("Content-Type", CONTENT_TYPE);
+            if (method.equals("HEAD")) {
+                exchange.sendResponseHeaders(200, -1);
+                return;
+            }
+            exchange.sendResponseHeaders(200, body.length);
+            try (OutputStream response = exchange.getResponseBody()) {
+                response.write(body);
+            }
+        } catch (RuntimeException e) {
+            logger.log(Level.WARNING, "Error al generar las métricas: {0}", e.getMessage());
+            throw e;
+        }
+    }
+
+    /**
+     * Genera el texto con el valor actual de todas las métricas.
+     *
+     * @return Métricas en el formato de texto de Prometheus.
+     */
+    public String scrape() {
+        ExpositionWriter writer = new ExpositionWriter();
+        writeConnections(writer);
+        writeRooms(writer);
+        writeCommands(writer);
+        writePersistence(writer);
+        writeBufferPools(writer);
+        writeJvm(writer);
+        return writer.toString();
+    }
+
+    /**
+     * Escribe las métricas de conexiones, admisión y partidas individuales.
+     *
+     * @param writer Escritor de métricas.
+     */
+    private void writeConnections(ExpositionWriter writer) {
+        int singlePlayerSessions = 0;
+        int openConnections = 0;
+        for (ClientHandler client : serviceRegister.getService(ConnectionReaper.class).getWatchedClients()) {
+            openConnections++;
+            if (client.hasActiveSingleGame()) {
+                singlePlayerSessions++;
+            }
+        }
+
+        writer.family("hanged_connections_open", "gauge", "Conexiones de clientes abiertas.")
+                .sample("hanged_connections_open", openConnections);
+        writer.family("hanged_sessions_active", "gauge", "Sesiones que ocupan un permiso de admisión.")
+                .sample("hanged_sessions_active", admissionController.getActiveSessions());
+        writer.family("hanged_admission_pending", "gauge", "Conexiones en la cola de admisión.")
+                .sample("hanged_admission_pending", admissionController.getPendingCount());
+        writer.family("hanged_admission_accepted_total", "counter", "Conexiones admitidas.")
+                .sample("hanged_admission_accepted_total", admissionController.getAcceptedCount());
+        writer.family("hanged_admission_queued_total", "counter", "Conexiones que han esperado en la cola de admisión.")
+                .sample("hanged_admission_queued_total", admissionController.getQueuedCount());
+        writer.family("hanged_admission_rejected_total", "counter", "Conexiones rechazadas por servidor lleno.")
+                .sample("hanged_admission_rejected_total", admissionController.getRejectedCount());
+        writer.family("hanged_admission_expired_total", "counter", "Conexiones que salieron de la cola de admisión sin ser admitidas.")
+                .sample("hanged_admission_expired_total", admissionController.getExpiredCount());
+        writer.family("hanged_singleplayer_sessions", "gauge", "Partidas individuales en curso.")
+                .sample("hanged_singleplayer_sessions", singlePlayerSessions);
+    }
+
+    /**
+     * Escribe las métricas de las salas activas.
+     *
+     * @param writer Escritor de métricas.
+     */
+    private void writeRooms(ExpositionWriter writer) {
+        Iterable<HangedRoom> rooms = serviceRegister.getService(RoomManager.class).getRooms();
+        int roomCount = 0;
+        for (HangedRoom ignored : rooms) {
+            roomCount++;
+        }
+        writer.family("hanged_rooms", "gauge", "Salas multijugador activas.")
+                .sample("hanged_rooms", roomCount);
+
+        writer.family("hanged_room_players", "gauge", "Jugadores en cada sala.");
+        for (HangedRoom room : rooms) {
+            writer.sample("hanged_room_players", "room", room.getRoomName(), room.getPlayerCount());
+        }
+        writer.family("hanged_room_broadcasts_total", "counter", "Mensajes difundidos a los jugadores de cada sala.");
+        for (HangedRoom room : rooms) {
+            writer.sample("hanged_room_broadcasts_total", "room", room.getRoomName(), room.getMetrics().getBroadcasts());
+        }
+        writer.family("hanged_room_slow_consumer_events_total", "counter",
+                "Mensajes descartados o condensados y desconexiones de jugadores lentos en cada sala.");
+        for (HangedRoom room : rooms) {
+            RoomMetrics metrics = room.getMetrics();
+            writer.sample("hanged_room_slow_consumer_events_total", "room", room.getRoomName(),
+                    metrics.getDroppedMessages() + metrics.getCoalescedMessages() + metrics.getSlowConsumerDisconnects());
+        }
+    }
+
+    /**
+     * Escribe las ejecuciones, errores y latencias de cada comando.
+     *
+     * @param writer Escritor de métricas.
+     */
+    private void writeCommands(ExpositionWriter writer) {
+        Iterable<CommandMetrics> commands = serviceRegister.getService(CommandProcessor.class).getCommandMetrics();
+        writer.family("hanged_commands_total", "counter", "Ejecuciones de cada comando.");
+        for (CommandMetrics command : commands) {
+            writer.sample("hanged_commands_total", "command", command.getName(), command.getCount());
+        }
+        writer.family("hanged_command_errors_total", "counter", "Ejecuciones de cada comando terminadas con un error.");
+        for (CommandMetrics command : commands) {
+            writer.sample("hanged_command_errors_total", "command", command.getName(), command.getErrors());
+        }
+        writer.family("hanged_command_latency_seconds", "summary", "Latencia de cada comando.");
+        for (CommandMetrics command : commands) {
+            writer.summary("hanged_command_latency_seconds", "command", command.getName(), command.getLatency());
+        }
+    }
+
+    /**
+     * Escribe la duración y el tamaño de las confirmaciones de los cambios de usuarios, los
+     * cambios pendientes y, si la hay, el estado de la caché de cuentas.
+     *
+     * @param writer Escritor de métricas.
+     */
+    private void writePersistence(ExpositionWriter writer) {
+        UserManager userManager = serviceRegister.getService(UserManager.class);
+        writer.family("hanged_persistence_flush_seconds", "summary", "Duración de cada confirmación de un lote de cambios de usuarios, fsync incluido.")
+                .summary("hanged_persistence_flush_seconds", null, null, userManager.getSaveLatency());
+        writer.family("hanged_persistence_commit_batch_size", "summary", "Cambios de usuarios incluidos en cada confirmación.")
+                .countSummary("hanged_persistence_commit_batch_size", userManager.getCommitBatchSizes());
+        writer.family("hanged_persistence_pending_changes", "gauge", "Cambios de usuarios pendientes de escribir.")
+                .sample("hanged_persistence_pending_changes", userManager.getPendingCount());
+        if (userManager.getStore() instanceof CachedUserStore cache) {
+            writer.family("hanged_user_cache_size", "gauge", "Usuarios en la caché de cuentas.")
+                    .sample("hanged_user_cache_size", cache.size());
+            writer.family("hanged_user_cache_hits_total", "counter", "Búsquedas de usuarios resueltas con la caché.")
+                    .sample("hanged_user_cache_hits_total", cache.getHits());
+            writer.family("hanged_user_cache_misses_total", "counter", "Búsquedas de usuarios no resueltas con la caché.")
+                    .sample("hanged_user_cache_misses_total", cache.getMisses());
+            writer.family("hanged_user_cache_evictions_total", "counter", "Usuarios descartados de la caché de cuentas.")
+                    .sample("hanged_user_cache_evictions_total", cache.getEvictions());
+        }
+    }
+
+    /**
+     * Escribe el estado de las reservas de buffers.
+     *
+     * @param writer Escritor de métricas.
+     */
+    private void writeBufferPools(ExpositionWriter writer) {
+        BufferPool[] pools = {BufferPool.heap(), BufferPool.direct()};
+        writer.family("hanged_buffer_pool_in_use", "gauge", "Buffers prestados en este momento.");
+        for (BufferPool pool : pools) {
+            writer.sample("hanged_buffer_pool_in_use", "pool", pool.getName(), pool.getInUseCount());
+        }
+        writer.family("hanged_buffer_pool_free", "gauge", "Buffers libres retenidos para reutilizarse.");
+        for (BufferPool pool : pools) {
+            writer.sample("hanged_buffer_pool_free", "pool", pool.getName(), pool.getFreeCount());
+        }
+        writer.family("hanged_buffer_pool_allocated_total", "counter", "Buffers creados.");
+        for (BufferPool pool : pools) {
+            writer.sample("hanged_buffer_pool_allocated_total", "pool", pool.getName(), pool.getAllocatedCount());
+        }
+        writer.family("hanged_buffer_pool_leaks_total", "counter", "Buffers perdidos sin devolverse a la reserva.");
+        for (BufferPool pool : pools) {
+            writer.sample("hanged_buffer_pool_leaks_total", "pool", pool.getName(), pool.getLeakCount());
+        }
+    }
+
+    /**
+     * Escribe la memoria, los hilos y las recolecciones de basura de la JVM.
+     *
+     * @param writer Escritor de métricas.
+     */
+    private static void writeJvm(ExpositionWriter writer) {
+        MemoryUsage heap = ManagementFactory.getMemoryMXBean().getHeapMemoryUsage();
+        MemoryUsage nonHeap = ManagementFactory.getMemoryMXBean().getNonHeapMemoryUsage();
+        writer.family("jvm_memory_bytes_used", "gauge", "Memoria usada de la JVM.")
+                .sample("jvm_memory_bytes_used", "area", "heap", heap.getUsed())
+                .sample("jvm_memory_bytes_used", "area", "nonheap", nonHeap.getUsed());
+        writer.family("jvm_memory_bytes_committed", "gauge", "Memoria reservada por la JVM.")
+                .sample("jvm_memory_bytes_committed", "area", "heap", heap.getCommitted())
+                .sample("jvm_memory_bytes_committed", "area", "nonheap", nonHeap.getCommitted());
+        writer.family("jvm_memory_bytes_max", "gauge", "Memoria máxima de la JVM, o -1 si no tiene límite.")
+                .sample("jvm_memory_bytes_max", "area", "heap", heap.getMax())
+                .sample("jvm_memory_bytes_max", "area", "nonheap", nonHeap.getMax());
+
+        writer.family("jvm_gc_collections_total", "counter", "Recolecciones de basura de cada recolector.");
+        for (GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans()) {
+            writer.sample("jvm_gc_collections_total", "gc", gc.getName(), Math.max(0, gc.getCollectionCount()));
+        }
+        writer.family("jvm_gc_collection_seconds_total", "counter", "Tiempo acumulado de recolección de cada recolector.");
+        for (GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans()) {
+            writer.sample("jvm_gc_collection_seconds_total", "gc", gc.getName(),
+                    Math.max(0, gc.getCollectionTime()) / (double) TimeUnit.SECONDS.toMillis(1));
+        }
+
+        writer.family("jvm_threads_live", "gauge", "Hilos vivos de la JVM.")
+                .sample("jvm_threads_live", ManagementFactory.getThreadMXBean().getThreadCount());
+        writer.family("process_uptime_seconds", "gauge", "Segundos desde el arranque del proceso.")
+                .sample("process_uptime_seconds", ManagementFactory.getRuntimeMXBean().getUptime() / (double) TimeUnit.SECONDS.toMillis(1));
+    }
+}
@@ -0,0 +1,40 @@
+package server.nio;
+
+import server.buffer.BufferPool;
+import server.buffer.PooledBuffer;
+import server.buffer.PooledOutputStream;
+
+/**
+ * Flujo de salida que deposita los bytes escritos en la cola de envío de una conexión NIO.
+ * <p>
+ * No realiza ninguna operación de red: los bytes se acumulan en buffers directos prestados por
+ * {@link BufferPool#direct()}, que se pasan a la cola de salida de la {@link NioConnection}, y
+ * {@link #flush()} solicita al bucle de eventos propietario que la vacíe sobre el canal. La
+ * conexión devuelve cada buffer a la reserva en cuanto lo ha escrito. Puede usarse desde
+ * cualquier hilo.
+ * </p>
+ */
+class ChannelOutputStream extends PooledOutputStream {
+    private static final int CHUNK_SIZE = 4 * 1024; // Capacidad de los buffers de salida prestados.
+    private final NioConnection connection; // Conexión a la que pertenece el flujo.
+
+    /**
+     * Crea un flujo de salida para la conexión indicada.
+     *
+     * @param connection Conexión destino de los bytes.
+     */
+    ChannelOutputStream(NioConnection connection) {
+        super(BufferPool.direct(), CHUNK_SIZE);
+        this.connection = connection;
+    }
+
+    @Override
+    protected void emit(PooledBuffer filled) {
+        connection.enqueue(filled);
+    }
+
+    @Override
+    protected void flushEmitted() {
+        connection.requestFlush();
+    }
+}
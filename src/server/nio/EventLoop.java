@@ -0,0 +1,300 @@
+package server.nio;
+
+import common.logger.CustomLogger;
+import server.service.ServiceRegister;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.util.Iterator;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.function.Consumer;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Bucle de eventos que atiende un conjunto de conexiones no bloqueantes en un único hilo.
+ * <p>
+ * Cada bucle tiene su propio {@link Selector}. Los canales aceptados se le entregan a través
+ * de {@link #register(SocketChannel)} y, a partir de ese momento, todas sus lecturas,
+ * escrituras y comandos se ejecutan en el hilo de este bucle.
+ * </p>
+ * <p>
+ * Opcionalmente, el bucle puede escuchar en su propio {@link ServerSocketChannel} (abierto con
+ * {@code SO_REUSEPORT}), de modo que acepta él mismo sus conexiones sin pasar por un hilo
+ * aceptador común.
+ * </p>
+ *
+ * @see NioHangedServer
+ * @see NioConnection
+ */
+class EventLoop implements Runnable {
+    private static final Logger logger = CustomLogger.getLogger(EventLoop.class.getName());
+    private static final int READ_BUFFER_SIZE = 16 * 1024; // Tamaño del buffer de lectura compartido.
+
+    private final String name; // Nombre del hilo del bucle.
+    private final Selector selector; // Selector propio del bucle.
+    private final ServiceRegister serviceRegister; // Registro de servicios del servidor.
+    private final Runnable onConnectionClosed; // Acción al cerrarse una conexión (libera su permiso de admisión).
+    private final ByteBuffer readBuffer = ByteBuffer.allocateDirect(READ_BUFFER_SIZE); // Buffer de lectura compartido por las conexiones del bucle.
+    private final Queue<SocketChannel> pendingChannels = new ConcurrentLinkedQueue<>(); // Canales pendientes de registrar.
+    private final Queue<NioConnection> pendingFlushes = new ConcurrentLinkedQueue<>(); // Conexiones con datos pendientes de envío.
+    private final Queue<Runnable> pendingTasks = new ConcurrentLinkedQueue<>(); // Tareas enviadas desde otros hilos.
+    private ServerSocketChannel acceptChannel; // Canal de escucha propio del bucle, si lo tiene.
+    private Consumer<SocketChannel> acceptHandler; // Acción que recibe cada conexión aceptada por el bucle.
+    private volatile Thread thread; // Hilo que ejecuta el bucle.
+    private volatile boolean running = true; // Indica si el bucle sigue en ejecución.
+
+    /**
+     * Crea un bucle de eventos.
+     *
+     * @param name            Nombre del hilo del bucle.
+     * @param serviceRegister    Registro de servicios del servidor.
+     * @param onConnectionClosed Acción a ejecutar cada vez que se cierra una conexión del bucle.
+     * @throws IOException Si no se puede abrir el selector.
+     */
+    EventLoop(String name, ServiceRegister serviceRegister, Runnable onConnectionClosed) throws IOException {
+        this.name = name;
+        this.selector = Selector.open();
+        this.serviceRegister = serviceRegister;
+        this.onConnectionClosed = onConnectionClosed;
+    }
+
+    /**
+     * Arranca el bucle en un nuevo hilo.
+     */
+    void start() {
+        Thread loopThread = new Thread(this, name);
+        thread = loopThread;
+        loopThread.start();
+    }
+
+    /**
+     * Hace que el bucle acepte conexiones en su propio canal de escucha. Debe llamarse antes
+     * de {@link #start()}.
+     *
+     * @param acceptChannel Canal de escucha ya enlazado al puerto.
+     * @param acceptHandler Acción que recibe cada conexión aceptada, en el hilo del bucle.
+     * @throws IOException Si no se puede registrar el canal en el selector.
+     */
+    void listen(ServerSocketChannel acceptChannel, Consumer<SocketChannel> acceptHandler) throws IOException {
+        acceptChannel.configureBlocking(false);
+        acceptChannel.register(selector, SelectionKey.OP_ACCEPT);
+        this.acceptChannel = acceptChannel;
+        this.acceptHandler = acceptHandler;
+    }
+
+    /**
+     * Espera a que termine el hilo del bucle.
+     *
+     * @throws InterruptedException Si se interrumpe la espera.
+     */
+    void awaitTermination() throws InterruptedException {
+        Thread loopThread = thread;
+        if (loopThread != null) {
+            loopThread.join();
+        }
+    }
+
+    /**
+     * Entrega un canal aceptado al bucle para que lo registre en su selector.
+     *
+     * @param channel Canal del cliente.
+     */
+    void register(SocketChannel channel) {
+        pendingChannels.add(channel);
+        selector.wakeup();
+    }
+
+    /**
+     * Ejecuta una tarea en el hilo del bucle.
+     *
+     * @param task Tarea a ejecutar.
+     */
+    void execute(Runnable task) {
+        pendingTasks.add(task);
+        selector.wakeup();
+    }
+
+    /**
+     * Solicita que el bucle vacíe la cola de salida de una conexión.
+     *
+     * @param connection Conexión con datos pendientes.
+     */
+    void scheduleFlush(NioConnection connection) {
+        pendingFlushes.add(connection);
+        selector.wakeup();
+    }
+
+    /**
+     * Indica si el hilo actual es el hilo de este bucle.
+     *
+     * @return {@code true} si se invoca desde el bucle.
+     */
+    boolean inEventLoop() {
+        return Thread.currentThread() == thread;
+    }
+
+    /**
+     * Detiene el bucle de eventos.
+     */
+    void shutdown() {
+        running = false;
+        selector.wakeup();
+    }
+
+    /**
+     * Ejecuta el bucle: espera eventos, registra canales nuevos, vacía colas de salida y
+     * atiende lecturas y escrituras.
+     */
+    @Override
+    public void run() {
+        thread = Thread.currentThread();
+        logger.log(Level.CONFIG, "Bucle de eventos {0} iniciado", name);
+
+        while (running) {
+            try {
+                selector.select();
+                registerPendingChannels();
+                flushPendingConnections();
+                runPendingTasks();
+                processSelectedKeys();
+            } catch (IOException e) {
+                logger.log(Level.SEVERE, "Error en el bucle de eventos " + name + ": " + e.getMessage());
+            }
+        }
+
+        closeAll();
+    }
+
+    /**
+     * Registra en el selector los canales entregados desde el hilo aceptador.
+     */
+    private void registerPendingChannels() {
+        SocketChannel channel;
+        while ((channel = pendingChannels.poll()) != null) {
+            try {
+                channel.configureBlocking(false);
+                NioConnection connection = new NioConnection(channel, this, serviceRegister);
+                connection.attach(channel.register(selector, SelectionKey.OP_READ, connection));
+            } catch (IOException e) {
+                logger.log(Level.WARNING, "No se pudo registrar la conexión: " + e.getMessage());
+                closeQuietly(channel);
+                connectionClosed();
+            }
+        }
+    }
+
+    /**
+     * Notifica que una conexión del bucle se ha cerrado.
+     */
+    void connectionClosed() {
+        onConnectionClosed.run();
+    }
+
+    /**
+     * Ejecuta las tareas enviadas desde otros hilos.
+     */
+    private void runPendingTasks() {
+        Runnable task;
+        while ((task = pendingTasks.poll()) != null) {
+            try {
+                task.run();
+            } catch (RuntimeException e) {
+                logger.log(Level.WARNING, "Error en una tarea del bucle " + name + ": " + e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Vacía las colas de salida solicitadas desde otros hilos.
+     */
+    private void flushPendingConnections() {
+        NioConnection connection;
+        while ((connection = pendingFlushes.poll()) != null) {
+            connection.flushOutbound();
+        }
+    }
+
+    /**
+     * Atiende los eventos de lectura y escritura de las claves seleccionadas.
+     */
+    private void processSelectedKeys() {
+        Iterator<SelectionKey> keys = selector.selectedKeys().iterator();
+        while (keys.hasNext()) {
+            SelectionKey key = keys.next();
+            keys.remove();
+
+            if (key.channel() == acceptChannel) {
+                acceptConnections();
+                continue;
+            }
+
+            NioConnection connection = (NioConnection) key.attachment();
+            if (!key.isValid()) {
+                connection.close();
+                continue;
+            }
+            if (key.isWritable()) {
+                connection.flushOutbound();
+            }
+            if (key.isValid() && key.isReadable()) {
+                connection.onReadable(readBuffer);
+            }
+        }
+    }
+
+    /**
+     * Acepta todas las conexiones pendientes en el canal de escucha del bucle.
+     */
+    private void acceptConnections() {
+        try {
+            SocketChannel channel;
+            while ((channel = acceptChannel.accept()) != null) {
+                acceptHandler.accept(channel);
+            }
+        } catch (IOException e) {
+            logger.log(Level.WARNING, "Error al aceptar conexiones en " + name + ": " + e.getMessage());
+        }
+    }
+
+    /**
+     * Cierra todas las conexiones del bucle, su canal de escucha y su selector.
+     */
+    private void closeAll() {
+        for (SelectionKey key : selector.keys()) {
+            if (key.attachment() instanceof NioConnection connection) {
+                connection.close();
+            }
+        }
+        if (acceptChannel != null) {
+            try {
+                acceptChannel.close();
+            } catch (IOException e) {
+                logger.log(Level.WARNING, "Error al cerrar el canal de escucha de " + name + ": " + e.getMessage());
+            }
+        }
+        try {
+            selector.close();
+        } catch (IOException e) {
+            logger.log(Level.WARNING, "Error al cerrar el selector " + name + ": " + e.getMessage());
+        }
+    }
+
+    /**
+     * Cierra un canal ignorando los errores.
+     *
+     * @param channel Canal a cerrar.
+     */
+    static void closeQuietly(SocketChannel channel) {
+        try {
+            channel.close();
+        } catch (IOException ignored) {
+            // El canal ya no es utilizable.
+        }
+    }
+}
@@ -0,0 +1,270 @@
+package server.nio;
+
+import common.logger.CustomLogger;
+import server.ServerConfig;
+import server.buffer.OutboundQueue;
+import server.buffer.PooledBuffer;
+import server.service.ServiceRegister;
+import server.service.services.ConnectionReaper;
+import server.thread.ClientHandler;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.SocketChannel;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Estado de una conexión de cliente atendida por un {@link EventLoop}.
+ * <p>
+ * Une el canal no bloqueante con el {@link ClientHandler} que ejecuta los comandos. Las
+ * lecturas y escrituras sobre el canal se realizan siempre en el hilo del bucle de eventos
+ * propietario; el resto de hilos (por ejemplo, los que difunden mensajes de una sala) solo
+ * encolan bytes y solicitan un vaciado.
+ * </p>
+ * <p>
+ * La cola de salida está acotada: si un cliente no lee y sus bytes pendientes superan la marca
+ * de nivel alto, se aplica la política configurada para clientes lentos. Si la política es
+ * desconectarlo, el cierre se delega en el bucle de eventos.
+ * </p>
+ * <p>
+ * Cuando responde un comando asíncrono, la conexión se reanuda en su bucle de eventos. Si el
+ * cliente cierra su envío mientras un comando está pendiente, se deja de leer el canal y la
+ * conexión se cierra tras responder a todos los comandos recibidos.
+ * </p>
+ */
+class NioConnection {
+    private static final Logger logger = CustomLogger.getLogger(NioConnection.class.getName());
+
+    private final SocketChannel channel; // Canal no bloqueante del cliente.
+    private final EventLoop loop; // Bucle de eventos propietario de la conexión.
+    private final ClientHandler clientHandler; // Manejador que procesa los comandos del cliente.
+    private final ChannelOutputStream outputStream; // Flujo en el que el manejador escribe sus respuestas.
+    private final OutboundQueue outbound; // Mensajes pendientes de envío.
+    private final AtomicBoolean flushScheduled = new AtomicBoolean(); // Evita solicitar vaciados duplicados.
+    private SelectionKey key; // Clave de registro en el selector del bucle.
+    private boolean closing; // Indica que la conexión se cerrará al terminar de enviar.
+    private boolean inputEnded; // Indica que el cliente ha cerrado su envío con comandos pendientes.
+    private boolean inputPaused; // Indica que se ha dejado de leer por los comandos acumulados.
+    private volatile boolean closed; // Indica que la conexión ya está cerrada.
+
+    /**
+     * Crea una conexión asociada a un canal y a su bucle de eventos.
+     *
+     * @param channel         Canal del cliente.
+     * @param loop            Bucle de eventos propietario.
+     * @param serviceRegister Registro de servicios del servidor.
+     */
+    NioConnection(SocketChannel channel, EventLoop loop, ServiceRegister serviceRegister) {
+        this.channel = channel;
+        this.loop = loop;
+        this.clientHandler = new ClientHandler(channel.socket(), serviceRegister);
+        ServerConfig config = serviceRegister.getConfig();
+        this.outbound = new OutboundQueue(config.getOutboundHighWater(), config.getSlowConsumerPolicy());
+        this.outputStream = new ChannelOutputStream(this);
+        this.clientHandler.attachOutputStream(outputStream);
+        this.clientHandler.setDisconnectHandler(() -> loop.execute(this::closeAfterFlush));
+        this.clientHandler.setResumeExecutor(task -> loop.execute(() -> {
+            task.run();
+            resumeInput();
+            closeIfInputEnded();
+        }));
+        serviceRegister.getService(ConnectionReaper.class).watch(clientHandler);
+    }
+
+    /**
+     * Registra la conexión en el selector del bucle de eventos.
+     *
+     * @param key Clave obtenida al registrar el canal.
+     */
+    void attach(SelectionKey key) {
+        this.key = key;
+    }
+
+    /**
+     * Lee los bytes disponibles en el canal y procesa las líneas completas recibidas.
+     *
+     * @param readBuffer Buffer de lectura compartido del bucle de eventos.
+     */
+    void onReadable(ByteBuffer readBuffer) {
+        try {
+            readBuffer.clear();
+            int read = channel.read(readBuffer);
+            if (read < 0) {
+                if (clientHandler.isAwaitingCommand()) {
+                    inputEnded = true;
+                    key.interestOps(key.interestOps() & ~SelectionKey.OP_READ);
+                } else {
+                    close();
+                }
+                return;
+            }
+
+            readBuffer.flip();
+            processReceivedBytes(readBuffer);
+        } catch (IOException | IllegalStateException e) {
+            logger.log(Level.WARNING, "Error de lectura con " + clientHandler.getFormatedUser() + ": " + e.getMessage());
+            close();
+        }
+    }
+
+    /**
+     * Entrega los bytes recibidos al {@link ClientHandler}, que ejecuta como un único lote
+     * todos los comandos completos.
+     *
+     * @param bytes Bytes recibidos del canal.
+     */
+    private void processReceivedBytes(ByteBuffer bytes) {
+        if (closing) {
+            return;
+        }
+        clientHandler.handleReceivedBytes(bytes);
+
+        // Con demasiados comandos esperando a uno asíncrono, se deja de leer hasta que responda.
+        if (clientHandler.isInputBacklogged()) {
+            inputPaused = true;
+            key.interestOps(key.interestOps() & ~SelectionKey.OP_READ);
+        }
+
+        // El comando de salida detiene al manejador: se cierra tras enviar lo pendiente.
+        if (!clientHandler.isRunning()) {
+            closing = true;
+            flushOutbound();
+        }
+    }
+
+    /**
+     * Vuelve a leer la conexión si se había dejado de hacer y ya se han procesado los comandos
+     * acumulados. Debe ejecutarse en el hilo del bucle de eventos.
+     */
+    private void resumeInput() {
+        if (inputPaused && !closed && !clientHandler.isInputBacklogged()) {
+            inputPaused = false;
+            key.interestOps(key.interestOps() | readInterest());
+        }
+    }
+
+    /**
+     * Cierra la conexión si el cliente ya había cerrado su envío y no quedan comandos
+     * pendientes. Debe ejecutarse en el hilo del bucle de eventos.
+     */
+    private void closeIfInputEnded() {
+        if (inputEnded && !clientHandler.isAwaitingCommand()) {
+            closeAfterFlush();
+        }
+    }
+
+    /**
+     * Cierra la conexión en cuanto se haya enviado la salida pendiente. Debe ejecutarse en el
+     * hilo del bucle de eventos.
+     */
+    void closeAfterFlush() {
+        if (closed) {
+            return;
+        }
+        closing = true;
+        flushOutbound();
+    }
+
+    /**
+     * Añade bytes al mensaje que se está componiendo en la cola de salida. La conexión pasa a
+     * ser propietaria del buffer y lo devuelve a su reserva una vez escrito o al cerrarse.
+     *
+     * @param bytes Buffer en modo lectura con los bytes a enviar.
+     */
+    void enqueue(PooledBuffer bytes) {
+        outbound.append(bytes);
+    }
+
+    /**
+     * Confirma el mensaje compuesto y solicita el envío de los bytes encolados. Si se invoca
+     * desde el hilo del bucle se escribe inmediatamente; en otro caso se delega en el bucle
+     * propietario.
+     */
+    void requestFlush() {
+        OutboundQueue.Result result = outbound.commit();
+        if (result != OutboundQueue.Result.QUEUED && result != OutboundQueue.Result.CLOSED) {
+            clientHandler.recordOutboundOverflow(result, outbound.getQueuedBytes());
+        }
+        if (result == OutboundQueue.Result.OVERFLOW) {
+            loop.execute(this::close);
+            return;
+        }
+        if (closed) {
+            return;
+        }
+        if (loop.inEventLoop()) {
+            flushOutbound();
+        } else if (flushScheduled.compareAndSet(false, true)) {
+            loop.scheduleFlush(this);
+        }
+    }
+
+    /**
+     * Escribe en el canal todos los bytes encolados que admita sin bloquear. Si el canal
+     * no acepta más datos, se activa el interés de escritura para continuar más tarde.
+     */
+    void flushOutbound() {
+        flushScheduled.set(false);
+        if (closed || key == null) {
+            return;
+        }
+
+        try {
+            ByteBuffer bytes;
+            while ((bytes = outbound.beginWrite()) != null) {
+                try {
+                    channel.write(bytes);
+                } catch (IOException e) {
+                    outbound.endWrite(false);
+                    throw e;
+                }
+                if (bytes.hasRemaining()) {
+                    outbound.endWrite(false);
+                    key.interestOps(readInterest() | SelectionKey.OP_WRITE);
+                    return;
+                }
+                outbound.endWrite(true);
+            }
+            key.interestOps(readInterest());
+
+            if (closing) {
+                close();
+            }
+        } catch (IOException e) {
+            logger.log(Level.WARNING, "Error de escritura con " + clientHandler.getFormatedUser() + ": " + e.getMessage());
+            close();
+        }
+    }
+
+    /**
+     * Obtiene el interés de lectura de la conexión: ninguno si el cliente ya ha cerrado su envío
+     * o si se ha dejado de leer por los comandos acumulados.
+     *
+     * @return {@link SelectionKey#OP_READ} o {@code 0}.
+     */
+    private int readInterest() {
+        return inputEnded || inputPaused ? 0 : SelectionKey.OP_READ;
+    }
+
+    /**
+     * Cierra la conexión y libera los recursos asociados.
+     */
+    void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        outbound.close();
+        outputStream.discard();
+        if (key != null) {
+            key.cancel();
+        }
+        clientHandler.setRunning(false);
+        clientHandler.closeConnection();
+        clientHandler.releaseBuffers();
+        loop.connectionClosed();
+    }
+}
@@ -0,0 +1,318 @@
+package server.nio;
+
+import common.logger.CustomLogger;
+import server.AdmissionController;
+import server.Server;
+import server.ServerConfig;
+import server.metrics.MetricsExporter;
+import server.service.ServiceRegister;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.StandardSocketOptions;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.ByteBuffer;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Implementación del servidor TCP basada en canales no bloqueantes y selectores.
+ * <p>
+ * A diferencia de {@link server.HangedServer}, no dedica un hilo a cada cliente: las
+ * conexiones se reparten entre un pequeño número de {@link EventLoop}, que decodifican las
+ * líneas de comando y las ejecutan mediante el {@link server.service.services.CommandProcessor}
+ * habitual. Esto permite mantener decenas de miles de conexiones mayoritariamente inactivas
+ * con pocos hilos.
+ * </p>
+ * <p>
+ * Si el sistema admite {@code SO_REUSEPORT}, cada bucle escucha en su propio socket enlazado
+ * al mismo puerto y el núcleo reparte entre ellos las conexiones entrantes: cada bucle acepta
+ * y atiende sus propias conexiones, sin un hilo aceptador común que se convierta en cuello de
+ * botella en las avalanchas de reconexiones. En otro caso, el hilo que invoca {@link #start()}
+ * acepta las conexiones y las reparte en turno rotatorio. En ambos casos los servicios del
+ * {@link ServiceRegister} son únicos para todo el proceso.
+ * </p>
+ * <p>
+ * Las conexiones pasan por el mismo {@link AdmissionController} que en el modo de hilos,
+ * por lo que {@code maxUsers} limita también aquí el número de sesiones simultáneas.
+ * </p>
+ *
+ * @see Server
+ * @see EventLoop
+ * @see NioConnection
+ */
+public class NioHangedServer implements Server {
+    private static final Logger logger = CustomLogger.getLogger(NioHangedServer.class.getName());
+    private final int port; // Puerto en el que el servidor escuchará conexiones entrantes.
+    private final int ioThreads; // Número de bucles de eventos.
+    private final boolean reusePort; // Indica si cada bucle debe escuchar en su propio socket.
+    private final ServiceRegister serviceRegister; // Registro de servicios disponibles para los clientes.
+    private final AdmissionController<SocketChannel> admissionController; // Control de admisión de las conexiones.
+    private final MetricsExporter metricsExporter; // Punto de acceso HTTP con las métricas del servidor.
+    private final boolean earlyListen; // Escuchar antes de que terminen de iniciarse los servicios.
+    private final AtomicInteger nextLoop = new AtomicInteger(); // Índice rotatorio del siguiente bucle de eventos.
+    private EventLoop[] loops; // Bucles de eventos en ejecución.
+    private volatile ServerSocketChannel acceptChannel; // Canal del hilo aceptador común, si se usa.
+    private volatile boolean startFailed; // Indica que los servicios no se han podido iniciar.
+
+    /**
+     * Crea un nuevo servidor NIO a partir de una configuración de arranque.
+     *
+     * @param config Configuración del servidor.
+     */
+    public NioHangedServer(ServerConfig config) {
+        this.port = config.getPort();
+        this.ioThreads = config.getIoThreads();
+        this.reusePort = config.isReusePort();
+        this.serviceRegister = new ServiceRegister(config);
+        this.admissionController = new AdmissionController<>(config.getMaxUsers(), config.getPendingQueue(),
+                config.getRetryAfterSeconds(), config.getQueueTimeoutSeconds(), this::startSession,
+                this::rejectQueued,
+                channel -> !channel.isOpen());
+        this.metricsExporter = new MetricsExporter(serviceRegister, admissionController);
+        this.earlyListen = config.isEarlyListen();
+    }
+
+    /**
+     * Inicia el servidor: arranca los bucles de eventos y acepta conexiones, en cada bucle si
+     * es posible o, si no, en el hilo actual.
+     * <p>
+     * Con {@code earlyListen} se escucha sin esperar a que terminen de iniciarse los servicios
+     * y, mientras tanto, cada conexión recibe un aviso de que el servidor está arrancando. Si
+     * entonces algún servicio no se puede iniciar, se detienen los bucles y el servidor.
+     * </p>
+     */
+    @Override
+    public void start() {
+        if (!earlyListen) {
+            try {
+                serviceRegister.awaitReady();
+            } catch (IllegalStateException e) {
+                logger.log(Level.SEVERE, "Error al iniciar el servidor: {0}", e.getMessage());
+                return;
+            }
+        }
+
+        try {
+            loops = createEventLoops();
+        } catch (IOException e) {
+            logger.log(Level.SEVERE, "Error al iniciar los bucles de eventos: {0}", e.getMessage());
+            return;
+        }
+
+        // Al terminar el proceso se guardan los cambios pendientes de los servicios.
+        Runtime.getRuntime().addShutdownHook(new Thread(serviceRegister::shutdown, "hanged-shutdown"));
+        serviceRegister.onStartFailure(error -> stopListening());
+        metricsExporter.start();
+        try {
+            if (reusePort && listenOnEachLoop()) {
+                logger.log(Level.INFO, "Servidor NIO escuchando en el puerto: " + port + " con " + ioThreads
+                        + " bucles de eventos con SO_REUSEPORT");
+                startEventLoops();
+                for (EventLoop loop : loops) {
+                    loop.awaitTermination();
+                }
+            } else {
+                startEventLoops();
+                acceptInCurrentThread();
+            }
+        } catch (IOException e) {
+            if (!startFailed) {
+                logger.log(Level.SEVERE, "Error al iniciar el servidor: {0}", e.getMessage());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            for (EventLoop loop : loops) {
+                loop.shutdown();
+            }
+            metricsExporter.stop();
+            serviceRegister.shutdown();
+        }
+    }
+
+    /**
+     * Detiene los bucles de eventos y cierra el canal del hilo aceptador porque los servicios
+     * no se han podido iniciar.
+     */
+    private void stopListening() {
+        logger.log(Level.SEVERE, "Deteniendo el servidor: no se pudieron iniciar los servicios");
+        startFailed = true;
+        for (EventLoop loop : loops) {
+            loop.shutdown();
+        }
+        closeAll(new ServerSocketChannel[]{acceptChannel});
+    }
+
+    /**
+     * Crea los bucles de eventos configurados, sin arrancarlos.
+     *
+     * @return Bucles de eventos.
+     * @throws IOException Si no se puede abrir algún selector.
+     */
+    private EventLoop[] createEventLoops() throws IOException {
+        EventLoop[] loops = new EventLoop[ioThreads];
+        for (int i = 0; i < ioThreads; i++) {
+            loops[i] = new EventLoop("nio-loop-" + i, serviceRegister, admissionController::release);
+        }
+        return loops;
+    }
+
+    /**
+     * Arranca los bucles de eventos.
+     */
+    private void startEventLoops() {
+        for (EventLoop loop : loops) {
+            loop.start();
+        }
+    }
+
+    /**
+     * Abre un socket de escucha con {@code SO_REUSEPORT} para cada bucle de eventos.
+     * <p>
+     * Si el sistema no admite la opción o algún socket no se puede enlazar, se cierran los que
+     * se hubieran abierto y ningún bucle escucha por su cuenta.
+     * </p>
+     *
+     * @return {@code true} si todos los bucles escuchan en su propio socket.
+     */
+    private boolean listenOnEachLoop() {
+        ServerSocketChannel[] channels = new ServerSocketChannel[loops.length];
+        try {
+            for (int i = 0; i < loops.length; i++) {
+                channels[i] = ServerSocketChannel.open();
+                if (!channels[i].supportedOptions().contains(StandardSocketOptions.SO_REUSEPORT)) {
+                    logger.log(Level.CONFIG, "SO_REUSEPORT no está disponible; se usará un único hilo aceptador");
+                    closeAll(channels);
+                    return false;
+                }
+                channels[i].setOption(StandardSocketOptions.SO_REUSEPORT, true);
+                channels[i].bind(new InetSocketAddress(port));
+            }
+            for (int i = 0; i < loops.length; i++) {
+                loops[i].listen(channels[i], this::accept);
+            }
+            return true;
+        } catch (IOException e) {
+            logger.log(Level.WARNING, "No se pudo escuchar con SO_REUSEPORT ({0}); se usará un único hilo aceptador",
+                    e.getMessage());
+            closeAll(channels);
+            return false;
+        }
+    }
+
+    /**
+     * Cierra los canales de escucha indicados ignorando los errores.
+     *
+     * @param channels Canales a cerrar; puede contener posiciones vacías.
+     */
+    private static void closeAll(ServerSocketChannel[] channels) {
+        for (ServerSocketChannel channel : channels) {
+            if (channel != null) {
+                try {
+                    channel.close();
+                } catch (IOException ignored) {
+                    // El canal ya no es utilizable.
+                }
+            }
+        }
+    }
+
+    /**
+     * Acepta conexiones en el hilo actual y las entrega al control de admisión.
+     *
+     * @throws IOException Si no se puede abrir el socket de escucha.
+     */
+    private void acceptInCurrentThread() throws IOException {
+        try (ServerSocketChannel serverChannel = ServerSocketChannel.open()) {
+            acceptChannel = serverChannel;
+            if (startFailed) {
+                return; // Los servicios han fallado antes de empezar a aceptar
+            }
+            serverChannel.bind(new InetSocketAddress(port));
+            logger.log(Level.INFO, "Servidor NIO escuchando en el puerto: " + port + " con " + ioThreads + " bucles de eventos");
+
+            while (true) {
+                // Espera y acepta una nueva conexión de cliente.
+                accept(serverChannel.accept());
+            }
+        }
+    }
+
+    /**
+     * Entrega una conexión recién aceptada al control de admisión.
+     *
+     * @param channel Canal del cliente.
+     */
+    private void accept(SocketChannel channel) {
+        logger.log(Level.INFO, "Nueva conexión aceptada desde: {0}", channel.socket().getInetAddress());
+        try {
+            channel.setOption(StandardSocketOptions.TCP_NODELAY, true);
+        } catch (IOException e) {
+            logger.log(Level.WARNING, "No se pudo configurar la conexión: {0}", e.getMessage());
+        }
+
+        // Mientras se inician los servicios no se atiende a nadie.
+        if (!serviceRegister.isReady()) {
+            reject(channel, admissionController.getWarmingUpMessage());
+        } else if (admissionController.admit(channel) == AdmissionController.Admission.REJECTED) {
+            reject(channel, admissionController.getRejectionMessage());
+        }
+    }
+
+    /**
+     * Asigna una conexión admitida a un bucle de eventos.
+     * <p>
+     * Si se admite desde el hilo de un bucle (porque la ha aceptado él mismo o porque una
+     * conexión suya ha liberado un permiso), la atiende ese mismo bucle. Si se admite desde el
+     * hilo aceptador común, se reparte entre los bucles en turno rotatorio.
+     * </p>
+     *
+     * @param channel Canal del cliente admitido.
+     */
+    private void startSession(SocketChannel channel) {
+        for (EventLoop loop : loops) {
+            if (loop.inEventLoop()) {
+                loop.register(channel);
+                return;
+            }
+        }
+        int index = Math.floorMod(nextLoop.getAndIncrement(), loops.length);
+        loops[index].register(channel);
+    }
+
+    /**
+     * Informa al cliente de que no puede ser atendido y cierra la conexión.
+     *
+     * @param channel Canal del cliente rechazado.
+     * @param message Motivo del rechazo.
+     */
+    private void reject(SocketChannel channel, String message) {
+        try (channel) {
+            channel.write(ByteBuffer.wrap((message + System.lineSeparator()).getBytes(StandardCharsets.UTF_8)));
+        } catch (IOException e) {
+            logger.log(Level.WARNING, "Error al rechazar la conexión: {0}", e.getMessage());
+        }
+    }
+
+    /**
+     * Rechaza una conexión que ha agotado su espera en la cola de admisión.
+     *
+     * @param channel Canal del cliente en espera.
+     */
+    private void rejectQueued(SocketChannel channel) {
+        reject(channel, admissionController.getRejectionMessage());
+    }
+
+    /**
+     * Obtiene el controlador de admisión del servidor, con sus contadores de conexiones.
+     *
+     * @return Controlador de admisión.
+     */
+    public AdmissionController<SocketChannel> getAdmissionController() {
+        return admissionController;
+    }
+}
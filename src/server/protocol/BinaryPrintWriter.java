@@ -0,0 +1,77 @@
+package server.protocol;
+
+import server.message.EncodedMessage;
+import server.thread.BatchedPrintWriter;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * Escritor de salida de las conexiones que han negociado el protocolo binario.
+ * <p>
+ * Mantiene la interfaz de {@link java.io.PrintWriter} que usan los comandos y las
+ * partidas, pero envía cada línea como una trama {@link BinaryProtocol#TEXT}. Las partidas
+ * pueden además enviar tramas de evento compactas a través de {@link GameEvents}. Se agrupa
+ * por lotes de respuesta igual que el escritor del protocolo de texto.
+ * </p>
+ *
+ * @see BinaryProtocol
+ * @see GameEvents
+ */
+public class BinaryPrintWriter extends BatchedPrintWriter {
+    private final FrameWriter frames; // Escritor de tramas subyacente.
+
+    /**
+     * Crea un escritor binario sobre el flujo de salida de la conexión.
+     *
+     * @param out Flujo de salida de la conexión.
+     */
+    public BinaryPrintWriter(OutputStream out) {
+        this(new FrameWriter(out));
+    }
+
+    private BinaryPrintWriter(FrameWriter frames) {
+        super(frames);
+        this.frames = frames;
+    }
+
+    /**
+     * Envía un mensaje ya codificado como trama {@link BinaryProtocol#TEXT}, sin volver a
+     * codificarlo.
+     *
+     * @param message Mensaje codificado.
+     */
+    @Override
+    public void println(EncodedMessage message) {
+        synchronized (lock) {
+            if (isTagging() || frames.hasPendingLine()) {
+                super.println(message);
+                return;
+            }
+            try {
+                int length = Math.min(message.getTextLength(), BinaryProtocol.MAX_FRAME_LENGTH - 1);
+                frames.writeFrame(BinaryProtocol.TEXT, message.getLine(), 0, length);
+            } catch (IOException e) {
+                setError();
+            }
+        }
+        endMessage();
+    }
+
+    /**
+     * Envía una trama de evento.
+     *
+     * @param opcode  Código del evento.
+     * @param payload Contenido ya codificado del evento.
+     */
+    public void writeEvent(byte opcode, byte[] payload) {
+        synchronized (lock) {
+            try {
+                frames.writeFrame(opcode, payload, 0, payload.length);
+            } catch (IOException e) {
+                setError();
+            }
+        }
+        endMessage();
+    }
+}
@@ -0,0 +1,144 @@
+package server.protocol;
+
+import server.command.CommandFactory;
+import server.command.commands.*;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Definición del protocolo binario compacto, alternativo al protocolo de texto.
+ * <p>
+ * El protocolo se elige con el primer byte que envía el cliente: si es {@link #HANDSHAKE},
+ * la conexión pasa a intercambiar tramas binarias; cualquier otro byte se interpreta como
+ * el inicio de una línea del protocolo de texto habitual.
+ * </p>
+ * <p>
+ * Todas las tramas, en ambos sentidos, tienen el formato
+ * {@code [longitud u16][código u8][contenido]}, donde la longitud cuenta el código y el
+ * contenido. Las cadenas del contenido se codifican como {@code [longitud u8][UTF-8]}.
+ * </p>
+ * <ul>
+ *     <li>Cliente a servidor: un código por cada comando de {@link CommandFactory}; el
+ *     contenido es la lista de argumentos como cadenas.</li>
+ *     <li>Servidor a cliente: {@link #TEXT} para los mensajes sin evento propio y tramas de
+ *     evento compactas para el estado del refrán, las suposiciones, los turnos y las
+ *     puntuaciones.</li>
+ * </ul>
+ *
+ * @see FrameDecoder
+ * @see BinaryPrintWriter
+ * @see GameEvents
+ */
+public final class BinaryProtocol {
+    public static final byte HANDSHAKE = (byte) 0xB1; // Primer byte que solicita el protocolo binario.
+    public static final byte VERSION = 1; // Versión del protocolo binario.
+    public static final int HEADER_LENGTH = 2; // Bytes que ocupa la longitud de una trama.
+    public static final int MAX_FRAME_LENGTH = 0xFFFF; // Longitud máxima de una trama.
+    public static final int MAX_STRING_LENGTH = 0xFF; // Longitud máxima de una cadena codificada.
+
+    // Códigos de comando (cliente a servidor).
+    public static final byte HELP = 0x01;
+    public static final byte LOGIN = 0x02;
+    public static final byte REGISTER = 0x03;
+    public static final byte USER = 0x04;
+    public static final byte SINGLEPLAYER = 0x05;
+    public static final byte MULTIPLAYER = 0x06;
+    public static final byte CONSONANT = 0x07;
+    public static final byte VOWEL = 0x08;
+    public static final byte SOLVE = 0x09;
+    public static final byte ROOMS = 0x0A;
+    public static final byte EXIT = 0x0B;
+    public static final byte STATS = 0x0C;
+
+    // Códigos de trama del servidor (servidor a cliente).
+    public static final byte WELCOME = 0x7F; // Confirmación del protocolo: [versión u8].
+    public static final byte TEXT = (byte) 0x80; // Mensaje de texto: [UTF-8].
+    public static final byte PROVERB = (byte) 0x81; // Estado del refrán: [refrán oculto].
+    public static final byte GUESS = (byte) 0x82; // Suposición: [acierto u8][letra][jugador].
+    public static final byte TURN = (byte) 0x83; // Turno: [jugador][turno propio u8].
+    public static final byte SCORE = (byte) 0x84; // Puntuación: [obtenida i32][total i32].
+
+    private static final String[] COMMAND_NAMES = new String[STATS + 1]; // Nombres de comando por código.
+
+    static {
+        COMMAND_NAMES[HELP] = HelpCommand.getCommandName();
+        COMMAND_NAMES[LOGIN] = LoginCommand.getCommandName();
+        COMMAND_NAMES[REGISTER] = RegisterCommand.getCommnadName();
+        COMMAND_NAMES[USER] = UserCommand.getCommandName();
+        COMMAND_NAMES[SINGLEPLAYER] = SinglePlayerCommand.getCommandName();
+        COMMAND_NAMES[MULTIPLAYER] = MultiplayerCommand.getCommandName();
+        COMMAND_NAMES[CONSONANT] = ConsonantCommand.getCommandName();
+        COMMAND_NAMES[VOWEL] = VowelCommand.getCommandName();
+        COMMAND_NAMES[SOLVE] = SolveCommand.getCommandName();
+        COMMAND_NAMES[ROOMS] = RoomsCommand.getCommandName();
+        COMMAND_NAMES[EXIT] = ExitCommand.getCommandName();
+        COMMAND_NAMES[STATS] = StatsCommand.getCommandName();
+
+        for (int i = 0; i < COMMAND_NAMES.length; i++) {
+            if (COMMAND_NAMES[i] != null) {
+                COMMAND_NAMES[i] = CommandFactory.getCommandSymbol() + COMMAND_NAMES[i];
+            }
+        }
+    }
+
+    private BinaryProtocol() {
+    }
+
+    /**
+     * Obtiene el nombre de comando, con su prefijo, asociado a un código.
+     *
+     * @param opcode Código de comando recibido.
+     * @return Nombre del comando, o {@code null} si el código no corresponde a ninguno.
+     */
+    public static String commandName(byte opcode) {
+        return opcode >= 0 && opcode < COMMAND_NAMES.length ? COMMAND_NAMES[opcode] : null;
+    }
+
+    /**
+     * Añade una cadena codificada como {@code [longitud u8][UTF-8]}. Las cadenas más largas
+     * que {@link #MAX_STRING_LENGTH} bytes se truncan sin partir ningún carácter.
+     *
+     * @param out   Destino de los bytes.
+     * @param value Cadena a codificar.
+     */
+    static void writeString(ByteArrayOutputStream out, String value) {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        int length = truncatedLength(bytes, bytes.length, MAX_STRING_LENGTH);
+        out.write(length);
+        out.write(bytes, 0, length);
+    }
+
+    /**
+     * Obtiene cuántos bytes de un texto UTF-8 caben en un máximo sin cortar una secuencia
+     * multibyte: si el corte cae dentro de un carácter, se retrocede hasta su inicio.
+     *
+     * @param bytes     Texto codificado en UTF-8.
+     * @param length    Longitud del texto.
+     * @param maxLength Número máximo de bytes.
+     * @return Longitud truncada, que siempre termina en un carácter completo.
+     */
+    static int truncatedLength(byte[] bytes, int length, int maxLength) {
+        if (length <= maxLength) {
+            return length;
+        }
+        int end = maxLength;
+        while (end > 0 && (bytes[end] & 0xC0) == 0x80) {
+            end--; // bytes[end] continúa un carácter que empieza antes del corte
+        }
+        return end;
+    }
+
+    /**
+     * Añade un entero de 32 bits en orden de red.
+     *
+     * @param out   Destino de los bytes.
+     * @param value Entero a codificar.
+     */
+    static void writeInt(ByteArrayOutputStream out, int value) {
+        out.write(value >>> 24);
+        out.write(value >>> 16);
+        out.write(value >>> 8);
+        out.write(value);
+    }
+}
@@ -0,0 +1,119 @@
+package server.protocol;
+
+import server.buffer.ByteAccumulator;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Decodificador incremental de tramas del protocolo binario.
+ * <p>
+ * Acumula los bytes recibidos y extrae los comandos completos sin pasar por el análisis
+ * de texto: el código de la trama identifica el comando y el contenido ya viene separado
+ * en argumentos. Los bytes pendientes se guardan en un {@link ByteAccumulator}, que solo
+ * retiene un buffer mientras hay una trama a medio recibir.
+ * </p>
+ *
+ * @see BinaryProtocol
+ */
+public class FrameDecoder {
+    private static final String[] NO_ARGUMENTS = new String[0]; // Argumentos de los comandos sin parámetros.
+    private static final int MAX_ARGUMENTS = 16; // Número máximo de argumentos por comando.
+
+    /**
+     * Comando recibido en una trama binaria.
+     *
+     * @param opcode Código de la trama.
+     * @param name   Nombre del comando con su prefijo, o {@code null} si el código es desconocido.
+     * @param args   Argumentos del comando.
+     */
+    public record BinaryCommand(byte opcode, String name, String[] args) {
+    }
+
+    private final ByteAccumulator pending = new ByteAccumulator(); // Bytes pendientes de decodificar.
+
+    /**
+     * Añade al acumulador los bytes disponibles en el buffer indicado.
+     *
+     * @param source Buffer en modo lectura con los bytes recibidos.
+     */
+    public void append(ByteBuffer source) {
+        pending.append(source);
+    }
+
+    /**
+     * Obtiene el número de bytes recibidos que aún no se han extraído como comando.
+     *
+     * @return Bytes pendientes.
+     */
+    public int getPendingBytes() {
+        return pending.size();
+    }
+
+    /**
+     * Descarta los bytes pendientes y devuelve su buffer a la reserva.
+     */
+    public void release() {
+        pending.release();
+    }
+
+    /**
+     * Extrae el siguiente comando completo del acumulador.
+     *
+     * @return Comando recibido, o {@code null} si todavía no hay una trama completa.
+     * @throws IllegalStateException Si la trama está mal formada.
+     */
+    public BinaryCommand pollCommand() {
+        if (pending.size() < BinaryProtocol.HEADER_LENGTH) {
+            return null;
+        }
+
+        byte[] buffer = pending.array();
+        int start = pending.start();
+        int frameLength = ((buffer[start] & 0xFF) << 8) | (buffer[start + 1] & 0xFF);
+        if (frameLength == 0) {
+            throw new IllegalStateException("Trama binaria vacía");
+        }
+        if (pending.size() < BinaryProtocol.HEADER_LENGTH + frameLength) {
+            return null;
+        }
+
+        int position = start + BinaryProtocol.HEADER_LENGTH;
+        int frameEnd = position + frameLength;
+        byte opcode = buffer[position++];
+        String[] args = decodeArguments(buffer, position, frameEnd);
+
+        pending.consume(frameEnd - start);
+        return new BinaryCommand(opcode, BinaryProtocol.commandName(opcode), args);
+    }
+
+    /**
+     * Decodifica la lista de cadenas {@code [longitud u8][UTF-8]} de una trama.
+     *
+     * @param buffer   Bytes recibidos.
+     * @param position Posición del primer byte del contenido.
+     * @param frameEnd Posición siguiente al último byte de la trama.
+     * @return Argumentos decodificados.
+     * @throws IllegalStateException Si una cadena excede los límites de la trama.
+     */
+    private static String[] decodeArguments(byte[] buffer, int position, int frameEnd) {
+        if (position == frameEnd) {
+            return NO_ARGUMENTS;
+        }
+
+        String[] args = new String[MAX_ARGUMENTS];
+        int count = 0;
+        while (position < frameEnd) {
+            int length = buffer[position++] & 0xFF;
+            if (position + length > frameEnd || count == MAX_ARGUMENTS) {
+                throw new IllegalStateException("Argumentos de trama binaria mal formados");
+            }
+            args[count++] = new String(buffer, position, length, StandardCharsets.UTF_8);
+            position += length;
+        }
+
+        String[] result = new String[count];
+        System.arraycopy(args, 0, result, 0, count);
+        return result;
+    }
+}
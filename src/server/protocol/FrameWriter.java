@@ -0,0 +1,79 @@
+package server.protocol;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Escritor que convierte cada línea de texto en una trama {@link BinaryProtocol#TEXT}.
+ * <p>
+ * Los caracteres se acumulan hasta el salto de línea y, entonces, la línea completa se
+ * codifica en UTF-8 y se escribe como una trama en el flujo de salida, que debe acumular
+ * los bytes hasta su vaciado. También permite escribir tramas de evento ya codificadas.
+ * </p>
+ */
+class FrameWriter extends Writer {
+    private final OutputStream sink; // Flujo donde se escriben las tramas.
+    private final StringBuilder line = new StringBuilder(); // Línea de texto en curso.
+
+    /**
+     * Crea un escritor de tramas sobre el flujo indicado.
+     *
+     * @param sink Flujo de salida de la conexión.
+     */
+    FrameWriter(OutputStream sink) {
+        this.sink = sink;
+    }
+
+    @Override
+    public void write(char[] cbuf, int off, int len) throws IOException {
+        for (int i = off; i < off + len; i++) {
+            char c = cbuf[i];
+            if (c == '\n') {
+                byte[] text = line.toString().getBytes(StandardCharsets.UTF_8);
+                int length = BinaryProtocol.truncatedLength(text, text.length, BinaryProtocol.MAX_FRAME_LENGTH - 1);
+                writeFrame(BinaryProtocol.TEXT, text, 0, length);
+                line.setLength(0);
+            } else if (c != '\r') {
+                line.append(c);
+            }
+        }
+    }
+
+    /**
+     * Indica si hay una línea de texto empezada que aún no se ha enviado.
+     *
+     * @return {@code true} si hay texto pendiente de su salto de línea.
+     */
+    boolean hasPendingLine() {
+        return line.length() > 0;
+    }
+
+    /**
+     * Escribe una trama completa en el flujo de salida.
+     *
+     * @param opcode  Código de la trama.
+     * @param payload Contenido de la trama.
+     * @param off     Posición del primer byte del contenido.
+     * @param len     Longitud del contenido.
+     * @throws IOException Si no se puede escribir en el flujo.
+     */
+    void writeFrame(byte opcode, byte[] payload, int off, int len) throws IOException {
+        int frameLength = len + 1;
+        sink.write(frameLength >>> 8);
+        sink.write(frameLength);
+        sink.write(opcode);
+        sink.write(payload, off, len);
+    }
+
+    @Override
+    public void flush() throws IOException {
+        sink.flush();
+    }
+
+    @Override
+    public void close() throws IOException {
+        sink.close();
+    }
+}
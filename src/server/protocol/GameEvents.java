@@ -0,0 +1,143 @@
+package server.protocol;
+
+import common.model.Proverb;
+import server.message.EncodedMessage;
+import server.message.MessageTemplate;
+import server.message.Messages;
+import server.thread.BatchedPrintWriter;
+
+import java.io.ByteArrayOutputStream;
+
+/**
+ * Envío de los eventos de partida en el formato del protocolo de cada conexión.
+ * <p>
+ * Las partidas notifican el estado del refrán, las suposiciones, los turnos y las
+ * puntuaciones a través de esta clase. A las conexiones de texto se les envían las frases
+ * habituales del catálogo {@link Messages}; a las que usan el protocolo binario, una trama
+ * de evento compacta.
+ * </p>
+ *
+ * @see BinaryProtocol
+ */
+public final class GameEvents {
+
+    private GameEvents() {
+    }
+
+    /**
+     * Notifica el estado actual del refrán oculto.
+     *
+     * @param out     Salida del jugador.
+     * @param label   Texto que precede al refrán en el protocolo de texto.
+     * @param proverb Refrán en juego.
+     */
+    public static void proverb(BatchedPrintWriter out, String label, Proverb proverb) {
+        if (out instanceof BinaryPrintWriter binary) {
+            ByteArrayOutputStream payload = new ByteArrayOutputStream();
+            BinaryProtocol.writeString(payload, proverb.toString());
+            binary.writeEvent(BinaryProtocol.PROVERB, payload.toByteArray());
+        } else {
+            out.println(label + proverb);
+        }
+    }
+
+    /**
+     * Notifica el resultado de una suposición de letra.
+     *
+     * @param out      Salida del jugador.
+     * @param player   Jugador que ha realizado la suposición.
+     * @param letter   Letra propuesta.
+     * @param correct  Indica si la letra está en el refrán.
+     * @param textLine Frase que se envía en el protocolo de texto.
+     */
+    public static void guess(BatchedPrintWriter out, String player, char letter, boolean correct, EncodedMessage textLine) {
+        if (out instanceof BinaryPrintWriter binary) {
+            guessEvent(binary, player, letter, correct);
+        } else {
+            out.println(textLine);
+        }
+    }
+
+    /**
+     * Notifica el resultado de una suposición de letra con una frase compuesta.
+     *
+     * @param out      Salida del jugador.
+     * @param player   Jugador que ha realizado la suposición.
+     * @param letter   Letra propuesta.
+     * @param correct  Indica si la letra está en el refrán.
+     * @param template Plantilla de la frase del protocolo de texto, que recibe el jugador y la
+     *                 letra como argumentos.
+     */
+    public static void guess(BatchedPrintWriter out, String player, char letter, boolean correct, MessageTemplate template) {
+        if (out instanceof BinaryPrintWriter binary) {
+            guessEvent(binary, player, letter, correct);
+        } else {
+            out.println(template, player, letter);
+        }
+    }
+
+    /**
+     * Envía la trama de evento de una suposición de letra.
+     *
+     * @param binary  Salida binaria del jugador.
+     * @param player  Jugador que ha realizado la suposición.
+     * @param letter  Letra propuesta.
+     * @param correct Indica si la letra está en el refrán.
+     */
+    private static void guessEvent(BinaryPrintWriter binary, String player, char letter, boolean correct) {
+        ByteArrayOutputStream payload = new ByteArrayOutputStream();
+        payload.write(correct ? 1 : 0);
+        BinaryProtocol.writeString(payload, String.valueOf(letter));
+        BinaryProtocol.writeString(payload, player);
+        binary.writeEvent(BinaryProtocol.GUESS, payload.toByteArray());
+    }
+
+    /**
+     * Notifica de quién es el turno.
+     *
+     * @param out     Salida del jugador.
+     * @param player  Jugador al que le corresponde el turno.
+     * @param ownTurn Indica si el turno es del propio destinatario.
+     */
+    public static void turn(BatchedPrintWriter out, String player, boolean ownTurn) {
+        if (out instanceof BinaryPrintWriter binary) {
+            ByteArrayOutputStream payload = new ByteArrayOutputStream();
+            BinaryProtocol.writeString(payload, player);
+            payload.write(ownTurn ? 1 : 0);
+            binary.writeEvent(BinaryProtocol.TURN, payload.toByteArray());
+        } else {
+            out.println(Messages.TURN_OF, player);
+            if (ownTurn) {
+                out.println(Messages.YOUR_TURN);
+            }
+        }
+    }
+
+    /**
+     * Notifica la puntuación obtenida al ganar una partida.
+     *
+     * @param out    Salida del jugador.
+     * @param gained Puntos obtenidos en la partida.
+     * @param total  Puntuación total del jugador.
+     */
+    public static void score(BatchedPrintWriter out, int gained, int total) {
+        if (out instanceof BinaryPrintWriter binary) {
+            ByteArrayOutputStream payload = new ByteArrayOutputStream();
+            BinaryProtocol.writeInt(payload, gained);
+            BinaryProtocol.writeInt(payload, total);
+            binary.writeEvent(BinaryProtocol.SCORE, payload.toByteArray());
+        } else {
+            out.println(Messages.SCORE_GAINED, gained);
+            out.println(Messages.FINAL_SCORE, total);
+        }
+    }
+
+    /**
+     * Confirma al cliente que la conexión usa el protocolo binario.
+     *
+     * @param out Salida binaria del cliente.
+     */
+    public static void welcome(BinaryPrintWriter out) {
+        out.writeEvent(BinaryProtocol.WELCOME, new byte[]{BinaryProtocol.VERSION});
+    }
+}
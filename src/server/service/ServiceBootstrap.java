@@ -0,0 +1,134 @@
+package server.service;
+
+import common.logger.CustomLogger;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Arranque en paralelo de los servicios del servidor.
+ * <p>
+ * Cada servicio se crea en un hilo de arranque en cuanto han terminado de crearse los
+ * servicios de los que depende, y se entrega al registro nada más estar listo. Al terminar se
+ * registra el tiempo que ha tardado cada servicio, cuándo empezó respecto al inicio del
+ * arranque y el tiempo total.
+ * </p>
+ *
+ * @see ServiceRegister
+ */
+class ServiceBootstrap {
+    private static final Logger logger = CustomLogger.getLogger(ServiceBootstrap.class.getName());
+
+    private final Consumer<ServiceHandle<?>> registry; // Acción que registra cada servicio creado.
+    private final ExecutorService executor; // Hilos en los que se crean los servicios.
+    private final List<CompletableFuture<?>> services = new ArrayList<>(); // Servicios en arranque.
+    private final List<Startup> startups = new ArrayList<>(); // Tiempos de arranque de cada servicio.
+    private final long startNanos = System.nanoTime(); // Instante de inicio del arranque.
+
+    /**
+     * Crea un arranque. Los hilos se crean según se necesitan, como mucho uno por servicio,
+     * porque la mayor parte del trabajo es leer archivos y no ocupa la CPU.
+     *
+     * @param registry Acción que registra cada servicio en cuanto está creado.
+     */
+    ServiceBootstrap(Consumer<ServiceHandle<?>> registry) {
+        this.registry = registry;
+        AtomicInteger threadCount = new AtomicInteger();
+        this.executor = Executors.newCachedThreadPool(task -> {
+            Thread thread = new Thread(task, "hanged-bootstrap-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Lanza la creación de un servicio cuando hayan terminado sus dependencias.
+     *
+     * @param classService Clase con la que se registra el servicio.
+     * @param factory      Crea el servicio; puede usar el resultado de sus dependencias.
+     * @param dependencies Servicios que deben estar creados antes.
+     * @return Servicio en arranque.
+     */
+    <T extends Service> CompletableFuture<T> start(Class<T> classService, Supplier<T> factory,
+                                                   CompletableFuture<?>... dependencies) {
+        Startup startup = new Startup(classService.getSimpleName());
+        CompletableFuture<T> service = CompletableFuture.allOf(dependencies).thenApplyAsync(ignored -> {
+            startup.started = System.nanoTime();
+            T instance = factory.get();
+            registry.accept(new ServiceHandle<>(classService, instance));
+            startup.finished = System.nanoTime();
+            return instance;
+        }, executor);
+
+        synchronized (this) {
+            services.add(service);
+            startups.add(startup);
+        }
+        return service;
+    }
+
+    /**
+     * Espera a todos los servicios lanzados, registra el informe de tiempos y libera los hilos
+     * de arranque.
+     *
+     * @return Etapa que se completa cuando todos los servicios están registrados, o
+     *         excepcionalmente si alguno no se ha podido crear.
+     */
+    synchronized CompletableFuture<Void> finish() {
+        return CompletableFuture.allOf(services.toArray(new CompletableFuture<?>[0])).whenComplete((ignored, error) -> {
+            executor.shutdown();
+            if (error != null) {
+                logger.log(Level.SEVERE, "Error al iniciar los servicios del servidor: {0}", error.getMessage());
+            } else {
+                report();
+            }
+        });
+    }
+
+    /**
+     * Registra el tiempo de arranque de cada servicio y el total.
+     */
+    private synchronized void report() {
+        long busyNanos = 0;
+        for (Startup startup : startups) {
+            busyNanos += startup.finished - startup.started;
+            logger.log(Level.CONFIG, String.format(Locale.ROOT, "Servicio %s iniciado en %.1f ms (desde +%.1f ms)",
+                    startup.name, toMillis(startup.finished - startup.started), toMillis(startup.started - startNanos)));
+        }
+        logger.log(Level.INFO, String.format(Locale.ROOT, "%d servicios iniciados en %.1f ms (%.1f ms de trabajo en total)",
+                startups.size(), toMillis(System.nanoTime() - startNanos), toMillis(busyNanos)));
+    }
+
+    /**
+     * Convierte nanosegundos en milisegundos con decimales.
+     *
+     * @param nanos Duración en nanosegundos.
+     * @return Duración en milisegundos.
+     */
+    private static double toMillis(long nanos) {
+        return nanos / (double) TimeUnit.MILLISECONDS.toNanos(1);
+    }
+
+    /**
+     * Tiempos de arranque de un servicio.
+     */
+    private static class Startup {
+        private final String name; // Nombre del servicio.
+        private volatile long started; // Instante en el que empezó a crearse.
+        private volatile long finished; // Instante en el que quedó registrado.
+
+        Startup(String name) {
+            this.name = name;
+        }
+    }
+}
@@ -0,0 +1,42 @@
+package server.service;
+
+/**
+ * Referencia tipada e inmutable a un servicio registrado.
+ * <p>
+ * El {@link ServiceRegister} crea un manejador por servicio en el momento de registrarlo. Quien
+ * usa un servicio con frecuencia, como cada conexión, obtiene su manejador una sola vez y a
+ * partir de ahí accede al servicio con una simple lectura de un campo final, sin consultar el
+ * registro ni tomar ningún bloqueo.
+ * </p>
+ *
+ * @param <T> Tipo del servicio.
+ * @see ServiceRegister#getHandle(Class)
+ */
+public final class ServiceHandle<T extends Service> {
+    private final Class<T> type; // Clase con la que se registró el servicio.
+    private final T service; // Instancia del servicio.
+
+    /**
+     * Crea un manejador para un servicio ya creado.
+     *
+     * @param type    Clase con la que se registra el servicio.
+     * @param service Instancia del servicio.
+     */
+    ServiceHandle(Class<T> type, T service) {
+        this.type = type;
+        this.service = service;
+    }
+
+    /**
+     * Obtiene el servicio.
+     *
+     * @return Instancia del servicio.
+     */
+    public T get() {
+        return service;
+    }
+
+    public Class<T> getType() {
+        return type;
+    }
+}
@@ -1,13 +1,21 @@
 package server.service;
 
 import common.logger.CustomLogger;
+import server.ServerConfig;
+import server.journal.CommandJournal;
 import server.service.services.CommandProcessor;
+import server.service.services.ConnectionReaper;
 import server.service.services.ProverbManager;
 import server.service.services.RoomManager;
 import server.service.services.UserManager;
 
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
@@ -18,48 +26,198 @@ import java.util.logging.Logger;
  * instancias de servicios en el servidor. Permite la recuperación y almacenamiento de
  * servicios de manera concurrente y segura.
  * </p>
+ * <p>
+ * Los servicios se crean en paralelo con un {@link ServiceBootstrap}, respetando las
+ * dependencias entre ellos, sin bloquear al hilo que crea el registro. Hasta que no están
+ * todos listos, {@link #getService(Class)} espera a que termine el arranque.
+ * </p>
+ * <p>
+ * Cada servicio se guarda en un {@link ServiceHandle} inmutable creado al registrarlo. Consultar
+ * el registro no toma ningún bloqueo, y quien usa un servicio en cada comando debe obtener su
+ * manejador con {@link #getHandle(Class)} una sola vez y conservarlo.
+ * </p>
  *
  * @see Service
+ * @see ServiceHandle
  * @see UserManager
  * @see ProverbManager
  * @see CommandProcessor
  * @see RoomManager
+ * @see ConnectionReaper
+ * @see CommandJournal
  */
 public class ServiceRegister {
     private static final Logger logger = CustomLogger.getLogger(ServiceRegister.class.getName());
 
-    /** Mapa concurrente que almacena las instancias de los servicios registrados. */
-    private final ConcurrentMap<Class<? extends Service>, Service> services;
+    /** Mapa concurrente que almacena los manejadores de los servicios registrados. */
+    private final ConcurrentMap<Class<? extends Service>, ServiceHandle<?>> services;
+    private final ServerConfig config; // Configuración con la que se ha iniciado el servidor.
+    private final CompletableFuture<Void> ready; // Se completa cuando todos los servicios están registrados.
+    private final AtomicBoolean shutdown = new AtomicBoolean(); // Indica si ya se han detenido los servicios.
 
+    /**
+     * Crea el registro con la configuración por defecto del servidor.
+     */
     public ServiceRegister() {
+        this(new ServerConfig());
+    }
+
+    /**
+     * Crea el registro y lanza el arranque de los servicios con la configuración indicada.
+     *
+     * @param config Configuración del servidor.
+     */
+    public ServiceRegister(ServerConfig config) {
         services = new ConcurrentHashMap<>();
+        this.config = config;
 
-        // Registro de los servicios principales utilizados en el servidor
-        registerService(UserManager.class, new UserManager());
-        registerService(ProverbManager.class, new ProverbManager());
-        registerService(CommandProcessor.class, new CommandProcessor());
-        registerService(RoomManager.class, new RoomManager());
+        // Semilla fija si se ha configurado, para poder reproducir el tráfico registrado
+        long seed = config.getSeed() != null ? config.getSeed() : ThreadLocalRandom.current().nextLong();
 
         logger.log(Level.CONFIG, "Iniciando servicios del servidor");
+
+        // Arranque de los servicios principales utilizados en el servidor
+        ServiceBootstrap bootstrap = new ServiceBootstrap(this::registerService);
+        CompletableFuture<CommandJournal> journal = bootstrap.start(CommandJournal.class,
+                () -> CommandJournal.open(config.getJournalPath(), seed));
+        bootstrap.start(UserManager.class,
+                () -> new UserManager(config.getDataDir(), config.getUserStore(), config.getUserCacheSize(),
+                        config.getFlushIntervalMillis(), config.getFlushBatchSize(), config.getCompactAfter(),
+                        config.isFsync()));
+        bootstrap.start(ProverbManager.class, () -> new ProverbManager(seed));
+        bootstrap.start(CommandProcessor.class,
+                () -> new CommandProcessor(config.getCommandThreads(), journal.join()), journal);
+        bootstrap.start(RoomManager.class, RoomManager::new);
+        bootstrap.start(ConnectionReaper.class,
+                () -> new ConnectionReaper(config.getIdleTimeoutSeconds(), config.getGameTimeoutSeconds()));
+        ready = bootstrap.finish();
+    }
+
+    /**
+     * Espera a que todos los servicios estén registrados.
+     *
+     * @throws IllegalStateException Si algún servicio no se ha podido iniciar.
+     */
+    public void awaitReady() {
+        try {
+            ready.join();
+        } catch (CompletionException e) {
+            throw new IllegalStateException("No se pudieron iniciar los servicios del servidor", e.getCause());
+        }
+    }
+
+    /**
+     * Indica si todos los servicios están registrados y listos para atender a los clientes.
+     *
+     * @return {@code true} si el arranque ha terminado correctamente.
+     */
+    public boolean isReady() {
+        return ready.isDone() && !ready.isCompletedExceptionally();
+    }
+
+    /**
+     * Ejecuta una acción si algún servicio no se ha podido iniciar. Si el arranque ya ha
+     * fallado, la acción se ejecuta en el acto.
+     *
+     * @param action Acción que recibe el error del arranque.
+     */
+    public void onStartFailure(Consumer<Throwable> action) {
+        ready.whenComplete((ignored, error) -> {
+            if (error != null) {
+                action.accept(error instanceof CompletionException && error.getCause() != null ? error.getCause() : error);
+            }
+        });
+    }
+
+    /**
+     * Detiene los servicios que tienen hilos o archivos propios: se dejan de vigilar las
+     * conexiones y se escriben los usuarios modificados y el diario de tráfico pendientes.
+     * <p>
+     * Si el arranque sigue en curso, se espera a que termine. Si algún servicio no se ha podido
+     * iniciar, se detienen igualmente los que sí se registraron, para no perder sus cambios.
+     * Puede llamarse varias veces y desde distintos hilos: solo la primera llamada tiene efecto.
+     * </p>
+     */
+    public void shutdown() {
+        if (!shutdown.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            ready.join();
+        } catch (CompletionException e) {
+            // Se detienen los servicios que sí llegaron a registrarse.
+        }
+        logger.log(Level.INFO, "Deteniendo servicios del servidor");
+
+        ConnectionReaper connectionReaper = getRegistered(ConnectionReaper.class);
+        if (connectionReaper != null) {
+            connectionReaper.stop();
+        }
+        UserManager userManager = getRegistered(UserManager.class);
+        if (userManager != null) {
+            userManager.close();
+        }
+        CommandJournal journal = getRegistered(CommandJournal.class);
+        if (journal != null) {
+            journal.close();
+        }
+    }
+
+    /**
+     * Obtiene un servicio registrado sin esperar al arranque ni exigir que haya terminado bien.
+     *
+     * @param classService Clase del servicio.
+     * @return Instancia del servicio, o {@code null} si no se ha registrado.
+     */
+    private <T extends Service> T getRegistered(Class<T> classService) {
+        ServiceHandle<?> handle = services.get(classService);
+        return handle != null ? classService.cast(handle.get()) : null;
     }
 
     /**
      * Registra un servicio en el mapa de servicios.
      *
-     * @param classService Clase del servicio a registrar.
-     * @param service      Instancia del servicio.
+     * @param handle Manejador del servicio a registrar.
+     */
+    private void registerService(ServiceHandle<?> handle) {
+        services.put(handle.getType(), handle);
+    }
+
+    /**
+     * Obtiene el manejador del servicio especificado registrado en el sistema. Si el arranque
+     * de los servicios no ha terminado, espera a que termine.
+     *
+     * @param classService Clase del servicio que se desea obtener.
+     * @return Manejador del servicio solicitado o {@code null} si no está registrado.
      */
-    private void registerService(Class<? extends Service> classService, Service service) {
-        services.put(classService, service);
+    @SuppressWarnings("unchecked")
+    public <T extends Service> ServiceHandle<T> getHandle(Class<T> classService) {
+        if (!isReady()) {
+            awaitReady();
+        }
+        // Cada manejador se registra con la misma clase con la que se guarda en el mapa.
+        return (ServiceHandle<T>) services.get(classService);
     }
 
     /**
-     * Obtiene una instancia del servicio especificado registrado en el sistema.
+     * Obtiene una instancia del servicio especificado registrado en el sistema. Si el arranque
+     * de los servicios no ha terminado, espera a que termine.
      *
      * @param classService Clase del servicio que se desea obtener.
      * @return Instancia del servicio solicitado o {@code null} si no está registrado.
+     * @see #getHandle(Class)
+     */
+    public <T extends Service> T getService(Class<T> classService) {
+        ServiceHandle<T> handle = getHandle(classService);
+        return handle != null ? handle.get() : null;
+    }
+
+    /**
+     * Obtiene la configuración con la que se ha iniciado el servidor.
+     *
+     * @return Configuración del servidor.
      */
-    public synchronized <T extends Service> T getService(Class<T> classService) {
-        return classService.cast(services.get(classService));
+    public ServerConfig getConfig() {
+        return config;
     }
 }
@@ -1,28 +1,89 @@
 package server.service.services;
 
+import server.command.AsyncCommand;
 import server.command.Command;
 import server.command.CommandFactory;
+import server.command.CommandLine;
+import server.journal.CommandJournal;
+import server.message.Messages;
+import server.metrics.CommandMetrics;
 import server.service.Service;
 import server.thread.ClientHandler;
+import server.thread.OutputBatch;
 
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
 /**
  * Servicio encargado de procesar y ejecutar comandos enviados por los clientes.
  * <p>
- * Utiliza la {@link CommandFactory} para instanciar y ejecutar los comandos dinámicamente.
+ * Utiliza la {@link CommandFactory} para localizar y ejecutar los comandos dinámicamente.
+ * </p>
+ * <p>
+ * Cada comando se ejecuta dentro de un {@link OutputBatch}: todo lo que escribe, tanto al
+ * cliente que lo envía como a otros jugadores de su sala, se envía una única vez por
+ * conexión cuando el comando termina.
+ * </p>
+ * <p>
+ * Los {@link AsyncCommand} lanzan su trabajo lento en un pool de hilos propio del servicio,
+ * de modo que no bloquean el hilo que lee la conexión. Si el trabajo ya ha terminado al
+ * devolver el control, la respuesta se escribe en el acto, sin cambiar de hilo.
+ * </p>
+ * <p>
+ * La latencia de cada ejecución y sus errores se anotan en las {@link CommandMetrics} del
+ * comando, sin bloqueos, y pueden consultarse con {@link #getCommandMetrics()}.
+ * </p>
+ * <p>
+ * Si hay un {@link CommandJournal} activado, cada línea recibida se registra en él con el
+ * identificador de la conexión antes de ejecutarse.
  * </p>
  */
 public class CommandProcessor implements Service {
     private static final Logger logger = Logger.getLogger(CommandProcessor.class.getName());
     private final CommandFactory commandFactory; // Fábrica de comandos encargada de la gestión de instancias de comandos.
+    private final ExecutorService executor; // Hilos en los que se ejecuta el trabajo lento de los comandos asíncronos.
+    private final CommandJournal journal; // Diario en el que se registran las líneas recibidas.
 
     /**
-     * Constructor que inicializa el procesador con una nueva fábrica de comandos.
+     * Constructor que inicializa el procesador con una nueva fábrica de comandos y un hilo de
+     * comandos asíncronos por núcleo.
      */
     public CommandProcessor() {
+        this(Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Constructor que inicializa el procesador con una nueva fábrica de comandos.
+     *
+     * @param threads Hilos en los que se ejecutan los comandos asíncronos.
+     */
+    public CommandProcessor(int threads) {
+        this(threads, CommandJournal.open(null, 0));
+    }
+
+    /**
+     * Constructor que inicializa el procesador con una nueva fábrica de comandos y registra
+     * las líneas recibidas en el diario indicado.
+     *
+     * @param threads Hilos en los que se ejecutan los comandos asíncronos.
+     * @param journal Diario de tráfico; si está desactivado no se registra nada.
+     */
+    public CommandProcessor(int threads, CommandJournal journal) {
         this.commandFactory = new CommandFactory();
+        this.journal = journal;
+        AtomicInteger threadCount = new AtomicInteger();
+        this.executor = Executors.newFixedThreadPool(Math.max(1, threads), task -> {
+            Thread thread = new Thread(task, "hanged-command-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
     }
 
     /**
@@ -30,22 +91,84 @@ public class CommandProcessor implements Service {
      *
      * @param commandLine   Línea de comando recibida.
      * @param clientHandler Cliente que envió el comando.
+     * @return Respuesta pendiente de un comando asíncrono, o {@code null} si el comando ha terminado.
      * @throws Exception Si ocurre un error al ejecutar el comando.
+     * @see #processCommand(String, int, ClientHandler)
      */
-    public void processCommand(String commandLine, ClientHandler clientHandler) throws Exception {
-        logger.log(Level.INFO, "Procesando comando: " + commandLine);
+    public CompletionStage<Runnable> processCommand(String commandLine, ClientHandler clientHandler) throws Exception {
+        return processCommand(commandLine, 0, clientHandler);
+    }
 
-        String[] parsedCommand = commandLine.split("\\s+");
-        if (parsedCommand.length == 0) {
-            logger.log(Level.WARNING, "Comando no reconocido insertado por " + clientHandler.getFormatedUser());
-            clientHandler.getOutput().println("Comando no reconocido.");
-            return;
+    /**
+     * Procesa un comando enviado por el cliente que empieza en la posición indicada de la
+     * línea, por ejemplo tras el identificador de petición.
+     * <p>
+     * La línea se analiza con el {@link CommandLine} de la conexión, que solo registra la
+     * posición de cada palabra, por lo que separar el comando de sus argumentos no crea
+     * ningún objeto.
+     * </p>
+     * <p>
+     * Si el comando es asíncrono y su trabajo sigue en curso, se devuelve una etapa que se
+     * completa con la acción que escribe su respuesta. Quien llama debe ejecutarla en el
+     * contexto de la conexión y no procesar más comandos del cliente hasta entonces.
+     * </p>
+     *
+     * @param commandLine   Línea de comando recibida.
+     * @param from          Posición en la que empieza el comando.
+     * @param clientHandler Cliente que envió el comando.
+     * @return Respuesta pendiente de un comando asíncrono, o {@code null} si el comando ha terminado.
+     * @throws Exception Si ocurre un error al ejecutar el comando.
+     */
+    public CompletionStage<Runnable> processCommand(String commandLine, int from, ClientHandler clientHandler) throws Exception {
+        logger.log(Level.INFO, "Procesando comando: {0}", commandLine);
+        journal.recordCommand(clientHandler.getConnectionId(), commandLine);
+
+        CommandLine parsedCommand = clientHandler.getCommandLine().parse(commandLine, from);
+        OutputBatch.open();
+        try {
+            Command userCommand = parsedCommand.isEmpty() ? null : commandFactory.findCommand(parsedCommand);
+            if (userCommand == null) {
+                logger.log(Level.WARNING, "Comando no reconocido insertado por " + clientHandler.getFormatedUser());
+                clientHandler.getOutput().println(Messages.UNKNOWN_COMMAND);
+                return null;
+            }
+            return executeCommand(userCommand, parsedCommand, null, clientHandler);
+        } finally {
+            parsedCommand.clear();
+            OutputBatch.close();
         }
+    }
 
-        String commandName = parsedCommand[0];
-        String[] commandParameters = getCommandParameters(parsedCommand);
+    /**
+     * Procesa un comando ya separado en nombre y parámetros, como los que llegan en las
+     * tramas del protocolo binario, sin analizar ninguna línea de texto.
+     *
+     * @param commandName       Nombre del comando con su prefijo, o {@code null} si es desconocido.
+     * @param commandParameters Parámetros del comando.
+     * @param clientHandler     Cliente que envió el comando.
+     * @return Respuesta pendiente de un comando asíncrono, o {@code null} si el comando ha terminado.
+     * @throws Exception Si ocurre un error al ejecutar el comando.
+     * @see #processCommand(String, int, ClientHandler)
+     */
+    public CompletionStage<Runnable> processCommand(String commandName, String[] commandParameters, ClientHandler clientHandler) throws Exception {
+        logger.log(Level.INFO, "Procesando comando: " + commandName);
+        if (commandName != null && journal.isEnabled()) {
+            String line = commandParameters.length == 0 ? commandName : commandName + " " + String.join(" ", commandParameters);
+            journal.recordCommand(clientHandler.getConnectionId(), line);
+        }
+
+        OutputBatch.open();
+        try {
+            if (commandName == null) {
+                logger.log(Level.WARNING, "Comando no reconocido insertado por " + clientHandler.getFormatedUser());
+                clientHandler.getOutput().println(Messages.UNKNOWN_COMMAND);
+                return null;
+            }
 
-        executeCommand(commandName, commandParameters, clientHandler);
+            return executeCommand(commandName, commandParameters, clientHandler);
+        } finally {
+            OutputBatch.close();
+        }
     }
 
     /**
@@ -54,28 +177,120 @@ public class CommandProcessor implements Service {
      * @param commandName     Nombre del comando a ejecutar.
      * @param commandParameters Parámetros del comando.
      * @param clientHandler   Cliente que ejecuta el comando.
-     * @throws Exception Si ocurre un error al instanciar o ejecutar el comando.
+     * @return Respuesta pendiente de un comando asíncrono, o {@code null} si el comando ha terminado.
+     * @throws Exception Si ocurre un error al ejecutar el comando.
      */
-    private void executeCommand(String commandName, String[] commandParameters, ClientHandler clientHandler) throws Exception {
-        Command userCommand = commandFactory.createCommand(commandName);
-        if (userCommand != null) {
-            userCommand.execute(commandParameters, clientHandler);
-        } else {
+    private CompletionStage<Runnable> executeCommand(String commandName, String[] commandParameters, ClientHandler clientHandler) throws Exception {
+        Command userCommand = commandFactory.findCommand(commandName);
+        if (userCommand == null) {
             logger.log(Level.WARNING, "Comando no reconocido insertado por " + clientHandler.getFormatedUser());
-            clientHandler.getOutput().println("Comando no reconocido.");
+            clientHandler.getOutput().println(Messages.UNKNOWN_COMMAND);
+            return null;
+        }
+        return executeCommand(userCommand, null, commandParameters, clientHandler);
+    }
+
+    /**
+     * Ejecuta un comando encontrado y anota su latencia. Los argumentos llegan como línea
+     * analizada (protocolo de texto) o como array (protocolo binario).
+     *
+     * @param userCommand   Comando a ejecutar.
+     * @param commandLine   Línea analizada, o {@code null} si los argumentos llegan en un array.
+     * @param args          Argumentos del comando, o {@code null} si llegan en la línea analizada.
+     * @param clientHandler Cliente que ejecuta el comando.
+     * @return Respuesta pendiente de un comando asíncrono, o {@code null} si el comando ha terminado.
+     */
+    private CompletionStage<Runnable> executeCommand(Command userCommand, CommandLine commandLine, String[] args, ClientHandler clientHandler) {
+        CommandMetrics commandMetrics = commandFactory.getMetrics(userCommand);
+        long startNanos = System.nanoTime();
+        if (userCommand instanceof AsyncCommand<?> asyncCommand) {
+            String[] arguments = args != null ? args : commandLine.toArguments();
+            return executeAsync(asyncCommand, arguments, clientHandler, commandMetrics, startNanos);
+        }
+
+        boolean failed = true;
+        try {
+            if (commandLine != null) {
+                userCommand.execute(commandLine, clientHandler);
+            } else {
+                userCommand.execute(args, clientHandler);
+            }
+            failed = false;
+        } finally {
+            commandMetrics.record(startNanos, failed);
         }
+        return null;
     }
 
     /**
-     * Extrae los parámetros de un comando recibido.
+     * Inicia un comando asíncrono. Si su trabajo ya ha terminado, escribe la respuesta en el
+     * acto; si no, devuelve la respuesta pendiente. La latencia se anota al escribir la
+     * respuesta o al fallar el trabajo.
      *
-     * @param array Array de palabras del comando.
-     * @return Un array con los parámetros del comando.
+     * @param command        Comando asíncrono.
+     * @param args           Argumentos del comando.
+     * @param clientHandler  Cliente que ejecuta el comando.
+     * @param commandMetrics Métricas del comando.
+     * @param startNanos     Instante en el que empezó la ejecución.
+     * @param <T>            Resultado del trabajo del comando.
+     * @return Respuesta pendiente, o {@code null} si el comando ha terminado.
      */
-    private static String[] getCommandParameters(String[] array) {
-        if (array.length <= 1) {
-            return new String[0];
+    private <T> CompletionStage<Runnable> executeAsync(AsyncCommand<T> command, String[] args, ClientHandler clientHandler,
+                                                       CommandMetrics commandMetrics, long startNanos) {
+        CompletionStage<T> pending;
+        try {
+            pending = command.executeAsync(args, clientHandler, executor);
+        } catch (RuntimeException e) {
+            commandMetrics.record(startNanos, true);
+            throw e;
+        }
+        if (pending == null) {
+            commandMetrics.record(startNanos, false);
+            return null;
+        }
+
+        CompletableFuture<T> future = pending.toCompletableFuture();
+        if (future.isDone() && !future.isCompletedExceptionally()) {
+            complete(command, future.join(), clientHandler, commandMetrics, startNanos);
+            return null;
         }
-        return java.util.Arrays.copyOfRange(array, 1, array.length);
+        return future.handle((result, error) -> {
+            if (error != null) {
+                commandMetrics.record(startNanos, true);
+                Throwable cause = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+                return () -> command.fail(cause, clientHandler);
+            }
+            return () -> complete(command, result, clientHandler, commandMetrics, startNanos);
+        });
+    }
+
+    /**
+     * Escribe la respuesta de un comando asíncrono y anota su latencia.
+     *
+     * @param command        Comando asíncrono.
+     * @param result         Resultado del trabajo del comando.
+     * @param clientHandler  Cliente que ejecuta el comando.
+     * @param commandMetrics Métricas del comando.
+     * @param startNanos     Instante en el que empezó la ejecución.
+     * @param <T>            Resultado del trabajo del comando.
+     */
+    private static <T> void complete(AsyncCommand<T> command, T result, ClientHandler clientHandler,
+                                     CommandMetrics commandMetrics, long startNanos) {
+        boolean failed = true;
+        try {
+            command.complete(result, clientHandler);
+            failed = false;
+        } finally {
+            commandMetrics.record(startNanos, failed);
+        }
+    }
+
+    /**
+     * Obtiene las métricas de ejecución de todos los comandos registrados.
+     *
+     * @return Métricas de cada comando, ordenadas por nombre.
+     */
+    public List<CommandMetrics> getCommandMetrics() {
+        return commandFactory.getAllMetrics();
     }
 }
@@ -0,0 +1,188 @@
+package server.service.services;
+
+import common.game.multiPlayer.HangedRoom;
+import common.logger.CustomLogger;
+import server.message.Messages;
+import server.service.Service;
+import server.thread.ClientHandler;
+import server.thread.HashedWheelTimer;
+import server.thread.OutputBatch;
+
+import java.util.Collections;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Servicio que desconecta a los clientes inactivos.
+ * <p>
+ * Cada cliente vigilado tiene una única tarea en un {@link HashedWheelTimer} compartido, en
+ * lugar de un tiempo de espera propio en el socket. Recibir un comando solo actualiza el
+ * instante de la última actividad del cliente; al vencer la tarea se comprueba cuánto tiempo
+ * lleva inactivo y, si todavía no ha agotado su límite, se reprograma por el tiempo restante.
+ * </p>
+ * <p>
+ * Hay dos límites: uno general para cualquier conexión y otro, normalmente más corto, para
+ * los jugadores que están en mitad de una partida y bloquean a los demás. Un límite de cero
+ * desactiva esa comprobación. Al expirar, el cliente se desconecta y su cierre lo saca de la
+ * sala mediante {@link RoomManager#leaveRoom(ClientHandler, boolean)}.
+ * </p>
+ * <p>
+ * El servicio conoce así todas las conexiones abiertas, que pueden consultarse con
+ * {@link #getWatchedClients()}.
+ * </p>
+ *
+ * @see HashedWheelTimer
+ * @see ClientHandler#disconnect()
+ */
+public class ConnectionReaper implements Service {
+    private static final Logger logger = CustomLogger.getLogger(ConnectionReaper.class.getName());
+    private static final int TICKS_PER_WHEEL = 512; // Cubetas de la rueda del temporizador.
+
+    private final long idleTimeoutNanos; // Inactividad máxima de una conexión, o 0 si no hay límite.
+    private final long gameTimeoutNanos; // Inactividad máxima durante una partida, o 0 si no hay límite.
+    private final HashedWheelTimer timer; // Temporizador compartido por todas las conexiones.
+    private final Set<ClientHandler> clients = ConcurrentHashMap.newKeySet(); // Clientes vigilados.
+
+    /**
+     * Crea el servicio con los límites de inactividad indicados.
+     *
+     * @param idleTimeoutSeconds Segundos de inactividad tras los que se cierra una conexión; 0 para desactivarlo.
+     * @param gameTimeoutSeconds Segundos de inactividad permitidos en mitad de una partida; 0 para desactivarlo.
+     */
+    public ConnectionReaper(int idleTimeoutSeconds, int gameTimeoutSeconds) {
+        this.idleTimeoutNanos = TimeUnit.SECONDS.toNanos(Math.max(0, idleTimeoutSeconds));
+        this.gameTimeoutNanos = TimeUnit.SECONDS.toNanos(Math.max(0, gameTimeoutSeconds));
+        this.timer = new HashedWheelTimer("hanged-reaper", 1, TimeUnit.SECONDS, TICKS_PER_WHEEL);
+
+        logger.log(Level.CONFIG, "Límites de inactividad: {0} s en general, {1} s en partida",
+                new Object[]{idleTimeoutSeconds, gameTimeoutSeconds});
+    }
+
+    /**
+     * Empieza a vigilar la inactividad de un cliente.
+     *
+     * @param client Cliente a vigilar.
+     */
+    public void watch(ClientHandler client) {
+        clients.add(client);
+        if (client.isClosed()) {
+            clients.remove(client); // Se cerró antes de empezar a vigilarla.
+            return;
+        }
+        long checkInterval = shortestTimeout();
+        if (checkInterval > 0) {
+            schedule(client, checkInterval);
+        }
+    }
+
+    /**
+     * Deja de vigilar a un cliente cuya conexión se ha cerrado.
+     *
+     * @param client Cliente desconectado.
+     */
+    public void unwatch(ClientHandler client) {
+        clients.remove(client);
+    }
+
+    /**
+     * Obtiene los clientes vigilados, es decir, las conexiones abiertas.
+     *
+     * @return Vista de solo lectura de los clientes.
+     */
+    public Set<ClientHandler> getWatchedClients() {
+        return Collections.unmodifiableSet(clients);
+    }
+
+    /**
+     * Detiene el temporizador. Los clientes dejan de vigilarse.
+     */
+    public void stop() {
+        timer.stop();
+    }
+
+    /**
+     * Programa la próxima comprobación de un cliente.
+     *
+     * @param client Cliente vigilado.
+     * @param delay  Nanosegundos hasta la comprobación.
+     */
+    private void schedule(ClientHandler client, long delay) {
+        timer.newTimeout(() -> check(client), delay, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Comprueba la inactividad de un cliente y lo desconecta si ha superado su límite.
+     *
+     * @param client Cliente vigilado.
+     */
+    private void check(ClientHandler client) {
+        if (client.isClosed()) {
+            clients.remove(client);
+            return;
+        }
+
+        long timeout = timeoutFor(client);
+        if (timeout == 0) {
+            // El límite aplicable está desactivado, pero el estado del cliente puede cambiar.
+            schedule(client, shortestTimeout());
+            return;
+        }
+
+        long idle = System.nanoTime() - client.getLastActivity();
+        if (idle < timeout) {
+            // Si el cliente entra en una partida, su límite puede acortarse antes de la siguiente comprobación.
+            schedule(client, Math.min(timeout - idle, shortestTimeout()));
+            return;
+        }
+
+        expire(client, TimeUnit.NANOSECONDS.toSeconds(idle));
+    }
+
+    /**
+     * Avisa al cliente y lo desconecta.
+     *
+     * @param client      Cliente inactivo.
+     * @param idleSeconds Segundos que lleva inactivo.
+     */
+    private void expire(ClientHandler client, long idleSeconds) {
+        logger.log(Level.INFO, "Desconectando a " + client.getFormatedUser() + " tras " + idleSeconds + " s de inactividad");
+
+        OutputBatch.open();
+        try {
+            client.getOutput().println(Messages.IDLE_DISCONNECT);
+        } finally {
+            OutputBatch.close();
+        }
+        client.disconnect();
+    }
+
+    /**
+     * Obtiene el límite de inactividad que corresponde al estado actual del cliente.
+     *
+     * @param client Cliente vigilado.
+     * @return Límite en nanosegundos, o 0 si no hay límite.
+     */
+    private long timeoutFor(ClientHandler client) {
+        HangedRoom room = client.getCurrentRoom();
+        boolean inGame = client.hasActiveSingleGame() || (room != null && room.isGameStarted());
+        if (inGame && gameTimeoutNanos > 0) {
+            return idleTimeoutNanos > 0 ? Math.min(gameTimeoutNanos, idleTimeoutNanos) : gameTimeoutNanos;
+        }
+        return idleTimeoutNanos;
+    }
+
+    /**
+     * Obtiene el menor de los límites activos, que es el intervalo mínimo entre comprobaciones.
+     *
+     * @return Límite en nanosegundos, o 0 si ambos están desactivados.
+     */
+    private long shortestTimeout() {
+        if (idleTimeoutNanos == 0 || gameTimeoutNanos == 0) {
+            return Math.max(idleTimeoutNanos, gameTimeoutNanos);
+        }
+        return Math.min(idleTimeoutNanos, gameTimeoutNanos);
+    }
+}
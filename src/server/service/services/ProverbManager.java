@@ -8,6 +8,7 @@ import server.service.Service;
 import java.io.*;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.Random;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
@@ -18,6 +19,11 @@ import java.util.logging.Logger;
  * en un archivo de texto. Proporciona métodos para crear instancias de {@link Proverb}
  * y acceder a la lista de refranes disponibles.
  * </p>
+ * <p>
+ * Los refranes de las partidas se eligen con un único generador aleatorio. Si se crea con una
+ * semilla, la secuencia de refranes es reproducible, por ejemplo al reproducir un diario de
+ * tráfico.
+ * </p>
  *
  * @see Proverb
  * @see Word
@@ -27,11 +33,32 @@ public class ProverbManager implements Service {
     private static final String FILE_PATH = "proverbs.txt"; // Ruta del archivo donde se almacenan los refranes.
     private static final String ABC = "abcdefghijklnmñopqrstuvwxyz"; // Alfabeto permitido para la validación de refranes.
     private Map<Integer, String> proverbs; // Mapa que almacena los refranes cargados del archivo.
+    private final Random random; // Generador con el que se eligen los refranes de las partidas.
 
     /**
      * Constructor que inicializa la carga de refranes desde el archivo.
      */
     public ProverbManager() {
+        this(new Random());
+    }
+
+    /**
+     * Constructor que inicializa la carga de refranes desde el archivo y elige los refranes de
+     * las partidas con la semilla indicada.
+     *
+     * @param seed Semilla del generador aleatorio.
+     */
+    public ProverbManager(long seed) {
+        this(new Random(seed));
+    }
+
+    /**
+     * Constructor que inicializa la carga de refranes con el generador indicado.
+     *
+     * @param random Generador con el que se eligen los refranes.
+     */
+    private ProverbManager(Random random) {
+        this.random = random;
         proverbs = loadProverbs();
     }
 
@@ -140,6 +167,15 @@ public class ProverbManager implements Service {
         return new Proverb(proverbs.get(index));
     }
 
+    /**
+     * Crea un nuevo objeto {@link Proverb} con un refrán elegido al azar entre los cargados.
+     *
+     * @return Instancia de {@link Proverb} con un refrán aleatorio.
+     */
+    public Proverb createRandomProverb() {
+        return createProverb(random.nextInt(proverbs.size()));
+    }
+
     /**
      * Devuelve el mapa de refranes cargados.
      *
@@ -2,11 +2,15 @@ package server.service.services;
 
 import common.game.multiPlayer.HangedRoom;
 import common.logger.CustomLogger;
+import server.message.Messages;
 import server.thread.ClientHandler;
 import server.service.Service;
 
+import java.util.Collection;
+import java.util.Collections;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
@@ -16,6 +20,13 @@ import java.util.logging.Logger;
  * Permite la creación, unión, salida y eliminación de salas activas.
  * Las salas son gestionadas de manera concurrente con {@link ConcurrentHashMap}.
  * </p>
+ * <p>
+ * El gestor no mantiene ningún cerrojo mientras delega en una sala: solo la creación de
+ * salas se serializa con un {@link ReentrantLock}, y el resto de operaciones se apoyan en
+ * las operaciones atómicas del mapa y en el cerrojo propio de cada {@link HangedRoom}. Así
+ * se evitan tanto los bloqueos cruzados entre gestor y sala como la fijación de hilos
+ * portadores cuando los clientes se ejecutan en hilos virtuales.
+ * </p>
  * @see HangedRoom
  */
 public class RoomManager implements Service {
@@ -23,6 +34,7 @@ public class RoomManager implements Service {
 
     // Mapa de salas activas, donde la clave es el nombre de la sala y la instancia de la propia sala.
     private final Map<String, HangedRoom> rooms = new ConcurrentHashMap<>();
+    private final ReentrantLock creationLock = new ReentrantLock(); // Serializa la creación de salas.
 
     /**
      * Crea una nueva sala si no existe previamente.
@@ -30,13 +42,18 @@ public class RoomManager implements Service {
      * @param roomName Nombre de la sala a crear.
      * @param owner    Cliente que crea la sala.
      */
-    public synchronized void createRoom(String roomName, ClientHandler owner) {
-        if (rooms.containsKey(roomName)) {
-            owner.getOutput().println("La sala ya existe.");
-            return;
+    public void createRoom(String roomName, ClientHandler owner) {
+        creationLock.lock();
+        try {
+            if (rooms.containsKey(roomName)) {
+                owner.getOutput().println(Messages.ROOM_EXISTS);
+                return;
+            }
+            HangedRoom room = new HangedRoom(roomName, owner);
+            rooms.put(roomName, room);
+        } finally {
+            creationLock.unlock();
         }
-        HangedRoom room = new HangedRoom(roomName, owner);
-        rooms.put(roomName, room);
         owner.sendMessageBoth(Level.CONFIG, "Sala " + roomName + " creada con éxito.");
     }
 
@@ -46,10 +63,10 @@ public class RoomManager implements Service {
      * @param roomName Nombre de la sala a la que se desea unir.
      * @param player   Cliente que intenta unirse a la sala.
      */
-    public synchronized void joinRoom(String roomName, ClientHandler player) {
+    public void joinRoom(String roomName, ClientHandler player) {
         HangedRoom room = rooms.get(roomName);
         if (room == null) {
-            player.sendMessageBoth(Level.WARNING, "La sala no existe.");
+            player.sendMessageBoth(Level.WARNING, Messages.ROOM_NOT_FOUND);
             return;
         }
         room.addPlayer(player);
@@ -62,41 +79,52 @@ public class RoomManager implements Service {
      * @param player   Cliente que abandona la sala.
      * @param gameOver Indica si la sala debe cerrarse debido a que la partida ha terminado.
      */
-    public synchronized void leaveRoom(ClientHandler player, boolean gameOver) {
+    public void leaveRoom(ClientHandler player, boolean gameOver) {
         HangedRoom room = player.getCurrentRoom();
         if (room != null) {
             logger.log(Level.CONFIG, player.getFormatedUser() + " ha abandonado la sala " + room.getRoomName());
-            player.getOutput().println("Has abandonado la sala " + room.getRoomName());
+            player.getOutput().println(Messages.ROOM_LEFT, room.getRoomName());
 
             if (!gameOver) {
                 room.removePlayer(player, false);
 
-                if (room.isEmpty()) {
-                    rooms.remove(room.getRoomName());
-                    logger.log(Level.CONFIG, "Sala " + room.getRoomName() + " eliminada por falta de jugadores.");
+                // Solo se elimina la instancia concreta, por si ya se ha creado otra sala con el mismo nombre.
+                if (room.closeIfEmpty() && rooms.remove(room.getRoomName(), room)) {
+                    logger.log(Level.CONFIG, "Sala " + room.getRoomName() + " eliminada por falta de jugadores. Envíos: " + room.getMetrics());
                 }
             } else {
                 room.removePlayer(player, true);
-                rooms.remove(room.getRoomName());
-                logger.log(Level.CONFIG, "Sala " + room.getRoomName() + " eliminada por juego terminado.");
+                room.close();
+                if (rooms.remove(room.getRoomName(), room)) {
+                    logger.log(Level.CONFIG, "Sala " + room.getRoomName() + " eliminada por juego terminado. Envíos: " + room.getMetrics());
+                }
             }
         }
     }
 
+    /**
+     * Obtiene las salas activas.
+     *
+     * @return Vista de solo lectura de las salas, que refleja las que se crean y cierran.
+     */
+    public Collection<HangedRoom> getRooms() {
+        return Collections.unmodifiableCollection(rooms.values());
+    }
+
     /**
      * Envía al cliente una lista con todas las salas activas.
      *
      * @param client Cliente que solicita la lista de salas.
      */
-    public synchronized void printAllActiveRooms(ClientHandler client) {
+    public void printAllActiveRooms(ClientHandler client) {
         if (rooms.isEmpty()) {
-            client.getOutput().println("No hay salas activas.");
+            client.getOutput().println(Messages.NO_ROOMS);
             return;
         }
 
-        client.getOutput().println("Salas Activas:");
-        for (String s : rooms.keySet()) {
-            client.getOutput().println("Nombre: " + s + ", Jugadores: " + rooms.get(s).getPlayersAmount());
+        client.getOutput().println(Messages.ACTIVE_ROOMS);
+        for (Map.Entry<String, HangedRoom> room : rooms.entrySet()) {
+            client.getOutput().println(Messages.ROOM_ENTRY, room.getKey(), room.getValue().getPlayersAmount());
         }
     }
 }
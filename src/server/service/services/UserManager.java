@@ -1,50 +1,140 @@
 package server.service.services;
 
+import common.logger.CustomLogger;
 import common.model.User;
+import server.metrics.LatencyHistogram;
 import server.service.Service;
+import server.store.CachedUserStore;
+import server.store.GroupCommitWriter;
+import server.store.LogUserStore;
+import server.store.MappedUserStore;
+import server.store.UserChange;
+import server.store.UserStore;
+import server.store.UserStoreType;
 
-import java.io.*;
-import java.util.HashMap;
-import java.util.Map;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.logging.Level;
+import java.util.logging.Logger;
 
 /**
  * Servicio para gestionar usuarios en el servidor.
  * <p>
- * Permite registrar, autenticar y actualizar la información de los usuarios.
- * Los datos de los usuarios se almacenan en un archivo de texto para persistencia.
+ * Permite registrar, autenticar y actualizar la información de los usuarios. Las cuentas se
+ * guardan en un {@link UserStore}, según el {@link UserStoreType} elegido: todas en memoria con
+ * una instantánea y un registro de cambios ({@link LogUserStore}), en un archivo de registros
+ * de ancho fijo proyectado en memoria ({@link MappedUserStore}), o en ese mismo archivo con solo
+ * los usuarios en uso en una caché limitada ({@link CachedUserStore}). Cualquiera de ellos
+ * puede usarse desde varias conexiones a la vez.
+ * </p>
+ * <p>
+ * Las altas y los cambios de estadísticas se aplican en el almacén en el acto, pero no se
+ * hacen duraderos en el hilo que los hace: se entregan como {@link UserChange} a un
+ * {@link GroupCommitWriter}, que los confirma por lotes con una sola escritura y un solo
+ * {@code fsync}. Cada método devuelve la confirmación de su cambio, que puede esperarse o
+ * ignorarse. Al detener el servicio con {@link #close()} se escriben los cambios que falten.
  * </p>
  *
  * @see User
+ * @see UserStore
  */
 public class UserManager implements Service {
+    private static final Logger logger = CustomLogger.getLogger(UserManager.class.getName());
     private static final String FILE_PATH = "users.txt"; // Ruta del archivo donde se almacenan los datos de los usuarios.
-    private final Map<String, User> users; // Mapa que almacena los usuarios registrados, indexados por su nombre de usuario.
+    private static final String MAPPED_FILE_PATH = "users.dat"; // Ruta del archivo de registros proyectado en memoria.
+    private static final String INDEX_FILE_PATH = "users.idx"; // Ruta del índice de los registros.
+    private final UserStore store; // Almacén de las cuentas de los usuarios.
+    private final GroupCommitWriter writer; // Escritor que confirma los cambios por lotes.
 
     /**
-     * Constructor que inicializa el gestor de usuarios y carga los datos desde el archivo.
+     * Constructor que inicializa el gestor de usuarios, carga los datos desde el archivo y
+     * confirma los cambios cada segundo o cada 100 cambios pendientes, llevándolos al disco.
      */
     public UserManager() {
-        users = new HashMap<>();
-        loadUsersFromFile();
+        this("", UserStoreType.LOG, 10_000, 1000, 100, 10_000, true);
     }
 
     /**
-     * Registra un nuevo usuario en el sistema.
+     * Constructor que inicializa el gestor de usuarios y abre su almacén.
+     *
+     * @param dataDir             Directorio de los archivos, o cadena vacía para el directorio de trabajo.
+     * @param storeType           Forma de guardar las cuentas.
+     * @param cacheSize           Usuarios que se mantienen en memoria con {@link UserStoreType#CACHED}.
+     * @param flushIntervalMillis Milisegundos entre confirmaciones de los cambios pendientes.
+     * @param flushBatchSize      Cambios pendientes a partir de los que se confirma en el acto.
+     * @param compactAfter        Cambios en el registro a partir de los que se compacta.
+     * @param fsync               Si cada confirmación espera a que los cambios estén en el disco.
+     * @throws UncheckedIOException Si no se pueden leer los datos guardados.
+     */
+    public UserManager(String dataDir, UserStoreType storeType, int cacheSize, long flushIntervalMillis, int flushBatchSize,
+                       long compactAfter, boolean fsync) {
+        Path directory = Path.of(dataDir);
+        String filePath = directory.resolve(FILE_PATH).toString();
+        String mappedFilePath = directory.resolve(MAPPED_FILE_PATH).toString();
+        try {
+            store = switch (storeType) {
+                case LOG -> new LogUserStore(filePath, compactAfter);
+                case MAPPED -> new MappedUserStore(mappedFilePath, filePath);
+                case CACHED -> new CachedUserStore(new MappedUserStore(mappedFilePath,
+                        directory.resolve(INDEX_FILE_PATH).toString(), filePath), cacheSize);
+            };
+        } catch (IOException e) {
+            // Sin los datos guardados no se puede atender a nadie sin arriesgarse a perderlos.
+            throw new UncheckedIOException("Error al leer los usuarios guardados", e);
+        }
+        logger.log(Level.CONFIG, "Usuarios guardados en un almacén {0}", storeType.name().toLowerCase());
+        writer = new GroupCommitWriter(store, flushIntervalMillis, flushBatchSize, fsync);
+    }
+
+    /**
+     * Registra un nuevo usuario en el sistema sin esperar a que el alta esté en el disco.
+     * <p>
+     * La comprobación y el alta son una única operación atómica: si dos clientes registran el
+     * mismo nombre a la vez, solo uno de ellos lo consigue.
+     * </p>
      *
      * @param username Nombre de usuario.
      * @param password Contraseña del usuario.
      * @return {@code true} si el usuario se registró correctamente, {@code false} si el usuario ya existe.
      */
     public boolean registerUser(String username, String password) {
-        if (users.containsKey(username)) {
+        if (!store.create(username, password)) {
             return false; // No se permite registrar un usuario existente
         }
-        User user = new User(username, password);
-        users.put(username, user);
-        saveUsersToFile(); // Guarda los datos actualizados en el archivo
+        writer.write(UserChange.register(username, password)); // El alta se escribirá con el siguiente lote
         return true;
     }
 
+    /**
+     * Registra un nuevo usuario y adelanta la confirmación de su alta.
+     * <p>
+     * El resultado se completa cuando el alta está en el disco, junto con los demás cambios
+     * que lleguen mientras tanto, o excepcionalmente si no se ha podido escribir. Ningún hilo
+     * queda bloqueado mientras se espera.
+     * </p>
+     *
+     * @param username Nombre de usuario.
+     * @param password Contraseña del usuario.
+     * @return {@code true} si el usuario se registró, {@code false} en el acto si ya existe;
+     *         excepcionalmente, y sin el alta, si no se ha podido escribir.
+     */
+    public CompletableFuture<Boolean> registerUserDurably(String username, String password) {
+        if (!store.create(username, password)) {
+            return CompletableFuture.completedFuture(false);
+        }
+        return writer.commit(UserChange.register(username, password)).handle((ignored, error) -> {
+            if (error != null) {
+                // El alta no está en el disco: se deshace para que el cliente pueda repetirla.
+                store.remove(username);
+                throw new CompletionException(error);
+            }
+            return true;
+        });
+    }
+
     /**
      * Autentica un usuario con su nombre y contraseña.
      *
@@ -53,7 +143,7 @@ public class UserManager implements Service {
      * @return Instancia del usuario autenticado o {@code null} si las credenciales no son válidas.
      */
     public User authenticate(String username, String password) {
-        User user = users.get(username);
+        User user = store.find(username);
         if (user != null && user.getPassword().equals(password)) {
             return user;
         }
@@ -61,84 +151,106 @@ public class UserManager implements Service {
     }
 
     /**
-     * Actualiza las estadísticas de un usuario en el sistema.
-     * <p>
-     * Se sobrescribe la información del usuario en la estructura de datos
-     * y se guarda en el archivo para persistencia.
-     * </p>
+     * Suma puntos a la puntuación de un usuario.
      *
-     * @param newUser Usuario con los datos actualizados.
+     * @param user   Usuario que ha puntuado.
+     * @param points Puntos a sumar.
+     * @return Confirmación del cambio; puede ignorarse.
      */
-    public void updateStatisticsUser(User newUser) {
-        users.put(newUser.getUsername(), newUser);
-        saveUsersToFile();
+    public CompletableFuture<Void> addScore(User user, int points) {
+        return update(user, UserChange.score(user.getUsername(), points));
     }
 
     /**
-     * Carga los usuarios almacenados desde el archivo de texto.
-     * <p>
-     * Cada usuario está almacenado en formato CSV: <br>
-     * {@code username,password,score,wins,defeats}
-     * </p>
+     * Anota una partida ganada por un usuario.
+     *
+     * @param user Usuario que ha ganado.
+     * @return Confirmación del cambio; puede ignorarse.
      */
-    private void loadUsersFromFile() {
-        File file = new File(FILE_PATH);
+    public CompletableFuture<Void> recordWin(User user) {
+        return update(user, UserChange.win(user.getUsername()));
+    }
 
-        // Si el archivo no existe, no hay usuarios que cargar
-        if (!file.exists()) {
-            return;
-        }
+    /**
+     * Anota una partida perdida por un usuario.
+     *
+     * @param user Usuario que ha perdido.
+     * @return Confirmación del cambio; puede ignorarse.
+     */
+    public CompletableFuture<Void> recordDefeat(User user) {
+        return update(user, UserChange.defeat(user.getUsername()));
+    }
 
-        try (BufferedReader reader = new BufferedReader(new FileReader(file))) {
-            String line;
-
-            while ((line = reader.readLine()) != null) {
-                String[] parts = line.split(",");
-
-                // Se espera que cada línea tenga exactamente 5 valores
-                if (parts.length == 5) {
-                    String username = parts[0];
-                    String password = parts[1];
-                    int score = Integer.parseInt(parts[2]);
-                    int wins = Integer.parseInt(parts[3]);
-                    int defeats = Integer.parseInt(parts[4]);
-
-                    // Se crea el objeto usuario y se asignan los valores
-                    User user = new User(username, password);
-                    user.addScore(score);
-                    user.win(wins);
-                    user.defeat(defeats);
-
-                    // Se añade al mapa de usuarios
-                    users.put(username, user);
-                }
-            }
-        } catch (IOException e) {
-            System.err.println("Error al leer el archivo de usuarios: " + e.getMessage());
-            e.printStackTrace();
-        }
+    /**
+     * Aplica un cambio de estadísticas en el almacén y lo entrega al escritor.
+     *
+     * @param user   Usuario al que corresponde el cambio.
+     * @param change Cambio de estadísticas.
+     * @return Confirmación del cambio.
+     */
+    private CompletableFuture<Void> update(User user, UserChange change) {
+        store.apply(user, change);
+        return writer.write(change);
     }
 
     /**
-     * Guarda los datos de los usuarios en el archivo de texto.
-     * <p>
-     * Cada usuario se almacena en formato CSV:
-     * {@code username,password,score,wins,defeats}
-     * </p>
+     * Indica si unas credenciales caben en el almacén de usuarios.
+     *
+     * @param username Nombre de usuario.
+     * @param password Contraseña del usuario.
+     * @return {@code true} si pueden registrarse.
      */
-    public void saveUsersToFile() {
-        try (BufferedWriter writer = new BufferedWriter(new FileWriter(FILE_PATH))) {
-            for (User user : users.values()) {
-                writer.write(user.getUsername() + ","
-                        + user.getPassword() + ","
-                        + user.getScore() + ","
-                        + user.getWins() + ","
-                        + user.getDefeats());
-                writer.newLine(); // Se añade una nueva línea después de cada usuario
-            }
-        } catch (IOException e) {
-            System.err.println("Error al guardar el archivo de usuarios: " + e.getMessage());
-            e.printStackTrace();
-        }
+    public boolean acceptsCredentials(String username, String password) {
+        return store.accepts(username, password);
+    }
+
+    /**
+     * Confirma en el acto los cambios pendientes.
+     */
+    public void flush() {
+        writer.commitPending();
+    }
+
+    /**
+     * Detiene el escritor, guarda los cambios pendientes y cierra el registro.
+     */
+    public void close() {
+        writer.close();
+    }
+
+    /**
+     * Obtiene el almacén de las cuentas.
+     *
+     * @return Almacén de usuarios.
+     */
+    public UserStore getStore() {
+        return store;
+    }
+
+    /**
+     * Obtiene el número de cambios de usuarios pendientes de escribir.
+     *
+     * @return Cambios pendientes.
+     */
+    public int getPendingCount() {
+        return writer.getPendingCount();
+    }
+
+    /**
+     * Obtiene las duraciones de las confirmaciones de los lotes de cambios.
+     *
+     * @return Histograma de latencias de confirmación.
+     */
+    public LatencyHistogram getSaveLatency() {
+        return writer.getCommitLatency();
+    }
+
+    /**
+     * Obtiene el número de cambios incluidos en cada confirmación.
+     *
+     * @return Histograma de tamaños de lote.
+     */
+    public LatencyHistogram getCommitBatchSizes() {
+        return writer.getBatchSizes();
     }
 }
@@ -0,0 +1,263 @@
+package server.store;
+
+import common.model.User;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Almacén que solo mantiene en el heap a los usuarios en uso, sobre un
+ * {@link MappedUserStore} con el índice guardado en un archivo.
+ * <p>
+ * Al arrancar no se carga ninguna cuenta: basta con proyectar el índice. Cada usuario se lee
+ * de su registro la primera vez que se busca, al autenticarse, y se guarda en una caché de
+ * tamaño limitado que descarta primero a los que llevan más tiempo sin usarse. Así el heap crece
+ * con los jugadores conectados y no con los usuarios registrados.
+ * </p>
+ * <p>
+ * Las búsquedas no toman ningún bloqueo: la caché es un mapa concurrente y cada acierto solo
+ * anota el instante de uso del usuario. El orden de uso es aproximado: cuando la caché se llena,
+ * un único hilo ordena los usuarios por ese instante y descarta de una vez los más antiguos,
+ * una décima parte de la caché, en lugar de reordenarla en cada acceso.
+ * </p>
+ * <p>
+ * Los cambios de estadísticas solo modifican al usuario de la caché y se acumulan como
+ * diferencias; se suman a su registro cuando sale de la caché y en cada confirmación del
+ * {@link GroupCommitWriter}, para que la confirmación siga significando que el cambio está en el
+ * disco. Cada usuario en caché tiene su propio bloqueo, así que una confirmación solo detiene
+ * un instante a los cambios del usuario que está escribiendo y nunca a las búsquedas. Si una
+ * sesión conserva un usuario que ya ha salido de la caché, sus cambios se escriben directamente
+ * en el registro. Como siempre se suman diferencias, nunca se pierde un cambio aunque haya dos
+ * instancias del mismo usuario.
+ * </p>
+ *
+ * @see UserStoreType#CACHED
+ */
+public class CachedUserStore implements UserStore {
+    private final MappedUserStore records; // Registros de los usuarios en el disco.
+    private final int capacity; // Usuarios que caben en la caché.
+    private static final int EVICTION_BATCH_DIVISOR = 10; // Fracción de la caché que se descarta de una vez.
+
+    private final Map<String, Entry> cache = new ConcurrentHashMap<>(); // Usuarios en caché.
+    private final Queue<Entry> dirty = new ConcurrentLinkedQueue<>(); // Usuarios en caché con cambios sin escribir.
+    private final Object evictionLock = new Object(); // Evita que varios hilos descarten a la vez.
+    private final LongAdder hits = new LongAdder(); // Búsquedas resueltas con la caché.
+    private final LongAdder misses = new LongAdder(); // Búsquedas no resueltas con la caché.
+    private final LongAdder evictions = new LongAdder(); // Usuarios descartados de la caché.
+
+    /**
+     * Crea la caché sobre los registros de los usuarios.
+     *
+     * @param records  Registros de los usuarios.
+     * @param capacity Usuarios que caben en la caché.
+     */
+    public CachedUserStore(MappedUserStore records, int capacity) {
+        this.records = records;
+        this.capacity = Math.max(1, capacity);
+    }
+
+    @Override
+    public User find(String username) {
+        Entry entry = cache.get(username);
+        if (entry != null) {
+            hits.increment();
+            entry.lastAccess = System.nanoTime();
+            return entry.user;
+        }
+
+        misses.increment();
+        User user = records.find(username); // Puede tener que leer del disco
+        if (user == null) {
+            return null;
+        }
+
+        Entry loaded = new Entry(user);
+        Entry previous = cache.putIfAbsent(username, loaded);
+        if (previous != null) {
+            return previous.user; // Otro hilo lo ha cargado mientras tanto
+        }
+        if (cache.size() > capacity) {
+            evict();
+        }
+        return user;
+    }
+
+    @Override
+    public boolean create(String username, String password) {
+        return records.create(username, password);
+    }
+
+    @Override
+    public void remove(String username) {
+        Entry entry = cache.remove(username);
+        if (entry != null) {
+            synchronized (entry) {
+                entry.evicted = true; // Sus cambios pendientes se descartan con el alta
+            }
+        }
+        records.remove(username);
+    }
+
+    @Override
+    public void apply(User user, UserChange change) {
+        Entry entry = cache.get(user.getUsername());
+        if (entry != null && entry.user == user) {
+            synchronized (entry) {
+                if (!entry.evicted) {
+                    change.applyTo(user);
+                    entry.add(change);
+                    if (!entry.dirty) {
+                        entry.dirty = true;
+                        dirty.add(entry);
+                    }
+                    return;
+                }
+            }
+        }
+        records.apply(user, change);
+    }
+
+    @Override
+    public boolean accepts(String username, String password) {
+        return records.accepts(username, password);
+    }
+
+    /**
+     * No escribe nada: el cambio está en la caché hasta {@link #commit(boolean)}.
+     *
+     * @param change Cambio de un usuario.
+     */
+    @Override
+    public void append(UserChange change) {
+        // Los cambios se escriben al confirmar el lote, agrupados por usuario.
+    }
+
+    /**
+     * Suma a sus registros los cambios de los usuarios en caché y los lleva al disco. Cada
+     * usuario se bloquea solo mientras se escribe el suyo.
+     *
+     * @param fsync Si hay que esperar a que los cambios estén en el disco.
+     */
+    @Override
+    public void commit(boolean fsync) {
+        Entry entry;
+        while ((entry = dirty.poll()) != null) {
+            synchronized (entry) {
+                if (entry.dirty) { // Los descartados desde la última confirmación ya se han escrito
+                    writeBack(entry);
+                }
+            }
+        }
+        records.commit(fsync);
+    }
+
+    @Override
+    public void close() throws IOException {
+        commit(true);
+        records.close();
+    }
+
+    /**
+     * Descarta los usuarios usados hace más tiempo hasta dejar libre una fracción de la caché,
+     * escribiendo antes sus cambios. Solo descarta un hilo a la vez; los que esperan encuentran
+     * la caché ya con sitio.
+     */
+    private void evict() {
+        List<Entry> candidates;
+        synchronized (evictionLock) {
+            int excess = cache.size() - capacity;
+            if (excess <= 0) {
+                return; // Otro hilo ya ha hecho sitio
+            }
+            candidates = new ArrayList<>(cache.values());
+            candidates.sort(Comparator.comparingLong(entry -> entry.lastAccess));
+            int count = Math.min(candidates.size(), excess + capacity / EVICTION_BATCH_DIVISOR);
+            for (int i = 0; i < count; i++) {
+                Entry entry = candidates.get(i);
+                synchronized (entry) {
+                    // Se escribe antes de quitarlo, para que quien lo vuelva a cargar lea sus cambios.
+                    entry.evicted = true;
+                    if (entry.dirty) {
+                        writeBack(entry);
+                    }
+                }
+                cache.remove(entry.user.getUsername(), entry);
+                evictions.increment();
+            }
+        }
+    }
+
+    /**
+     * Suma al registro de un usuario los cambios acumulados en la caché. Se llama con el
+     * bloqueo del usuario.
+     *
+     * @param entry Usuario en caché.
+     */
+    private void writeBack(Entry entry) {
+        records.add(entry.user.getUsername(), entry.points, entry.wins, entry.defeats);
+        entry.points = 0;
+        entry.wins = 0;
+        entry.defeats = 0;
+        entry.dirty = false;
+    }
+
+    /**
+     * Obtiene el número de usuarios en caché.
+     *
+     * @return Usuarios en caché.
+     */
+    public int size() {
+        return cache.size();
+    }
+
+    public long getHits() {
+        return hits.sum();
+    }
+
+    public long getMisses() {
+        return misses.sum();
+    }
+
+    public long getEvictions() {
+        return evictions.sum();
+    }
+
+    /**
+     * Usuario en caché con los cambios que aún no se han sumado a su registro. Sus cambios y
+     * su estado se protegen con su propio monitor.
+     */
+    private static class Entry {
+        private final User user; // Usuario compartido por todas sus sesiones.
+        private volatile long lastAccess = System.nanoTime(); // Instante del último uso.
+        private int points; // Puntos sin escribir.
+        private int wins; // Victorias sin escribir.
+        private int defeats; // Derrotas sin escribir.
+        private boolean dirty; // Indica si tiene cambios sin escribir.
+        private boolean evicted; // Indica si ha salido de la caché.
+
+        Entry(User user) {
+            this.user = user;
+        }
+
+        /**
+         * Acumula un cambio de estadísticas.
+         *
+         * @param change Cambio de puntuación, victoria o derrota.
+         */
+        void add(UserChange change) {
+            switch (change.type()) {
+                case SCORE -> points += change.amount();
+                case WIN -> wins += change.amount();
+                case DEFEAT -> defeats += change.amount();
+                default -> throw new IllegalStateException("Cambio no aplicable: " + change.type());
+            }
+        }
+    }
+}
@@ -0,0 +1,256 @@
+package server.store;
+
+import common.logger.CustomLogger;
+import server.metrics.LatencyHistogram;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.StampedLock;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Escritor de cambios de usuarios con confirmación en grupo.
+ * <p>
+ * Los hilos de las conexiones solo encolan sus cambios. Un hilo propio los recoge cada cierto
+ * intervalo, o antes si se acumulan suficientes o alguien espera su confirmación, y los añade
+ * al {@link UserChangeSink} con una sola escritura y, si está activado, un solo {@code fsync}
+ * para todo el lote. Así el coste de llevar los datos al disco se reparte entre todos los cambios
+ * que llegaron durante la confirmación anterior, en lugar de pagarlo por cada partida.
+ * </p>
+ * <p>
+ * Todos los cambios de una misma confirmación comparten el mismo {@link CompletableFuture},
+ * que se completa cuando el lote está en el disco, o excepcionalmente si no se ha podido
+ * escribir. Quien no necesita esperar simplemente lo ignora: encolar un cambio no crea ningún
+ * objeto más que el propio cambio.
+ * </p>
+ * <p>
+ * Cada confirmación se mide en {@link #getCommitLatency()} y el número de cambios que incluye
+ * en {@link #getBatchSizes()}. Cuando el destino lo pide, el mismo hilo lo compacta.
+ * </p>
+ *
+ * @see UserChangeSink
+ */
+public class GroupCommitWriter {
+    private static final Logger logger = CustomLogger.getLogger(GroupCommitWriter.class.getName());
+
+    private final UserChangeSink sink; // Destino en el que se escriben los cambios.
+    private final int batchSize; // Cambios pendientes a partir de los que se confirma sin esperar al intervalo.
+    private final boolean fsync; // Indica si cada confirmación lleva los cambios al disco.
+    private final Queue<UserChange> pendingChanges = new ConcurrentLinkedQueue<>(); // Cambios pendientes de escribir.
+    private final AtomicInteger pendingCount = new AtomicInteger(); // Número de cambios pendientes de escribir.
+    private final AtomicReference<CompletableFuture<Void>> nextCommit =
+            new AtomicReference<>(new CompletableFuture<>()); // Confirmación de los cambios que se están encolando.
+    private final StampedLock batchLock = new StampedLock(); // Separa los cambios de un lote de los del siguiente.
+    private final ScheduledExecutorService committer; // Hilo que confirma los cambios pendientes.
+    private final AtomicBoolean commitRequested = new AtomicBoolean(); // Indica si ya hay una confirmación anticipada en cola.
+    private final Object commitLock = new Object(); // Impide que dos hilos escriban el registro a la vez.
+    private final LatencyHistogram commitLatency = new LatencyHistogram(); // Duración de cada escritura y fsync de un lote.
+    private final LatencyHistogram batchSizes = new LatencyHistogram(); // Cambios incluidos en cada confirmación.
+
+    /**
+     * Crea el escritor y empieza a confirmar los cambios periódicamente. El destino ya debe
+     * estar abierto.
+     *
+     * @param sink           Destino de los cambios.
+     * @param intervalMillis Milisegundos entre confirmaciones.
+     * @param batchSize      Cambios pendientes a partir de los que se confirma en el acto.
+     * @param fsync          Si cada confirmación espera a que los cambios estén en el disco.
+     */
+    public GroupCommitWriter(UserChangeSink sink, long intervalMillis, int batchSize, boolean fsync) {
+        this.sink = sink;
+        this.batchSize = Math.max(1, batchSize);
+        this.fsync = fsync;
+        this.committer = Executors.newSingleThreadScheduledExecutor(task -> {
+            Thread thread = new Thread(task, "hanged-user-committer");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long interval = Math.max(1, intervalMillis);
+        committer.scheduleWithFixedDelay(this::commitPending, interval, interval, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Encola un cambio para la siguiente confirmación, sin esperarla. Si ya hay suficientes
+     * cambios pendientes, adelanta la confirmación.
+     *
+     * @param change Cambio de un usuario.
+     * @return Confirmación del lote que incluirá el cambio; puede ignorarse.
+     */
+    public CompletableFuture<Void> write(UserChange change) {
+        CompletableFuture<Void> commit;
+        // Encolar y leer la confirmación no puede quedar partido por el cambio de lote: la
+        // confirmación devuelta es exactamente la del lote que incluye el cambio.
+        long stamp = batchLock.readLock();
+        try {
+            pendingChanges.add(change);
+            commit = nextCommit.get();
+        } finally {
+            batchLock.unlockRead(stamp);
+        }
+        if (pendingCount.incrementAndGet() >= batchSize) {
+            requestCommit();
+        }
+        return commit;
+    }
+
+    /**
+     * Encola un cambio y adelanta la confirmación, para quien va a esperar a que esté en el
+     * disco. Los cambios que lleguen mientras tanto se confirman en el mismo lote.
+     *
+     * @param change Cambio de un usuario.
+     * @return Confirmación del lote que incluye el cambio.
+     */
+    public CompletableFuture<Void> commit(UserChange change) {
+        CompletableFuture<Void> commit = write(change);
+        requestCommit();
+        return commit;
+    }
+
+    /**
+     * Pide una confirmación anticipada, salvo que ya haya una en cola.
+     */
+    private void requestCommit() {
+        if (commitRequested.compareAndSet(false, true)) {
+            try {
+                committer.execute(() -> {
+                    commitRequested.set(false);
+                    commitPending();
+                });
+            } catch (RejectedExecutionException e) {
+                commitRequested.set(false); // El escritor se está cerrando y confirmará lo pendiente.
+            }
+        }
+    }
+
+    /**
+     * Escribe en el destino los cambios pendientes como un único lote, lo lleva al disco y
+     * completa su confirmación. Si el destino lo pide, lo compacta.
+     */
+    public void commitPending() {
+        synchronized (commitLock) {
+            // Los cambios encolados a partir de aquí esperan a la siguiente confirmación.
+            CompletableFuture<Void> commit;
+            List<UserChange> batch = new ArrayList<>();
+            long stamp = batchLock.writeLock();
+            try {
+                commit = nextCommit.getAndSet(new CompletableFuture<>());
+                UserChange change;
+                while ((change = pendingChanges.poll()) != null) {
+                    batch.add(change);
+                }
+            } finally {
+                batchLock.unlockWrite(stamp);
+            }
+            if (batch.isEmpty()) {
+                commit.complete(null); // Nadie puede estar esperando cambios que no existen.
+                return;
+            }
+            pendingCount.addAndGet(-batch.size());
+
+            long startNanos = System.nanoTime();
+            try {
+                for (UserChange pending : batch) {
+                    sink.append(pending);
+                }
+                sink.commit(fsync);
+                logger.log(Level.FINE, "Confirmados {0} cambios de usuarios", batch.size());
+            } catch (IOException | UncheckedIOException e) {
+                logger.log(Level.SEVERE, "Error al guardar {0} cambios de usuarios: {1}",
+                        new Object[]{batch.size(), e.getMessage()});
+                rollOver();
+                commit.completeExceptionally(e);
+                return;
+            } finally {
+                commitLatency.record(System.nanoTime() - startNanos);
+                batchSizes.record(batch.size());
+            }
+            commit.complete(null);
+
+            if (sink.needsCompaction()) {
+                compact();
+            }
+        }
+    }
+
+    /**
+     * Compacta los cambios escritos.
+     */
+    private void compact() {
+        try {
+            sink.compact();
+        } catch (IOException e) {
+            logger.log(Level.SEVERE, "Error al compactar los cambios de usuarios: {0}", e.getMessage());
+        }
+    }
+
+    /**
+     * Recupera el destino tras un error de escritura.
+     */
+    private void rollOver() {
+        try {
+            sink.rollOver();
+        } catch (IOException e) {
+            logger.log(Level.SEVERE, "No se puede seguir escribiendo los cambios de usuarios: {0}", e.getMessage());
+        }
+    }
+
+    /**
+     * Detiene el hilo de confirmación, confirma los cambios pendientes y cierra el destino.
+     */
+    public void close() {
+        committer.shutdown();
+        try {
+            committer.awaitTermination(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        commitPending();
+        synchronized (commitLock) {
+            try {
+                sink.close();
+            } catch (IOException e) {
+                logger.log(Level.SEVERE, "Error al cerrar el almacén de usuarios: {0}", e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Obtiene el número de cambios pendientes de confirmar.
+     *
+     * @return Cambios pendientes.
+     */
+    public int getPendingCount() {
+        return pendingCount.get();
+    }
+
+    /**
+     * Obtiene las duraciones de las confirmaciones, escritura y {@code fsync} incluidos.
+     *
+     * @return Histograma de latencias de confirmación.
+     */
+    public LatencyHistogram getCommitLatency() {
+        return commitLatency;
+    }
+
+    /**
+     * Obtiene el número de cambios incluidos en cada confirmación.
+     *
+     * @return Histograma de tamaños de lote.
+     */
+    public LatencyHistogram getBatchSizes() {
+        return batchSizes;
+    }
+}
@@ -0,0 +1,94 @@
+package server.store;
+
+import common.model.User;
+
+import java.io.IOException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Almacén que mantiene todos los usuarios en memoria y guarda sus cambios en un
+ * {@link UserLog}.
+ * <p>
+ * Los usuarios se guardan en un {@link ConcurrentHashMap}, que bloquea por separado cada
+ * cubeta al modificarla y nunca al leer, de modo que varias conexiones pueden registrar,
+ * autenticar y actualizar usuarios a la vez. Todas las sesiones de un mismo usuario comparten
+ * su única instancia.
+ * </p>
+ *
+ * @see UserStoreType#LOG
+ */
+public class LogUserStore implements UserStore {
+    private final UserLog log; // Instantánea y registro de cambios de los usuarios.
+    private final ConcurrentMap<String, User> users; // Usuarios registrados, indexados por su nombre.
+    private final long compactAfter; // Cambios en el registro a partir de los que se compacta.
+
+    /**
+     * Carga los usuarios de la instantánea y de los registros de cambios.
+     *
+     * @param snapshotPath Ruta de la instantánea.
+     * @param compactAfter Cambios en el registro a partir de los que se compacta.
+     * @throws IOException Si no se pueden leer los datos guardados.
+     */
+    public LogUserStore(String snapshotPath, long compactAfter) throws IOException {
+        this.log = new UserLog(snapshotPath);
+        this.users = new ConcurrentHashMap<>(log.load());
+        this.compactAfter = Math.max(1, compactAfter);
+    }
+
+    @Override
+    public User find(String username) {
+        return users.get(username);
+    }
+
+    @Override
+    public boolean create(String username, String password) {
+        return users.putIfAbsent(username, new User(username, password)) == null;
+    }
+
+    @Override
+    public void remove(String username) {
+        users.remove(username);
+    }
+
+    @Override
+    public void apply(User user, UserChange change) {
+        synchronized (user) { // El cambio se aplica entero frente a otras sesiones del usuario
+            change.applyTo(user);
+        }
+    }
+
+    @Override
+    public void append(UserChange change) throws IOException {
+        log.append(change);
+    }
+
+    @Override
+    public void commit(boolean fsync) throws IOException {
+        log.flush();
+        if (fsync) {
+            log.sync();
+        }
+        log.markCommitted();
+    }
+
+    @Override
+    public void rollOver() throws IOException {
+        log.rollOver();
+    }
+
+    @Override
+    public boolean needsCompaction() {
+        return log.getRecordCount() >= compactAfter;
+    }
+
+    @Override
+    public void compact() throws IOException {
+        log.compact();
+    }
+
+    @Override
+    public void close() throws IOException {
+        log.close();
+    }
+}
@@ -0,0 +1,437 @@
+package server.store;
+
+import common.logger.CustomLogger;
+import common.model.User;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Map;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Almacén de usuarios en un archivo de registros de ancho fijo proyectado en memoria.
+ * <p>
+ * Tras una cabecera de {@value #HEADER_SIZE} bytes (identificador, versión y número de
+ * usuarios), cada usuario ocupa un registro de {@value #RECORD_SIZE} bytes con el hash de su
+ * nombre, su nombre y su contraseña en UTF-8 (hasta {@value #MAX_FIELD_BYTES} bytes cada uno),
+ * su puntuación, sus victorias y sus derrotas. Los cambios de estadísticas se escriben en el
+ * sitio, sobre la memoria proyectada, y el {@link GroupCommitWriter} solo tiene que llevar al
+ * disco las páginas modificadas con un {@code force()} por lote.
+ * </p>
+ * <p>
+ * Para encontrar a un usuario se usa un índice de direccionamiento abierto con sondeo lineal
+ * ({@link SlotIndex}), del hash del nombre a la posición de su registro, fuera del heap. Al
+ * arrancar se construye leyendo solo el hash de cada registro, sin interpretar ningún texto, o,
+ * si se guarda en un archivo y corresponde a los registros, simplemente se proyecta. Si el
+ * archivo de registros no existe, se crea con los usuarios del archivo CSV de siempre.
+ * </p>
+ * <p>
+ * Las altas se serializan entre sí; las búsquedas no toman ningún bloqueo. Cada búsqueda
+ * devuelve un {@link User} nuevo con los datos del registro, y los cambios se suman al
+ * registro, de modo que dos sesiones del mismo usuario nunca se pisan sus estadísticas.
+ * </p>
+ *
+ * @see UserStoreType#MAPPED
+ */
+public class MappedUserStore implements UserStore {
+    private static final Logger logger = CustomLogger.getLogger(MappedUserStore.class.getName());
+    private static final int MAGIC = 0x48555352; // "HUSR" al principio del archivo.
+    private static final int VERSION = 1; // Versión del formato.
+    private static final int HEADER_SIZE = 16; // Bytes de la cabecera.
+    private static final int COUNT_OFFSET = 8; // Posición del número de usuarios en la cabecera.
+    private static final int RECORD_SIZE = 152; // Bytes de cada registro.
+    private static final int MAX_FIELD_BYTES = 64; // Bytes máximos del nombre y de la contraseña.
+    private static final int HASH = 0; // Posición del hash del nombre en el registro.
+    private static final int NAME_LENGTH = 4; // Posición de la longitud del nombre.
+    private static final int PASSWORD_LENGTH = 5; // Posición de la longitud de la contraseña.
+    private static final int NAME = 8; // Posición del nombre.
+    private static final int PASSWORD = NAME + MAX_FIELD_BYTES; // Posición de la contraseña.
+    private static final int SCORE = PASSWORD + MAX_FIELD_BYTES; // Posición de la puntuación.
+    private static final int WINS = SCORE + 4; // Posición de las victorias.
+    private static final int DEFEATS = WINS + 4; // Posición de las derrotas.
+    private static final int INITIAL_CAPACITY = 1024; // Registros que caben en un archivo nuevo.
+
+    private final FileChannel channel; // Canal del archivo de usuarios.
+    private final Path indexPath; // Archivo del índice, o null si se mantiene en memoria.
+    private final Object createLock = new Object(); // Serializa las altas y el crecimiento del archivo.
+    private final Object updateLock = new Object(); // Protege la lectura y escritura de las estadísticas.
+    private volatile MappedByteBuffer records; // Proyección del archivo completo.
+    private volatile SlotIndex index; // Índice de los registros por el hash del nombre.
+    private int capacity; // Registros que caben en la proyección actual.
+    private int count; // Usuarios registrados.
+
+    /**
+     * Abre el archivo de usuarios o, si no existe, lo crea con los usuarios del archivo CSV. El
+     * índice se construye en memoria.
+     *
+     * @param path       Ruta del archivo de registros.
+     * @param importPath Ruta de la instantánea CSV con la que se crea un archivo nuevo.
+     * @throws IOException Si no se puede leer o crear el archivo, o no tiene un formato válido.
+     */
+    public MappedUserStore(String path, String importPath) throws IOException {
+        this(path, null, importPath);
+    }
+
+    /**
+     * Abre el archivo de usuarios o, si no existe, lo crea con los usuarios del archivo CSV.
+     *
+     * @param path       Ruta del archivo de registros.
+     * @param indexPath  Ruta del archivo del índice, o {@code null} para mantenerlo en memoria.
+     * @param importPath Ruta de la instantánea CSV con la que se crea un archivo nuevo.
+     * @throws IOException Si no se puede leer o crear el archivo, o no tiene un formato válido.
+     */
+    public MappedUserStore(String path, String indexPath, String importPath) throws IOException {
+        this.indexPath = indexPath == null ? null : Path.of(indexPath);
+        Path file = Path.of(path);
+        boolean exists = Files.exists(file) && Files.size(file) > 0;
+        this.channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        try {
+            if (!exists || !open()) {
+                initialize();
+                importUsers(importPath);
+                // El identificador se escribe al final: un archivo sin él es una importación a medias.
+                records.putInt(0, MAGIC);
+                records.force();
+            }
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Proyecta un archivo existente y construye el índice con el hash de cada registro.
+     *
+     * @return {@code false} si el archivo quedó a medio crear y hay que crearlo de nuevo.
+     * @throws IOException Si el archivo no tiene un formato válido.
+     */
+    private boolean open() throws IOException {
+        long size = channel.size();
+        if (size < HEADER_SIZE || size > Integer.MAX_VALUE) {
+            throw new IOException("Tamaño de archivo de usuarios no válido: " + size);
+        }
+        capacity = (int) ((size - HEADER_SIZE) / RECORD_SIZE);
+        records = channel.map(FileChannel.MapMode.READ_WRITE, 0, HEADER_SIZE + (long) capacity * RECORD_SIZE);
+        if (records.getInt(0) == 0) {
+            return false;
+        }
+        if (records.getInt(0) != MAGIC || records.getInt(4) != VERSION) {
+            throw new IOException("El archivo de usuarios no tiene un formato reconocido");
+        }
+        count = records.getInt(COUNT_OFFSET);
+        if (count < 0 || count > capacity) {
+            throw new IOException("Número de usuarios no válido: " + count);
+        }
+        index = indexPath == null ? null : SlotIndex.open(indexPath, capacity, count);
+        if (index == null) {
+            index = buildIndex(records, count, capacity);
+        } else {
+            logger.log(Level.CONFIG, "Índice de usuarios reutilizado de {0}", indexPath);
+        }
+        logger.log(Level.INFO, "Abiertos {0} usuarios proyectados en memoria", count);
+        return true;
+    }
+
+    /**
+     * Crea un archivo vacío con la cabecera, salvo el identificador.
+     *
+     * @throws IOException Si no se puede crear el archivo.
+     */
+    private void initialize() throws IOException {
+        capacity = INITIAL_CAPACITY;
+        records = channel.map(FileChannel.MapMode.READ_WRITE, 0, HEADER_SIZE + (long) capacity * RECORD_SIZE);
+        records.putInt(0, 0);
+        records.putInt(4, VERSION);
+        records.putInt(COUNT_OFFSET, 0);
+        index = buildIndex(records, 0, capacity);
+    }
+
+    /**
+     * Copia en un archivo recién creado los usuarios de la instantánea CSV y sus registros de
+     * cambios, si existen.
+     *
+     * @param importPath Ruta de la instantánea CSV.
+     * @throws IOException Si no se pueden leer los usuarios o escribir el archivo.
+     */
+    private void importUsers(String importPath) throws IOException {
+        if (!Files.exists(Path.of(importPath))) {
+            return;
+        }
+
+        Map<String, User> users;
+        try (UserLog log = new UserLog(importPath)) {
+            users = log.load();
+        }
+        for (User user : users.values()) {
+            if (!accepts(user.getUsername(), user.getPassword())) {
+                logger.log(Level.WARNING, "El usuario {0} no cabe en un registro; no se importa", user.getUsername());
+                continue;
+            }
+            create(user.getUsername(), user.getPassword());
+            int offset = offsetOf(slotOf(user.getUsername()));
+            records.putInt(offset + SCORE, user.getScore());
+            records.putInt(offset + WINS, user.getWins());
+            records.putInt(offset + DEFEATS, user.getDefeats());
+        }
+        logger.log(Level.INFO, "Importados {0} usuarios de {1}", new Object[]{count, importPath});
+    }
+
+    @Override
+    public User find(String username) {
+        int slot = slotOf(username);
+        if (slot < 0) {
+            return null;
+        }
+
+        MappedByteBuffer buffer = records;
+        int offset = offsetOf(slot);
+        User user = new User(username, readField(buffer, offset + PASSWORD, buffer.get(offset + PASSWORD_LENGTH)));
+        synchronized (updateLock) {
+            user.addScore(buffer.getInt(offset + SCORE));
+            user.win(buffer.getInt(offset + WINS));
+            user.defeat(buffer.getInt(offset + DEFEATS));
+        }
+        return user;
+    }
+
+    @Override
+    public boolean create(String username, String password) {
+        if (!accepts(username, password)) {
+            throw new IllegalArgumentException("El nombre o la contraseña superan los " + MAX_FIELD_BYTES + " bytes");
+        }
+        byte[] name = username.getBytes(StandardCharsets.UTF_8);
+        byte[] secret = password.getBytes(StandardCharsets.UTF_8);
+        int hash = hash(username);
+
+        synchronized (createLock) {
+            if (slotOf(username) >= 0) {
+                return false;
+            }
+            if (count == capacity) {
+                grow();
+            }
+
+            // El registro se escribe completo antes de contarlo y de publicarlo en el índice.
+            MappedByteBuffer buffer = records;
+            int slot = count;
+            int offset = offsetOf(slot);
+            buffer.putInt(offset + HASH, hash);
+            buffer.put(offset + NAME_LENGTH, (byte) name.length);
+            buffer.put(offset + PASSWORD_LENGTH, (byte) secret.length);
+            buffer.put(offset + NAME, name);
+            buffer.put(offset + PASSWORD, secret);
+            buffer.putInt(offset + SCORE, 0);
+            buffer.putInt(offset + WINS, 0);
+            buffer.putInt(offset + DEFEATS, 0);
+            count++;
+            buffer.putInt(COUNT_OFFSET, count);
+            index.insert(hash, slot);
+            index.setIndexedCount(count);
+        }
+        return true;
+    }
+
+    /**
+     * Deja el registro del usuario sin nombre, de modo que ninguna búsqueda vuelve a
+     * encontrarlo. El registro sigue ocupando su posición y su entrada del índice.
+     *
+     * @param username Nombre del usuario dado de alta.
+     */
+    @Override
+    public void remove(String username) {
+        synchronized (createLock) {
+            int slot = slotOf(username);
+            if (slot >= 0) {
+                records.put(offsetOf(slot) + NAME_LENGTH, (byte) 0);
+            }
+        }
+    }
+
+    @Override
+    public void apply(User user, UserChange change) {
+        switch (change.type()) {
+            case SCORE -> add(user.getUsername(), change.amount(), 0, 0);
+            case WIN -> add(user.getUsername(), 0, change.amount(), 0);
+            case DEFEAT -> add(user.getUsername(), 0, 0, change.amount());
+            default -> throw new IllegalStateException("Cambio no aplicable: " + change.type());
+        }
+        change.applyTo(user);
+    }
+
+    /**
+     * Suma estadísticas al registro de un usuario, en el sitio.
+     *
+     * @param username Nombre del usuario.
+     * @param points   Puntos a sumar.
+     * @param wins     Victorias a sumar.
+     * @param defeats  Derrotas a sumar.
+     * @throws IllegalStateException Si el usuario no está registrado.
+     */
+    void add(String username, int points, int wins, int defeats) {
+        int slot = slotOf(username);
+        if (slot < 0) {
+            throw new IllegalStateException("Usuario no registrado: " + username);
+        }
+
+        int offset = offsetOf(slot);
+        synchronized (updateLock) {
+            MappedByteBuffer buffer = records;
+            buffer.putInt(offset + SCORE, buffer.getInt(offset + SCORE) + points);
+            buffer.putInt(offset + WINS, buffer.getInt(offset + WINS) + wins);
+            buffer.putInt(offset + DEFEATS, buffer.getInt(offset + DEFEATS) + defeats);
+        }
+    }
+
+    @Override
+    public boolean accepts(String username, String password) {
+        return username.getBytes(StandardCharsets.UTF_8).length <= MAX_FIELD_BYTES
+                && password.getBytes(StandardCharsets.UTF_8).length <= MAX_FIELD_BYTES;
+    }
+
+    /**
+     * No escribe nada: el cambio ya está en la memoria proyectada.
+     *
+     * @param change Cambio de un usuario.
+     */
+    @Override
+    public void append(UserChange change) {
+        // El cambio se aplicó en el sitio al hacerlo; solo queda llevarlo al disco.
+    }
+
+    @Override
+    public void commit(boolean fsync) {
+        if (fsync) {
+            records.force();
+            index.force();
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        records.force();
+        index.force();
+        channel.close();
+    }
+
+    /**
+     * Duplica el número de registros que caben en el archivo y reconstruye el índice.
+     */
+    private void grow() {
+        int newCapacity = capacity * 2;
+        try {
+            records = channel.map(FileChannel.MapMode.READ_WRITE, 0, HEADER_SIZE + (long) newCapacity * RECORD_SIZE);
+            capacity = newCapacity;
+            index = buildIndex(records, count, capacity);
+        } catch (IOException e) {
+            throw new UncheckedIOException("No se puede ampliar el archivo de usuarios", e);
+        }
+    }
+
+    /**
+     * Busca la posición del registro de un usuario.
+     *
+     * @param username Nombre de usuario.
+     * @return Posición del registro, o -1 si no existe.
+     */
+    private int slotOf(String username) {
+        byte[] name = username.getBytes(StandardCharsets.UTF_8);
+        if (name.length > MAX_FIELD_BYTES) {
+            return -1;
+        }
+        int hash = hash(username);
+        SlotIndex table = index;
+        for (int i = table.start(hash); ; i = table.next(i)) {
+            int entry = table.get(i);
+            if (entry == 0) {
+                return -1;
+            }
+            int slot = entry - 1;
+            MappedByteBuffer buffer = records; // Se lee después de la entrada, que puede apuntar a un archivo ampliado
+            int offset = offsetOf(slot);
+            if (buffer.getInt(offset + HASH) == hash && nameEquals(buffer, offset, name)) {
+                return slot;
+            }
+        }
+    }
+
+    /**
+     * Compara el nombre de un registro con uno dado.
+     *
+     * @param buffer Proyección del archivo.
+     * @param offset Posición del registro.
+     * @param name   Nombre en UTF-8.
+     * @return {@code true} si coinciden.
+     */
+    private static boolean nameEquals(MappedByteBuffer buffer, int offset, byte[] name) {
+        if (buffer.get(offset + NAME_LENGTH) != name.length) {
+            return false;
+        }
+        for (int i = 0; i < name.length; i++) {
+            if (buffer.get(offset + NAME + i) != name[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Construye un índice nuevo leyendo solo el hash de cada registro y lo pone en lugar del
+     * anterior.
+     *
+     * @param buffer   Proyección del archivo.
+     * @param count    Registros escritos.
+     * @param capacity Registros que caben en el archivo.
+     * @return Índice de los registros.
+     * @throws IOException Si no se puede escribir el archivo del índice.
+     */
+    private SlotIndex buildIndex(MappedByteBuffer buffer, int count, int capacity) throws IOException {
+        SlotIndex table = SlotIndex.allocate(indexPath, capacity);
+        for (int slot = 0; slot < count; slot++) {
+            table.insert(buffer.getInt(offsetOf(slot) + HASH), slot);
+        }
+        table.setIndexedCount(count);
+        table.publish();
+        return table;
+    }
+
+    /**
+     * Lee un texto UTF-8 de la proyección.
+     *
+     * @param buffer Proyección del archivo.
+     * @param offset Posición del texto.
+     * @param length Longitud en bytes.
+     * @return Texto leído.
+     */
+    private static String readField(MappedByteBuffer buffer, int offset, int length) {
+        byte[] bytes = new byte[length];
+        buffer.get(offset, bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Obtiene la posición de un registro en el archivo.
+     *
+     * @param slot Número de registro.
+     * @return Posición en bytes.
+     */
+    private static int offsetOf(int slot) {
+        return HEADER_SIZE + slot * RECORD_SIZE;
+    }
+
+    /**
+     * Obtiene el hash de un nombre de usuario, estable entre ejecuciones.
+     *
+     * @param username Nombre de usuario.
+     * @return Hash del nombre.
+     */
+    private static int hash(String username) {
+        return username.hashCode();
+    }
+}
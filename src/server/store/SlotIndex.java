@@ -0,0 +1,192 @@
+package server.store;
+
+import java.io.IOException;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Tabla de direccionamiento abierto del {@link MappedUserStore}, fuera del heap.
+ * <p>
+ * Cada entrada guarda la posición de un registro más uno, o 0 si está libre. Tras una cabecera
+ * con un identificador y el número de registros indexados, las entradas se guardan en un
+ * buffer directo o, si se indica un archivo, en un archivo proyectado en memoria que se
+ * reutiliza al arrancar sin leer los registros. Las entradas se leen y escriben con semántica
+ * volátil, así que quien encuentra una entrada ve también el registro escrito antes de ella.
+ * </p>
+ * <p>
+ * Una tabla nueva se construye en un archivo temporal y sustituye a la anterior con
+ * {@link #publish()}; quien siga usando la anterior la ve intacta.
+ * </p>
+ */
+final class SlotIndex {
+    private static final VarHandle INT = MethodHandles.byteBufferViewVarHandle(int[].class, ByteOrder.BIG_ENDIAN);
+    private static final int MAGIC = 0x48494458; // "HIDX" al principio del archivo.
+    private static final int HEADER_SIZE = 8; // Identificador y número de registros indexados.
+    private static final int COUNT_OFFSET = 4; // Posición del número de registros indexados.
+
+    private final ByteBuffer table; // Cabecera y entradas.
+    private final int mask; // Número de entradas menos uno.
+    private final Path temporary; // Archivo en el que se ha construido, o null si ya está publicado.
+    private final Path path; // Archivo definitivo, o null si la tabla no se guarda.
+
+    private SlotIndex(ByteBuffer table, Path temporary, Path path) {
+        this.table = table;
+        this.mask = (table.capacity() - HEADER_SIZE) / Integer.BYTES - 1;
+        this.temporary = temporary;
+        this.path = path;
+    }
+
+    /**
+     * Crea una tabla vacía con espacio para el doble de registros de los indicados.
+     *
+     * @param path     Archivo en el que se guarda, o {@code null} para mantenerla en memoria.
+     * @param capacity Registros que debe poder indexar.
+     * @return Tabla vacía, pendiente de {@link #publish()} si se guarda en un archivo.
+     * @throws IOException Si no se puede crear el archivo.
+     */
+    static SlotIndex allocate(Path path, int capacity) throws IOException {
+        int size = HEADER_SIZE + entriesFor(capacity) * Integer.BYTES;
+        if (path == null) {
+            SlotIndex index = new SlotIndex(ByteBuffer.allocateDirect(size), null, null);
+            index.table.putInt(0, MAGIC);
+            return index;
+        }
+
+        Path temporary = path.resolveSibling(path.getFileName() + ".tmp");
+        Files.deleteIfExists(temporary);
+        SlotIndex index = new SlotIndex(map(temporary, size), temporary, path);
+        index.table.putInt(0, MAGIC);
+        return index;
+    }
+
+    /**
+     * Abre una tabla guardada si corresponde exactamente a los registros del archivo.
+     *
+     * @param path     Archivo de la tabla.
+     * @param capacity Registros que caben en el archivo de registros.
+     * @param count    Registros escritos.
+     * @return Tabla guardada, o {@code null} si no existe o está desfasada.
+     * @throws IOException Si no se puede leer el archivo.
+     */
+    static SlotIndex open(Path path, int capacity, int count) throws IOException {
+        int size = HEADER_SIZE + entriesFor(capacity) * Integer.BYTES;
+        if (!Files.exists(path) || Files.size(path) != size) {
+            return null;
+        }
+        SlotIndex index = new SlotIndex(map(path, size), null, path);
+        if (index.table.getInt(0) != MAGIC || index.getIndexedCount() != count) {
+            return null;
+        }
+        return index;
+    }
+
+    /**
+     * Lleva la tabla construida al disco y la pone en lugar de la anterior.
+     *
+     * @throws IOException Si no se puede sustituir el archivo.
+     */
+    void publish() throws IOException {
+        if (temporary != null) {
+            force();
+            Files.move(temporary, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        }
+    }
+
+    /**
+     * Añade un registro en la primera entrada libre a partir de su hash.
+     *
+     * @param hash Hash del nombre del usuario.
+     * @param slot Posición del registro.
+     */
+    void insert(int hash, int slot) {
+        int i = start(hash);
+        while (get(i) != 0) {
+            i = next(i);
+        }
+        INT.setVolatile(table, offsetOf(i), slot + 1);
+    }
+
+    /**
+     * Obtiene la primera entrada en la que buscar un hash.
+     *
+     * @param hash Hash del nombre del usuario.
+     * @return Número de entrada.
+     */
+    int start(int hash) {
+        return (hash ^ (hash >>> 16)) & mask;
+    }
+
+    /**
+     * Obtiene la entrada siguiente en el sondeo.
+     *
+     * @param entry Número de entrada.
+     * @return Número de la entrada siguiente.
+     */
+    int next(int entry) {
+        return (entry + 1) & mask;
+    }
+
+    /**
+     * Lee una entrada.
+     *
+     * @param entry Número de entrada.
+     * @return Posición del registro más uno, o 0 si está libre.
+     */
+    int get(int entry) {
+        return (int) INT.getVolatile(table, offsetOf(entry));
+    }
+
+    int getIndexedCount() {
+        return (int) INT.getVolatile(table, COUNT_OFFSET);
+    }
+
+    void setIndexedCount(int count) {
+        INT.setVolatile(table, COUNT_OFFSET, count);
+    }
+
+    /**
+     * Lleva al disco las entradas modificadas, si la tabla se guarda en un archivo.
+     */
+    void force() {
+        if (table instanceof MappedByteBuffer mapped) {
+            mapped.force();
+        }
+    }
+
+    /**
+     * Obtiene el número de entradas para indexar unos registros con la mitad de la tabla libre.
+     *
+     * @param capacity Registros a indexar.
+     * @return Número de entradas, potencia de dos.
+     */
+    private static int entriesFor(int capacity) {
+        return Integer.highestOneBit(Math.max(1, capacity * 2 - 1)) << 1;
+    }
+
+    /**
+     * Proyecta un archivo en memoria con el tamaño indicado.
+     *
+     * @param file Archivo.
+     * @param size Tamaño en bytes.
+     * @return Proyección del archivo.
+     * @throws IOException Si no se puede abrir o proyectar.
+     */
+    private static MappedByteBuffer map(Path file, int size) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE,
+                StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            return channel.map(FileChannel.MapMode.READ_WRITE, 0, size); // La proyección sobrevive al canal
+        }
+    }
+
+    private static int offsetOf(int entry) {
+        return HEADER_SIZE + entry * Integer.BYTES;
+    }
+}
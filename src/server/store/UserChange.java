@@ -0,0 +1,128 @@
+package server.store;
+
+import common.model.User;
+
+import java.util.Map;
+
+/**
+ * Cambio de un usuario tal como se guarda en el registro de usuarios: un alta o un
+ * incremento de sus estadísticas.
+ *
+ * @param type     Tipo de cambio.
+ * @param username Nombre del usuario.
+ * @param password Contraseña, solo en las altas.
+ * @param amount   Puntos ganados, partidas ganadas o partidas perdidas.
+ * @see UserLog
+ */
+public record UserChange(Type type, String username, String password, int amount) {
+    /**
+     * Tipos de cambio de un usuario.
+     */
+    public enum Type {
+        REGISTER(1), // Alta de un usuario.
+        SCORE(2), // Puntos sumados a la puntuación.
+        WIN(3), // Partida ganada.
+        DEFEAT(4); // Partida perdida.
+
+        private final int code; // Código con el que se escribe en el registro.
+
+        Type(int code) {
+            this.code = code;
+        }
+
+        public int getCode() {
+            return code;
+        }
+
+        /**
+         * Obtiene el tipo correspondiente a un código del registro.
+         *
+         * @param code Código leído.
+         * @return Tipo de cambio.
+         * @throws IllegalArgumentException Si el código no corresponde a ningún tipo.
+         */
+        public static Type fromCode(int code) {
+            for (Type type : values()) {
+                if (type.code == code) {
+                    return type;
+                }
+            }
+            throw new IllegalArgumentException("Tipo de cambio de usuario desconocido: " + code);
+        }
+    }
+
+    /**
+     * Crea el alta de un usuario.
+     *
+     * @param username Nombre del usuario.
+     * @param password Contraseña del usuario.
+     * @return Cambio de alta.
+     */
+    public static UserChange register(String username, String password) {
+        return new UserChange(Type.REGISTER, username, password, 0);
+    }
+
+    /**
+     * Crea un incremento de la puntuación de un usuario.
+     *
+     * @param username Nombre del usuario.
+     * @param points   Puntos sumados.
+     * @return Cambio de puntuación.
+     */
+    public static UserChange score(String username, int points) {
+        return new UserChange(Type.SCORE, username, null, points);
+    }
+
+    /**
+     * Crea una partida ganada por un usuario.
+     *
+     * @param username Nombre del usuario.
+     * @return Cambio de victoria.
+     */
+    public static UserChange win(String username) {
+        return new UserChange(Type.WIN, username, null, 1);
+    }
+
+    /**
+     * Crea una partida perdida por un usuario.
+     *
+     * @param username Nombre del usuario.
+     * @return Cambio de derrota.
+     */
+    public static UserChange defeat(String username) {
+        return new UserChange(Type.DEFEAT, username, null, 1);
+    }
+
+    /**
+     * Aplica el cambio sobre un conjunto de usuarios. Los cambios de usuarios que no existen
+     * se ignoran, igual que las altas de usuarios que ya existen.
+     *
+     * @param users Usuarios indexados por su nombre.
+     */
+    public void applyTo(Map<String, User> users) {
+        if (type == Type.REGISTER) {
+            users.putIfAbsent(username, new User(username, password));
+            return;
+        }
+
+        User user = users.get(username);
+        if (user != null) {
+            applyTo(user);
+        }
+    }
+
+    /**
+     * Aplica un cambio de estadísticas sobre un usuario.
+     *
+     * @param user Usuario al que corresponde el cambio.
+     * @throws IllegalStateException Si el cambio es un alta.
+     */
+    public void applyTo(User user) {
+        switch (type) {
+            case SCORE -> user.addScore(amount);
+            case WIN -> user.win(amount);
+            case DEFEAT -> user.defeat(amount);
+            default -> throw new IllegalStateException("Tipo de cambio no aplicable: " + type);
+        }
+    }
+}
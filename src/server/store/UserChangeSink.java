@@ -0,0 +1,58 @@
+package server.store;
+
+import java.io.Closeable;
+import java.io.IOException;
+
+/**
+ * Destino en el que el {@link GroupCommitWriter} escribe los lotes de cambios de usuarios.
+ * <p>
+ * El escritor llama a estos métodos siempre desde un único hilo, así que las implementaciones
+ * no necesitan protegerlos frente a llamadas simultáneas entre sí.
+ * </p>
+ *
+ * @see UserStore
+ */
+public interface UserChangeSink extends Closeable {
+    /**
+     * Añade un cambio al lote en curso.
+     *
+     * @param change Cambio de un usuario.
+     * @throws IOException Si falla la escritura.
+     */
+    void append(UserChange change) throws IOException;
+
+    /**
+     * Termina el lote en curso: envía al sistema operativo lo añadido y, si se pide, espera a
+     * que esté en el disco.
+     *
+     * @param fsync Si hay que esperar a que los cambios estén en el disco.
+     * @throws IOException Si falla la escritura.
+     */
+    void commit(boolean fsync) throws IOException;
+
+    /**
+     * Prepara el destino para seguir escribiendo tras un lote que ha fallado, descartando lo
+     * que se hubiera llegado a escribir de ese lote.
+     *
+     * @throws IOException Si el destino no se puede recuperar.
+     */
+    default void rollOver() throws IOException {
+    }
+
+    /**
+     * Indica si se han escrito suficientes cambios como para compactarlos.
+     *
+     * @return {@code true} si conviene llamar a {@link #compact()}.
+     */
+    default boolean needsCompaction() {
+        return false;
+    }
+
+    /**
+     * Compacta los cambios escritos hasta ahora.
+     *
+     * @throws IOException Si falla la compactación.
+     */
+    default void compact() throws IOException {
+    }
+}
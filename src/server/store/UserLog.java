@@ -0,0 +1,358 @@
+package server.store;
+
+import common.logger.CustomLogger;
+import common.model.User;
+
+import java.io.*;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Almacenamiento de los usuarios en una instantánea y un registro de cambios de solo añadido.
+ * <p>
+ * La instantánea es el archivo de usuarios de siempre, en formato CSV
+ * ({@code username,password,score,wins,defeats}), con una primera línea que indica su
+ * generación. Cada cambio posterior se añade como un registro binario compacto al final del
+ * registro activo ({@code users.<generación>.log}), sin reescribir nada.
+ * </p>
+ * <p>
+ * Al compactar, las nuevas escrituras pasan a un registro de la siguiente generación, se
+ * construye una instantánea nueva a partir de la anterior y de los registros cerrados, se
+ * sustituye de forma atómica y se borran esos registros. Una instantánea de generación
+ * {@code N} incluye todos los registros de generación menor que {@code N}, de modo que una
+ * caída en cualquier punto deja los datos consistentes.
+ * </p>
+ * <p>
+ * Un registro que termina con un cambio a medio escribir se lee hasta el último cambio
+ * completo. Esta clase no es segura para hilos: tras {@link #load()}, solo debe usarla el hilo
+ * que escribe los cambios.
+ * </p>
+ *
+ * @see UserChange
+ */
+public class UserLog implements Closeable {
+    private static final Logger logger = CustomLogger.getLogger(UserLog.class.getName());
+    private static final String GENERATION_HEADER = "# generacion "; // Prefijo de la línea de generación de la instantánea.
+
+    private final Path snapshot; // Archivo de la instantánea.
+    private final Pattern logName; // Nombre de los registros de cambios, con la generación como grupo.
+    private final String baseName; // Nombre de la instantánea sin extensión.
+    private long generation; // Generación del registro activo.
+    private FileOutputStream file; // Archivo del registro activo.
+    private DataOutputStream output; // Registro activo.
+    private long recordCount; // Cambios escritos desde la última instantánea.
+    private long committedLength; // Bytes del registro activo que pertenecen a lotes confirmados.
+    private long committedRecords; // Cambios confirmados desde la última instantánea.
+
+    /**
+     * Crea el almacenamiento a partir de la ruta de la instantánea. Los registros de cambios
+     * se guardan en el mismo directorio.
+     *
+     * @param snapshotPath Ruta de la instantánea.
+     */
+    public UserLog(String snapshotPath) {
+        this.snapshot = Path.of(snapshotPath).toAbsolutePath();
+        String name = snapshot.getFileName().toString();
+        int dot = name.lastIndexOf('.');
+        this.baseName = dot > 0 ? name.substring(0, dot) : name;
+        this.logName = Pattern.compile(Pattern.quote(baseName) + "\\.(\\d+)\\.log");
+    }
+
+    /**
+     * Carga los usuarios de la instantánea, aplica los registros de cambios posteriores y abre
+     * un registro nuevo para los siguientes cambios.
+     *
+     * @return Usuarios indexados por su nombre.
+     * @throws IOException Si no se pueden leer los archivos o abrir el registro.
+     */
+    public Map<String, User> load() throws IOException {
+        Map<String, User> users = new LinkedHashMap<>();
+        long snapshotGeneration = readSnapshot(users);
+        long last = snapshotGeneration - 1;
+        for (long logGeneration : listGenerations()) {
+            if (logGeneration < snapshotGeneration || Files.size(logPath(logGeneration)) == 0) {
+                Files.deleteIfExists(logPath(logGeneration)); // Ya incluido en la instantánea, o vacío
+                continue;
+            }
+            recordCount += replay(logGeneration, users);
+            last = logGeneration;
+        }
+
+        // Nunca se sigue escribiendo un registro anterior, que podría acabar en un cambio incompleto.
+        open(last + 1);
+        return users;
+    }
+
+    /**
+     * Añade un cambio al registro activo. El cambio queda en el buffer hasta {@link #flush()}
+     * y no es duradero hasta {@link #sync()}.
+     *
+     * @param change Cambio de un usuario.
+     * @throws IOException Si falla la escritura.
+     */
+    public void append(UserChange change) throws IOException {
+        output.writeByte(change.type().getCode());
+        output.writeUTF(change.username());
+        switch (change.type()) {
+            case REGISTER -> output.writeUTF(change.password());
+            case SCORE -> output.writeInt(change.amount());
+            default -> {
+                // Las victorias y las derrotas no tienen más datos.
+            }
+        }
+        recordCount++;
+    }
+
+    /**
+     * Envía al sistema operativo los cambios añadidos.
+     *
+     * @throws IOException Si falla la escritura.
+     */
+    public void flush() throws IOException {
+        output.flush();
+    }
+
+    /**
+     * Espera a que los cambios enviados con {@link #flush()} estén en el disco.
+     *
+     * @throws IOException Si falla la sincronización.
+     */
+    public void sync() throws IOException {
+        file.getChannel().force(false);
+    }
+
+    /**
+     * Marca como confirmado todo lo escrito hasta ahora en el registro activo, de modo que
+     * {@link #rollOver()} ya no lo descarte.
+     *
+     * @throws IOException Si no se puede consultar el tamaño del registro.
+     */
+    public void markCommitted() throws IOException {
+        committedLength = file.getChannel().size();
+        committedRecords = recordCount;
+    }
+
+    /**
+     * Obtiene el número de cambios escritos desde la última instantánea.
+     *
+     * @return Cambios pendientes de compactar.
+     */
+    public long getRecordCount() {
+        return recordCount;
+    }
+
+    /**
+     * Sustituye la instantánea por una que incluye todos los cambios escritos hasta ahora y
+     * borra los registros que ya incluye.
+     *
+     * @throws IOException Si no se puede escribir la instantánea.
+     */
+    public void compact() throws IOException {
+        long compacted = generation;
+        output.close();
+        open(generation + 1); // Las escrituras siguientes van a un registro que no se compacta ahora
+
+        Map<String, User> users = new LinkedHashMap<>();
+        long from = readSnapshot(users);
+        for (long logGeneration : listGenerations()) {
+            if (logGeneration >= from && logGeneration <= compacted) {
+                replay(logGeneration, users);
+            }
+        }
+        writeSnapshot(users, compacted + 1);
+
+        for (long logGeneration : listGenerations()) {
+            if (logGeneration <= compacted) {
+                Files.deleteIfExists(logPath(logGeneration));
+            }
+        }
+        recordCount = 0;
+        committedRecords = 0;
+        logger.log(Level.INFO, "Instantánea de {0} usuarios escrita en la generación {1}",
+                new Object[]{users.size(), compacted + 1});
+    }
+
+    /**
+     * Cierra el registro activo y empieza uno nuevo. Se usa tras un error de escritura, para
+     * que los cambios siguientes no queden detrás de un cambio incompleto.
+     * <p>
+     * Antes se recorta el registro activo hasta el último lote confirmado: la parte del lote
+     * fallido que hubiera llegado al sistema operativo no debe volver a aplicarse al cargar.
+     * </p>
+     *
+     * @throws IOException Si no se puede recortar el registro o crear el nuevo.
+     */
+    public void rollOver() throws IOException {
+        try {
+            output.close();
+        } catch (IOException ignored) {
+            // El registro anterior ya no se va a usar.
+        }
+        try (FileChannel channel = FileChannel.open(logPath(generation), StandardOpenOption.WRITE)) {
+            channel.truncate(committedLength);
+            channel.force(false);
+            recordCount = committedRecords;
+        } finally {
+            open(generation + 1);
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (output != null) {
+            output.close();
+        }
+    }
+
+    /**
+     * Abre un registro nuevo como registro activo.
+     *
+     * @param logGeneration Generación del registro.
+     * @throws IOException Si no se puede crear el archivo.
+     */
+    private void open(long logGeneration) throws IOException {
+        generation = logGeneration;
+        file = new FileOutputStream(logPath(logGeneration).toFile(), true);
+        output = new DataOutputStream(new BufferedOutputStream(file, 16 * 1024));
+        committedLength = file.getChannel().size();
+        committedRecords = recordCount;
+    }
+
+    /**
+     * Lee la instantánea.
+     *
+     * @param users Mapa en el que se añaden los usuarios leídos.
+     * @return Generación de la instantánea, o 0 si no existe o no la indica.
+     * @throws IOException Si no se puede leer el archivo.
+     */
+    private long readSnapshot(Map<String, User> users) throws IOException {
+        // Si el archivo no existe, no hay usuarios que cargar
+        if (!Files.exists(snapshot)) {
+            return 0;
+        }
+
+        long snapshotGeneration = 0;
+        try (BufferedReader reader = new BufferedReader(new FileReader(snapshot.toFile()))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.startsWith(GENERATION_HEADER)) {
+                    snapshotGeneration = Long.parseLong(line.substring(GENERATION_HEADER.length()).trim());
+                    continue;
+                }
+
+                // Se espera que cada línea tenga exactamente 5 valores
+                String[] parts = line.split(",");
+                if (parts.length == 5) {
+                    User user = new User(parts[0], parts[1]);
+                    user.addScore(Integer.parseInt(parts[2]));
+                    user.win(Integer.parseInt(parts[3]));
+                    user.defeat(Integer.parseInt(parts[4]));
+                    users.put(user.getUsername(), user);
+                }
+            }
+        }
+        return snapshotGeneration;
+    }
+
+    /**
+     * Escribe una instantánea en un archivo temporal, la lleva al disco y sustituye con ella
+     * la anterior de forma atómica.
+     *
+     * @param users              Usuarios a guardar.
+     * @param snapshotGeneration Generación de la instantánea.
+     * @throws IOException Si falla la escritura.
+     */
+    private void writeSnapshot(Map<String, User> users, long snapshotGeneration) throws IOException {
+        Path temporary = snapshot.resolveSibling(snapshot.getFileName() + ".tmp");
+        try (FileOutputStream temporaryFile = new FileOutputStream(temporary.toFile());
+             BufferedWriter writer = new BufferedWriter(new OutputStreamWriter(temporaryFile))) {
+            writer.write(GENERATION_HEADER + snapshotGeneration);
+            writer.newLine();
+            for (User user : users.values()) {
+                writer.write(user.getUsername() + ","
+                        + user.getPassword() + ","
+                        + user.getScore() + ","
+                        + user.getWins() + ","
+                        + user.getDefeats());
+                writer.newLine();
+            }
+            writer.flush();
+            temporaryFile.getFD().sync();
+        }
+        Files.move(temporary, snapshot, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * Aplica los cambios de un registro.
+     *
+     * @param logGeneration Generación del registro.
+     * @param users         Usuarios sobre los que se aplican los cambios.
+     * @return Número de cambios aplicados.
+     * @throws IOException Si no se puede leer el archivo.
+     */
+    private int replay(long logGeneration, Map<String, User> users) throws IOException {
+        int applied = 0;
+        try (DataInputStream input = new DataInputStream(new BufferedInputStream(
+                new FileInputStream(logPath(logGeneration).toFile())))) {
+            int code;
+            while ((code = input.read()) >= 0) {
+                UserChange.Type type = UserChange.Type.fromCode(code);
+                String username = input.readUTF();
+                UserChange change = switch (type) {
+                    case REGISTER -> UserChange.register(username, input.readUTF());
+                    case SCORE -> UserChange.score(username, input.readInt());
+                    case WIN -> UserChange.win(username);
+                    case DEFEAT -> UserChange.defeat(username);
+                };
+                change.applyTo(users);
+                applied++;
+            }
+        } catch (EOFException | IllegalArgumentException e) {
+            logger.log(Level.WARNING, "El registro {0} termina con un cambio incompleto; se ignora",
+                    logPath(logGeneration).getFileName());
+        }
+        return applied;
+    }
+
+    /**
+     * Obtiene las generaciones de los registros de cambios existentes, en orden.
+     *
+     * @return Generaciones ordenadas de menor a mayor.
+     * @throws IOException Si no se puede leer el directorio.
+     */
+    private List<Long> listGenerations() throws IOException {
+        List<Long> generations = new ArrayList<>();
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(snapshot.getParent(), baseName + ".*.log")) {
+            for (Path file : files) {
+                Matcher matcher = logName.matcher(file.getFileName().toString());
+                if (matcher.matches()) {
+                    generations.add(Long.parseLong(matcher.group(1)));
+                }
+            }
+        }
+        generations.sort(null);
+        return generations;
+    }
+
+    /**
+     * Obtiene la ruta del registro de una generación.
+     *
+     * @param logGeneration Generación del registro.
+     * @return Ruta del registro.
+     */
+    private Path logPath(long logGeneration) {
+        return snapshot.resolveSibling(baseName + "." + logGeneration + ".log");
+    }
+}
@@ -0,0 +1,61 @@
+package server.store;
+
+import common.model.User;
+
+/**
+ * Almacén de las cuentas de los usuarios.
+ * <p>
+ * El almacén responde a las consultas y aplica cada cambio en el acto, de modo que se ve
+ * inmediatamente; el {@link GroupCommitWriter} se encarga después de hacerlo duradero a través
+ * de los métodos de {@link UserChangeSink}. Todos los métodos propios de esta interfaz pueden
+ * llamarse desde varios hilos a la vez.
+ * </p>
+ *
+ * @see UserStoreType
+ */
+public interface UserStore extends UserChangeSink {
+    /**
+     * Busca un usuario por su nombre.
+     *
+     * @param username Nombre de usuario.
+     * @return Usuario, o {@code null} si no existe.
+     */
+    User find(String username);
+
+    /**
+     * Da de alta un usuario. La comprobación y el alta son una única operación atómica.
+     *
+     * @param username Nombre de usuario.
+     * @param password Contraseña del usuario.
+     * @return {@code true} si se ha dado de alta, {@code false} si ya existía.
+     * @throws IllegalArgumentException Si el almacén no puede guardar esas credenciales.
+     */
+    boolean create(String username, String password);
+
+    /**
+     * Deshace un alta cuyo cambio no se ha podido llevar al disco, para que el nombre vuelva a
+     * estar libre.
+     *
+     * @param username Nombre del usuario dado de alta.
+     */
+    void remove(String username);
+
+    /**
+     * Aplica un cambio de estadísticas a un usuario obtenido de este almacén.
+     *
+     * @param user   Usuario al que corresponde el cambio.
+     * @param change Cambio de puntuación, victoria o derrota.
+     */
+    void apply(User user, UserChange change);
+
+    /**
+     * Indica si el almacén puede guardar unas credenciales.
+     *
+     * @param username Nombre de usuario.
+     * @param password Contraseña del usuario.
+     * @return {@code true} si caben en el almacén.
+     */
+    default boolean accepts(String username, String password) {
+        return true;
+    }
+}
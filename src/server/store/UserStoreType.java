@@ -0,0 +1,23 @@
+package server.store;
+
+/**
+ * Formas disponibles de guardar las cuentas de los usuarios.
+ *
+ * @see UserStore
+ */
+public enum UserStoreType {
+    LOG, // Usuarios en memoria, con una instantánea CSV y un registro de cambios de solo añadido.
+    MAPPED, // Registros de ancho fijo en un archivo proyectado en memoria, modificados en el sitio.
+    CACHED; // Registros proyectados con el índice en un archivo y solo los usuarios en uso en memoria.
+
+    /**
+     * Obtiene el tipo de almacén a partir de su nombre, sin distinguir mayúsculas.
+     *
+     * @param name Nombre del tipo.
+     * @return Tipo correspondiente.
+     * @throws IllegalArgumentException Si el nombre no corresponde a ningún tipo.
+     */
+    public static UserStoreType fromName(String name) {
+        return UserStoreType.valueOf(name.trim().toUpperCase());
+    }
+}
@@ -1,6 +1,8 @@
 package server.thread;
 
 import common.logger.CustomLogger;
+import server.buffer.PooledOutputStream;
+import server.message.EncodedMessage;
 
 import java.io.*;
 import java.net.InetAddress;
@@ -19,12 +21,16 @@ import java.util.logging.Logger;
  * @see Worker
  * @see ClientHandler
  */
-public abstract class AbstractWorker extends Thread implements Worker {
+public abstract class AbstractWorker implements Runnable, Worker {
     protected static final Logger logger = CustomLogger.getLogger(AbstractWorker.class.getName());
+    private static final int OUTPUT_CHUNK_SIZE = 4 * 1024; // Capacidad de los buffers de salida prestados.
     protected final Socket socket; // Socket de comunicación con el cliente.
-    protected BufferedReader input; // Lector de entrada del socket para recibir datos del cliente.
-    protected PrintWriter output; // Escritor de salida del socket para enviar datos al cliente.
+    protected InputStream input; // Flujo de entrada del socket para recibir datos del cliente.
+    protected OutputStream outputStream; // Flujo de bytes de salida hacia el cliente.
+    protected BatchedPrintWriter output; // Escritor de salida del socket para enviar datos al cliente.
     protected boolean isRunning = true; // Indica si el trabajador sigue en ejecución.
+    private final Object runnerLock = new Object(); // Protege el hilo que atiende la conexión.
+    private Thread runner; // Hilo que está atendiendo la conexión, o null si no la atiende ninguno.
 
     /**
      * Constructor que inicializa el trabajador con un socket específico.
@@ -39,14 +45,24 @@ public abstract class AbstractWorker extends Thread implements Worker {
      * Método que se ejecuta en un hilo independiente para gestionar la conexión del cliente.
      * <p>
      * Inicializa los flujos de entrada y salida y llama al método {@link #listen()}
-     * para manejar la comunicación específica de la implementación concreta.
+     * para manejar la comunicación específica de la implementación concreta. La salida es
+     * un {@link BatchedPrintWriter}, que acumula la respuesta de cada comando y la envía
+     * en una sola escritura. Los bytes se acumulan en buffers prestados por la reserva
+     * común, por lo que una conexión inactiva no retiene memoria de salida.
+     * </p>
+     * <p>
+     * El trabajador no es un hilo: se ejecuta en el que le asigne el servidor, que se recuerda
+     * mientras dura la conexión para poder interrumpirlo al cerrarla.
      * </p>
      */
     @Override
     public void run() {
+        synchronized (runnerLock) {
+            runner = Thread.currentThread();
+        }
         try {
-            input = new BufferedReader(new InputStreamReader(socket.getInputStream()));
-            output = new PrintWriter(socket.getOutputStream(), true);
+            input = socket.getInputStream();
+            attachOutputStream(createOutputStream(socket.getOutputStream()));
 
             listen(); // Llama al método abstracto que debe implementar cada subclase.
 
@@ -56,6 +72,10 @@ public abstract class AbstractWorker extends Thread implements Worker {
             logger.log(Level.SEVERE, "Error al gestionar la entrada del cliente: " + e.getMessage());
         } finally {
             closeConnection();
+            synchronized (runnerLock) {
+                runner = null;
+            }
+            Thread.interrupted(); // El hilo vuelve a su ejecutor sin la interrupción del cierre.
         }
     }
 
@@ -77,7 +97,18 @@ public abstract class AbstractWorker extends Thread implements Worker {
         } catch (IOException e) {
             logger.severe("Error al cerrar conexión: " + e.getMessage());
         } finally {
-            this.interrupt();
+            interruptRunner();
+        }
+    }
+
+    /**
+     * Interrumpe el hilo que atiende la conexión, si es otro, para que abandone cualquier espera.
+     */
+    private void interruptRunner() {
+        synchronized (runnerLock) {
+            if (runner != null && runner != Thread.currentThread()) {
+                runner.interrupt();
+            }
         }
     }
 
@@ -92,6 +123,17 @@ public abstract class AbstractWorker extends Thread implements Worker {
         output.println(message);
     }
 
+    /**
+     * Envía un mensaje del catálogo tanto al cliente como al log del servidor.
+     *
+     * @param level   Nivel de log del mensaje.
+     * @param message Mensaje codificado a enviar.
+     */
+    public void sendMessageBoth(Level level, EncodedMessage message) {
+        logger.log(level, message.getText());
+        output.println(message);
+    }
+
     /**
      * Devuelve la dirección IP del cliente conectado.
      *
@@ -110,21 +152,60 @@ public abstract class AbstractWorker extends Thread implements Worker {
         this.isRunning = running;
     }
 
+    /**
+     * Indica si el trabajador sigue en ejecución.
+     *
+     * @return `true` si el trabajador sigue activo, `false` si se ha solicitado su parada.
+     */
+    public boolean isRunning() {
+        return isRunning;
+    }
+
+    /**
+     * Crea el flujo de bytes de salida hacia el cliente sobre el flujo del socket. Por defecto
+     * escribe en el socket al vaciarse, en el hilo que vacía el flujo.
+     *
+     * @param socketOutput Flujo de salida del socket.
+     * @return Flujo de salida con buffers prestados.
+     */
+    protected OutputStream createOutputStream(OutputStream socketOutput) {
+        return PooledOutputStream.forStream(socketOutput, OUTPUT_CHUNK_SIZE);
+    }
+
+    /**
+     * Asocia al trabajador el flujo de bytes de salida hacia el cliente y crea sobre él el
+     * escritor de texto.
+     * <p>
+     * También lo utilizan las conexiones que no se atienden desde {@link #run()}, como las
+     * del servidor NIO, cuyo flujo de salida escribe sobre un canal no bloqueante.
+     * </p>
+     *
+     * @param outputStream Flujo de bytes de salida hacia el cliente.
+     */
+    public void attachOutputStream(OutputStream outputStream) {
+        this.outputStream = outputStream;
+        this.output = new BatchedPrintWriter(new Utf8Writer(outputStream));
+    }
+
     /**
      * Obtiene el flujo de salida del cliente.
      *
-     * @return Objeto {@link PrintWriter} para enviar datos al cliente.
+     * @return Objeto {@link BatchedPrintWriter} para enviar datos al cliente.
      */
-    public PrintWriter getOutput() {
+    public BatchedPrintWriter getOutput() {
         return output;
     }
 
     /**
      * Obtiene el flujo de entrada del cliente.
+     * <p>
+     * Es un flujo de bytes sin decodificar: las subclases deciden cómo separar las líneas
+     * para poder procesar de una vez todas las que ya se han recibido.
+     * </p>
      *
-     * @return Objeto {@link BufferedReader} para recibir datos del cliente.
+     * @return Objeto {@link InputStream} para recibir datos del cliente.
      */
-    public BufferedReader getInput() {
+    public InputStream getInput() {
         return input;
     }
 }
@@ -0,0 +1,230 @@
+package server.thread;
+
+import common.logger.CustomLogger;
+import server.buffer.BufferPool;
+import server.buffer.OutboundQueue;
+import server.buffer.PooledBuffer;
+import server.buffer.PooledOutputStream;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Flujo de salida de un socket bloqueante que envía los mensajes de forma asíncrona.
+ * <p>
+ * Quien escribe (el hilo del propio cliente o el de otro jugador que difunde un mensaje a la
+ * sala) solo deposita el mensaje en la {@link OutboundQueue} de la conexión y vuelve; un hilo
+ * escritor compartido lo envía después. Así, un cliente que no lee su socket no bloquea al
+ * resto de jugadores: su cola crece hasta la marca de nivel alto y se le aplica la política
+ * configurada. Si la política es desconectarlo, el cierre se realiza en el hilo escritor, nunca
+ * en el de quien estaba difundiendo.
+ * </p>
+ * <p>
+ * Los escritores son hilos virtuales si la JVM los soporta, de modo que un envío bloqueado no
+ * retiene un hilo del sistema. Además, un envío que sigue bloqueado pasado el plazo de escritura
+ * se trata como un desbordamiento de la cola: se desconecta al cliente y el cierre del socket
+ * libera al escritor.
+ * </p>
+ * <p>
+ * El cierre ordenado espera a que se envíe lo pendiente, con un plazo máximo de
+ * {@link #CLOSE_TIMEOUT_SECONDS} segundos tras el que se cierra el socket igualmente.
+ * </p>
+ *
+ * @see OutboundQueue
+ * @see ClientHandler
+ */
+class AsyncSocketOutputStream extends PooledOutputStream {
+    private static final Logger logger = CustomLogger.getLogger(AsyncSocketOutputStream.class.getName());
+    private static final int CHUNK_SIZE = 4 * 1024; // Capacidad de los buffers de salida prestados.
+    private static final int CLOSE_TIMEOUT_SECONDS = 5; // Espera máxima para enviar lo pendiente al cerrar.
+    private static final AtomicInteger writerCount = new AtomicInteger(); // Numeración de los hilos escritores.
+    private static final int VIRTUAL_THREADS_VERSION = 21; // Primera versión de Java con hilos virtuales estables.
+    private static final ExecutorService writers = createWriters(); // Hilos que envían las colas de salida.
+    private static final HashedWheelTimer closeTimer =
+            new HashedWheelTimer("hanged-writer-timer", 100, TimeUnit.MILLISECONDS, 64); // Plazos de cierre y de escritura.
+
+    private final OutputStream target; // Flujo del socket.
+    private final OutboundQueue queue; // Mensajes pendientes de envío.
+    private final ClientHandler client; // Cliente al que pertenece la conexión.
+    private final long writeTimeoutMillis; // Espera máxima de un envío bloqueado, o 0 si no hay límite.
+    private final AtomicBoolean drainScheduled = new AtomicBoolean(); // Evita lanzar varios escritores a la vez.
+    private final AtomicReference<Runnable> closeAction = new AtomicReference<>(); // Cierre pendiente de ejecutar.
+
+    /**
+     * Crea un flujo asíncrono sobre el flujo de un socket.
+     *
+     * @param target Flujo del socket.
+     * @param queue  Cola de salida de la conexión.
+     * @param client              Cliente al que pertenece la conexión.
+     * @param writeTimeoutSeconds Segundos que puede quedar bloqueado un envío; 0 para no limitarlo.
+     */
+    AsyncSocketOutputStream(OutputStream target, OutboundQueue queue, ClientHandler client, int writeTimeoutSeconds) {
+        super(BufferPool.heap(), CHUNK_SIZE);
+        this.target = target;
+        this.queue = queue;
+        this.client = client;
+        this.writeTimeoutMillis = TimeUnit.SECONDS.toMillis(writeTimeoutSeconds);
+    }
+
+    /**
+     * Crea el ejecutor de los escritores: hilos virtuales si la JVM los soporta y, si no, hilos
+     * del sistema que se reutilizan.
+     *
+     * @return Ejecutor de los escritores.
+     */
+    private static ExecutorService createWriters() {
+        if (Runtime.version().feature() >= VIRTUAL_THREADS_VERSION) {
+            ExecutorService virtualWriters = VirtualThreads.newExecutor();
+            if (virtualWriters != null) {
+                return virtualWriters;
+            }
+        }
+        return Executors.newCachedThreadPool(task -> {
+            Thread writer = new Thread(task, "hanged-writer-" + writerCount.incrementAndGet());
+            writer.setDaemon(true);
+            return writer;
+        });
+    }
+
+    @Override
+    protected void emit(PooledBuffer filled) {
+        queue.append(filled);
+    }
+
+    @Override
+    protected void flushEmitted() {
+        OutboundQueue.Result result = queue.commit();
+        if (result != OutboundQueue.Result.QUEUED && result != OutboundQueue.Result.CLOSED) {
+            client.recordOutboundOverflow(result, queue.getQueuedBytes());
+        }
+        if (result == OutboundQueue.Result.OVERFLOW) {
+            // Se desconecta fuera de este hilo, que puede estar recorriendo los jugadores de una sala.
+            writers.execute(this::abort);
+            return;
+        }
+        scheduleDrain();
+    }
+
+    /**
+     * Cierra el socket en cuanto se haya enviado la salida pendiente, o al agotarse el plazo
+     * de cierre.
+     *
+     * @param action Acción que cierra el socket.
+     */
+    void closeAfterDrain(Runnable action) {
+        if (!closeAction.compareAndSet(null, action)) {
+            return;
+        }
+        if (queue.isClosed()) {
+            runCloseAction(); // Ya no hay nada que enviar: se cierra sin esperar al escritor.
+            return;
+        }
+        closeTimer.newTimeout(this::runCloseAction, CLOSE_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+        scheduleDrain();
+    }
+
+    /**
+     * Descarta la salida pendiente y desconecta al cliente.
+     */
+    private void abort() {
+        queue.close();
+        client.disconnect();
+    }
+
+    /**
+     * Desconecta al cliente porque un envío lleva bloqueado todo el plazo de escritura.
+     */
+    private void writeTimedOut() {
+        if (queue.isClosed()) {
+            return;
+        }
+        client.recordOutboundOverflow(OutboundQueue.Result.OVERFLOW, queue.getQueuedBytes());
+        abort();
+    }
+
+    /**
+     * Lanza el hilo escritor si no hay ya uno enviando la cola.
+     */
+    private void scheduleDrain() {
+        if (drainScheduled.compareAndSet(false, true)) {
+            writers.execute(this::drain);
+        }
+    }
+
+    /**
+     * Envía la cola de salida hasta vaciarla. Si entretanto se han encolado más mensajes, el
+     * escritor continúa con ellos.
+     */
+    private void drain() {
+        do {
+            try {
+                ByteBuffer bytes;
+                while ((bytes = queue.beginWrite()) != null) {
+                    HashedWheelTimer.Timeout deadline = startWriteDeadline();
+                    try {
+                        target.write(bytes.array(), bytes.arrayOffset() + bytes.position(), bytes.remaining());
+                    } finally {
+                        cancel(deadline);
+                    }
+                    queue.endWrite(true);
+                }
+                HashedWheelTimer.Timeout deadline = startWriteDeadline();
+                try {
+                    target.flush();
+                } finally {
+                    cancel(deadline);
+                }
+            } catch (IOException e) {
+                queue.close();
+                queue.endWrite(false);
+                if (!client.isClosed()) {
+                    logger.log(Level.WARNING, "Error de escritura con " + client.getFormatedUser() + ": " + e.getMessage());
+                }
+            }
+            drainScheduled.set(false);
+        } while (!queue.isEmpty() && !queue.isClosed() && drainScheduled.compareAndSet(false, true));
+
+        if (closeAction.get() != null && (queue.isEmpty() || queue.isClosed())) {
+            runCloseAction();
+        }
+    }
+
+    /**
+     * Programa la desconexión del cliente si el envío que empieza no termina a tiempo.
+     *
+     * @return Plazo programado, o {@code null} si no hay límite.
+     */
+    private HashedWheelTimer.Timeout startWriteDeadline() {
+        if (writeTimeoutMillis == 0) {
+            return null;
+        }
+        return closeTimer.newTimeout(this::writeTimedOut, writeTimeoutMillis, TimeUnit.MILLISECONDS);
+    }
+
+    private static void cancel(HashedWheelTimer.Timeout deadline) {
+        if (deadline != null) {
+            deadline.cancel();
+        }
+    }
+
+    /**
+     * Ejecuta el cierre pendiente, una sola vez.
+     */
+    private void runCloseAction() {
+        Runnable action = closeAction.getAndSet(null);
+        if (action == null) {
+            return;
+        }
+        queue.close();
+        action.run();
+    }
+}
@@ -0,0 +1,234 @@
+package server.thread;
+
+import server.message.EncodedMessage;
+import server.message.MessageTemplate;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Escritor de salida hacia un cliente que agrupa sus vaciados por lote de respuesta.
+ * <p>
+ * Sustituye al {@link PrintWriter} con vaciado automático, que realizaba una llamada al
+ * sistema por cada {@code println}. Dentro de un {@link OutputBatch} abierto, las escrituras
+ * solo se acumulan y el lote vacía el escritor una única vez al terminar el comando. Fuera de
+ * un lote se mantiene el comportamiento anterior: cada {@code println} vacía la salida.
+ * </p>
+ * <p>
+ * Además, permite etiquetar las líneas de respuesta con el identificador de petición que
+ * envía el cliente al encadenar comandos. La etiqueta solo se aplica a las líneas escritas
+ * por el hilo que la estableció, de modo que los mensajes que otros jugadores difunden a la
+ * vez en la misma conexión no se confunden con la respuesta.
+ * </p>
+ *
+ * @see OutputBatch
+ */
+public class BatchedPrintWriter extends PrintWriter {
+    private volatile String tag; // Prefijo de las líneas de la respuesta en curso, o null.
+    private volatile Thread tagOwner; // Hilo que escribe la respuesta etiquetada.
+    private boolean atLineStart; // Indica si la siguiente escritura etiquetada empieza una línea.
+
+    /**
+     * Crea un escritor agrupado sobre el escritor indicado.
+     *
+     * @param out Escritor subyacente, que debe acumular los datos hasta su vaciado.
+     */
+    public BatchedPrintWriter(Writer out) {
+        super(out, false);
+    }
+
+    /**
+     * Etiqueta las líneas que escriba el hilo actual hasta llamar a {@link #clearTag()}.
+     *
+     * @param requestId Identificador de petición enviado por el cliente.
+     */
+    public void setTag(String requestId) {
+        synchronized (lock) {
+            tag = requestId + " ";
+            tagOwner = Thread.currentThread();
+            atLineStart = true;
+        }
+    }
+
+    /**
+     * Deja de etiquetar las líneas escritas.
+     */
+    public void clearTag() {
+        synchronized (lock) {
+            tag = null;
+            tagOwner = null;
+        }
+    }
+
+    @Override
+    public void write(int c) {
+        if (isTagging()) {
+            writeTagged(String.valueOf((char) c), 0, 1);
+        } else {
+            super.write(c);
+        }
+        OutputBatch.register(this);
+    }
+
+    @Override
+    public void write(char[] buf, int off, int len) {
+        if (isTagging()) {
+            writeTagged(new String(buf, off, len), 0, len);
+        } else {
+            super.write(buf, off, len);
+        }
+        OutputBatch.register(this);
+    }
+
+    @Override
+    public void write(String s, int off, int len) {
+        if (isTagging()) {
+            writeTagged(s, off, len);
+        } else {
+            super.write(s, off, len);
+        }
+        OutputBatch.register(this);
+    }
+
+    @Override
+    public void println() {
+        // PrintWriter escribe el salto de línea directamente en el escritor subyacente.
+        synchronized (lock) {
+            super.println();
+            if (isTagging()) {
+                atLineStart = true;
+            }
+        }
+        endMessage();
+    }
+
+    /**
+     * Escribe una línea con un mensaje ya codificado.
+     *
+     * @param message Mensaje codificado.
+     */
+    public void println(EncodedMessage message) {
+        synchronized (lock) {
+            writeLineTag();
+            writeEncoded(message.getLine(), 0, message.getLine().length);
+            endLine();
+        }
+        endMessage();
+    }
+
+    /**
+     * Escribe una línea a partir de una plantilla. Solo se codifican los argumentos; el texto
+     * fijo se escribe ya codificado.
+     *
+     * @param template Plantilla de la línea.
+     * @param args     Argumentos de la plantilla.
+     */
+    public void println(MessageTemplate template, Object... args) {
+        synchronized (lock) {
+            writeLineTag();
+            int count = template.getArgumentCount();
+            for (int i = 0; i < count; i++) {
+                byte[] segment = template.getSegment(i);
+                writeEncoded(segment, 0, segment.length);
+                super.write(String.valueOf(args[template.getArgumentIndex(i)]));
+            }
+            byte[] last = template.getSegment(count);
+            writeEncoded(last, 0, last.length);
+            endLine();
+        }
+        endMessage();
+    }
+
+    /**
+     * Escribe la etiqueta de la respuesta si el hilo actual está etiquetando y la siguiente
+     * escritura empieza una línea.
+     */
+    private void writeLineTag() {
+        if (isTagging() && atLineStart) {
+            super.write(tag, 0, tag.length());
+            atLineStart = false;
+        }
+    }
+
+    /**
+     * Indica que se ha escrito un salto de línea con bytes ya codificados.
+     */
+    private void endLine() {
+        if (isTagging()) {
+            atLineStart = true;
+        }
+    }
+
+    /**
+     * Escribe bytes ya codificados en UTF-8. Si el escritor subyacente no admite bytes, se
+     * decodifican y se escriben como texto.
+     *
+     * @param bytes Bytes codificados.
+     * @param off   Posición inicial.
+     * @param len   Número de bytes.
+     */
+    protected void writeEncoded(byte[] bytes, int off, int len) {
+        if (out instanceof Utf8Writer utf8) {
+            try {
+                utf8.writeUtf8(bytes, off, len);
+            } catch (IOException e) {
+                setError();
+            }
+        } else if (out != null) {
+            super.write(new String(bytes, off, len, StandardCharsets.UTF_8));
+        } else {
+            setError();
+        }
+    }
+
+    /**
+     * Marca el final de un mensaje completo: dentro de un lote se apunta el escritor para
+     * vaciarlo al cerrar el lote; fuera de él se vacía inmediatamente.
+     */
+    protected void endMessage() {
+        if (!OutputBatch.register(this)) {
+            flush();
+        }
+    }
+
+    /**
+     * Indica si las escrituras del hilo actual deben etiquetarse.
+     *
+     * @return {@code true} si hay una etiqueta establecida por el hilo actual.
+     */
+    protected boolean isTagging() {
+        return tag != null && tagOwner == Thread.currentThread();
+    }
+
+    /**
+     * Escribe un fragmento de texto anteponiendo la etiqueta al inicio de cada línea.
+     *
+     * @param s   Texto a escribir.
+     * @param off Posición inicial del fragmento.
+     * @param len Longitud del fragmento.
+     */
+    private void writeTagged(String s, int off, int len) {
+        synchronized (lock) {
+            int end = off + len;
+            int start = off;
+            while (start < end) {
+                if (atLineStart) {
+                    super.write(tag, 0, tag.length());
+                    atLineStart = false;
+                }
+
+                int newLine = s.indexOf('\n', start);
+                if (newLine < 0 || newLine >= end) {
+                    super.write(s, start, end - start);
+                    return;
+                }
+
+                super.write(s, start, newLine + 1 - start);
+                atLineStart = true;
+                start = newLine + 1;
+            }
+        }
+    }
+}
@@ -1,12 +1,33 @@
 package server.thread;
 
 import common.game.multiPlayer.HangedRoom;
+import server.buffer.OutboundQueue;
+import server.buffer.PooledOutputStream;
+import server.command.CommandLine;
+import server.ServerConfig;
+import server.protocol.BinaryPrintWriter;
+import server.protocol.BinaryProtocol;
+import server.protocol.FrameDecoder;
+import server.protocol.GameEvents;
+import server.journal.CommandJournal;
+import server.service.ServiceHandle;
 import server.service.ServiceRegister;
 import server.service.services.CommandProcessor;
+import server.service.services.ConnectionReaper;
+import server.service.services.RoomManager;
+import server.service.services.UserManager;
 import common.game.singlePlayer.SinglePlayerHangedGame;
 import common.model.User;
 
+import java.io.OutputStream;
 import java.net.Socket;
+import java.nio.ByteBuffer;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
 import java.util.logging.Level;
 
 /**
@@ -15,6 +36,29 @@ import java.util.logging.Level;
  * Esta clase se encarga de recibir comandos del cliente, procesarlos y gestionar
  * tanto partidas individuales como en grupo.
  * </p>
+ * <p>
+ * Los clientes pueden encadenar varios comandos sin esperar cada respuesta: todas las
+ * líneas completas que ya se han recibido se ejecutan en orden como un único lote y sus
+ * respuestas se envían en una sola escritura. Una línea puede empezar con un identificador
+ * de petición ({@code #<id> /comando ...}); en ese caso cada línea de su respuesta se
+ * devuelve precedida del mismo identificador.
+ * </p>
+ * <p>
+ * Mientras un {@link server.command.AsyncCommand} de la conexión está pendiente, se siguen
+ * recibiendo y acumulando datos, pero el siguiente comando no se ejecuta hasta escribir la
+ * respuesta del anterior. La respuesta y los comandos acumulados se procesan en el contexto de
+ * la conexión, que por defecto es el hilo que completa el comando y en el servidor NIO es su
+ * bucle de eventos.
+ * </p>
+ * <p>
+ * Si el primer byte que envía el cliente es {@link BinaryProtocol#HANDSHAKE}, la conexión
+ * utiliza el protocolo binario compacto en lugar del protocolo de texto.
+ * </p>
+ * <p>
+ * Cada cliente registra el instante de su último comando para que el {@link ConnectionReaper}
+ * pueda desconectarlo si permanece inactivo. Al cerrarse la conexión, por el motivo que sea,
+ * el cliente abandona la sala en la que estuviera.
+ * </p>
  *
  * @see AbstractWorker
  * @see CommandProcessor
@@ -22,9 +66,32 @@ import java.util.logging.Level;
  * @see HangedRoom
  */
 public class ClientHandler extends AbstractWorker {
+    private static final int READ_BUFFER_SIZE = 4 * 1024; // Tamaño del buffer de lectura del socket.
+    private static final int MAX_LINE_LENGTH = 8 * 1024; // Longitud máxima de una línea de comando.
+    private static final int MAX_PENDING_INPUT = 128 * 1024; // Bytes recibidos sin procesar, como máximo, tras un comando asíncrono.
+    private static final int INPUT_PAUSE_THRESHOLD = MAX_PENDING_INPUT / 2; // Bytes sin procesar a partir de los que se deja de leer.
+    private static final char REQUEST_ID_SYMBOL = '#'; // Símbolo que precede al identificador de petición.
+    private static final AtomicLong connectionCount = new AtomicLong(); // Contador de identificadores de conexión.
+    private final long connectionId = connectionCount.incrementAndGet(); // Identificador único de la conexión.
     private final ServiceRegister serviceRegister; // Registro de servicios disponibles en el servidor.
-    private SinglePlayerHangedGame gameSession; // Partida actual del jugador en el modo individual.
-    private HangedRoom currentRoom; // Sala en la que el cliente está participando en el modo multijugador.
+    private final ServiceHandle<CommandProcessor> commandProcessor; // Procesador de los comandos recibidos.
+    private final ServiceHandle<RoomManager> roomManager; // Gestor de las salas multijugador.
+    private final ServiceHandle<UserManager> userManager; // Gestor de los usuarios registrados.
+    private final ServiceHandle<ConnectionReaper> connectionReaper; // Vigilante de la inactividad de las conexiones.
+    private final ServiceHandle<CommandJournal> journal; // Diario de tráfico.
+    private final LineDecoder lineDecoder = new LineDecoder(MAX_LINE_LENGTH); // Decodificador del protocolo de texto.
+    private final CommandLine commandLine = new CommandLine(); // Analizador reutilizable de las líneas de comando.
+    private FrameDecoder frameDecoder; // Decodificador del protocolo binario, si se ha negociado.
+    private boolean protocolNegotiated; // Indica si ya se ha recibido el primer byte de la conexión.
+    private final AtomicBoolean closed = new AtomicBoolean(); // Indica si la conexión ya se ha cerrado.
+    private volatile long lastActivity = System.nanoTime(); // Instante del último dato recibido del cliente.
+    private Runnable disconnectHandler = this::closeConnection; // Acción que cierra la conexión desde otro hilo.
+    private Executor resumeExecutor = Runnable::run; // Contexto en el que se reanuda la conexión tras un comando asíncrono.
+    private final ReentrantLock inputLock = new ReentrantLock(); // Protege los decodificadores y la ejecución de comandos.
+    private final Condition inputProcessed = inputLock.newCondition(); // Avisa al hilo lector de que puede continuar.
+    private boolean awaitingCommand; // Indica si hay un comando asíncrono pendiente de responder.
+    private volatile SinglePlayerHangedGame gameSession; // Partida actual del jugador en el modo individual.
+    private volatile HangedRoom currentRoom; // Sala en la que el cliente está participando en el modo multijugador.
     private User currentUser; // Usuario autenticado asociado a este cliente.
 
     /**
@@ -36,6 +103,13 @@ public class ClientHandler extends AbstractWorker {
     public ClientHandler(Socket socket, ServiceRegister serviceRegister) {
         super(socket);
         this.serviceRegister = serviceRegister;
+
+        // Los servicios se resuelven una sola vez por conexión, no en cada comando.
+        this.commandProcessor = serviceRegister.getHandle(CommandProcessor.class);
+        this.roomManager = serviceRegister.getHandle(RoomManager.class);
+        this.userManager = serviceRegister.getHandle(UserManager.class);
+        this.connectionReaper = serviceRegister.getHandle(ConnectionReaper.class);
+        this.journal = serviceRegister.getHandle(CommandJournal.class);
     }
 
     /**
@@ -43,10 +117,137 @@ public class ClientHandler extends AbstractWorker {
      */
     @Override
     protected void listen() {
+        connectionReaper.get().watch(this);
         try {
             handleCommands();
+            awaitPendingCommands();
         } catch (Exception e) {
-            logger.severe("Error al realizar lectura en " + socket.getInetAddress() + ": " + e.getMessage());
+            // Si la conexión se ha cerrado por inactividad, la lectura interrumpida no es un error.
+            if (!isClosed()) {
+                logger.severe("Error al realizar lectura en " + socket.getInetAddress() + ": " + e.getMessage());
+            }
+        } finally {
+            releaseBuffers();
+        }
+    }
+
+    /**
+     * Devuelve a la reserva los buffers que la conexión tuviera prestados: los bytes de un
+     * comando a medio recibir y la salida que no se ha llegado a enviar. Debe llamarse desde
+     * el hilo que atiende al cliente, una vez que ya no se van a procesar más datos.
+     */
+    public void releaseBuffers() {
+        inputLock.lock();
+        try {
+            lineDecoder.release();
+            if (frameDecoder != null) {
+                frameDecoder.release();
+            }
+        } finally {
+            inputLock.unlock();
+        }
+        if (outputStream instanceof PooledOutputStream pooledOutput) {
+            pooledOutput.discard();
+        }
+    }
+
+    /**
+     * Cierra la conexión con el cliente y lo saca de la sala en la que estuviera.
+     * <p>
+     * Puede llamarse varias veces y desde distintos hilos: solo la primera llamada tiene efecto.
+     * </p>
+     */
+    @Override
+    public void closeConnection() {
+        if (!closed.compareAndSet(false, true)) {
+            return;
+        }
+        connectionReaper.get().unwatch(this);
+        journal.get().recordClose(connectionId);
+        leaveCurrentRoom();
+        if (outputStream instanceof AsyncSocketOutputStream asyncOutput) {
+            asyncOutput.closeAfterDrain(() -> {
+                super.closeConnection();
+                wakeReader();
+            });
+        } else {
+            super.closeConnection();
+            wakeReader();
+        }
+    }
+
+    /**
+     * Despierta al hilo lector si está esperando a que se procesen los comandos pendientes,
+     * para que vea que la conexión se ha cerrado. Se llama tras cerrar el socket, de modo que
+     * quien tenga el cerrojo bloqueado escribiendo en él lo suelte antes.
+     */
+    private void wakeReader() {
+        inputLock.lock();
+        try {
+            inputProcessed.signalAll();
+        } finally {
+            inputLock.unlock();
+        }
+    }
+
+    /**
+     * Crea un flujo de salida asíncrono con una cola acotada, de modo que quien escribe a este
+     * cliente nunca espera a que lea su socket.
+     *
+     * @param socketOutput Flujo de salida del socket.
+     * @return Flujo de salida asíncrono.
+     */
+    @Override
+    protected OutputStream createOutputStream(OutputStream socketOutput) {
+        ServerConfig config = serviceRegister.getConfig();
+        OutboundQueue queue = new OutboundQueue(config.getOutboundHighWater(), config.getSlowConsumerPolicy());
+        return new AsyncSocketOutputStream(socketOutput, queue, this, config.getWriteTimeoutSeconds());
+    }
+
+    /**
+     * Registra que la cola de salida de este cliente ha superado su límite. Lo contabiliza en
+     * las métricas de la sala en la que esté jugando.
+     *
+     * @param result      Resultado de encolar el mensaje.
+     * @param queuedBytes Bytes pendientes de envío.
+     */
+    public void recordOutboundOverflow(OutboundQueue.Result result, long queuedBytes) {
+        HangedRoom room = currentRoom;
+        if (room != null) {
+            room.getMetrics().recordOverflow(result, queuedBytes);
+        }
+        if (result == OutboundQueue.Result.OVERFLOW) {
+            logger.warning("Desconectando al cliente lento " + getFormatedUser() + ": " + queuedBytes + " bytes pendientes");
+        } else {
+            logger.fine("Cola de salida de " + getFormatedUser() + " llena (" + result + "): " + queuedBytes + " bytes pendientes");
+        }
+    }
+
+    /**
+     * Solicita el cierre de la conexión desde un hilo distinto al que atiende al cliente,
+     * por ejemplo al expirar su tiempo de inactividad.
+     */
+    public void disconnect() {
+        setRunning(false);
+        disconnectHandler.run();
+    }
+
+    /**
+     * Abandona la sala actual por el camino habitual de {@link RoomManager#leaveRoom}, de modo
+     * que el resto de jugadores reciben el aviso y la partida continúa sin este cliente.
+     */
+    private void leaveCurrentRoom() {
+        if (currentRoom == null) {
+            return;
+        }
+
+        OutputBatch.open();
+        try {
+            roomManager.get().leaveRoom(this, false);
+        } catch (RuntimeException e) {
+            logger.warning("Error al sacar de la sala a " + getFormatedUser() + ": " + e.getMessage());
+        } finally {
+            OutputBatch.close();
         }
     }
 
@@ -58,13 +259,312 @@ public class ClientHandler extends AbstractWorker {
     private void handleCommands() throws Exception {
         logger.log(Level.INFO, "Esperando comandos del cliente " + getFormatedUser());
 
+        ByteBuffer readBuffer = ByteBuffer.allocate(READ_BUFFER_SIZE);
+        int read;
+        while (isRunning && awaitInputCapacity() && (read = input.read(readBuffer.array())) != -1) {
+            readBuffer.clear().limit(read);
+            handleReceivedBytes(readBuffer);
+        }
+    }
+
+    /**
+     * Procesa los bytes recibidos del cliente.
+     * <p>
+     * El primer byte de la conexión decide el protocolo. Después, todos los comandos
+     * completos disponibles se ejecutan en orden dentro de un mismo {@link OutputBatch}, de
+     * modo que las respuestas de todo el lote se envían juntas. Es el punto de entrada común
+     * para el modo de hilos bloqueantes y para los bucles de eventos del servidor NIO.
+     * </p>
+     * <p>
+     * Mientras un comando asíncrono está pendiente, los comandos que llegan detrás se acumulan
+     * sin ejecutarse. Quien lee la conexión deja de hacerlo cuando {@link #isInputBacklogged()}
+     * y, si aun así se superan {@link #MAX_PENDING_INPUT} bytes, se rechaza la entrada y se
+     * desconecta al cliente, igual que con una línea demasiado larga.
+     * </p>
+     *
+     * @param bytes Buffer en modo lectura con los bytes recibidos.
+     * @throws IllegalStateException Si los datos recibidos no respetan el protocolo o se
+     *                               acumulan demasiados comandos sin procesar.
+     */
+    public void handleReceivedBytes(ByteBuffer bytes) {
+        if (!bytes.hasRemaining()) {
+            return;
+        }
+        lastActivity = System.nanoTime();
+
+        if (!protocolNegotiated) {
+            protocolNegotiated = true;
+            if (bytes.get(bytes.position()) == BinaryProtocol.HANDSHAKE) {
+                bytes.get();
+                switchToBinaryProtocol();
+            }
+        }
+
+        OutputBatch.open();
+        try {
+            inputLock.lock();
+            try {
+                if (frameDecoder != null) {
+                    frameDecoder.append(bytes);
+                } else {
+                    lineDecoder.append(bytes);
+                }
+                handlePendingInput();
+                checkPendingInput();
+            } finally {
+                inputLock.unlock();
+            }
+        } finally {
+            OutputBatch.close();
+        }
+    }
+
+    /**
+     * Ejecuta los comandos completos recibidos, salvo que haya un comando asíncrono pendiente.
+     */
+    private void handlePendingInput() {
+        if (frameDecoder != null) {
+            handlePendingFrames();
+        } else {
+            handlePendingLines();
+        }
+    }
+
+    /**
+     * Espera, sin leer del socket, mientras haya demasiados comandos acumulados tras un comando
+     * asíncrono. El cliente queda frenado por el control de flujo de TCP.
+     *
+     * @return {@code true} si se puede seguir leyendo.
+     * @throws InterruptedException Si se interrumpe la espera al cerrarse la conexión.
+     */
+    private boolean awaitInputCapacity() throws InterruptedException {
+        inputLock.lock();
+        try {
+            while (isInputBacklogged() && isRunning && !isClosed()) {
+                inputProcessed.await();
+            }
+        } finally {
+            inputLock.unlock();
+        }
+        return isRunning;
+    }
+
+    /**
+     * Indica si hay tantos bytes recibidos esperando a que termine un comando asíncrono que
+     * conviene dejar de leer la conexión hasta que se procesen.
+     *
+     * @return {@code true} si no se debe seguir leyendo.
+     */
+    public boolean isInputBacklogged() {
+        inputLock.lock();
+        try {
+            return awaitingCommand && getPendingInput() >= INPUT_PAUSE_THRESHOLD;
+        } finally {
+            inputLock.unlock();
+        }
+    }
+
+    private int getPendingInput() {
+        return frameDecoder != null ? frameDecoder.getPendingBytes() : lineDecoder.getPendingBytes();
+    }
+
+    /**
+     * Comprueba que los bytes recibidos sin procesar no superen el máximo permitido.
+     *
+     * @throws IllegalStateException Si se acumulan demasiados bytes sin procesar.
+     */
+    private void checkPendingInput() {
+        if (getPendingInput() > MAX_PENDING_INPUT) {
+            throw new IllegalStateException("Demasiados comandos pendientes: más de " + MAX_PENDING_INPUT + " bytes sin procesar");
+        }
+    }
+
+    /**
+     * Ejecuta en orden todas las líneas completas recibidas por el protocolo de texto.
+     */
+    private void handlePendingLines() {
         String commandLine;
-        while (isRunning && (commandLine = input.readLine()) != null) {
-            CommandProcessor commandProcessor = serviceRegister.getService(CommandProcessor.class);
-            commandProcessor.processCommand(commandLine, this);
+        while (isRunning && !awaitingCommand && (commandLine = lineDecoder.pollLine()) != null) {
+            try {
+                handleCommandLine(commandLine);
+            } catch (Exception e) {
+                logger.severe("Error al procesar comando de " + getFormatedUser() + ": " + e.getMessage());
+            }
         }
     }
 
+    /**
+     * Ejecuta en orden todas las tramas completas recibidas por el protocolo binario.
+     */
+    private void handlePendingFrames() {
+        CommandProcessor commandProcessor = this.commandProcessor.get();
+        FrameDecoder.BinaryCommand command;
+        while (isRunning && !awaitingCommand && (command = frameDecoder.pollCommand()) != null) {
+            try {
+                awaitCommand(commandProcessor.processCommand(command.name(), command.args(), this), null);
+            } catch (Exception e) {
+                logger.severe("Error al procesar comando de " + getFormatedUser() + ": " + e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Cambia la conexión al protocolo binario y confirma el cambio al cliente.
+     */
+    private void switchToBinaryProtocol() {
+        BinaryPrintWriter binaryOutput = new BinaryPrintWriter(outputStream);
+        output = binaryOutput;
+        frameDecoder = new FrameDecoder();
+        GameEvents.welcome(binaryOutput);
+        logger.log(Level.INFO, "Protocolo binario negociado por " + getFormatedUser());
+    }
+
+    /**
+     * Procesa una única línea de comando recibida del cliente, con su identificador de
+     * petición opcional.
+     *
+     * @param commandLine Línea de comando recibida.
+     * @throws Exception Si ocurre un error durante el procesamiento.
+     */
+    public void handleCommandLine(String commandLine) throws Exception {
+        CommandProcessor commandProcessor = this.commandProcessor.get();
+
+        String requestId = getRequestId(commandLine);
+        if (requestId == null) {
+            awaitCommand(commandProcessor.processCommand(commandLine, this), null);
+            return;
+        }
+
+        BatchedPrintWriter taggedOutput = output;
+        taggedOutput.setTag(requestId);
+        try {
+            awaitCommand(commandProcessor.processCommand(commandLine, requestId.length(), this), requestId);
+        } finally {
+            taggedOutput.clearTag();
+        }
+    }
+
+    /**
+     * Detiene la ejecución de comandos hasta que el comando asíncrono indicado responda. Al
+     * completarse, la conexión se reanuda en su contexto.
+     *
+     * @param pendingReply Respuesta pendiente del comando, o {@code null} si ya ha terminado.
+     * @param requestId    Identificador de petición del comando, o {@code null} si no tiene.
+     */
+    private void awaitCommand(CompletionStage<Runnable> pendingReply, String requestId) {
+        if (pendingReply == null) {
+            return;
+        }
+        inputLock.lock();
+        try {
+            awaitingCommand = true;
+        } finally {
+            inputLock.unlock();
+        }
+        pendingReply.whenComplete((reply, error) ->
+                resumeExecutor.execute(() -> resumeCommands(reply, error, requestId)));
+    }
+
+    /**
+     * Escribe la respuesta del comando asíncrono que estaba pendiente y ejecuta los comandos
+     * recibidos mientras tanto, todo en un mismo {@link OutputBatch}.
+     *
+     * @param reply     Acción que escribe la respuesta, o {@code null} si el comando ha fallado.
+     * @param error     Error del comando, o {@code null} si ha terminado correctamente.
+     * @param requestId Identificador de petición del comando, o {@code null} si no tiene.
+     */
+    private void resumeCommands(Runnable reply, Throwable error, String requestId) {
+        inputLock.lock();
+        try {
+            OutputBatch.open();
+            try {
+                awaitingCommand = false;
+                if (!isClosed()) {
+                    writeReply(reply, error, requestId);
+                    handlePendingInput();
+                }
+            } catch (IllegalStateException e) {
+                // Entrada recibida mientras se esperaba que no respeta el protocolo: se desconecta.
+                logger.warning("Entrada no válida de " + getFormatedUser() + ": " + e.getMessage());
+                isRunning = false;
+            } finally {
+                // La salida se entrega antes de avisar al hilo lector, que puede estar esperando para cerrar.
+                OutputBatch.close();
+                inputProcessed.signalAll();
+            }
+        } finally {
+            inputLock.unlock();
+        }
+
+        // El comando de salida puede haberse ejecutado fuera del hilo que lee la conexión.
+        if (!isRunning && !isClosed()) {
+            disconnectHandler.run();
+        }
+    }
+
+    /**
+     * Escribe la respuesta de un comando asíncrono con su identificador de petición.
+     *
+     * @param reply     Acción que escribe la respuesta, o {@code null} si el comando ha fallado.
+     * @param error     Error del comando, o {@code null} si ha terminado correctamente.
+     * @param requestId Identificador de petición del comando, o {@code null} si no tiene.
+     */
+    private void writeReply(Runnable reply, Throwable error, String requestId) {
+        if (error != null) {
+            logger.severe("Error al procesar comando de " + getFormatedUser() + ": " + error.getMessage());
+            return;
+        }
+
+        BatchedPrintWriter taggedOutput = output;
+        if (requestId != null) {
+            taggedOutput.setTag(requestId);
+        }
+        try {
+            reply.run();
+        } catch (RuntimeException e) {
+            logger.severe("Error al procesar comando de " + getFormatedUser() + ": " + e.getMessage());
+        } finally {
+            if (requestId != null) {
+                taggedOutput.clearTag();
+            }
+        }
+    }
+
+    /**
+     * Espera a que terminen el comando asíncrono pendiente y los comandos recibidos tras él,
+     * por ejemplo cuando el cliente cierra su envío justo después de encadenarlos.
+     *
+     * @throws InterruptedException Si se interrumpe la espera al cerrarse la conexión.
+     */
+    private void awaitPendingCommands() throws InterruptedException {
+        inputLock.lock();
+        try {
+            while (awaitingCommand && isRunning && !isClosed()) {
+                inputProcessed.await();
+            }
+        } finally {
+            inputLock.unlock();
+        }
+    }
+
+    /**
+     * Extrae el identificador de petición que puede preceder a un comando.
+     *
+     * @param commandLine Línea de comando recibida.
+     * @return Identificador con su símbolo (por ejemplo {@code #12}), o {@code null} si no hay.
+     */
+    private static String getRequestId(String commandLine) {
+        if (commandLine.length() < 2 || commandLine.charAt(0) != REQUEST_ID_SYMBOL) {
+            return null;
+        }
+
+        int end = 1;
+        while (end < commandLine.length() && !Character.isWhitespace(commandLine.charAt(end))) {
+            end++;
+        }
+        return end > 1 ? commandLine.substring(0, end) : null;
+    }
+
     /**
      * Inicia una partida en modo individual para el cliente.
      */
@@ -86,6 +586,67 @@ public class ClientHandler extends AbstractWorker {
         return (currentUser == null) ? "Invitado " + socket.getInetAddress() : currentUser.getUsername();
     }
 
+    /**
+     * Indica si la conexión con el cliente ya se ha cerrado.
+     *
+     * @return `true` si la conexión está cerrada.
+     */
+    public boolean isClosed() {
+        return closed.get();
+    }
+
+    /**
+     * Obtiene el instante en el que se recibieron datos del cliente por última vez.
+     *
+     * @return Instante según {@link System#nanoTime()}.
+     */
+    public long getLastActivity() {
+        return lastActivity;
+    }
+
+    /**
+     * Establece la acción con la que {@link #disconnect()} cierra la conexión. Por defecto se
+     * cierra el socket directamente; las conexiones NIO delegan el cierre en su bucle de eventos.
+     *
+     * @param disconnectHandler Acción que cierra la conexión.
+     */
+    public void setDisconnectHandler(Runnable disconnectHandler) {
+        this.disconnectHandler = disconnectHandler;
+    }
+
+    /**
+     * Establece el contexto en el que se reanuda la conexión cuando responde un comando
+     * asíncrono. Por defecto es el propio hilo que completa el comando; las conexiones NIO la
+     * reanudan en su bucle de eventos.
+     *
+     * @param resumeExecutor Ejecutor del contexto de la conexión.
+     */
+    public void setResumeExecutor(Executor resumeExecutor) {
+        this.resumeExecutor = resumeExecutor;
+    }
+
+    /**
+     * Indica si hay un comando asíncrono pendiente de responder.
+     *
+     * @return {@code true} si la conexión espera la respuesta de un comando.
+     */
+    public boolean isAwaitingCommand() {
+        inputLock.lock();
+        try {
+            return awaitingCommand;
+        } finally {
+            inputLock.unlock();
+        }
+    }
+
+    public CommandLine getCommandLine() {
+        return commandLine;
+    }
+
+    public long getConnectionId() {
+        return connectionId;
+    }
+
     public User getCurrentUser() {
         return currentUser;
     }
@@ -110,10 +671,31 @@ public class ClientHandler extends AbstractWorker {
         this.currentRoom = currentRoom;
     }
 
+    public CommandProcessor getCommandProcessor() {
+        return commandProcessor.get();
+    }
+
+    public RoomManager getRoomManager() {
+        return roomManager.get();
+    }
+
+    public UserManager getUserManager() {
+        return userManager.get();
+    }
+
     public ServiceRegister getServiceRegister() {
         return serviceRegister;
     }
 
+    /**
+     * Indica si el usuario autenticado es administrador del servidor.
+     *
+     * @return {@code true} si ha iniciado sesión con un usuario de {@link ServerConfig#getAdmins()}.
+     */
+    public boolean isAdmin() {
+        return currentUser != null && serviceRegister.getConfig().getAdmins().contains(currentUser.getUsername());
+    }
+
     public boolean hasActiveSingleGame() {
         return gameSession != null && !gameSession.isGameOver();
     }
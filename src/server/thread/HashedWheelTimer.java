@@ -0,0 +1,225 @@
+package server.thread;
+
+import common.logger.CustomLogger;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Temporizador de rueda con cubetas (<i>hashed wheel timer</i>).
+ * <p>
+ * Un único hilo avanza la rueda cada {@code tickDuration} y ejecuta las tareas de la
+ * cubeta actual cuya vuelta ha llegado. Programar o cancelar una tarea cuesta O(1) y no
+ * crea hilos, por lo que sirve para vigilar miles de conexiones a la vez; a cambio, las
+ * tareas se ejecutan con la precisión de un tic.
+ * </p>
+ * <p>
+ * Las tareas se ejecutan en el hilo del temporizador, de modo que deben ser breves.
+ * </p>
+ */
+public final class HashedWheelTimer {
+    private static final Logger logger = CustomLogger.getLogger(HashedWheelTimer.class.getName());
+
+    private final String name; // Nombre del hilo del temporizador.
+    private final long tickNanos; // Duración de un tic en nanosegundos.
+    private final Timeout[] wheel; // Cabeza de la lista de tareas de cada cubeta.
+    private final int mask; // Máscara para obtener la cubeta de un tic.
+    private final Queue<Timeout> pendingTimeouts = new ConcurrentLinkedQueue<>(); // Tareas aún no colocadas en la rueda.
+    private final AtomicBoolean started = new AtomicBoolean(); // Indica si el hilo ya se ha arrancado.
+    private volatile boolean running = true; // Indica si el temporizador sigue activo.
+    private volatile long startTime; // Instante de arranque de la rueda.
+    private long tick; // Tic actual; solo lo usa el hilo del temporizador.
+    private Thread worker; // Hilo que avanza la rueda.
+
+    /**
+     * Crea un temporizador. El hilo se arranca con la primera tarea programada.
+     *
+     * @param name          Nombre del hilo del temporizador.
+     * @param tickDuration  Duración de un tic.
+     * @param unit          Unidad de {@code tickDuration}.
+     * @param ticksPerWheel Número de cubetas; se redondea a la siguiente potencia de dos.
+     */
+    public HashedWheelTimer(String name, long tickDuration, TimeUnit unit, int ticksPerWheel) {
+        if (tickDuration <= 0 || ticksPerWheel <= 0) {
+            throw new IllegalArgumentException("La duración del tic y el tamaño de la rueda deben ser positivos.");
+        }
+        this.name = name;
+        this.tickNanos = unit.toNanos(tickDuration);
+
+        int wheelSize = Integer.highestOneBit(ticksPerWheel);
+        if (wheelSize < ticksPerWheel) {
+            wheelSize <<= 1;
+        }
+        this.wheel = new Timeout[wheelSize];
+        this.mask = wheelSize - 1;
+    }
+
+    /**
+     * Programa una tarea para que se ejecute una vez pasado el retardo indicado.
+     *
+     * @param task  Tarea a ejecutar.
+     * @param delay Retardo desde ahora.
+     * @param unit  Unidad de {@code delay}.
+     * @return Manejador que permite cancelar la tarea.
+     */
+    public Timeout newTimeout(Runnable task, long delay, TimeUnit unit) {
+        if (!running) {
+            throw new IllegalStateException("El temporizador " + name + " está detenido.");
+        }
+        start();
+
+        Timeout timeout = new Timeout(task, System.nanoTime() + unit.toNanos(Math.max(0, delay)));
+        pendingTimeouts.add(timeout);
+        return timeout;
+    }
+
+    /**
+     * Detiene el temporizador. Las tareas pendientes no se ejecutan.
+     */
+    public void stop() {
+        running = false;
+        if (worker != null) {
+            worker.interrupt();
+        }
+    }
+
+    /**
+     * Arranca el hilo del temporizador si todavía no se ha arrancado.
+     */
+    private void start() {
+        if (started.compareAndSet(false, true)) {
+            startTime = System.nanoTime();
+            worker = new Thread(this::run, name);
+            worker.setDaemon(true);
+            worker.start();
+        }
+    }
+
+    /**
+     * Bucle del hilo del temporizador: espera cada tic, coloca en la rueda las tareas nuevas
+     * y ejecuta las que han vencido en la cubeta actual.
+     */
+    private void run() {
+        while (running) {
+            if (!waitForNextTick()) {
+                break;
+            }
+            transferPendingTimeouts();
+            expireTimeouts(System.nanoTime());
+            tick++;
+        }
+    }
+
+    /**
+     * Duerme hasta el final del tic actual.
+     *
+     * @return {@code false} si el temporizador se ha detenido mientras esperaba.
+     */
+    private boolean waitForNextTick() {
+        long deadline = startTime + tickNanos * (tick + 1);
+        long sleepNanos;
+        while ((sleepNanos = deadline - System.nanoTime()) > 0) {
+            try {
+                TimeUnit.NANOSECONDS.sleep(sleepNanos);
+            } catch (InterruptedException e) {
+                if (!running) {
+                    return false;
+                }
+            }
+        }
+        return running;
+    }
+
+    /**
+     * Coloca cada tarea recién programada en la cubeta de su vencimiento.
+     */
+    private void transferPendingTimeouts() {
+        Timeout timeout;
+        while ((timeout = pendingTimeouts.poll()) != null) {
+            if (timeout.cancelled) {
+                continue;
+            }
+            long calculated = (timeout.deadline - startTime + tickNanos - 1) / tickNanos;
+            timeout.remainingRounds = Math.max(0, (calculated - tick) / wheel.length);
+
+            // Las tareas ya vencidas se ejecutan en el tic actual.
+            int index = (int) (Math.max(calculated, tick) & mask);
+            timeout.next = wheel[index];
+            wheel[index] = timeout;
+        }
+    }
+
+    /**
+     * Ejecuta las tareas vencidas de la cubeta del tic actual y descarta las canceladas.
+     *
+     * @param now Instante actual.
+     */
+    private void expireTimeouts(long now) {
+        int index = (int) (tick & mask);
+        Timeout previous = null;
+        Timeout timeout = wheel[index];
+        while (timeout != null) {
+            Timeout next = timeout.next;
+            boolean expired = !timeout.cancelled && timeout.remainingRounds <= 0 && timeout.deadline <= now;
+            if (timeout.cancelled || expired) {
+                if (previous == null) {
+                    wheel[index] = next;
+                } else {
+                    previous.next = next;
+                }
+                timeout.next = null;
+                if (expired) {
+                    timeout.expire();
+                }
+            } else {
+                if (timeout.remainingRounds > 0) {
+                    timeout.remainingRounds--;
+                }
+                previous = timeout;
+            }
+            timeout = next;
+        }
+    }
+
+    /**
+     * Tarea programada en un {@link HashedWheelTimer}.
+     */
+    public static final class Timeout {
+        private final Runnable task; // Tarea a ejecutar al vencer.
+        private final long deadline; // Instante de vencimiento.
+        private volatile boolean cancelled; // Indica si la tarea se ha cancelado.
+        private long remainingRounds; // Vueltas completas de la rueda que faltan; solo la usa el hilo del temporizador.
+        private Timeout next; // Siguiente tarea de la misma cubeta.
+
+        private Timeout(Runnable task, long deadline) {
+            this.task = task;
+            this.deadline = deadline;
+        }
+
+        /**
+         * Cancela la tarea. El temporizador la descarta la próxima vez que pase por su cubeta.
+         */
+        public void cancel() {
+            cancelled = true;
+        }
+
+        public boolean isCancelled() {
+            return cancelled;
+        }
+
+        /**
+         * Ejecuta la tarea sin dejar que un error detenga el temporizador.
+         */
+        private void expire() {
+            try {
+                task.run();
+            } catch (RuntimeException e) {
+                logger.log(Level.SEVERE, "Error al ejecutar una tarea del temporizador: " + e.getMessage());
+            }
+        }
+    }
+}
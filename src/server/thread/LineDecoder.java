@@ -0,0 +1,148 @@
+package server.thread;
+
+import server.buffer.ByteAccumulator;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Decodificador incremental de líneas de texto recibidas de un cliente.
+ * <p>
+ * Acumula los bytes leídos de la conexión hasta encontrar un salto de línea y devuelve
+ * cada línea completa decodificada en UTF-8. Los fragmentos incompletos se conservan
+ * para la siguiente lectura. Se aceptan tanto {@code \n} como {@code \r\n}.
+ * </p>
+ * <p>
+ * Los bytes pendientes se guardan en un {@link ByteAccumulator}, que solo retiene un buffer
+ * mientras hay una línea a medio recibir.
+ * </p>
+ */
+public class LineDecoder {
+    private final int maxLineLength; // Longitud máxima permitida para una línea.
+    private final ByteAccumulator pending = new ByteAccumulator(); // Bytes pendientes de decodificar.
+
+    /**
+     * Crea un decodificador con una longitud máxima de línea.
+     *
+     * @param maxLineLength Número máximo de bytes que puede ocupar una línea.
+     */
+    public LineDecoder(int maxLineLength) {
+        this.maxLineLength = maxLineLength;
+    }
+
+    /**
+     * Añade al acumulador los bytes disponibles en el buffer indicado.
+     *
+     * @param source Buffer en modo lectura con los bytes recibidos.
+     * @throws IllegalStateException Si una línea supera la longitud máxima permitida.
+     */
+    public void append(ByteBuffer source) {
+        pending.append(source);
+        checkLineLength();
+    }
+
+    /**
+     * Añade al acumulador un fragmento de un array de bytes.
+     *
+     * @param source Array con los bytes recibidos.
+     * @param offset Posición del primer byte a añadir.
+     * @param length Número de bytes a añadir.
+     * @throws IllegalStateException Si una línea supera la longitud máxima permitida.
+     */
+    public void append(byte[] source, int offset, int length) {
+        pending.append(source, offset, length);
+        checkLineLength();
+    }
+
+    /**
+     * Comprueba que la línea incompleta del final, la que sigue al último salto de línea, no
+     * supere ya la longitud permitida. Las líneas completas se comprueban al extraerlas.
+     *
+     * @throws IllegalStateException Si la línea incompleta supera la longitud máxima permitida.
+     */
+    private void checkLineLength() {
+        if (pending.size() <= maxLineLength) {
+            return;
+        }
+        // Basta con buscar un salto de línea entre los últimos maxLineLength + 1 bytes.
+        byte[] buffer = pending.array();
+        int tailStart = pending.end() - maxLineLength - 1;
+        for (int i = pending.end() - 1; i >= tailStart; i--) {
+            if (buffer[i] == '\n') {
+                return;
+            }
+        }
+        throw tooLong();
+    }
+
+    private IllegalStateException tooLong() {
+        return new IllegalStateException("Línea demasiado larga: más de " + maxLineLength + " bytes");
+    }
+
+    /**
+     * Extrae la siguiente línea completa del acumulador.
+     *
+     * @return Línea sin el salto de línea final, o {@code null} si no hay ninguna completa.
+     * @throws IllegalStateException Si la línea supera la longitud máxima permitida.
+     */
+    public String pollLine() {
+        int newLine = indexOfNewLine();
+        if (newLine < 0) {
+            return null;
+        }
+
+        byte[] buffer = pending.array();
+        int start = pending.start();
+        int lineEnd = newLine;
+        if (lineEnd > start && buffer[lineEnd - 1] == '\r') {
+            lineEnd--;
+        }
+        if (lineEnd - start > maxLineLength) {
+            throw tooLong();
+        }
+
+        String line = new String(buffer, start, lineEnd - start, StandardCharsets.UTF_8);
+        pending.consume(newLine + 1 - start);
+        return line;
+    }
+
+    /**
+     * Indica si quedan bytes de una línea incompleta.
+     *
+     * @return {@code true} si hay bytes pendientes.
+     */
+    public boolean hasPendingBytes() {
+        return pending.size() > 0;
+    }
+
+    /**
+     * Obtiene el número de bytes recibidos que aún no se han extraído como línea.
+     *
+     * @return Bytes pendientes.
+     */
+    public int getPendingBytes() {
+        return pending.size();
+    }
+
+    /**
+     * Descarta los bytes pendientes y devuelve su buffer a la reserva.
+     */
+    public void release() {
+        pending.release();
+    }
+
+    /**
+     * Busca el siguiente salto de línea entre los bytes pendientes.
+     *
+     * @return Posición del salto de línea o {@code -1} si no existe.
+     */
+    private int indexOfNewLine() {
+        byte[] buffer = pending.array();
+        for (int i = pending.start(); i < pending.end(); i++) {
+            if (buffer[i] == '\n') {
+                return i;
+            }
+        }
+        return -1;
+    }
+}
@@ -0,0 +1,85 @@
+package server.thread;
+
+import java.io.Flushable;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Lote de respuesta asociado al hilo que está ejecutando un comando.
+ * <p>
+ * Mientras hay un lote abierto en el hilo actual, los {@link BatchedPrintWriter} en los
+ * que se escribe no envían nada por la red: se apuntan en el lote y se vacían todos de una
+ * vez al cerrarlo. Así, todo lo que produce un comando (su respuesta y los mensajes que
+ * provoca en otros jugadores de la sala) sale en una única escritura por conexión.
+ * </p>
+ * <p>
+ * Los lotes se pueden anidar: solo el cierre del lote más externo vacía las salidas.
+ * </p>
+ *
+ * @see BatchedPrintWriter
+ */
+public final class OutputBatch {
+    private static final ThreadLocal<OutputBatch> CURRENT = new ThreadLocal<>(); // Lote abierto en cada hilo.
+
+    private final List<Flushable> pending = new ArrayList<>(); // Salidas escritas durante el lote.
+    private int depth; // Número de aperturas anidadas pendientes de cerrar.
+
+    private OutputBatch() {
+    }
+
+    /**
+     * Abre un lote en el hilo actual, o se une al que ya esté abierto.
+     */
+    public static void open() {
+        OutputBatch batch = CURRENT.get();
+        if (batch == null) {
+            batch = new OutputBatch();
+            CURRENT.set(batch);
+        }
+        batch.depth++;
+    }
+
+    /**
+     * Cierra el lote del hilo actual. Si es el lote más externo, vacía todas las salidas
+     * en las que se ha escrito mientras estaba abierto.
+     */
+    public static void close() {
+        OutputBatch batch = CURRENT.get();
+        if (batch == null || --batch.depth > 0) {
+            return;
+        }
+
+        CURRENT.remove();
+        for (Flushable output : batch.pending) {
+            try {
+                output.flush();
+            } catch (IOException ignored) {
+                // Los escritores de salida registran sus propios errores de envío.
+            }
+        }
+    }
+
+    /**
+     * Apunta una salida en el lote abierto en el hilo actual.
+     *
+     * @param output Salida en la que se acaba de escribir.
+     * @return {@code true} si hay un lote abierto que se encargará de vaciarla,
+     *         {@code false} si la salida debe vaciarse por su cuenta.
+     */
+    static boolean register(Flushable output) {
+        OutputBatch batch = CURRENT.get();
+        if (batch == null) {
+            return false;
+        }
+
+        // Un comando afecta a muy pocas conexiones: una búsqueda lineal es suficiente.
+        for (Flushable registered : batch.pending) {
+            if (registered == output) {
+                return true;
+            }
+        }
+        batch.pending.add(output);
+        return true;
+    }
+}
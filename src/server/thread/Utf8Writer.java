@@ -0,0 +1,91 @@
+package server.thread;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Escritor que codifica el texto en UTF-8 directamente sobre un flujo de bytes.
+ * <p>
+ * A diferencia de {@link java.io.OutputStreamWriter}, no mantiene un buffer de codificación
+ * propio durante toda la conexión: cada escritura se codifica y se pasa al flujo, que es quien
+ * acumula los bytes (normalmente un {@link server.buffer.PooledOutputStream}).
+ * </p>
+ */
+public class Utf8Writer extends Writer {
+    private final OutputStream out; // Flujo de bytes destino.
+    private char pendingHighSurrogate; // Mitad alta de un par suplente partido entre dos escrituras.
+
+    /**
+     * Crea un escritor sobre el flujo de bytes indicado.
+     *
+     * @param out Flujo de bytes destino.
+     */
+    public Utf8Writer(OutputStream out) {
+        this.out = out;
+    }
+
+    @Override
+    public void write(int c) throws IOException {
+        write(new char[]{(char) c}, 0, 1);
+    }
+
+    @Override
+    public void write(char[] cbuf, int off, int len) throws IOException {
+        encode(new String(cbuf, off, len));
+    }
+
+    @Override
+    public void write(String str, int off, int len) throws IOException {
+        encode(str.substring(off, off + len));
+    }
+
+    /**
+     * Escribe texto ya codificado en UTF-8, sin volver a codificarlo.
+     *
+     * @param bytes Bytes codificados.
+     * @param off   Posición inicial.
+     * @param len   Número de bytes.
+     * @throws IOException Si falla la escritura en el flujo.
+     */
+    public void writeUtf8(byte[] bytes, int off, int len) throws IOException {
+        if (pendingHighSurrogate != 0) {
+            // La mitad suplente ya no puede completarse: se sustituye, como hace getBytes.
+            out.write('?');
+            pendingHighSurrogate = 0;
+        }
+        out.write(bytes, off, len);
+    }
+
+    /**
+     * Codifica y escribe una cadena completa, reservando su último carácter si es la mitad
+     * alta de un par suplente.
+     *
+     * @param text Texto a escribir.
+     * @throws IOException Si falla la escritura en el flujo.
+     */
+    private void encode(String text) throws IOException {
+        if (pendingHighSurrogate != 0) {
+            text = pendingHighSurrogate + text;
+            pendingHighSurrogate = 0;
+        }
+        if (!text.isEmpty() && Character.isHighSurrogate(text.charAt(text.length() - 1))) {
+            pendingHighSurrogate = text.charAt(text.length() - 1);
+            text = text.substring(0, text.length() - 1);
+        }
+        if (!text.isEmpty()) {
+            out.write(text.getBytes(StandardCharsets.UTF_8));
+        }
+    }
+
+    @Override
+    public void flush() throws IOException {
+        out.flush();
+    }
+
+    @Override
+    public void close() throws IOException {
+        out.close();
+    }
+}
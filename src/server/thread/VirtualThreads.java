@@ -0,0 +1,39 @@
+package server.thread;
+
+import common.logger.CustomLogger;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.ExecutorService;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Utilidades para ejecutar tareas en hilos virtuales cuando la JVM los soporta.
+ * <p>
+ * El proyecto compila con Java 17, que no incluye hilos virtuales. Para poder
+ * aprovecharlos al ejecutar el servidor sobre Java 21 o superior, el ejecutor se obtiene
+ * por reflexión a partir de {@code Executors.newVirtualThreadPerTaskExecutor()}.
+ * </p>
+ */
+public final class VirtualThreads {
+    private static final Logger logger = CustomLogger.getLogger(VirtualThreads.class.getName());
+    private static final String FACTORY_METHOD = "newVirtualThreadPerTaskExecutor"; // Método de Executors que crea el ejecutor.
+
+    private VirtualThreads() {
+    }
+
+    /**
+     * Crea un ejecutor que lanza un hilo virtual por cada tarea enviada.
+     *
+     * @return Ejecutor de hilos virtuales, o {@code null} si la JVM no los soporta.
+     */
+    public static ExecutorService newExecutor() {
+        try {
+            Method factory = java.util.concurrent.Executors.class.getMethod(FACTORY_METHOD);
+            return (ExecutorService) factory.invoke(null);
+        } catch (ReflectiveOperationException e) {
+            logger.log(Level.WARNING, "Hilos virtuales no disponibles en Java {0}", Runtime.version().feature());
+            return null;
+        }
+    }
+}
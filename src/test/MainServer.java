@@ -1,10 +1,15 @@
 package test;
 
 import server.HangedServer;
+import server.Server;
+import server.ServerConfig;
+import server.ServerMode;
+import server.nio.NioHangedServer;
 
 public class MainServer {
     public static void main(String[] args) {
-        HangedServer server = new HangedServer(2050, 50);
+        ServerConfig config = ServerConfig.fromSystemProperties();
+        Server server = config.getMode() == ServerMode.NIO ? new NioHangedServer(config) : new HangedServer(config);
         server.start();
     }
 }
@@ -0,0 +1,165 @@
+package test;
+
+import server.HangedServer;
+import server.Server;
+import server.ServerConfig;
+import server.ServerMode;
+import server.journal.JournalReader;
+import server.journal.JournalRecord;
+import server.nio.NioHangedServer;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Reproduce un diario de tráfico contra un servidor arrancado en el mismo proceso.
+ * <p>
+ * Uso: {@code ReplayJournal <diario> [1x|max] [puerto]}. El servidor se configura con las
+ * propiedades del sistema habituales y con la semilla guardada en el diario, de modo que
+ * los refranes de las partidas son los mismos que en la sesión registrada. Cada conexión
+ * del diario se reproduce con su propio socket; a velocidad {@code 1x} se respetan los
+ * tiempos originales y a velocidad {@code max} las líneas se envían sin esperas.
+ * </p>
+ * <p>
+ * Los usuarios se guardan en un directorio temporal vacío, de modo que la reproducción nunca
+ * modifica los usuarios reales del directorio de trabajo.
+ * </p>
+ */
+public class ReplayJournal {
+    public static void main(String[] args) throws Exception {
+        if (args.length < 1) {
+            System.err.println("Uso: ReplayJournal <diario> [1x|max] [puerto]");
+            System.exit(1);
+        }
+        boolean realTime = args.length < 2 || !args[1].equalsIgnoreCase("max");
+        int port = args.length > 2 ? Integer.parseInt(args[2]) : 2050;
+
+        try (JournalReader reader = new JournalReader(args[0])) {
+            startServer(port, reader.getSeed());
+
+            Map<Long, Connection> connections = new HashMap<>();
+            AtomicLong receivedBytes = new AtomicLong();
+            long records = 0;
+            long start = System.nanoTime();
+            JournalRecord record;
+            while ((record = reader.next()) != null) {
+                if (realTime) {
+                    long wait = record.nanos() - (System.nanoTime() - start);
+                    if (wait > 0) {
+                        TimeUnit.NANOSECONDS.sleep(wait);
+                    }
+                }
+
+                Connection connection = connections.get(record.connectionId());
+                if (record.type() == JournalRecord.Type.COMMAND) {
+                    if (connection == null) {
+                        connection = new Connection(port, receivedBytes);
+                        connections.put(record.connectionId(), connection);
+                    }
+                    connection.send(record.line());
+                } else if (connection != null) {
+                    connection.finish();
+                }
+                records++;
+            }
+
+            for (Connection connection : connections.values()) {
+                connection.finish();
+            }
+            for (Connection connection : connections.values()) {
+                connection.await();
+            }
+
+            double seconds = (System.nanoTime() - start) / 1e9;
+            System.out.printf("Entradas: %d, conexiones: %d, bytes recibidos: %d, tiempo: %.3f s, %.0f entradas/s%n",
+                    records, connections.size(), receivedBytes.get(), seconds, records / seconds);
+        }
+        System.exit(0);
+    }
+
+    /**
+     * Arranca el servidor en un hilo propio y espera a que acepte conexiones.
+     *
+     * @param port Puerto del servidor.
+     * @param seed Semilla de los refranes.
+     * @throws InterruptedException Si se interrumpe la espera.
+     * @throws IOException          Si no se puede crear el directorio temporal de usuarios.
+     */
+    private static void startServer(int port, long seed) throws InterruptedException, IOException {
+        ServerConfig config = ServerConfig.fromSystemProperties();
+        config.setPort(port);
+        config.setSeed(seed);
+        config.setJournalPath("");
+        config.setDataDir(Files.createTempDirectory("hanged-replay").toString());
+        System.out.println("Usuarios de la reproducción en " + config.getDataDir());
+        Server server = config.getMode() == ServerMode.NIO ? new NioHangedServer(config) : new HangedServer(config);
+        Thread thread = new Thread(server::start, "replay-server");
+        thread.setDaemon(true);
+        thread.start();
+
+        while (true) {
+            try {
+                new Socket("localhost", port).close();
+                return;
+            } catch (IOException e) {
+                Thread.sleep(20);
+            }
+        }
+    }
+
+    /**
+     * Conexión reproducida: envía las líneas del diario y descarta lo que responde el servidor.
+     */
+    private static class Connection {
+        private final Socket socket; // Socket con el servidor.
+        private final OutputStream output; // Salida hacia el servidor.
+        private final Thread drain; // Hilo que lee las respuestas.
+        private boolean finished; // Indica si ya se ha cerrado la salida.
+
+        Connection(int port, AtomicLong receivedBytes) throws IOException {
+            socket = new Socket("localhost", port);
+            socket.setTcpNoDelay(true);
+            output = socket.getOutputStream();
+            InputStream input = socket.getInputStream();
+            drain = new Thread(() -> {
+                byte[] buffer = new byte[8 * 1024];
+                try {
+                    int read;
+                    while ((read = input.read(buffer)) >= 0) {
+                        receivedBytes.addAndGet(read);
+                    }
+                } catch (IOException ignored) {
+                    // El servidor ha cerrado la conexión.
+                }
+            });
+            drain.setDaemon(true);
+            drain.start();
+        }
+
+        void send(String line) throws IOException {
+            if (!finished) {
+                output.write((line + "\n").getBytes(StandardCharsets.UTF_8));
+            }
+        }
+
+        void finish() throws IOException {
+            if (!finished) {
+                finished = true;
+                socket.shutdownOutput();
+            }
+        }
+
+        void await() throws InterruptedException, IOException {
+            drain.join(TimeUnit.SECONDS.toMillis(10));
+            socket.close();
+        }
+    }
+}